@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Defines an interface implemented by classes that write the elements of a
+ * collection to a binary stream and read them back.
+ * <p>
+ * A codec is an alternative to Java serialization for collections that are
+ * saved and restored in bulk, such as checkpoints of large maps. The codec writes
+ * only the data of an element, without class descriptors or back references,
+ * so it is typically far smaller and faster than {@code ObjectOutputStream}.
+ * Streams and NIO channels can be used through {@link java.io.DataOutputStream}
+ * and {@link java.io.DataInputStream}, for example over
+ * {@link java.nio.channels.Channels#newOutputStream(java.nio.channels.WritableByteChannel)}.
+ * Wrapping them in a buffered stream is strongly recommended.
+ * </p>
+ * <p>
+ * A codec must read exactly the bytes written for an element and must handle
+ * null if the collection may contain it.
+ * </p>
+ *
+ * @param <T> the type of the elements handled by the codec
+ * @since 4.5
+ */
+public interface ElementCodec<T> {
+
+    /**
+     * Writes an element to the output.
+     *
+     * @param element  the element to write, may be null if the collection allows it
+     * @param out  the output to write to
+     * @throws IOException if an error occurs while writing
+     */
+    void write(T element, DataOutput out) throws IOException;
+
+    /**
+     * Reads an element written by {@link #write(Object, DataOutput)} from the input.
+     *
+     * @param in  the input to read from
+     * @return the element read
+     * @throws IOException if an error occurs while reading or the data is invalid
+     */
+    T read(DataInput in) throws IOException;
+
+}
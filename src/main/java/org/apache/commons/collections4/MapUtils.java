@@ -43,6 +43,7 @@ import org.apache.commons.collections4.map.LazyMap;
 import org.apache.commons.collections4.map.LazySortedMap;
 import org.apache.commons.collections4.map.ListOrderedMap;
 import org.apache.commons.collections4.map.MultiValueMap;
+import org.apache.commons.collections4.map.PerfectHashMap;
 import org.apache.commons.collections4.map.PredicatedMap;
 import org.apache.commons.collections4.map.PredicatedSortedMap;
 import org.apache.commons.collections4.map.TransformedMap;
@@ -209,6 +210,33 @@ public class MapUtils {
         return FixedSizeSortedMap.fixedSizeSortedMap(map);
     }
 
+    /**
+     * Returns an immutable copy of the given map that finds each key with a
+     * single probe, for maps that are built once and read often.
+     * <p>
+     * The copy is a {@link PerfectHashMap}, which locates the keys using a minimal
+     * perfect hash function over compact key and value arrays. Later changes to
+     * the given map are not reflected in the copy. A map that is already a
+     * {@code PerfectHashMap} is returned as is.
+     * </p>
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param map the map to copy, must not be null
+     * @return an immutable copy of the map
+     * @throws NullPointerException if the map is null
+     * @since 4.5
+     */
+    public static <K, V> IterableMap<K, V> frozenMap(final Map<? extends K, ? extends V> map) {
+        Objects.requireNonNull(map, "map");
+        if (map instanceof PerfectHashMap) {
+            @SuppressWarnings("unchecked") // safe to upcast
+            final IterableMap<K, V> frozen = (IterableMap<K, V>) map;
+            return frozen;
+        }
+        return new PerfectHashMap<>(map);
+    }
+
     /**
      * Gets a Boolean from a Map in a null-safe manner.
      * <p>
@@ -16,6 +16,8 @@
  */
 package org.apache.commons.collections4.bag;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -25,10 +27,12 @@ import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.collections4.Bag;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ElementCodec;
 import org.apache.commons.collections4.set.UnmodifiableSet;
 
 /**
@@ -493,6 +497,70 @@ public abstract class AbstractMapBag<E> implements Bag<E> {
         return uniqueSet;
     }
 
+    /**
+     * Writes the bag to a binary output using a codec for the elements,
+     * a faster alternative to serialization for saving large bags.
+     * <p>
+     * The number of unique elements is written first, followed by each element
+     * and its count. The bag can be read back by {@link #readFrom(DataInput, ElementCodec)}.
+     * </p>
+     *
+     * @param out  the output to write to
+     * @param codec  the codec writing the elements
+     * @throws IOException if an error occurs while writing
+     * @throws NullPointerException if any argument is null
+     * @since 4.5
+     */
+    public void writeTo(final DataOutput out, final ElementCodec<? super E> codec) throws IOException {
+        Objects.requireNonNull(out, "out");
+        Objects.requireNonNull(codec, "codec");
+        out.writeInt(map.size());
+        for (final Entry<E, MutableInteger> entry : map.entrySet()) {
+            codec.write(entry.getKey(), out);
+            out.writeInt(entry.getValue().value);
+        }
+    }
+
+    /**
+     * Reads elements written by {@link #writeTo(DataOutput, ElementCodec)} from a
+     * binary input and adds them to this bag.
+     * <p>
+     * If this bag is empty, each element is stored with its count directly,
+     * so the input must not contain an element twice, as is the case for input
+     * written by {@code writeTo()}. Otherwise the counts are added to those
+     * already in the bag.
+     * </p>
+     *
+     * @param in  the input to read from
+     * @param codec  the codec reading the elements
+     * @throws IOException if an error occurs while reading or a size or count is invalid
+     * @throws NullPointerException if any argument is null
+     * @since 4.5
+     */
+    public void readFrom(final DataInput in, final ElementCodec<? extends E> codec) throws IOException {
+        Objects.requireNonNull(in, "in");
+        Objects.requireNonNull(codec, "codec");
+        final int entrySize = in.readInt();
+        if (entrySize < 0) {
+            throw new IOException("Invalid size: " + entrySize);
+        }
+        final boolean empty = map.isEmpty();
+        for (int i = 0; i < entrySize; i++) {
+            final E obj = codec.read(in);
+            final int count = in.readInt();
+            if (count < 1) {
+                throw new IOException("Invalid count: " + count);
+            }
+            if (empty) {
+                modCount++;
+                map.put(obj, new MutableInteger(count));
+                size += count;
+            } else {
+                add(obj, count);
+            }
+        }
+    }
+
     /**
      * Write the map out using a custom routine.
      * @param out the output stream
@@ -0,0 +1,801 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+
+/**
+ * Implementation of {@link BidiMap} that stores each pair once, in a single table.
+ * <p>
+ * {@link DualHashBidiMap} keeps two complete hash maps, so every pair costs two
+ * map entries. This map stores the keys and values next to each other in one array,
+ * with their hash codes in a parallel array, and finds them through two
+ * open-addressed indexes, one from keys to positions and one from values to positions.
+ * A pair therefore costs about a third of the memory of a {@code DualHashBidiMap}
+ * pair, no objects are created by {@code put()}, and lookups in either direction
+ * probe a compact array of integers rather than chasing linked entries.
+ * </p>
+ * <p>
+ * The inverse map returned by {@link #inverseBidiMap()} is a view sharing the
+ * same table, so creating it copies nothing and changes made through either map
+ * are visible in both.
+ * </p>
+ * <p>
+ * The pairs are kept contiguous: removing a pair moves the last pair into its place.
+ * The iteration order is therefore the insertion order until the first removal,
+ * and is unspecified after it.
+ * Null keys and values are supported.
+ * </p>
+ * <p>
+ * <strong>Note that CompactHashBidiMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. This class may throw exceptions when accessed
+ * by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in the map
+ * @param <V> the type of the values in the map
+ * @since 4.5
+ */
+public class CompactHashBidiMap<K, V> extends AbstractMap<K, V> implements BidiMap<K, V>, Serializable {
+
+    /** Ensure serialization compatibility */
+    private static final long serialVersionUID = 20230625L;
+
+    /** The default number of pairs the map holds before growing */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** The maximum number of pairs, the indexes are twice as long */
+    private static final int MAXIMUM_CAPACITY = 1 << 29;
+
+    /** The table shared with the inverse map */
+    private transient Table table;
+    /** The side of the table holding the keys of this map, 0 or 1 */
+    private transient int side;
+    /** The inverse map */
+    private transient CompactHashBidiMap<V, K> inverseBidiMap;
+    /** View of the keys */
+    private transient Set<K> keySet;
+    /** View of the entries */
+    private transient Set<Map.Entry<K, V>> entrySet;
+
+    /**
+     * Creates an empty map.
+     */
+    public CompactHashBidiMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that holds the specified number of pairs without growing.
+     *
+     * @param expectedSize  the number of pairs expected
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public CompactHashBidiMap(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be a non negative number");
+        }
+        init(new Table(expectedSize));
+    }
+
+    /**
+     * Constructs a map and copies the mappings from the specified {@code Map}.
+     *
+     * @param map  the map whose mappings are to be placed in this map
+     * @throws NullPointerException if the map is null
+     */
+    public CompactHashBidiMap(final Map<? extends K, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Constructs the inverse view of a map.
+     *
+     * @param inverseBidiMap  the map this is the inverse of
+     */
+    private CompactHashBidiMap(final CompactHashBidiMap<V, K> inverseBidiMap) {
+        this.table = inverseBidiMap.table;
+        this.side = 1 - inverseBidiMap.side;
+        this.inverseBidiMap = inverseBidiMap;
+    }
+
+    /**
+     * Sets the table and creates the inverse view.
+     *
+     * @param table  the table to use
+     */
+    private void init(final Table table) {
+        this.table = table;
+        this.side = 0;
+        this.inverseBidiMap = new CompactHashBidiMap<>(this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        final int slot = table.find(side, key);
+        return slot < 0 ? null : (V) table.pairs[slot * 2 + 1 - side];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return table.find(side, key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return table.find(1 - side, value) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K getKey(final Object value) {
+        final int slot = table.find(1 - side, value);
+        return slot < 0 ? null : (K) table.pairs[slot * 2 + side];
+    }
+
+    @Override
+    public int size() {
+        return table.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return table.size == 0;
+    }
+
+    /**
+     * Puts the key-value pair into the map, replacing any previous pair.
+     * <p>
+     * If the value is already mapped to another key, that mapping is removed.
+     *
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the previous value mapped to this key
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        return (V) table.put(side, key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        final int slot = table.find(side, key);
+        if (slot < 0) {
+            return null;
+        }
+        final V value = (V) table.pairs[slot * 2 + 1 - side];
+        table.remove(slot);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K removeValue(final Object value) {
+        final int slot = table.find(1 - side, value);
+        if (slot < 0) {
+            return null;
+        }
+        final K key = (K) table.pairs[slot * 2 + side];
+        table.remove(slot);
+        return key;
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * Gets the inverse map, a view sharing the table of this map.
+     *
+     * @return the inverse map
+     */
+    @Override
+    public BidiMap<V, K> inverseBidiMap() {
+        return inverseBidiMap;
+    }
+
+    /**
+     * Gets a keySet view of the map.
+     * Changes made on the view are reflected in the map.
+     * The set supports remove and clear but not add.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet<>(this);
+        }
+        return keySet;
+    }
+
+    /**
+     * Gets a values view of the map, the keySet view of the inverse map.
+     * Changes made on the view are reflected in the map.
+     * The set supports remove and clear but not add.
+     *
+     * @return the values view
+     */
+    @Override
+    public Set<V> values() {
+        return inverseBidiMap.keySet();
+    }
+
+    /**
+     * Gets an entrySet view of the map.
+     * Changes made on the set are reflected in the map.
+     * The set supports remove and clear but not add.
+     * <p>
+     * The Map Entry setValue() method only allow a new value to be set.
+     * If the value being set is already in the map, an IllegalArgumentException
+     * is thrown (as setValue cannot change the size of the map).
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet<>(this);
+        }
+        return entrySet;
+    }
+
+    /**
+     * Obtains a {@code MapIterator} over the map.
+     * The iterator implements {@link ResettableIterator}.
+     *
+     * @return a map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new BidiMapIterator<>(this);
+    }
+
+    @Override
+    public int hashCode() {
+        int total = 0;
+        for (int i = 0; i < table.size; i++) {
+            total += table.hashes[i * 2] ^ table.hashes[i * 2 + 1];
+        }
+        return total;
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(table.size);
+        for (int i = 0; i < table.size; i++) {
+            out.writeObject(table.pairs[i * 2 + side]);
+            out.writeObject(table.pairs[i * 2 + 1 - side]);
+        }
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Invalid size: " + size);
+        }
+        init(new Table(Math.min(size, MAXIMUM_CAPACITY)));
+        for (int i = 0; i < size; i++) {
+            table.put(0, in.readObject(), in.readObject());
+        }
+    }
+
+    /**
+     * The storage shared by a map and its inverse.
+     * <p>
+     * The pair in slot {@code i} has its key at {@code pairs[2i]} and its value at
+     * {@code pairs[2i + 1]}, with their hash codes at the same positions in
+     * {@code hashes}. Side 0 refers to the keys and side 1 to the values of the
+     * normal map. Each index holds slot + 1 at the probed position, or 0 if empty,
+     * and is searched by linear probing with deletions shifting entries back.
+     */
+    static final class Table {
+        /** The keys and values, interleaved */
+        Object[] pairs;
+        /** The hash codes of the keys and values, interleaved */
+        int[] hashes;
+        /** The indexes of side 0 and side 1 */
+        int[][] indexes;
+        /** The number of pairs */
+        int size;
+        /** The modification count for iterators */
+        int modCount;
+
+        Table(final int expectedSize) {
+            int capacity = DEFAULT_CAPACITY / 2;
+            while (capacity < expectedSize && capacity < MAXIMUM_CAPACITY) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+        }
+
+        private void allocate(final int capacity) {
+            pairs = new Object[capacity * 2];
+            hashes = new int[capacity * 2];
+            indexes = new int[][] {new int[capacity * 2], new int[capacity * 2]};
+        }
+
+        private static int hash(final Object obj) {
+            return obj == null ? 0 : obj.hashCode();
+        }
+
+        /**
+         * Gets the home position of a hash code in an index.
+         */
+        private static int position(final int hashCode, final int mask) {
+            final int h = hashCode * 0x9E3779B9;
+            return (h ^ h >>> 16) & mask;
+        }
+
+        /**
+         * Finds the slot of the object on the side.
+         *
+         * @return the slot, -1 if not found
+         */
+        int find(final int side, final Object obj) {
+            final int hashCode = hash(obj);
+            final int[] index = indexes[side];
+            final int mask = index.length - 1;
+            int pos = position(hashCode, mask);
+            int entry;
+            while ((entry = index[pos]) != 0) {
+                final int slot = entry - 1;
+                if (hashes[slot * 2 + side] == hashCode && Objects.equals(obj, pairs[slot * 2 + side])) {
+                    return slot;
+                }
+                pos = pos + 1 & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Puts a pair oriented by the side of its key.
+         *
+         * @return the previous value of the key
+         */
+        Object put(final int side, final Object key, final Object value) {
+            final int other = 1 - side;
+            int keySlot = find(side, key);
+            final int valueSlot = find(other, value);
+            if (keySlot >= 0 && keySlot == valueSlot) {
+                return pairs[keySlot * 2 + other];
+            }
+            if (valueSlot >= 0) {
+                remove(valueSlot);
+                if (keySlot == size) {
+                    // the pair of the key was the last one, moved into the removed slot
+                    keySlot = valueSlot;
+                }
+            }
+            if (keySlot >= 0) {
+                // replacing the value leaves the slots in place, so iterators carry on
+                final Object oldValue = pairs[keySlot * 2 + other];
+                unindex(other, keySlot);
+                pairs[keySlot * 2 + other] = value;
+                hashes[keySlot * 2 + other] = hash(value);
+                index(other, keySlot);
+                return oldValue;
+            }
+            modCount++;
+            if (size * 2 == pairs.length) {
+                grow();
+            }
+            final int slot = size++;
+            pairs[slot * 2 + side] = key;
+            pairs[slot * 2 + other] = value;
+            hashes[slot * 2 + side] = hash(key);
+            hashes[slot * 2 + other] = hash(value);
+            index(0, slot);
+            index(1, slot);
+            return null;
+        }
+
+        /**
+         * Removes the pair in the slot, moving the last pair into it.
+         */
+        void remove(final int slot) {
+            modCount++;
+            unindex(0, slot);
+            unindex(1, slot);
+            final int last = --size;
+            if (slot != last) {
+                replaceInIndex(0, last, slot);
+                replaceInIndex(1, last, slot);
+                pairs[slot * 2] = pairs[last * 2];
+                pairs[slot * 2 + 1] = pairs[last * 2 + 1];
+                hashes[slot * 2] = hashes[last * 2];
+                hashes[slot * 2 + 1] = hashes[last * 2 + 1];
+            }
+            pairs[last * 2] = null;
+            pairs[last * 2 + 1] = null;
+        }
+
+        void clear() {
+            modCount++;
+            Arrays.fill(pairs, 0, size * 2, null);
+            Arrays.fill(indexes[0], 0);
+            Arrays.fill(indexes[1], 0);
+            size = 0;
+        }
+
+        /**
+         * Adds the slot to the index of the side.
+         */
+        private void index(final int side, final int slot) {
+            final int[] index = indexes[side];
+            final int mask = index.length - 1;
+            int pos = position(hashes[slot * 2 + side], mask);
+            while (index[pos] != 0) {
+                pos = pos + 1 & mask;
+            }
+            index[pos] = slot + 1;
+        }
+
+        /**
+         * Finds the position of the slot in the index of the side.
+         */
+        private int positionOf(final int side, final int slot) {
+            final int[] index = indexes[side];
+            final int mask = index.length - 1;
+            int pos = position(hashes[slot * 2 + side], mask);
+            while (index[pos] != slot + 1) {
+                pos = pos + 1 & mask;
+            }
+            return pos;
+        }
+
+        /**
+         * Replaces a slot by another in the index of the side.
+         */
+        private void replaceInIndex(final int side, final int oldSlot, final int newSlot) {
+            indexes[side][positionOf(side, oldSlot)] = newSlot + 1;
+        }
+
+        /**
+         * Removes the slot from the index of the side, shifting back the
+         * following entries of the probe sequence so no tombstone is needed.
+         */
+        private void unindex(final int side, final int slot) {
+            final int[] index = indexes[side];
+            final int mask = index.length - 1;
+            int hole = positionOf(side, slot);
+            int pos = hole;
+            while (true) {
+                pos = pos + 1 & mask;
+                final int entry = index[pos];
+                if (entry == 0) {
+                    index[hole] = 0;
+                    return;
+                }
+                final int home = position(hashes[(entry - 1) * 2 + side], mask);
+                // move the entry into the hole unless its home lies cyclically in (hole, pos]
+                if (hole <= pos ? home <= hole || home > pos : home <= hole && home > pos) {
+                    index[hole] = entry;
+                    hole = pos;
+                }
+            }
+        }
+
+        /**
+         * Doubles the capacity and rebuilds the indexes.
+         */
+        private void grow() {
+            final int capacity = pairs.length / 2;
+            if (capacity >= MAXIMUM_CAPACITY) {
+                throw new IllegalStateException("CompactHashBidiMap cannot hold more than " + MAXIMUM_CAPACITY + " pairs");
+            }
+            final Object[] oldPairs = pairs;
+            final int[] oldHashes = hashes;
+            allocate(capacity * 2);
+            System.arraycopy(oldPairs, 0, pairs, 0, size * 2);
+            System.arraycopy(oldHashes, 0, hashes, 0, size * 2);
+            for (int slot = 0; slot < size; slot++) {
+                index(0, slot);
+                index(1, slot);
+            }
+        }
+    }
+
+    /**
+     * Base class of the iterators over the slots of the table.
+     */
+    abstract static class SlotIterator<K, V> {
+        /** The map being iterated */
+        final CompactHashBidiMap<K, V> parent;
+        /** The next slot */
+        int nextSlot;
+        /** The slot last returned, -1 if none */
+        int lastSlot = -1;
+        /** The modification count expected */
+        int expectedModCount;
+
+        SlotIterator(final CompactHashBidiMap<K, V> parent) {
+            this.parent = parent;
+            this.expectedModCount = parent.table.modCount;
+        }
+
+        public boolean hasNext() {
+            return nextSlot < parent.table.size;
+        }
+
+        int nextSlot() {
+            if (parent.table.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException("No next() entry in the iteration");
+            }
+            lastSlot = nextSlot++;
+            return lastSlot;
+        }
+
+        @SuppressWarnings("unchecked")
+        K key() {
+            return (K) parent.table.pairs[lastSlot * 2 + parent.side];
+        }
+
+        @SuppressWarnings("unchecked")
+        V value() {
+            return (V) parent.table.pairs[lastSlot * 2 + 1 - parent.side];
+        }
+
+        public void remove() {
+            if (lastSlot < 0) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            if (parent.table.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            parent.table.remove(lastSlot);
+            // the last pair has moved into the removed slot and is yet to be returned
+            nextSlot = lastSlot;
+            lastSlot = -1;
+            expectedModCount = parent.table.modCount;
+        }
+    }
+
+    /**
+     * Inner class MapIterator.
+     */
+    static class BidiMapIterator<K, V> extends SlotIterator<K, V>
+            implements MapIterator<K, V>, ResettableIterator<K> {
+
+        BidiMapIterator(final CompactHashBidiMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public K next() {
+            nextSlot();
+            return key();
+        }
+
+        @Override
+        public K getKey() {
+            if (lastSlot < 0) {
+                throw new IllegalStateException(
+                        "Iterator getKey() can only be called after next() and before remove()");
+            }
+            return key();
+        }
+
+        @Override
+        public V getValue() {
+            if (lastSlot < 0) {
+                throw new IllegalStateException(
+                        "Iterator getValue() can only be called after next() and before remove()");
+            }
+            return value();
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (lastSlot < 0) {
+                throw new IllegalStateException(
+                        "Iterator setValue() can only be called after next() and before remove()");
+            }
+            final int valueSlot = parent.table.find(1 - parent.side, value);
+            if (valueSlot >= 0 && valueSlot != lastSlot) {
+                throw new IllegalArgumentException(
+                        "Cannot use setValue() when the object being set is already in the map");
+            }
+            final V oldValue = parent.put(key(), value);
+            expectedModCount = parent.table.modCount;
+            return oldValue;
+        }
+
+        @Override
+        public void reset() {
+            nextSlot = 0;
+            lastSlot = -1;
+            expectedModCount = parent.table.modCount;
+        }
+
+        @Override
+        public String toString() {
+            if (lastSlot >= 0) {
+                return "MapIterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "MapIterator[]";
+        }
+    }
+
+    /**
+     * Inner class KeySet, also the values view of the inverse map.
+     */
+    static class KeySet<K, V> extends AbstractSet<K> {
+        /** The map the keys belong to */
+        private final CompactHashBidiMap<K, V> parent;
+
+        KeySet(final CompactHashBidiMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return parent.containsKey(obj);
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            final int slot = parent.table.find(parent.side, obj);
+            if (slot < 0) {
+                return false;
+            }
+            parent.table.remove(slot);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new BidiMapIterator<>(parent);
+        }
+    }
+
+    /**
+     * Inner class EntrySet.
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        /** The map the entries belong to */
+        private final CompactHashBidiMap<K, V> parent;
+
+        EntrySet(final CompactHashBidiMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final int slot = parent.table.find(parent.side, entry.getKey());
+            return slot >= 0 && Objects.equals(parent.table.pairs[slot * 2 + 1 - parent.side], entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!contains(obj)) {
+                return false;
+            }
+            parent.remove(((Map.Entry<?, ?>) obj).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * Inner class EntrySetIterator.
+     */
+    static class EntrySetIterator<K, V> extends SlotIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        EntrySetIterator(final CompactHashBidiMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            nextSlot();
+            return new BidiEntry<>(parent, key(), value());
+        }
+    }
+
+    /**
+     * Map entry, setting the value writes through to the map.
+     */
+    static class BidiEntry<K, V> extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final transient CompactHashBidiMap<K, V> parent;
+
+        BidiEntry(final CompactHashBidiMap<K, V> parent, final K key, final V value) {
+            super(key, value);
+            this.parent = parent;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            final K key = getKey();
+            final int valueSlot = parent.table.find(1 - parent.side, value);
+            if (valueSlot >= 0 && valueSlot != parent.table.find(parent.side, key)) {
+                throw new IllegalArgumentException(
+                        "Cannot use setValue() when the object being set is already in the map");
+            }
+            parent.put(key, value);
+            return super.setValue(value);
+        }
+    }
+
+}
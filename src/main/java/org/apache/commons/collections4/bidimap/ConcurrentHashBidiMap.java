@@ -0,0 +1,660 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+
+/**
+ * Thread-safe implementation of {@link BidiMap} that uses two {@link ConcurrentHashMap} instances.
+ * <p>
+ * Lookups in either direction never block nor wait for a writer: they read the
+ * concurrent maps directly, without taking any lock. Writes hold a lock shared by
+ * both directions, so each {@code put()} or {@code remove()} is atomic with respect
+ * to the other writes. A write updates the two maps one after the other, removing
+ * the stale mappings before adding the new ones, so neither direction ever maps two
+ * keys to the same value. A lookup running at the same time as a write may see the
+ * change in one direction before it reaches the other: if {@code get(key)} returns
+ * a value, a following {@code getKey(value)} returns the key unless a write on
+ * that key or value was running or happened in between.
+ * </p>
+ * <p>
+ * The map and its {@link #inverseBidiMap() inverse} share the maps and the lock,
+ * so they are views of the same data and need no external synchronization.
+ * The map also implements {@link ConcurrentMap}, with atomic {@code putIfAbsent()},
+ * {@code remove(key, value)} and {@code replace()}. Bulk operations such as
+ * {@code putAll()} are not atomic as a whole.
+ * </p>
+ * <p>
+ * The views and iterators are weakly consistent as those of {@code ConcurrentHashMap}:
+ * they never throw {@code ConcurrentModificationException} and reflect some of
+ * the changes made after they were created. Removal through them, and setting the
+ * value of an entry, update both directions.
+ * </p>
+ * <p>
+ * Null keys and values are not supported, as in {@code ConcurrentHashMap}.
+ * </p>
+ *
+ * @param <K> the type of the keys in the map
+ * @param <V> the type of the values in the map
+ * @since 4.5
+ */
+public class ConcurrentHashBidiMap<K, V> extends AbstractMap<K, V>
+        implements BidiMap<K, V>, ConcurrentMap<K, V>, Serializable {
+
+    /** Ensure serialization compatibility */
+    private static final long serialVersionUID = 20230702L;
+
+    /** Normal direction map */
+    private transient ConcurrentHashMap<K, V> normalMap;
+    /** Reverse direction map */
+    private transient ConcurrentHashMap<V, K> reverseMap;
+    /** The lock shared with the inverse map, held by every modification but never by lookups */
+    private transient ReentrantLock lock;
+    /** Inverse view of this map */
+    private transient ConcurrentHashBidiMap<V, K> inverseBidiMap;
+    /** View of the keys */
+    private transient Set<K> keySet;
+    /** View of the entries */
+    private transient Set<Map.Entry<K, V>> entrySet;
+
+    /**
+     * Creates an empty map.
+     */
+    public ConcurrentHashBidiMap() {
+        init(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Constructs a map and copies the mappings from the specified {@code Map}.
+     *
+     * @param map  the map whose mappings are to be placed in this map
+     * @throws NullPointerException if the map or any key or value within it is null
+     */
+    public ConcurrentHashBidiMap(final Map<? extends K, ? extends V> map) {
+        init(new ConcurrentHashMap<>(map.size()), new ConcurrentHashMap<>(map.size()));
+        putAll(map);
+    }
+
+    /**
+     * Constructs the inverse view of a map.
+     *
+     * @param inverseBidiMap  the map this is the inverse of
+     */
+    private ConcurrentHashBidiMap(final ConcurrentHashBidiMap<V, K> inverseBidiMap) {
+        this.normalMap = inverseBidiMap.reverseMap;
+        this.reverseMap = inverseBidiMap.normalMap;
+        this.lock = inverseBidiMap.lock;
+        this.inverseBidiMap = inverseBidiMap;
+    }
+
+    /**
+     * Sets the maps and creates the lock and the inverse view.
+     *
+     * @param normalMap  the normal direction map
+     * @param reverseMap  the reverse direction map
+     */
+    private void init(final ConcurrentHashMap<K, V> normalMap, final ConcurrentHashMap<V, K> reverseMap) {
+        this.normalMap = normalMap;
+        this.reverseMap = reverseMap;
+        this.lock = new ReentrantLock();
+        this.inverseBidiMap = new ConcurrentHashBidiMap<>(this);
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (key == null) {
+            return null;
+        }
+        return normalMap.get(key);
+    }
+
+    @Override
+    public K getKey(final Object value) {
+        return inverseBidiMap.get(value);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return inverseBidiMap.get(value) != null;
+    }
+
+    @Override
+    public int size() {
+        return normalMap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return normalMap.isEmpty();
+    }
+
+    /**
+     * Puts the key-value pair into the map, replacing any previous pair.
+     * <p>
+     * If the value is already mapped to another key, that mapping is removed.
+     * Both directions are updated atomically.
+     *
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the previous value mapped to this key
+     * @throws NullPointerException if the key or value is null
+     */
+    @Override
+    public V put(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        lock.lock();
+        try {
+            return doPut(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the key-value pair into both maps, the lock must be held.
+     *
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the previous value mapped to this key
+     */
+    private V doPut(final K key, final V value) {
+        final K otherKey = reverseMap.get(value);
+        if (otherKey != null && !otherKey.equals(key)) {
+            normalMap.remove(otherKey);
+        }
+        final V oldValue = normalMap.put(key, value);
+        if (oldValue != null && !oldValue.equals(value)) {
+            reverseMap.remove(oldValue);
+        }
+        reverseMap.put(value, key);
+        return oldValue;
+    }
+
+    /**
+     * Sets the value of a key that is in the map, failing if the value is mapped
+     * to another key, as required by {@code setValue()} of the entries and iterators.
+     *
+     * @param key  the key whose value to set
+     * @param value  the new value
+     * @return the previous value mapped to the key
+     * @throws NullPointerException if the value is null
+     * @throws IllegalArgumentException if the value is already mapped to another key
+     */
+    V setValue(final K key, final V value) {
+        Objects.requireNonNull(value, "value");
+        lock.lock();
+        try {
+            final K otherKey = reverseMap.get(value);
+            if (otherKey != null && !otherKey.equals(key)) {
+                throw new IllegalArgumentException(
+                        "Cannot use setValue() when the object being set is already in the map");
+            }
+            return doPut(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the key-value pair into the map if the key is not already in it.
+     * <p>
+     * If the value is already mapped to another key, that mapping is removed.
+     *
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the value currently mapped to the key, null if the pair was added
+     * @throws NullPointerException if the key or value is null
+     */
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        lock.lock();
+        try {
+            final V current = normalMap.get(key);
+            return current != null ? current : doPut(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V replace(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        lock.lock();
+        try {
+            return normalMap.containsKey(key) ? doPut(key, value) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(final K key, final V oldValue, final V newValue) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(oldValue, "oldValue");
+        Objects.requireNonNull(newValue, "newValue");
+        lock.lock();
+        try {
+            if (!oldValue.equals(normalMap.get(key))) {
+                return false;
+            }
+            doPut(key, newValue);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(final Object key) {
+        if (key == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            final V value = normalMap.remove(key);
+            if (value != null) {
+                reverseMap.remove(value);
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (!normalMap.remove(key, value)) {
+                return false;
+            }
+            reverseMap.remove(value);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public K removeValue(final Object value) {
+        return inverseBidiMap.remove(value);
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            normalMap.clear();
+            reverseMap.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the inverse map, a view sharing the data and the lock of this map.
+     *
+     * @return the inverse map
+     */
+    @Override
+    public BidiMap<V, K> inverseBidiMap() {
+        return inverseBidiMap;
+    }
+
+    /**
+     * Gets a keySet view of the map.
+     * Changes made on the view are reflected in the map.
+     * The set supports remove and clear but not add.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet<>(this);
+        }
+        return keySet;
+    }
+
+    /**
+     * Gets a values view of the map, the keySet view of the inverse map.
+     * Changes made on the view are reflected in the map.
+     * The set supports remove and clear but not add.
+     *
+     * @return the values view
+     */
+    @Override
+    public Set<V> values() {
+        return inverseBidiMap.keySet();
+    }
+
+    /**
+     * Gets an entrySet view of the map.
+     * Changes made on the set are reflected in the map.
+     * The set supports remove and clear but not add.
+     * <p>
+     * The Map Entry setValue() method only allow a new value to be set.
+     * If the value being set is already in the map, an IllegalArgumentException
+     * is thrown (as setValue cannot change the size of the map).
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet<>(this);
+        }
+        return entrySet;
+    }
+
+    /**
+     * Obtains a {@code MapIterator} over the map.
+     * The iterator implements {@link ResettableIterator} and is weakly consistent.
+     *
+     * @return a map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new BidiMapIterator<>(this);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj == this || normalMap.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return normalMap.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return normalMap.toString();
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(normalMap);
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        putAll((Map<K, V>) in.readObject());
+    }
+
+    /**
+     * Inner class KeySet, also the values view of the inverse map.
+     */
+    static class KeySet<K, V> extends AbstractSet<K> {
+        /** The map the keys belong to */
+        private final ConcurrentHashBidiMap<K, V> parent;
+
+        KeySet(final ConcurrentHashBidiMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            return parent.containsKey(obj);
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            return parent.remove(obj) != null;
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new BidiMapIterator<>(parent);
+        }
+    }
+
+    /**
+     * Inner class EntrySet.
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        /** The map the entries belong to */
+        private final ConcurrentHashBidiMap<K, V> parent;
+
+        EntrySet(final ConcurrentHashBidiMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Object value = parent.get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return parent.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * Base class of the iterators, wrapping an iterator of the normal map.
+     */
+    abstract static class BaseIterator<K, V> {
+        /** The parent map */
+        final ConcurrentHashBidiMap<K, V> parent;
+        /** The iterator of the normal map */
+        Iterator<Map.Entry<K, V>> iterator;
+        /** The key last returned */
+        K lastKey;
+        /** The value last returned */
+        V lastValue;
+
+        BaseIterator(final ConcurrentHashBidiMap<K, V> parent) {
+            this.parent = parent;
+            this.iterator = parent.normalMap.entrySet().iterator();
+        }
+
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        void nextEntry() {
+            final Map.Entry<K, V> entry = iterator.next();
+            lastKey = entry.getKey();
+            lastValue = entry.getValue();
+        }
+
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            parent.remove(lastKey);
+            lastKey = null;
+            lastValue = null;
+        }
+    }
+
+    /**
+     * Inner class MapIterator.
+     */
+    static class BidiMapIterator<K, V> extends BaseIterator<K, V>
+            implements MapIterator<K, V>, ResettableIterator<K> {
+
+        BidiMapIterator(final ConcurrentHashBidiMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public K next() {
+            nextEntry();
+            return lastKey;
+        }
+
+        @Override
+        public K getKey() {
+            if (lastKey == null) {
+                throw new IllegalStateException(
+                        "Iterator getKey() can only be called after next() and before remove()");
+            }
+            return lastKey;
+        }
+
+        @Override
+        public V getValue() {
+            if (lastKey == null) {
+                throw new IllegalStateException(
+                        "Iterator getValue() can only be called after next() and before remove()");
+            }
+            return lastValue;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (lastKey == null) {
+                throw new IllegalStateException(
+                        "Iterator setValue() can only be called after next() and before remove()");
+            }
+            final V oldValue = parent.setValue(lastKey, value);
+            lastValue = value;
+            return oldValue;
+        }
+
+        @Override
+        public void reset() {
+            iterator = parent.normalMap.entrySet().iterator();
+            lastKey = null;
+            lastValue = null;
+        }
+
+        @Override
+        public String toString() {
+            if (lastKey != null) {
+                return "MapIterator[" + lastKey + "=" + lastValue + "]";
+            }
+            return "MapIterator[]";
+        }
+    }
+
+    /**
+     * Inner class EntrySetIterator.
+     */
+    static class EntrySetIterator<K, V> extends BaseIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        EntrySetIterator(final ConcurrentHashBidiMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            nextEntry();
+            return new BidiEntry<>(parent, lastKey, lastValue);
+        }
+    }
+
+    /**
+     * Map entry, setting the value writes through to the map.
+     */
+    static class BidiEntry<K, V> extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final transient ConcurrentHashBidiMap<K, V> parent;
+
+        BidiEntry(final ConcurrentHashBidiMap<K, V> parent, final K key, final V value) {
+            super(key, value);
+            this.parent = parent;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            parent.setValue(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+}
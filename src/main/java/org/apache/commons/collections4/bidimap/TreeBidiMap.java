@@ -24,12 +24,17 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.apache.commons.collections4.KeyValue;
 import org.apache.commons.collections4.MapIterator;
@@ -77,6 +82,13 @@ import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
  * not allow setValue() and will throw an
  * UnsupportedOperationException on attempts to call that method.
  * </p>
+ * <p>
+ * The spliterators of the views split at the nodes of the tree, as those of
+ * {@link java.util.TreeMap}. As the nodes do not record the size of their
+ * subtrees, only a spliterator that has not been split is {@code SIZED}, none
+ * is {@code SUBSIZED}, and each part of a split estimates its size as half of
+ * the spliterator it came from.
+ * </p>
  *
  * @param <K> the type of the keys in this map
  * @param <V> the type of the values in this map
@@ -133,8 +145,32 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
      * @throws NullPointerException if any key or value in the map is null
      */
     public TreeBidiMap(final Map<? extends K, ? extends V> map) {
+        this(map, false);
+    }
+
+    /**
+     * Constructs a new TreeBidiMap by copying an existing Map, optionally
+     * sorting the mappings in parallel.
+     * <p>
+     * Both trees are built balanced from the mappings sorted by key and by value,
+     * so copying a large map costs two sorts rather than one red-black insert
+     * per mapping in each tree. Sorting by key takes linear time when the map
+     * is already sorted by key, such as a {@code SortedMap} using the natural
+     * ordering. With {@code parallelSort} the sorts use
+     * {@link Arrays#parallelSort(Object[], Comparator)}, which pays off for
+     * maps of a few hundred thousand mappings or more.
+     * </p>
+     *
+     * @param map  the map to copy
+     * @param parallelSort  whether to sort the mappings in parallel
+     * @throws ClassCastException if the keys/values in the map are
+     *  not Comparable or are not mutually comparable
+     * @throws NullPointerException if any key or value in the map is null
+     * @since 4.5
+     */
+    public TreeBidiMap(final Map<? extends K, ? extends V> map, final boolean parallelSort) {
         this();
-        putAll(map);
+        bulkLoad(toNodes(map), parallelSort);
     }
 
     /**
@@ -248,6 +284,10 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
      */
     @Override
     public void putAll(final Map<? extends K, ? extends V> map) {
+        if (nodeCount == 0) {
+            bulkLoad(toNodes(map), false);
+            return;
+        }
         for (final Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
             put(e.getKey(), e.getValue());
         }
@@ -550,6 +590,153 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         }
     }
 
+    /**
+     * Creates the unlinked nodes for the mappings of a map.
+     *
+     * @param map  the map to copy
+     * @return the nodes in the iteration order of the map
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V>[] toNodes(final Map<? extends K, ? extends V> map) {
+        final Node<K, V>[] nodes = new Node[map.size()];
+        int i = 0;
+        for (final Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            checkKeyAndValue(e.getKey(), e.getValue());
+            if (i == nodes.length) {
+                throw new ConcurrentModificationException();
+            }
+            nodes[i++] = new Node<>(e.getKey(), e.getValue());
+        }
+        if (i != nodes.length) {
+            throw new ConcurrentModificationException();
+        }
+        return nodes;
+    }
+
+    /**
+     * Adds unlinked nodes to this empty map.
+     * <p>
+     * If no two keys and no two values compare equal, both trees are built
+     * from the sorted nodes in linear time. Otherwise the mappings are put one
+     * at a time, so that a later mapping replaces an earlier one as with
+     * {@link #put(Comparable, Comparable)}.
+     *
+     * @param nodes  the nodes to add, in the order they would be put
+     * @param parallelSort  whether to sort the nodes in parallel
+     */
+    private void bulkLoad(final Node<K, V>[] nodes, final boolean parallelSort) {
+        if (nodes.length < 2 || !buildTrees(nodes, parallelSort)) {
+            for (final Node<K, V> node : nodes) {
+                doPut(node.getKey(), node.getValue());
+            }
+        }
+    }
+
+    /**
+     * Builds both trees of this empty map from unlinked nodes.
+     *
+     * @param nodes  the nodes to link, left in their order
+     * @param parallelSort  whether to sort the nodes in parallel
+     * @return false, leaving the map and nodes unchanged, if two keys or two values are equal
+     */
+    private boolean buildTrees(final Node<K, V>[] nodes, final boolean parallelSort) {
+        final Node<K, V>[] byKey = sortedNodes(nodes, KEY, parallelSort);
+        if (byKey == null) {
+            return false;
+        }
+        final Node<K, V>[] byValue = sortedNodes(nodes, VALUE, parallelSort);
+        if (byValue == null) {
+            return false;
+        }
+        final int redLevel = redLevel(nodes.length);
+        rootNode[KEY.ordinal()] = buildTree(byKey, 0, nodes.length - 1, 0, redLevel, KEY);
+        rootNode[VALUE.ordinal()] = buildTree(byValue, 0, nodes.length - 1, 0, redLevel, VALUE);
+        nodeCount = nodes.length;
+        modify();
+        return true;
+    }
+
+    /**
+     * Sorts a copy of the nodes by key or by value.
+     *
+     * @param nodes  the nodes to sort
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @param parallelSort  whether to sort in parallel
+     * @return the sorted copy, or null if two nodes compare equal
+     */
+    private static <K extends Comparable<K>, V extends Comparable<V>> Node<K, V>[] sortedNodes(
+            final Node<K, V>[] nodes, final DataElement dataElement, final boolean parallelSort) {
+        final Node<K, V>[] sorted = nodes.clone();
+        final Comparator<Node<K, V>> comparator = dataElement == KEY
+                ? (a, b) -> compare(a.getKey(), b.getKey())
+                : (a, b) -> compare(a.getValue(), b.getValue());
+        if (parallelSort) {
+            Arrays.parallelSort(sorted, comparator);
+        } else {
+            Arrays.sort(sorted, comparator);
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (comparator.compare(sorted[i - 1], sorted[i]) == 0) {
+                return null;
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Finds the level whose nodes are colored red in a tree built by
+     * {@link #buildTree(Node[], int, int, int, int, DataElement)}. This is the
+     * deepest level when it is incomplete, all other nodes are black, as in
+     * {@link java.util.TreeMap}.
+     *
+     * @param size  the number of nodes
+     * @return the level of the red nodes
+     */
+    private static int redLevel(final int size) {
+        int level = 0;
+        for (int m = size - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Links sorted nodes into a balanced red-black tree.
+     *
+     * @param nodes  the nodes sorted in the order of the tree
+     * @param lo  the index of the first node of the subtree
+     * @param hi  the index of the last node of the subtree
+     * @param level  the level of the subtree root
+     * @param redLevel  the level of the red nodes
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the subtree root, null if the range is empty
+     */
+    private static <K extends Comparable<K>, V extends Comparable<V>> Node<K, V> buildTree(
+            final Node<K, V>[] nodes, final int lo, final int hi, final int level, final int redLevel,
+            final DataElement dataElement) {
+        if (hi < lo) {
+            return null;
+        }
+        final int mid = lo + hi >>> 1;
+        final Node<K, V> node = nodes[mid];
+        final Node<K, V> left = buildTree(nodes, lo, mid - 1, level + 1, redLevel, dataElement);
+        if (left != null) {
+            node.setLeft(left, dataElement);
+            left.setParent(node, dataElement);
+        }
+        final Node<K, V> right = buildTree(nodes, mid + 1, hi, level + 1, redLevel, dataElement);
+        if (right != null) {
+            node.setRight(right, dataElement);
+            right.setParent(node, dataElement);
+        }
+        if (level == redLevel) {
+            node.setRed(dataElement);
+        }
+        return node;
+    }
+
     private V doRemoveKey(final Object key) {
         final Node<K, V> node = lookupKey(key);
         if (node == null) {
@@ -1447,11 +1634,14 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         stream.defaultReadObject();
         rootNode = new Node[2];
         final int size = stream.readInt();
+        final Node<K, V>[] nodes = new Node[size];
         for (int i = 0; i < size; i++){
             final K k =(K) stream.readObject();
             final V v =(V) stream.readObject();
-            put(k, v);
+            checkKeyAndValue(k, v);
+            nodes[i] = new Node<>(k, v);
         }
+        bulkLoad(nodes, false);
     }
 
     /**
@@ -1510,6 +1700,11 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             return new ViewMapIterator(orderType);
         }
 
+        @Override
+        public Spliterator<K> spliterator() {
+            return new ViewSpliterator<>(orderType, Node::getKey, orderType == KEY);
+        }
+
         @Override
         public boolean contains(final Object obj) {
             checkNonNullComparable(obj, KEY);
@@ -1537,6 +1732,11 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             return new InverseViewMapIterator(orderType);
         }
 
+        @Override
+        public Spliterator<V> spliterator() {
+            return new ViewSpliterator<>(orderType, Node::getValue, orderType == VALUE);
+        }
+
         @Override
         public boolean contains(final Object obj) {
             checkNonNullComparable(obj, VALUE);
@@ -1589,6 +1789,11 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         public Iterator<Map.Entry<K, V>> iterator() {
             return new ViewMapEntryIterator();
         }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            return new ViewSpliterator<>(KEY, node -> node, false);
+        }
     }
 
     /**
@@ -1630,6 +1835,162 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         public Iterator<Map.Entry<V, K>> iterator() {
             return new InverseViewMapEntryIterator();
         }
+
+        @Override
+        public Spliterator<Map.Entry<V, K>> spliterator() {
+            return new ViewSpliterator<>(VALUE,
+                node -> new UnmodifiableMapEntry<>(node.getValue(), node.getKey()), false);
+        }
+    }
+
+    /**
+     * A spliterator over a view of the map.
+     * <p>
+     * The spliterator splits the range it covers at the root of the tree, and
+     * then at the nearest subtree on the side it was split off from, in the same
+     * way as the spliterators of {@link java.util.TreeMap}. The size is exact
+     * until the first split, which drops {@code SIZED} from both parts. The nodes
+     * do not record the size of their subtrees, so each part then estimates its
+     * size as half of the estimate before the split, and {@code SUBSIZED} is never
+     * reported.
+     * </p>
+     *
+     * @param <E> the type of the elements
+     */
+    final class ViewSpliterator<E> implements Spliterator<E> {
+
+        /** Whether to return KEY or VALUE order. */
+        private final DataElement orderType;
+        /** The function mapping a node to an element. */
+        private final Function<Node<K, V>, E> function;
+        /** Whether the elements are sorted by their natural order. */
+        private final boolean sorted;
+        /** The next node to be returned, null until bound to the map. */
+        private Node<K, V> current;
+        /** The node after the last one to be returned, null for the end of the tree. */
+        private final Node<K, V> fence;
+        /** 0 for the top-level spliterator, -1 if split off to the left, 1 if to the right. */
+        private int side;
+        /** The size estimate, -1 until bound to the map. */
+        private int est;
+        /** The modification count. */
+        private int expectedModifications;
+
+        /**
+         * Creates a top-level spliterator, bound to the map on first use.
+         *
+         * @param orderType  the KEY or VALUE int for the order
+         * @param function  the function mapping a node to an element
+         * @param sorted  whether the elements are sorted by their natural order
+         */
+        ViewSpliterator(final DataElement orderType, final Function<Node<K, V>, E> function,
+                final boolean sorted) {
+            this(orderType, function, sorted, null, null, 0, -1, 0);
+        }
+
+        private ViewSpliterator(final DataElement orderType, final Function<Node<K, V>, E> function,
+                final boolean sorted, final Node<K, V> current, final Node<K, V> fence, final int side,
+                final int est, final int expectedModifications) {
+            this.orderType = orderType;
+            this.function = function;
+            this.sorted = sorted;
+            this.current = current;
+            this.fence = fence;
+            this.side = side;
+            this.est = est;
+            this.expectedModifications = expectedModifications;
+        }
+
+        private int getEstimate() {
+            if (est < 0) {
+                current = leastNode(rootNode[orderType.ordinal()], orderType);
+                est = nodeCount;
+                expectedModifications = modifications;
+            }
+            return est;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            getEstimate();
+            final Node<K, V> e = current;
+            final Node<K, V> f = fence;
+            final Node<K, V> s;
+            if (e == null || e == f) {
+                s = null;
+            } else if (side == 0) {
+                s = rootNode[orderType.ordinal()];
+            } else if (side > 0) {
+                s = e.getRight(orderType);
+            } else if (f != null) {
+                s = f.getLeft(orderType);
+            } else {
+                s = null;
+            }
+            if (s != null && s != e && s != f && compareData(e, s) < 0) {
+                side = 1;
+                current = s;
+                est >>>= 1;
+                return new ViewSpliterator<>(orderType, function, sorted, e, s, -1, est, expectedModifications);
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compareData(final Node<K, V> a, final Node<K, V> b) {
+            return ((Comparable<Object>) a.getData(orderType)).compareTo(b.getData(orderType));
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            getEstimate();
+            final Node<K, V> node = current;
+            if (node == null || node == fence) {
+                return false;
+            }
+            current = nextGreater(node, orderType);
+            action.accept(function.apply(node));
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            getEstimate();
+            Node<K, V> node = current;
+            if (node != null && node != fence) {
+                current = fence;
+                do {
+                    action.accept(function.apply(node));
+                    node = nextGreater(node, orderType);
+                } while (node != null && node != fence);
+                if (modifications != expectedModifications) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getEstimate();
+        }
+
+        @Override
+        public int characteristics() {
+            return (side == 0 ? SIZED : 0) | DISTINCT | ORDERED | (sorted ? SORTED : 0);
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            if (sorted) {
+                return null;
+            }
+            throw new IllegalStateException();
+        }
     }
 
     /**
@@ -26,6 +26,8 @@
  * The following implementations are provided in the package:
  * <ul>
  *   <li>DualHashBidiMap - uses two HashMaps to implement BidiMap
+ *   <li>CompactHashBidiMap - stores each pair once in a single table with two hash indexes
+ *   <li>ConcurrentHashBidiMap - thread-safe, uses two ConcurrentHashMaps with lock-free lookups
  *   <li>DualLinkedHashBidiMap - uses two LinkedHashMaps to implement BidiMap
  *   <li>DualTreeBidiMap - uses two TreeMaps to implement SortedBidiMap
  *   <li>TreeBidiMap - red-black tree implementation of OrderedBidiMap
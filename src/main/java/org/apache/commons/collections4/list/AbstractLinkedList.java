@@ -28,6 +28,9 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.OrderedIterator;
@@ -132,6 +135,23 @@ public abstract class AbstractLinkedList<E> implements List<E> {
     }
 
 
+    /**
+     * Creates a spliterator over the list.
+     * <p>
+     * A linked list cannot be split in the middle without walking to it, so the
+     * spliterator splits off batches of elements of growing size into arrays, as
+     * {@link java.util.LinkedList} does. It reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED} and {@link Spliterator#ORDERED}, and binds to
+     * the list on first use.
+     *
+     * @return a spliterator over the list
+     * @since 4.5
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new LinkedListSpliterator<>(this);
+    }
+
     @Override
     public int indexOf(final Object value) {
         int i = 0;
@@ -743,6 +763,111 @@ public abstract class AbstractLinkedList<E> implements List<E> {
         }
     }
 
+    /**
+     * A spliterator over the linked list.
+     */
+    static class LinkedListSpliterator<E> implements Spliterator<E> {
+
+        /** The size increase of each batch split off */
+        static final int BATCH_UNIT = 1 << 10;
+
+        /** The maximum size of a batch split off */
+        static final int MAX_BATCH = 1 << 25;
+
+        /** The parent list */
+        private final AbstractLinkedList<E> parent;
+
+        /** The node holding the next element, null until bound to the list */
+        private Node<E> next;
+
+        /** The number of elements left */
+        private int remaining;
+
+        /** The size of the last batch split off */
+        private int batch;
+
+        /** The modification count that the list is expected to have */
+        private int expectedModCount;
+
+        LinkedListSpliterator(final AbstractLinkedList<E> parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * Binds to the list on first use.
+         *
+         * @return the number of elements left
+         */
+        private int getRemaining() {
+            if (next == null) {
+                next = parent.header.next;
+                remaining = parent.size;
+                expectedModCount = parent.modCount;
+            }
+            return remaining;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final int n = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), getRemaining());
+            if (n <= 1) {
+                return null;
+            }
+            final Object[] array = new Object[n];
+            Node<E> node = next;
+            for (int i = 0; i < n; i++) {
+                array[i] = node.getValue();
+                node = node.next;
+            }
+            next = node;
+            remaining -= n;
+            batch = n;
+            return Spliterators.spliterator(array, 0, n, ORDERED);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            if (getRemaining() == 0) {
+                return false;
+            }
+            final E value = next.getValue();
+            next = next.next;
+            remaining--;
+            action.accept(value);
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            int n = getRemaining();
+            Node<E> node = next;
+            for (; n > 0; n--) {
+                action.accept(node.getValue());
+                node = node.next;
+            }
+            next = node;
+            remaining = 0;
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getRemaining();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
     /**
      * A list iterator over the linked list.
      */
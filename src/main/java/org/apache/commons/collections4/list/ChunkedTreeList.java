@@ -0,0 +1,803 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.collections4.OrderedIterator;
+
+/**
+ * A {@code List} implementation that stores its elements in arrays of up to
+ * 128 elements, the leaves of a B+tree indexed by element count.
+ * <p>
+ * Like {@link TreeList}, this list inserts and removes at any index in
+ * O(log n) time, but it stores the elements in arrays instead of one tree node
+ * per element. Moving an element within a leaf is a cheap array copy, lookups
+ * by index descend a shallow tree of wide nodes, and iteration walks the leaves
+ * in order. The list uses about as much memory as an {@code ArrayList}, while
+ * {@code TreeList} uses several times more.
+ * </p>
+ * <p>
+ * Appending fills each leaf completely before starting the next one.
+ * Inserting into a full leaf splits it in two, and a leaf with less than a
+ * quarter of its capacity is merged with or refilled from a neighbour.
+ * </p>
+ * <p>
+ * Note that ChunkedTreeList is not synchronized and is not thread-safe.
+ * </p>
+ *
+ * @param <E> the type of the elements in the list
+ * @since 4.5
+ */
+public class ChunkedTreeList<E> extends AbstractList<E> {
+
+    /** The maximum number of elements in a leaf */
+    static final int LEAF_CAPACITY = 128;
+
+    /** The number of elements below which a leaf is refilled */
+    private static final int LEAF_MINIMUM = LEAF_CAPACITY / 4;
+
+    /** The initial array length of a leaf that is filled by single adds */
+    private static final int INITIAL_LEAF_LENGTH = 8;
+
+    /** The maximum number of children of a branch */
+    static final int BRANCH_CAPACITY = 32;
+
+    /** The number of children below which a branch is refilled */
+    private static final int BRANCH_MINIMUM = BRANCH_CAPACITY / 4;
+
+    /** The root of the tree, a leaf while the list fits into one */
+    private Node root;
+
+    /**
+     * Constructs a new empty list.
+     */
+    public ChunkedTreeList() {
+        root = new Leaf(INITIAL_LEAF_LENGTH);
+    }
+
+    /**
+     * Constructs a new list that copies the specified collection.
+     * <p>
+     * The leaves are filled completely, so this runs in O(n) time.
+     *
+     * @param coll  the collection to copy
+     * @throws NullPointerException if the collection is null
+     */
+    public ChunkedTreeList(final Collection<? extends E> coll) {
+        build(coll.toArray());
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index  the index to retrieve
+     * @return the element at the specified index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        checkInterval(index, 0, size() - 1);
+        Node node = root;
+        int offset = index;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            int i = 0;
+            while (offset >= branch.children[i].size) {
+                offset -= branch.children[i].size;
+                i++;
+            }
+            node = branch.children[i];
+        }
+        return (E) ((Leaf) node).elements[offset];
+    }
+
+    /**
+     * Gets the current size of the list.
+     *
+     * @return the current size
+     */
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    /**
+     * Gets an iterator over the list.
+     *
+     * @return an iterator over the list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     *
+     * @return the new iterator
+     */
+    @Override
+    public ListIterator<E> listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     *
+     * @param fromIndex  the index to start from
+     * @return the new iterator
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public ListIterator<E> listIterator(final int fromIndex) {
+        checkInterval(fromIndex, 0, size());
+        return new ChunkedTreeListIterator<>(this, fromIndex);
+    }
+
+    /**
+     * Converts the list into an array.
+     *
+     * @return the list as an array
+     */
+    @Override
+    public Object[] toArray() {
+        final Object[] array = new Object[size()];
+        int index = 0;
+        for (Leaf leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            System.arraycopy(leaf.elements, 0, array, index, leaf.size);
+            index += leaf.size;
+        }
+        return array;
+    }
+
+    /**
+     * Adds a new element to the list.
+     *
+     * @param index  the index to add before
+     * @param obj  the element to add
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public void add(final int index, final E obj) {
+        checkInterval(index, 0, size());
+        modCount++;
+        final Node split = insert(root, index, obj);
+        if (split != null) {
+            final Branch branch = new Branch();
+            branch.children[0] = root;
+            branch.children[1] = split;
+            branch.count = 2;
+            branch.size = root.size + split.size;
+            root = branch;
+        }
+    }
+
+    /**
+     * Appends all of the elements in the specified collection to the end of this list,
+     * in the order that they are returned by the specified collection's Iterator.
+     * <p>
+     * If this list is empty, the leaves are filled directly in O(n) time.
+     *
+     * @param coll  the collection to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the collection is null
+     */
+    @Override
+    public boolean addAll(final Collection<? extends E> coll) {
+        if (isEmpty()) {
+            final Object[] array = coll.toArray();
+            if (array.length == 0) {
+                return false;
+            }
+            modCount++;
+            build(array);
+            return true;
+        }
+        return super.addAll(coll);
+    }
+
+    /**
+     * Sets the element at the specified index.
+     *
+     * @param index  the index to set
+     * @param obj  the object to store at the specified index
+     * @return the previous object at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(final int index, final E obj) {
+        checkInterval(index, 0, size() - 1);
+        Node node = root;
+        int offset = index;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            int i = 0;
+            while (offset >= branch.children[i].size) {
+                offset -= branch.children[i].size;
+                i++;
+            }
+            node = branch.children[i];
+        }
+        final Object[] elements = ((Leaf) node).elements;
+        final E result = (E) elements[offset];
+        elements[offset] = obj;
+        return result;
+    }
+
+    /**
+     * Removes the element at the specified index.
+     *
+     * @param index  the index to remove
+     * @return the previous object at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(final int index) {
+        checkInterval(index, 0, size() - 1);
+        modCount++;
+        final E result = (E) remove(root, index);
+        if (root instanceof Branch && ((Branch) root).count == 1) {
+            root = ((Branch) root).children[0];
+        }
+        return result;
+    }
+
+    /**
+     * Clears the list, removing all entries.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        root = new Leaf(INITIAL_LEAF_LENGTH);
+    }
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  the index to check
+     * @param startIndex  the first allowed index
+     * @param endIndex  the last allowed index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private void checkInterval(final int index, final int startIndex, final int endIndex) {
+        if (index < startIndex || index > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid index:" + index + ", size=" + size());
+        }
+    }
+
+    /**
+     * Replaces the tree by one holding the specified elements in full leaves.
+     *
+     * @param array  the elements, owned by this method
+     */
+    private void build(final Object[] array) {
+        if (array.length == 0) {
+            root = new Leaf(INITIAL_LEAF_LENGTH);
+            return;
+        }
+        Node[] level = new Node[(array.length + LEAF_CAPACITY - 1) / LEAF_CAPACITY];
+        Leaf previous = null;
+        for (int i = 0; i < level.length; i++) {
+            final int from = i * LEAF_CAPACITY;
+            final int to = Math.min(from + LEAF_CAPACITY, array.length);
+            final Leaf leaf = new Leaf(Arrays.copyOfRange(array, from, to, Object[].class));
+            leaf.size = leaf.elements.length;
+            leaf.previous = previous;
+            if (previous != null) {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level[i] = leaf;
+        }
+        while (level.length > 1) {
+            final Node[] parents = new Node[(level.length + BRANCH_CAPACITY - 1) / BRANCH_CAPACITY];
+            for (int i = 0; i < parents.length; i++) {
+                final Branch branch = new Branch();
+                final int from = i * BRANCH_CAPACITY;
+                branch.count = Math.min(BRANCH_CAPACITY, level.length - from);
+                System.arraycopy(level, from, branch.children, 0, branch.count);
+                branch.size = branch.sumSizes(0, branch.count);
+                parents[i] = branch;
+            }
+            level = parents;
+        }
+        root = level[0];
+    }
+
+    /**
+     * Gets the leaf holding the first elements.
+     *
+     * @return the first leaf
+     */
+    private Leaf firstLeaf() {
+        Node node = root;
+        while (node instanceof Branch) {
+            node = ((Branch) node).children[0];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * Inserts an element into a subtree.
+     *
+     * @param node  the subtree root
+     * @param index  the index within the subtree to add before
+     * @param obj  the element to add
+     * @return the new right sibling if the node had to be split, otherwise null
+     */
+    private static Node insert(final Node node, final int index, final Object obj) {
+        if (node instanceof Leaf) {
+            final Leaf leaf = (Leaf) node;
+            if (leaf.size < LEAF_CAPACITY) {
+                leaf.insert(index, obj);
+                return null;
+            }
+            // keep the last leaf full when appending, so that appends fill every leaf
+            final boolean append = index == LEAF_CAPACITY && leaf.next == null;
+            final Leaf right = leaf.splitAt(append ? LEAF_CAPACITY : LEAF_CAPACITY / 2);
+            if (index <= leaf.size && leaf.size < LEAF_CAPACITY) {
+                leaf.insert(index, obj);
+            } else {
+                right.insert(index - leaf.size, obj);
+            }
+            return right;
+        }
+        final Branch branch = (Branch) node;
+        int i = 0;
+        int offset = index;
+        while (i < branch.count - 1 && offset > branch.children[i].size) {
+            offset -= branch.children[i].size;
+            i++;
+        }
+        branch.size++;
+        final Node split = insert(branch.children[i], offset, obj);
+        if (split == null) {
+            return null;
+        }
+        branch.insertChild(i + 1, split);
+        return branch.count > BRANCH_CAPACITY ? branch.splitAt(branch.count / 2) : null;
+    }
+
+    /**
+     * Removes an element from a subtree, refilling the child it was removed
+     * from if that became too small.
+     *
+     * @param node  the subtree root
+     * @param index  the index within the subtree to remove
+     * @return the removed element
+     */
+    private static Object remove(final Node node, final int index) {
+        if (node instanceof Leaf) {
+            return ((Leaf) node).remove(index);
+        }
+        final Branch branch = (Branch) node;
+        int i = 0;
+        int offset = index;
+        while (offset >= branch.children[i].size) {
+            offset -= branch.children[i].size;
+            i++;
+        }
+        branch.size--;
+        final Node child = branch.children[i];
+        final Object result = remove(child, offset);
+        if (branch.count > 1 && child.isUnderfull()) {
+            final int left = i > 0 ? i - 1 : i;
+            if (branch.children[left].join(branch.children[left + 1])) {
+                branch.removeChild(left + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A node of the tree.
+     */
+    abstract static class Node {
+        /** The number of elements in the subtree */
+        int size;
+
+        /**
+         * Checks whether the node has too few elements or children.
+         *
+         * @return true if the node should be refilled
+         */
+        abstract boolean isUnderfull();
+
+        /**
+         * Merges the right sibling into this node if both fit into one,
+         * otherwise moves elements or children so that both are equally full.
+         *
+         * @param right  the right sibling, of the same type
+         * @return true if the sibling was merged and must be removed
+         */
+        abstract boolean join(Node right);
+    }
+
+    /**
+     * A leaf holding the elements, linked to the leaves before and after it.
+     */
+    static final class Leaf extends Node {
+        /** The elements, only the first {@code size} are used */
+        Object[] elements;
+        /** The leaf holding the elements before these */
+        Leaf previous;
+        /** The leaf holding the elements after these */
+        Leaf next;
+
+        Leaf(final int length) {
+            this.elements = new Object[length];
+        }
+
+        Leaf(final Object[] elements) {
+            this.elements = elements;
+        }
+
+        /**
+         * Ensures the array can hold the specified number of elements.
+         *
+         * @param length  the number of elements, at most LEAF_CAPACITY
+         */
+        private void ensureCapacity(final int length) {
+            if (elements.length < length) {
+                elements = Arrays.copyOf(elements, Math.min(Math.max(length, elements.length * 2), LEAF_CAPACITY));
+            }
+        }
+
+        void insert(final int index, final Object obj) {
+            ensureCapacity(size + 1);
+            System.arraycopy(elements, index, elements, index + 1, size - index);
+            elements[index] = obj;
+            size++;
+        }
+
+        Object remove(final int index) {
+            final Object result = elements[index];
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+            elements[--size] = null;
+            return result;
+        }
+
+        /**
+         * Moves the elements from an index on into a new leaf linked after this one.
+         *
+         * @param index  the index of the first element to move
+         * @return the new leaf
+         */
+        Leaf splitAt(final int index) {
+            final int moved = size - index;
+            final Leaf right = new Leaf(Math.max(moved + 1, INITIAL_LEAF_LENGTH));
+            System.arraycopy(elements, index, right.elements, 0, moved);
+            Arrays.fill(elements, index, size, null);
+            right.size = moved;
+            size = index;
+            right.previous = this;
+            right.next = next;
+            if (next != null) {
+                next.previous = right;
+            }
+            next = right;
+            return right;
+        }
+
+        @Override
+        boolean isUnderfull() {
+            return size < LEAF_MINIMUM;
+        }
+
+        @Override
+        boolean join(final Node node) {
+            final Leaf right = (Leaf) node;
+            final int total = size + right.size;
+            if (total <= LEAF_CAPACITY) {
+                ensureCapacity(total);
+                System.arraycopy(right.elements, 0, elements, size, right.size);
+                size = total;
+                next = right.next;
+                if (next != null) {
+                    next.previous = this;
+                }
+                return true;
+            }
+            final int leftSize = total / 2;
+            if (size > leftSize) {
+                final int moved = size - leftSize;
+                right.ensureCapacity(right.size + moved);
+                System.arraycopy(right.elements, 0, right.elements, moved, right.size);
+                System.arraycopy(elements, leftSize, right.elements, 0, moved);
+                Arrays.fill(elements, leftSize, size, null);
+            } else {
+                final int moved = leftSize - size;
+                ensureCapacity(leftSize);
+                System.arraycopy(right.elements, 0, elements, size, moved);
+                System.arraycopy(right.elements, moved, right.elements, 0, right.size - moved);
+                Arrays.fill(right.elements, right.size - moved, right.size, null);
+            }
+            size = leftSize;
+            right.size = total - leftSize;
+            return false;
+        }
+    }
+
+    /**
+     * A branch indexing its children by their number of elements.
+     */
+    static final class Branch extends Node {
+        /** The children, with room for one more while splitting */
+        final Node[] children = new Node[BRANCH_CAPACITY + 1];
+        /** The number of children */
+        int count;
+
+        int sumSizes(final int from, final int to) {
+            int sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += children[i].size;
+            }
+            return sum;
+        }
+
+        void insertChild(final int index, final Node child) {
+            System.arraycopy(children, index, children, index + 1, count - index);
+            children[index] = child;
+            count++;
+        }
+
+        void removeChild(final int index) {
+            System.arraycopy(children, index + 1, children, index, count - index - 1);
+            children[--count] = null;
+        }
+
+        /**
+         * Moves the children from an index on into a new branch.
+         *
+         * @param index  the index of the first child to move
+         * @return the new branch
+         */
+        Branch splitAt(final int index) {
+            final Branch right = new Branch();
+            right.count = count - index;
+            System.arraycopy(children, index, right.children, 0, right.count);
+            Arrays.fill(children, index, count, null);
+            count = index;
+            right.size = right.sumSizes(0, right.count);
+            size -= right.size;
+            return right;
+        }
+
+        @Override
+        boolean isUnderfull() {
+            return count < BRANCH_MINIMUM;
+        }
+
+        @Override
+        boolean join(final Node node) {
+            final Branch right = (Branch) node;
+            final int total = count + right.count;
+            if (total <= BRANCH_CAPACITY) {
+                System.arraycopy(right.children, 0, children, count, right.count);
+                count = total;
+                size += right.size;
+                return true;
+            }
+            final int leftCount = total / 2;
+            final int moved;
+            if (count > leftCount) {
+                moved = count - leftCount;
+                System.arraycopy(right.children, 0, right.children, moved, right.count);
+                System.arraycopy(children, leftCount, right.children, 0, moved);
+                Arrays.fill(children, leftCount, count, null);
+            } else {
+                moved = leftCount - count;
+                System.arraycopy(right.children, 0, children, count, moved);
+                System.arraycopy(right.children, moved, right.children, 0, right.count - moved);
+                Arrays.fill(right.children, right.count - moved, right.count, null);
+            }
+            count = leftCount;
+            right.count = total - leftCount;
+            final int totalSize = size + right.size;
+            size = sumSizes(0, count);
+            right.size = totalSize - size;
+            return false;
+        }
+    }
+
+    /**
+     * A list iterator over the ChunkedTreeList, walking the linked leaves.
+     */
+    static class ChunkedTreeListIterator<E> implements ListIterator<E>, OrderedIterator<E> {
+        /** The parent list */
+        private final ChunkedTreeList<E> parent;
+        /**
+         * The leaf holding the next element, or null if it must be looked up again
+         * after a modification.
+         */
+        private Leaf leaf;
+        /** The position of the next element within the leaf */
+        private int offset;
+        /** The index of the next element to be returned. */
+        private int nextIndex;
+        /**
+         * The index of the last element that was returned by {@link #next()}
+         * or {@link #previous()}, -1 if there is none.
+         */
+        private int currentIndex;
+        /** The leaf holding the last element returned */
+        private Leaf current;
+        /** The position of the last element returned within its leaf */
+        private int currentOffset;
+        /**
+         * The modification count that the list is expected to have. If the list
+         * doesn't have this count, then a
+         * {@link java.util.ConcurrentModificationException} may be thrown by
+         * the operations.
+         */
+        private int expectedModCount;
+
+        /**
+         * Create a ListIterator for a list.
+         *
+         * @param parent  the parent list
+         * @param fromIndex  the index to start at
+         */
+        protected ChunkedTreeListIterator(final ChunkedTreeList<E> parent, final int fromIndex) {
+            this.parent = parent;
+            this.expectedModCount = parent.modCount;
+            this.nextIndex = fromIndex;
+            this.currentIndex = -1;
+        }
+
+        /**
+         * Looks up the leaf and position of the next element.
+         */
+        private void seek() {
+            Node node = parent.root;
+            int position = nextIndex;
+            while (node instanceof Branch) {
+                final Branch branch = (Branch) node;
+                int i = 0;
+                while (i < branch.count - 1 && position >= branch.children[i].size) {
+                    position -= branch.children[i].size;
+                    i++;
+                }
+                node = branch.children[i];
+            }
+            leaf = (Leaf) node;
+            offset = position;
+        }
+
+        /**
+         * Checks the modification count of the list is the value that this
+         * object expects.
+         *
+         * @throws ConcurrentModificationException If the list's modification
+         * count isn't the value that was expected.
+         */
+        protected void checkModCount() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            checkModCount();
+            if (!hasNext()) {
+                throw new NoSuchElementException("No element at index " + nextIndex + ".");
+            }
+            if (leaf == null) {
+                seek();
+            }
+            if (offset == leaf.size) {
+                leaf = leaf.next;
+                offset = 0;
+            }
+            current = leaf;
+            currentOffset = offset++;
+            currentIndex = nextIndex++;
+            return (E) current.elements[currentOffset];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E previous() {
+            checkModCount();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException("Already at start of list.");
+            }
+            if (leaf == null) {
+                seek();
+            }
+            if (offset == 0) {
+                leaf = leaf.previous;
+                offset = leaf.size;
+            }
+            current = leaf;
+            currentOffset = --offset;
+            currentIndex = --nextIndex;
+            return (E) current.elements[currentOffset];
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex() - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkModCount();
+            if (currentIndex == -1) {
+                throw new IllegalStateException();
+            }
+            parent.remove(currentIndex);
+            if (nextIndex != currentIndex) {
+                // remove() following next()
+                nextIndex--;
+            }
+            // the leaves may have been split or merged, look the position up again
+            leaf = null;
+            current = null;
+            currentIndex = -1;
+            expectedModCount++;
+        }
+
+        @Override
+        public void set(final E obj) {
+            checkModCount();
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            current.elements[currentOffset] = obj;
+        }
+
+        @Override
+        public void add(final E obj) {
+            checkModCount();
+            parent.add(nextIndex, obj);
+            leaf = null;
+            current = null;
+            currentIndex = -1;
+            nextIndex++;
+            expectedModCount++;
+        }
+    }
+
+}
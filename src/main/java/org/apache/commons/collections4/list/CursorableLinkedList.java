@@ -20,9 +20,12 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
@@ -52,6 +55,11 @@ import java.util.ListIterator;
  * the garbage collector to the rest.
  * </p>
  * <p>
+ * Each cursor is attached to the nodes it is positioned at, so a change to the
+ * list only notifies the cursors next to the changed node. The other cursors
+ * notice on their next use that their index has to be recalculated.
+ * </p>
+ * <p>
  * <b>Note that this implementation is not synchronized.</b>
  * </p>
  *
@@ -63,8 +71,17 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
     /** Ensure serialization compatibility */
     private static final long serialVersionUID = 8836393098519411393L;
 
-    /** A list of the cursor currently open on this list */
-    private transient List<WeakReference<Cursor<E>>> cursors;
+    /** The queue of the references to the cursors that have been garbage collected */
+    private transient ReferenceQueue<Cursor<E>> queue;
+
+    /** The attachments of the cursors to nodes that are not cursor nodes */
+    private transient CursorNode<E> unindexed;
+
+    /** The number of nodes inserted and removed, by which cursors notice changes they were not notified of */
+    transient int changeCount;
+
+    /** The number of nodes removed */
+    transient int removalCount;
 
     /**
      * Constructor that creates.
@@ -89,7 +106,31 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
     @Override
     protected void init() {
         super.init();
-        cursors = new ArrayList<>();
+        queue = new ReferenceQueue<>();
+        unindexed = new CursorNode<>();
+    }
+
+    /**
+     * Creates a new node with previous, next and element all set to null.
+     * This implementation creates a node that cursors can be attached to.
+     *
+     * @return newly created node
+     */
+    @Override
+    protected Node<E> createHeaderNode() {
+        return new CursorNode<>();
+    }
+
+    /**
+     * Creates a new node with the specified properties.
+     * This implementation creates a node that cursors can be attached to.
+     *
+     * @param value  value of the new node
+     * @return a new node containing the value
+     */
+    @Override
+    protected Node<E> createNode(final E value) {
+        return new CursorNode<>(value);
     }
 
     /**
@@ -267,10 +308,14 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
      * @param cursor  the cursor to register
      */
     protected void registerCursor(final Cursor<E> cursor) {
-        // We take this opportunity to clean the cursors list
-        // of WeakReference objects to garbage-collected cursors.
-        cursors.removeIf(ref -> ref.get() == null);
-        cursors.add(new WeakReference<>(cursor));
+        // We take this opportunity to detach the cursors
+        // that have been garbage-collected.
+        Reference<? extends Cursor<E>> ref;
+        while ((ref = queue.poll()) != null) {
+            ((CursorRef<?>) ref).detach();
+        }
+        cursor.ref = new CursorRef<>(cursor, queue);
+        cursor.attach();
     }
 
     /**
@@ -279,77 +324,113 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
      * @param cursor  the cursor to deregister
      */
     protected void unregisterCursor(final Cursor<E> cursor) {
-        for (final Iterator<WeakReference<Cursor<E>>> it = cursors.iterator(); it.hasNext();) {
-            final WeakReference<Cursor<E>> ref = it.next();
-            final Cursor<E> cur = ref.get();
-            if (cur == null) {
-                // some other unrelated cursor object has been
-                // garbage-collected; let's take the opportunity to
-                // clean up the cursors list anyway..
-                it.remove();
-            } else if (cur == cursor) {
-                ref.clear();
-                it.remove();
-                break;
-            }
+        final CursorRef<E> ref = cursor.ref;
+        if (ref != null) {
+            ref.detach();
+            ref.clear();
+            cursor.ref = null;
         }
     }
 
     /**
-     * Informs all of my registered cursors that the specified
-     * element was changed.
+     * Informs the registered cursors positioned at the specified node
+     * that its element was changed.
      *
      * @param node  the node that was changed
      */
     protected void broadcastNodeChanged(final Node<E> node) {
-        final Iterator<WeakReference<Cursor<E>>> it = cursors.iterator();
-        while (it.hasNext()) {
-            final WeakReference<Cursor<E>> ref = it.next();
-            final Cursor<E> cursor = ref.get();
-            if (cursor == null) {
-                it.remove(); // clean up list
-            } else {
-                cursor.nodeChanged(node);
-            }
+        for (final Cursor<E> cursor : cursorsAt(node, null, null)) {
+            cursor.nodeChanged(node);
         }
     }
 
     /**
-     * Informs all of my registered cursors that the specified
-     * element was just removed from my list.
+     * Informs the registered cursors positioned at or next to the specified
+     * node that it was just removed from my list.
+     * <p>
+     * The other cursors notice the removal on their next use.
      *
      * @param node  the node that was changed
      */
     protected void broadcastNodeRemoved(final Node<E> node) {
-        final Iterator<WeakReference<Cursor<E>>> it = cursors.iterator();
-        while (it.hasNext()) {
-            final WeakReference<Cursor<E>> ref = it.next();
-            final Cursor<E> cursor = ref.get();
-            if (cursor == null) {
-                it.remove(); // clean up list
-            } else {
-                cursor.nodeRemoved(node);
-            }
+        final List<Cursor<E>> near = cursorsAt(node.previous, node, node.next);
+        changeCount++;
+        removalCount++;
+        for (final Cursor<E> cursor : near) {
+            cursor.changeStamp = changeCount;
+            cursor.removalStamp = removalCount;
+            cursor.nodeRemoved(node);
+            cursor.attach();
         }
     }
 
     /**
-     * Informs all of my registered cursors that the specified
-     * element was just added to my list.
+     * Informs the registered cursors positioned next to the specified node
+     * that it was just added to my list.
+     * <p>
+     * The other cursors notice the insertion on their next use.
      *
      * @param node  the node that was changed
      */
     protected void broadcastNodeInserted(final Node<E> node) {
-        final Iterator<WeakReference<Cursor<E>>> it = cursors.iterator();
-        while (it.hasNext()) {
-            final WeakReference<Cursor<E>> ref = it.next();
-            final Cursor<E> cursor = ref.get();
+        final List<Cursor<E>> near = cursorsAt(node.previous, node.next, null);
+        changeCount++;
+        for (final Cursor<E> cursor : near) {
+            cursor.changeStamp = changeCount;
+            cursor.nodeInserted(node);
+            cursor.attach();
+        }
+    }
+
+    /**
+     * Gets the live cursors attached to the specified nodes, brought up to date
+     * with the changes they were not notified of.
+     *
+     * @param node1  the first node
+     * @param node2  the second node, may be null
+     * @param node3  the third node, may be null
+     * @return the cursors, each once
+     */
+    private List<Cursor<E>> cursorsAt(final Node<E> node1, final Node<E> node2, final Node<E> node3) {
+        List<Cursor<E>> cursors = Collections.emptyList();
+        cursors = collectCursors(unindexed, cursors);
+        cursors = collectCursors(node1, cursors);
+        if (node2 != null) {
+            cursors = collectCursors(node2, cursors);
+        }
+        if (node3 != null) {
+            cursors = collectCursors(node3, cursors);
+        }
+        return cursors;
+    }
+
+    /**
+     * Adds the live cursors attached to a node to a list, bringing them up to date.
+     *
+     * @param node  the node
+     * @param cursors  the cursors found so far, may be an immutable empty list
+     * @return the cursors found
+     */
+    private List<Cursor<E>> collectCursors(final Node<E> node, List<Cursor<E>> cursors) {
+        if (!(node instanceof CursorNode)) {
+            return cursors;
+        }
+        Attachment<E> attachment = ((CursorNode<E>) node).attachments;
+        while (attachment != null) {
+            final Attachment<E> next = attachment.next;
+            final Cursor<E> cursor = attachment.ref.get();
             if (cursor == null) {
-                it.remove(); // clean up list
-            } else {
-                cursor.nodeInserted(node);
+                attachment.ref.detach();
+            } else if (!cursors.contains(cursor)) {
+                if (cursors.isEmpty()) {
+                    cursors = new ArrayList<>(4);
+                }
+                cursor.catchUp();
+                cursors.add(cursor);
             }
+            attachment = next;
         }
+        return cursors;
     }
 
     /**
@@ -400,6 +481,12 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
         boolean nextIndexValid = true;
         /** Flag to indicate if the current element was removed by another object. */
         boolean currentRemovedByAnother;
+        /** The reference registering this cursor with the list, null if not registered */
+        CursorRef<E> ref;
+        /** The change count of the list that the state of this cursor is up to date with */
+        int changeStamp;
+        /** The removal count of the list that the state of this cursor is up to date with */
+        int removalStamp;
 
         /**
          * Constructs a new cursor.
@@ -410,6 +497,54 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
         protected Cursor(final CursorableLinkedList<E> parent, final int index) {
             super(parent, index);
             valid = true;
+            changeStamp = parent.changeCount;
+            removalStamp = parent.removalCount;
+        }
+
+        /**
+         * Brings the state of this cursor up to date with the changes to the list
+         * it was not notified of, as they were not next to it.
+         * A closed cursor is not notified of any change, so it keeps its state.
+         */
+        void catchUp() {
+            if (ref == null) {
+                return;
+            }
+            final CursorableLinkedList<E> list = (CursorableLinkedList<E>) parent;
+            if (changeStamp != list.changeCount) {
+                changeStamp = list.changeCount;
+                nextIndexValid = false;
+            }
+            if (removalStamp != list.removalCount) {
+                removalStamp = list.removalCount;
+                currentRemovedByAnother = false;
+            }
+        }
+
+        /**
+         * Attaches this cursor to the nodes it is positioned at.
+         */
+        void attach() {
+            final CursorRef<E> ref = this.ref;
+            if (ref != null) {
+                final CursorableLinkedList<E> list = (CursorableLinkedList<E>) parent;
+                ref.nextAttachment.moveTo(list.attachmentNode(next));
+                ref.currentAttachment.moveTo(current == next ? null : list.attachmentNode(current));
+            }
+        }
+
+        @Override
+        public E next() {
+            final E value = super.next();
+            attach();
+            return value;
+        }
+
+        @Override
+        public E previous() {
+            final E value = super.previous();
+            attach();
+            return value;
         }
 
         /**
@@ -425,6 +560,7 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
          */
         @Override
         public void remove() {
+            catchUp();
             // overridden, as the nodeRemoved() method updates the iterator
             // state in the parent.removeNode() call below
             if (current == null && currentRemovedByAnother) { // NOPMD
@@ -437,6 +573,7 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
                 parent.removeNode(getLastNodeReturned());
             }
             currentRemovedByAnother = false;
+            attach();
         }
 
         /**
@@ -452,6 +589,7 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
             // matches the (next.previous == node) clause in nodeInserted()
             // thus next gets changed - reset it again here
             next = next.next;
+            attach();
         }
 
         // set is not overridden, as it works ok
@@ -466,6 +604,7 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
          */
         @Override
         public int nextIndex() {
+            catchUp();
             if (!nextIndexValid) {
                 if (next == parent.header) {
                     nextIndex = parent.size();
@@ -559,6 +698,107 @@ public class CursorableLinkedList<E> extends AbstractLinkedList<E> implements Se
         }
     }
 
+    /**
+     * Gets the node holding the attachments of the cursors positioned at a node.
+     *
+     * @param node  the node, may be null
+     * @return the node holding the attachments, null if the node is null
+     */
+    CursorNode<E> attachmentNode(final Node<E> node) {
+        if (node == null) {
+            return null;
+        }
+        // nodes created by subclasses are not indexed, their cursors are always notified
+        return node instanceof CursorNode ? (CursorNode<E>) node : unindexed;
+    }
+
+    /**
+     * A node that the cursors positioned at it are attached to.
+     */
+    static class CursorNode<E> extends Node<E> {
+        /** The first attachment of a cursor, null if none */
+        Attachment<E> attachments;
+
+        CursorNode() {
+        }
+
+        CursorNode(final E value) {
+            super(value);
+        }
+    }
+
+    /**
+     * The attachment of a cursor to a node, linked with the other attachments to the node.
+     */
+    static final class Attachment<E> {
+        /** The reference to the cursor */
+        final CursorRef<E> ref;
+        /** The node attached to, null if detached */
+        CursorNode<E> node;
+        /** The previous attachment to the node */
+        Attachment<E> previous;
+        /** The next attachment to the node */
+        Attachment<E> next;
+
+        Attachment(final CursorRef<E> ref) {
+            this.ref = ref;
+        }
+
+        /**
+         * Moves this attachment to another node.
+         *
+         * @param target  the node to attach to, null to detach
+         */
+        void moveTo(final CursorNode<E> target) {
+            if (target == node) {
+                return;
+            }
+            if (node != null) {
+                if (previous == null) {
+                    node.attachments = next;
+                } else {
+                    previous.next = next;
+                }
+                if (next != null) {
+                    next.previous = previous;
+                }
+                previous = null;
+                next = null;
+            }
+            node = target;
+            if (target != null) {
+                next = target.attachments;
+                if (next != null) {
+                    next.previous = this;
+                }
+                target.attachments = this;
+            }
+        }
+    }
+
+    /**
+     * A weak reference to a registered cursor, holding its attachments to the nodes
+     * at its next and last returned elements.
+     */
+    static final class CursorRef<E> extends WeakReference<Cursor<E>> {
+        /** The attachment to the node of the next element */
+        final Attachment<E> nextAttachment = new Attachment<>(this);
+        /** The attachment to the node of the last returned element, unless it is the next one */
+        final Attachment<E> currentAttachment = new Attachment<>(this);
+
+        CursorRef(final Cursor<E> cursor, final ReferenceQueue<Cursor<E>> queue) {
+            super(cursor, queue);
+        }
+
+        /**
+         * Detaches the cursor from all nodes.
+         */
+        void detach() {
+            nextAttachment.moveTo(null);
+            currentAttachment.moveTo(null);
+        }
+    }
+
     /**
      * A cursor for the sublist based on LinkedSubListIterator.
      *
@@ -0,0 +1,841 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.collections4.OrderedIterator;
+import org.apache.commons.collections4.set.UnmodifiableSet;
+
+/**
+ * A {@code List} implementation that rejects duplicates much like a
+ * {@code Set}, and finds the position of its elements in O(log n) time.
+ * <p>
+ * This list behaves as a {@link SetUniqueList} decorating an {@code ArrayList},
+ * including its violations of the {@code List} interface: adding an element that
+ * is already present does nothing, and setting one removes its previous
+ * occurrence. But where {@code SetUniqueList} scans the decorated list, this
+ * list keeps its elements in the nodes of a balanced (AVL) order-statistic tree
+ * and maps each element to its node. As a result {@link #contains(Object)} runs
+ * in O(1) time, and {@link #indexOf(Object)}, {@link #remove(Object)},
+ * {@link #set(int, Object)}, {@link #get(int)} and insertion at any index run in
+ * O(log n) time.
+ * </p>
+ * <p>
+ * Each element uses a tree node and a hash map entry, so this list uses several
+ * times more memory than a {@code SetUniqueList} over an {@code ArrayList}.
+ * Use it for large lists that are searched or modified by value.
+ * </p>
+ * <p>
+ * As with {@code SetUniqueList}, the sublists are unmodifiable and the list
+ * iterator does not support {@code set}. Bear in mind that the elements must
+ * not change their hash code while in the list.
+ * </p>
+ * <p>
+ * Note that IndexedSetUniqueList is not synchronized and is not thread-safe.
+ * </p>
+ *
+ * @param <E> the type of the elements in the list
+ * @since 4.5
+ */
+public class IndexedSetUniqueList<E> extends AbstractList<E> implements Serializable {
+
+    /** Serialization version */
+    private static final long serialVersionUID = 20231104L;
+
+    /** The node of each element */
+    private transient Map<Object, Node<E>> nodes;
+
+    /** The root of the tree, null when the list is empty */
+    private transient Node<E> root;
+
+    /**
+     * Constructs a new empty list.
+     */
+    public IndexedSetUniqueList() {
+        nodes = new HashMap<>();
+    }
+
+    /**
+     * Constructs a new list that copies the specified collection,
+     * keeping the first occurrence of each element.
+     *
+     * @param coll  the collection to copy
+     * @throws NullPointerException if the collection is null
+     */
+    public IndexedSetUniqueList(final Collection<? extends E> coll) {
+        this();
+        addAll(coll);
+    }
+
+    /**
+     * Gets an unmodifiable view as a Set.
+     *
+     * @return an unmodifiable set view
+     */
+    public Set<E> asSet() {
+        @SuppressWarnings("unchecked")
+        final Set<E> elements = (Set<E>) nodes.keySet();
+        return UnmodifiableSet.unmodifiableSet(elements);
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index  the index to retrieve
+     * @return the element at the specified index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E get(final int index) {
+        checkInterval(index, 0, size() - 1);
+        return nodeAt(index).value;
+    }
+
+    /**
+     * Gets the current size of the list.
+     *
+     * @return the current size
+     */
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Checks whether the list contains the specified object.
+     * <p>
+     * This implementation runs in O(1) time.
+     *
+     * @param object  the object to search for
+     * @return true if the list contains the object
+     */
+    @Override
+    public boolean contains(final Object object) {
+        return nodes.containsKey(object);
+    }
+
+    /**
+     * Searches for the index of an object in the list.
+     * <p>
+     * This implementation runs in O(log n) time.
+     *
+     * @param object  the object to search for
+     * @return the index of the object, -1 if not found
+     */
+    @Override
+    public int indexOf(final Object object) {
+        final Node<E> node = nodes.get(object);
+        if (node == null) {
+            return CollectionUtils.INDEX_NOT_FOUND;
+        }
+        int index = sizeOf(node.left);
+        for (Node<E> child = node; child.parent != null; child = child.parent) {
+            if (child == child.parent.right) {
+                index += sizeOf(child.parent.left) + 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Searches for the last index of an object in the list.
+     * <p>
+     * As the elements are unique, this is the same as {@link #indexOf(Object)}.
+     *
+     * @param object  the object to search for
+     * @return the index of the object, -1 if not found
+     */
+    @Override
+    public int lastIndexOf(final Object object) {
+        return indexOf(object);
+    }
+
+    /**
+     * Adds an element to the end of the list if it is not already present.
+     * <p>
+     * <i>(Violation)</i> The {@code List} interface requires that this
+     * method returns {@code true} always. However this class may return
+     * {@code false} because of the {@code Set} behavior.
+     *
+     * @param object  the object to add
+     * @return true if object was added
+     */
+    @Override
+    public boolean add(final E object) {
+        if (nodes.containsKey(object)) {
+            return false;
+        }
+        insertBefore(null, object);
+        return true;
+    }
+
+    /**
+     * Adds an element to a specific index in the list if it is not already
+     * present.
+     * <p>
+     * <i>(Violation)</i> The {@code List} interface makes the assumption
+     * that the element is always inserted. This may not happen with this
+     * implementation.
+     *
+     * @param index  the index to insert at
+     * @param object  the object to add
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public void add(final int index, final E object) {
+        checkInterval(index, 0, size());
+        if (!nodes.containsKey(object)) {
+            insertBefore(index == size() ? null : nodeAt(index), object);
+        }
+    }
+
+    /**
+     * Adds a collection of objects to the end of the list avoiding duplicates.
+     * <p>
+     * Only elements that are not already in this list will be added, and
+     * duplicates from the specified collection will be ignored.
+     *
+     * @param coll  the collection to add in iterator order
+     * @return true if this list changed
+     */
+    @Override
+    public boolean addAll(final Collection<? extends E> coll) {
+        boolean changed = false;
+        for (final E e : coll) {
+            changed |= add(e);
+        }
+        return changed;
+    }
+
+    /**
+     * Adds a collection of objects at a specific index in the list avoiding
+     * duplicates.
+     * <p>
+     * Only elements that are not already in this list will be added, and
+     * duplicates from the specified collection will be ignored.
+     *
+     * @param index  the index to insert at
+     * @param coll  the collection to add in iterator order
+     * @return true if this list changed
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> coll) {
+        checkInterval(index, 0, size());
+        final Node<E> successor = index == size() ? null : nodeAt(index);
+        boolean changed = false;
+        for (final E e : coll) {
+            if (!nodes.containsKey(e)) {
+                insertBefore(successor, e);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the value at the specified index avoiding duplicates.
+     * <p>
+     * The object is set into the specified index. Afterwards, any previous
+     * duplicate is removed. If the object is not already in the list then a
+     * normal set occurs. If it is present, then the old version is removed.
+     *
+     * @param index  the index to set at
+     * @param object  the object to set
+     * @return the previous object
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E set(final int index, final E object) {
+        checkInterval(index, 0, size() - 1);
+        final Node<E> node = nodeAt(index);
+        final E removed = node.value;
+        final Node<E> duplicate = nodes.remove(object);
+        if (duplicate != null && duplicate != node) {
+            unlink(duplicate);
+            modCount++;
+        }
+        nodes.remove(removed);
+        nodes.put(object, node);
+        node.value = object;
+        return removed;
+    }
+
+    /**
+     * Removes the element at the specified index.
+     *
+     * @param index  the index to remove
+     * @return the removed element
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E remove(final int index) {
+        checkInterval(index, 0, size() - 1);
+        final Node<E> node = nodeAt(index);
+        nodes.remove(node.value);
+        unlink(node);
+        modCount++;
+        return node.value;
+    }
+
+    /**
+     * Removes the specified object from the list.
+     * <p>
+     * This implementation runs in O(log n) time.
+     *
+     * @param object  the object to remove
+     * @return true if the list contained the object
+     */
+    @Override
+    public boolean remove(final Object object) {
+        final Node<E> node = nodes.remove(object);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the specified objects from the list.
+     *
+     * @param coll  the objects to remove
+     * @return true if the list changed
+     */
+    @Override
+    public boolean removeAll(final Collection<?> coll) {
+        if (coll.size() > size()) {
+            return super.removeAll(coll);
+        }
+        boolean changed = false;
+        for (final Object object : coll) {
+            changed |= remove(object);
+        }
+        return changed;
+    }
+
+    /**
+     * Clears the list, removing all elements.
+     */
+    @Override
+    public void clear() {
+        nodes.clear();
+        root = null;
+        modCount++;
+    }
+
+    /**
+     * Gets an iterator over the list.
+     *
+     * @return an iterator over the list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     *
+     * @return the new iterator
+     */
+    @Override
+    public ListIterator<E> listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     * <p>
+     * The iterator steps from node to node in O(1) amortized time.
+     * Its {@code add} ignores elements that are already present,
+     * and its {@code set} is unsupported.
+     *
+     * @param fromIndex  the index to start from
+     * @return the new iterator
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public ListIterator<E> listIterator(final int fromIndex) {
+        checkInterval(fromIndex, 0, size());
+        return new IndexedSetUniqueListIterator<>(this, fromIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As with {@link SetUniqueList}, an unmodifiable list is returned,
+     * as changes to the subList could add duplicates.
+     */
+    @Override
+    public List<E> subList(final int fromIndex, final int toIndex) {
+        return ListUtils.unmodifiableList(super.subList(fromIndex, toIndex));
+    }
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  the index to check
+     * @param startIndex  the first allowed index
+     * @param endIndex  the last allowed index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private void checkInterval(final int index, final int startIndex, final int endIndex) {
+        if (index < startIndex || index > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid index:" + index + ", size=" + size());
+        }
+    }
+
+    /**
+     * Gets the node at the specified index, which must be valid.
+     *
+     * @param index  the index
+     * @return the node
+     */
+    private Node<E> nodeAt(int index) {
+        Node<E> node = root;
+        while (true) {
+            final int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Inserts a new element, which must not be present, before a node.
+     *
+     * @param successor  the node to insert before, null to append
+     * @param object  the element to insert
+     */
+    void insertBefore(final Node<E> successor, final E object) {
+        final Node<E> node = new Node<>(object);
+        nodes.put(object, node);
+        modCount++;
+        if (root == null) {
+            root = node;
+            return;
+        }
+        final Node<E> parent;
+        if (successor == null) {
+            parent = last(root);
+            parent.right = node;
+        } else if (successor.left == null) {
+            parent = successor;
+            parent.left = node;
+        } else {
+            parent = last(successor.left);
+            parent.right = node;
+        }
+        node.parent = parent;
+        rebalanceFrom(parent);
+    }
+
+    /**
+     * Unlinks a node from the tree, keeping the other nodes.
+     *
+     * @param node  the node to unlink
+     */
+    void unlink(final Node<E> node) {
+        final Node<E> rebalanceFrom;
+        if (node.left == null) {
+            rebalanceFrom = node.parent;
+            transplant(node, node.right);
+        } else if (node.right == null) {
+            rebalanceFrom = node.parent;
+            transplant(node, node.left);
+        } else {
+            final Node<E> successor = first(node.right);
+            if (successor.parent == node) {
+                rebalanceFrom = successor;
+            } else {
+                rebalanceFrom = successor.parent;
+                transplant(successor, successor.right);
+                successor.right = node.right;
+                successor.right.parent = successor;
+            }
+            transplant(node, successor);
+            successor.left = node.left;
+            successor.left.parent = successor;
+        }
+        node.parent = node.left = node.right = null;
+        rebalanceFrom(rebalanceFrom);
+    }
+
+    /**
+     * Replaces the subtree rooted at one node with the subtree rooted at another.
+     *
+     * @param node  the node to replace
+     * @param replacement  the replacement subtree, may be null
+     */
+    private void transplant(final Node<E> node, final Node<E> replacement) {
+        final Node<E> parent = node.parent;
+        if (parent == null) {
+            root = replacement;
+        } else if (node == parent.left) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        if (replacement != null) {
+            replacement.parent = parent;
+        }
+    }
+
+    /**
+     * Recalculates heights and sizes, and rebalances, from the node up to the root.
+     *
+     * @param node  the deepest node that changed, may be null
+     */
+    private void rebalanceFrom(Node<E> node) {
+        while (node != null) {
+            node.recalc();
+            node = balance(node).parent;
+        }
+    }
+
+    /**
+     * Balances according to the AVL algorithm.
+     *
+     * @param node  the node to balance, children must be balanced
+     * @return the node now at the position of the input node
+     */
+    private Node<E> balance(final Node<E> node) {
+        final int balance = heightOf(node.right) - heightOf(node.left);
+        if (balance < -1) {
+            if (heightOf(node.left.right) > heightOf(node.left.left)) {
+                rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance > 1) {
+            if (heightOf(node.right.left) > heightOf(node.right.right)) {
+                rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<E> rotateLeft(final Node<E> node) {
+        final Node<E> newTop = node.right;
+        node.right = newTop.left;
+        if (newTop.left != null) {
+            newTop.left.parent = node;
+        }
+        transplant(node, newTop);
+        newTop.left = node;
+        node.parent = newTop;
+        node.recalc();
+        newTop.recalc();
+        return newTop;
+    }
+
+    private Node<E> rotateRight(final Node<E> node) {
+        final Node<E> newTop = node.left;
+        node.left = newTop.right;
+        if (newTop.right != null) {
+            newTop.right.parent = node;
+        }
+        transplant(node, newTop);
+        newTop.right = node;
+        node.parent = newTop;
+        node.recalc();
+        newTop.recalc();
+        return newTop;
+    }
+
+    /**
+     * Serializes the data held in this object to the stream specified.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (final E e : this) {
+            out.writeObject(e);
+        }
+    }
+
+    /**
+     * Deserializes the data held in this object to the stream specified.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        nodes = new HashMap<>();
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            add((E) in.readObject());
+        }
+    }
+
+    /**
+     * Returns the height of the node or -1 if the node is null.
+     */
+    private static int heightOf(final Node<?> node) {
+        return node == null ? -1 : node.height;
+    }
+
+    /**
+     * Returns the size of the subtree rooted at the node or 0 if the node is null.
+     */
+    private static int sizeOf(final Node<?> node) {
+        return node == null ? 0 : node.treeSize;
+    }
+
+    /**
+     * Returns the leftmost node of the subtree rooted at the node.
+     */
+    static <E> Node<E> first(Node<E> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the rightmost node of the subtree rooted at the node.
+     */
+    static <E> Node<E> last(Node<E> node) {
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    /**
+     * A node in the order-statistic tree, holding one element.
+     */
+    static final class Node<E> {
+        /** The element */
+        E value;
+        /** The parent node in the tree */
+        Node<E> parent;
+        /** The left child node in the tree */
+        Node<E> left;
+        /** The right child node in the tree */
+        Node<E> right;
+        /** How many levels of left/right are below this one */
+        int height;
+        /** The number of nodes in the subtree rooted at this node */
+        int treeSize = 1;
+
+        Node(final E value) {
+            this.value = value;
+        }
+
+        /**
+         * Sets the height and size by calculation.
+         */
+        void recalc() {
+            height = Math.max(heightOf(left), heightOf(right)) + 1;
+            treeSize = sizeOf(left) + sizeOf(right) + 1;
+        }
+
+        /**
+         * Gets the next node in list order.
+         *
+         * @return the next node, null if none
+         */
+        Node<E> next() {
+            if (right != null) {
+                return first(right);
+            }
+            Node<E> node = this;
+            while (node.parent != null && node == node.parent.right) {
+                node = node.parent;
+            }
+            return node.parent;
+        }
+
+        /**
+         * Gets the previous node in list order.
+         *
+         * @return the previous node, null if none
+         */
+        Node<E> previous() {
+            if (left != null) {
+                return last(left);
+            }
+            Node<E> node = this;
+            while (node.parent != null && node == node.parent.left) {
+                node = node.parent;
+            }
+            return node.parent;
+        }
+    }
+
+    /**
+     * A list iterator over the nodes of the list.
+     */
+    static class IndexedSetUniqueListIterator<E> implements ListIterator<E>, OrderedIterator<E> {
+        /** The parent list */
+        private final IndexedSetUniqueList<E> parent;
+        /** The node of the next element, null at the end of the list */
+        private Node<E> next;
+        /** The index of the next element */
+        private int nextIndex;
+        /** The node last returned, null if removed or none */
+        private Node<E> current;
+        /** The modification count that the list is expected to have */
+        private int expectedModCount;
+
+        /**
+         * Create a ListIterator for a list.
+         *
+         * @param parent  the parent list
+         * @param fromIndex  the index to start at
+         */
+        protected IndexedSetUniqueListIterator(final IndexedSetUniqueList<E> parent, final int fromIndex) {
+            this.parent = parent;
+            this.expectedModCount = parent.modCount;
+            this.next = fromIndex == parent.size() ? null : parent.nodeAt(fromIndex);
+            this.nextIndex = fromIndex;
+        }
+
+        /**
+         * Checks the modification count of the list is the value that this
+         * object expects.
+         *
+         * @throws ConcurrentModificationException If the list's modification
+         * count isn't the value that was expected.
+         */
+        protected void checkModCount() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size();
+        }
+
+        @Override
+        public E next() {
+            checkModCount();
+            if (!hasNext()) {
+                throw new NoSuchElementException("No element at index " + nextIndex + ".");
+            }
+            current = next;
+            next = next.next();
+            nextIndex++;
+            return current.value;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkModCount();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException("Already at start of list.");
+            }
+            next = next == null ? last(parent.root) : next.previous();
+            current = next;
+            nextIndex--;
+            return current.value;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex() - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkModCount();
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            if (current == next) {
+                // removing the element returned by previous()
+                next = next.next();
+            } else {
+                nextIndex--;
+            }
+            parent.remove(current.value);
+            current = null;
+            expectedModCount = parent.modCount;
+        }
+
+        /**
+         * Not supported, as setting could remove a duplicate elsewhere in the list.
+         *
+         * @param obj  the object to set
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public void set(final E obj) {
+            throw new UnsupportedOperationException("ListIterator does not support set");
+        }
+
+        /**
+         * Adds an element before the next element if it is not already present.
+         *
+         * @param obj  the object to add
+         */
+        @Override
+        public void add(final E obj) {
+            checkModCount();
+            if (!parent.nodes.containsKey(obj)) {
+                parent.insertBefore(next, obj);
+                nextIndex++;
+            }
+            current = null;
+            expectedModCount = parent.modCount;
+        }
+    }
+
+}
@@ -0,0 +1,544 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.collections4.Unmodifiable;
+
+/**
+ * An immutable {@code List} implementation whose modified versions share
+ * most of their structure with it.
+ * <p>
+ * Like {@link TreeList}, this list stores its elements in the nodes of an AVL
+ * tree indexed by position. But the nodes are never changed: the methods
+ * {@link #with(int, Object)}, {@link #plus(Object)}, {@link #plus(int, Object)}
+ * and {@link #minus(int)} return a new list that copies only the O(log n) nodes
+ * on the path to the changed index, and shares all other subtrees with this
+ * list. Both lists stay valid, so a writer can keep deriving new versions while
+ * readers hold on to the version they started with, without copying or locking.
+ * </p>
+ * <p>
+ * The {@code List} methods that would modify the list throw
+ * {@link UnsupportedOperationException}. Getting by index runs in O(log n)
+ * time, and iteration in O(1) amortized time per element.
+ * </p>
+ * <p>
+ * As instances are immutable, this list is thread-safe provided the elements
+ * are safely published with it.
+ * </p>
+ *
+ * @param <E> the type of the elements in the list
+ * @since 4.5
+ */
+public final class PersistentTreeList<E> extends AbstractList<E> implements Unmodifiable {
+
+    /** The empty list */
+    @SuppressWarnings("rawtypes")
+    private static final PersistentTreeList EMPTY = new PersistentTreeList<>((Node<Object>) null);
+
+    /** The root of the tree, null when the list is empty */
+    private final Node<E> root;
+
+    /**
+     * Gets the empty list.
+     *
+     * @param <E> the type of the elements in the list
+     * @return the empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentTreeList<E> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a list holding the elements of the specified collection.
+     * <p>
+     * The tree is built balanced in O(n) time.
+     *
+     * @param <E> the type of the elements in the list
+     * @param coll  the collection to copy
+     * @return a list of the elements in iterator order
+     * @throws NullPointerException if the collection is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentTreeList<E> of(final Collection<? extends E> coll) {
+        if (coll instanceof PersistentTreeList) {
+            return (PersistentTreeList<E>) coll;
+        }
+        final Object[] elements = coll.toArray();
+        return elements.length == 0 ? empty() : new PersistentTreeList<>(build(elements, 0, elements.length));
+    }
+
+    /**
+     * Constructs a list around a tree.
+     *
+     * @param root  the root of the tree, null for the empty list
+     */
+    private PersistentTreeList(final Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index  the index to retrieve
+     * @return the element at the specified index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E get(final int index) {
+        checkInterval(index, 0, size() - 1);
+        return nodeAt(root, index).value;
+    }
+
+    /**
+     * Gets the current size of the list.
+     *
+     * @return the current size
+     */
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Returns a list with the element at the specified index replaced.
+     * <p>
+     * This runs in O(log n) time and memory.
+     *
+     * @param index  the index to replace
+     * @param element  the new element
+     * @return the new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public PersistentTreeList<E> with(final int index, final E element) {
+        checkInterval(index, 0, size() - 1);
+        return new PersistentTreeList<>(with(root, index, element));
+    }
+
+    /**
+     * Returns a list with the specified element added at the end.
+     * <p>
+     * This runs in O(log n) time and memory.
+     *
+     * @param element  the element to add
+     * @return the new list
+     */
+    public PersistentTreeList<E> plus(final E element) {
+        return new PersistentTreeList<>(insert(root, size(), element));
+    }
+
+    /**
+     * Returns a list with the specified element inserted at an index.
+     * <p>
+     * This runs in O(log n) time and memory.
+     *
+     * @param index  the index to insert at
+     * @param element  the element to insert
+     * @return the new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public PersistentTreeList<E> plus(final int index, final E element) {
+        checkInterval(index, 0, size());
+        return new PersistentTreeList<>(insert(root, index, element));
+    }
+
+    /**
+     * Returns a list with the element at the specified index removed.
+     * <p>
+     * This runs in O(log n) time and memory.
+     *
+     * @param index  the index to remove
+     * @return the new list
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public PersistentTreeList<E> minus(final int index) {
+        checkInterval(index, 0, size() - 1);
+        final Node<E> newRoot = remove(root, index);
+        return newRoot == null ? empty() : new PersistentTreeList<>(newRoot);
+    }
+
+    /**
+     * Gets an iterator over the list.
+     * <p>
+     * The iterator walks the tree with a stack, so each step takes O(1)
+     * amortized time.
+     *
+     * @return an iterator over the list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new PersistentTreeListIterator<>(root);
+    }
+
+    /**
+     * Searches for the index of an object in the list.
+     *
+     * @param object  the object to search for
+     * @return the index of the object, -1 if not found
+     */
+    @Override
+    public int indexOf(final Object object) {
+        int index = 0;
+        for (final E e : this) {
+            if (object == null ? e == null : object.equals(e)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param element  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean add(final E element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param coll  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addAll(final Collection<? extends E> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param index  ignored
+     * @param coll  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param object  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(final Object object) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param coll  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeAll(final Collection<?> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param filter  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeIf(final Predicate<? super E> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param coll  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean retainAll(final Collection<?> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param operator  ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void replaceAll(final UnaryOperator<E> operator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @param comparator  ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void sort(final Comparator<? super E> comparator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported as the list is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  the index to check
+     * @param startIndex  the first allowed index
+     * @param endIndex  the last allowed index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private void checkInterval(final int index, final int startIndex, final int endIndex) {
+        if (index < startIndex || index > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid index:" + index + ", size=" + size());
+        }
+    }
+
+    /**
+     * Builds a balanced tree of a range of elements.
+     *
+     * @param elements  the elements
+     * @param from  the index of the first element, inclusive
+     * @param to  the index of the last element, exclusive
+     * @return the root of the tree, null if the range is empty
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> build(final Object[] elements, final int from, final int to) {
+        if (from >= to) {
+            return null;
+        }
+        final int mid = (from + to) >>> 1;
+        return new Node<>((E) elements[mid], build(elements, from, mid), build(elements, mid + 1, to));
+    }
+
+    /**
+     * Gets the node at the specified index, which must be valid.
+     */
+    private static <E> Node<E> nodeAt(Node<E> node, int index) {
+        while (true) {
+            final int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Copies the path to the node at the specified index, replacing its element.
+     */
+    private static <E> Node<E> with(final Node<E> node, final int index, final E element) {
+        final int leftSize = sizeOf(node.left);
+        if (index < leftSize) {
+            return new Node<>(node.value, with(node.left, index, element), node.right);
+        }
+        if (index > leftSize) {
+            return new Node<>(node.value, node.left, with(node.right, index - leftSize - 1, element));
+        }
+        return new Node<>(element, node.left, node.right);
+    }
+
+    /**
+     * Copies the path to the specified index, inserting an element there.
+     */
+    private static <E> Node<E> insert(final Node<E> node, final int index, final E element) {
+        if (node == null) {
+            return new Node<>(element, null, null);
+        }
+        final int leftSize = sizeOf(node.left);
+        if (index <= leftSize) {
+            return balance(node.value, insert(node.left, index, element), node.right);
+        }
+        return balance(node.value, node.left, insert(node.right, index - leftSize - 1, element));
+    }
+
+    /**
+     * Copies the path to the specified index, removing the element there.
+     */
+    private static <E> Node<E> remove(final Node<E> node, final int index) {
+        final int leftSize = sizeOf(node.left);
+        if (index < leftSize) {
+            return balance(node.value, remove(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node.value, node.left, remove(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<E> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.value, node.left, removeFirst(node.right));
+    }
+
+    /**
+     * Copies the path to the first node, removing it.
+     */
+    private static <E> Node<E> removeFirst(final Node<E> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.value, removeFirst(node.left), node.right);
+    }
+
+    /**
+     * Creates a node from balanced subtrees whose heights differ by at most two,
+     * rotating according to the AVL algorithm.
+     */
+    private static <E> Node<E> balance(final E value, final Node<E> left, final Node<E> right) {
+        final int balance = heightOf(right) - heightOf(left);
+        if (balance < -1) {
+            if (heightOf(left.right) > heightOf(left.left)) {
+                final Node<E> pivot = left.right;
+                return new Node<>(pivot.value,
+                        new Node<>(left.value, left.left, pivot.left),
+                        new Node<>(value, pivot.right, right));
+            }
+            return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+        }
+        if (balance > 1) {
+            if (heightOf(right.left) > heightOf(right.right)) {
+                final Node<E> pivot = right.left;
+                return new Node<>(pivot.value,
+                        new Node<>(value, left, pivot.left),
+                        new Node<>(right.value, pivot.right, right.right));
+            }
+            return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+        }
+        return new Node<>(value, left, right);
+    }
+
+    /**
+     * Returns the height of the node or -1 if the node is null.
+     */
+    private static int heightOf(final Node<?> node) {
+        return node == null ? -1 : node.height;
+    }
+
+    /**
+     * Returns the size of the subtree rooted at the node or 0 if the node is null.
+     */
+    private static int sizeOf(final Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * An immutable node in the tree, possibly shared between lists.
+     */
+    static final class Node<E> {
+        /** The element */
+        final E value;
+        /** The left child node, null if none */
+        final Node<E> left;
+        /** The right child node, null if none */
+        final Node<E> right;
+        /** How many levels of left/right are below this one */
+        final int height;
+        /** The number of nodes in the subtree rooted at this node */
+        final int size;
+
+        Node(final E value, final Node<E> left, final Node<E> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(heightOf(left), heightOf(right)) + 1;
+            this.size = sizeOf(left) + sizeOf(right) + 1;
+        }
+    }
+
+    /**
+     * An iterator walking the tree in order with a stack of the nodes still to visit.
+     */
+    static final class PersistentTreeListIterator<E> implements Iterator<E> {
+        /** The nodes whose element and right subtree are still to visit */
+        private final Object[] stack;
+        /** The number of nodes on the stack */
+        private int depth;
+
+        PersistentTreeListIterator(final Node<E> root) {
+            stack = new Object[heightOf(root) + 1];
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node<E> node) {
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            final Node<E> node = (Node<E>) stack[--depth];
+            stack[depth] = null;
+            pushLeft(node.right);
+            return node.value;
+        }
+    }
+
+}
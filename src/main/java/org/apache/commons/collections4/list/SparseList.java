@@ -0,0 +1,662 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+import org.apache.commons.collections4.CollectionUtils;
+
+/**
+ * A {@code List} implementation that stores only its non-null elements,
+ * for huge lists where most indices are empty.
+ * <p>
+ * The list is divided into pages of 64 indices, and only the pages holding
+ * a non-null element are stored, in a sorted map keyed by page number.
+ * A {@code null} element is not stored, so setting an index to {@code null}
+ * frees its slot, and an empty page is discarded.
+ * </p>
+ * <p>
+ * Like {@link GrowthList}, setting or adding at an index beyond the end of the
+ * list grows the list to that index, the indices in between reading as
+ * {@code null}. But where {@code GrowthList} pads the decorated list with
+ * {@code null}s, this list only changes its size, so {@code set(10_000_000, x)}
+ * on an empty list stores a single page.
+ * </p>
+ * <p>
+ * Getting and setting by index run in O(log p) time, where p is the number of
+ * stored pages, and repeated access to the same page is O(1). Inserting or
+ * removing in the middle of the list moves the elements after that index, in
+ * time proportional to their number rather than to the size of the list.
+ * {@link #nextPopulatedIndex(int)}, {@link #previousPopulatedIndex(int)} and
+ * {@link #forEachPopulated(ObjIntConsumer)} visit the non-null elements
+ * without scanning the empty indices.
+ * </p>
+ * <p>
+ * Note that SparseList is not synchronized and is not thread-safe.
+ * </p>
+ *
+ * @param <E> the type of the elements in the list
+ * @since 4.5
+ */
+public class SparseList<E> extends AbstractList<E> implements Serializable {
+
+    /** Serialization version */
+    private static final long serialVersionUID = 20231112L;
+
+    /** The number of bits of an index within its page */
+    private static final int PAGE_SHIFT = 6;
+
+    /** The number of indices in a page */
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    /** The mask of an index within its page */
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /** The pages holding at least one element, by page number */
+    private transient NavigableMap<Integer, Page> pages;
+
+    /** The size of the list */
+    private transient int size;
+
+    /** The number of non-null elements */
+    private transient int populated;
+
+    /** The number of the page last accessed, valid while the page is not null */
+    private transient int cachedNumber;
+
+    /** The page last accessed, null if none */
+    private transient Page cachedPage;
+
+    /**
+     * Constructs a new empty list.
+     */
+    public SparseList() {
+        pages = new TreeMap<>();
+    }
+
+    /**
+     * Constructs a new list that copies the specified collection.
+     *
+     * @param coll  the collection to copy
+     * @throws NullPointerException if the collection is null
+     */
+    public SparseList(final Collection<? extends E> coll) {
+        this();
+        addAll(coll);
+    }
+
+    /**
+     * Gets the current size of the list, including the {@code null} elements.
+     *
+     * @return the current size
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of non-null elements in the list.
+     *
+     * @return the number of populated indices
+     */
+    public int populatedSize() {
+        return populated;
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index  the index to retrieve
+     * @return the element at the specified index, null if not populated
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        checkInterval(index, 0, size - 1);
+        final Page page = page(index >>> PAGE_SHIFT);
+        return page == null ? null : (E) page.slots[index & PAGE_MASK];
+    }
+
+    /**
+     * Sets the element at the specified index.
+     * <p>
+     * If the index is greater than or equal to the current size, the list
+     * grows to include it. Setting {@code null} frees the index.
+     *
+     * @param index  the index to set
+     * @param element  the element to set, may be null
+     * @return the element previously at that index
+     * @throws IndexOutOfBoundsException if the index is negative
+     */
+    @Override
+    public E set(final int index, final E element) {
+        checkInterval(index, 0, Integer.MAX_VALUE - 1);
+        if (index >= size) {
+            size = index + 1;
+            modCount++;
+        }
+        return store(index, element);
+    }
+
+    /**
+     * Adds an element to the end of the list.
+     *
+     * @param element  the element to add, may be null
+     * @return true
+     */
+    @Override
+    public boolean add(final E element) {
+        add(size, element);
+        return true;
+    }
+
+    /**
+     * Inserts an element at the specified index.
+     * <p>
+     * If the index is greater than the current size, the list grows to
+     * include it, the indices in between reading as {@code null}.
+     *
+     * @param index  the index to add at
+     * @param element  the element to add, may be null
+     * @throws IndexOutOfBoundsException if the index is negative
+     */
+    @Override
+    public void add(final int index, final E element) {
+        checkInterval(index, 0, Integer.MAX_VALUE - 1);
+        if (index < size) {
+            moveTail(index, 1);
+            size++;
+        } else {
+            size = index + 1;
+        }
+        modCount++;
+        store(index, element);
+    }
+
+    /**
+     * Adds the elements of a collection to the end of the list.
+     *
+     * @param coll  the collection to add in iterator order
+     * @return true if the list changed
+     */
+    @Override
+    public boolean addAll(final Collection<? extends E> coll) {
+        return addAll(size, coll);
+    }
+
+    /**
+     * Inserts the elements of a collection at the specified index.
+     * <p>
+     * If the index is greater than the current size, the list grows to
+     * include it, the indices in between reading as {@code null}.
+     *
+     * @param index  the index to add at
+     * @param coll  the collection to add in iterator order
+     * @return true if the list changed
+     * @throws IndexOutOfBoundsException if the index is negative
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> coll) {
+        checkInterval(index, 0, Integer.MAX_VALUE - 1);
+        final int count = coll.size();
+        if (index < size) {
+            if (count == 0) {
+                return false;
+            }
+            moveTail(index, count);
+            size += count;
+        } else if (count == 0) {
+            if (index == size) {
+                return false;
+            }
+            size = index;
+        } else {
+            size = index + count;
+        }
+        modCount++;
+        int i = index;
+        for (final E e : coll) {
+            store(i++, e);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the element at the specified index.
+     * <p>
+     * The elements after the index are moved down by one.
+     *
+     * @param index  the index to remove
+     * @return the removed element
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E remove(final int index) {
+        checkInterval(index, 0, size - 1);
+        final E removed = store(index, null);
+        moveTail(index + 1, -1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Removes the elements in the range from one index to another.
+     * <p>
+     * This implementation discards the pages within the range, and moves
+     * the elements after it.
+     *
+     * @param fromIndex  the index of the first element to remove
+     * @param toIndex  the index after the last element to remove
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        clearRange(fromIndex, toIndex);
+        moveTail(toIndex, fromIndex - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    /**
+     * Clears the list, removing all elements.
+     */
+    @Override
+    public void clear() {
+        pages.clear();
+        cachedPage = null;
+        size = 0;
+        populated = 0;
+        modCount++;
+    }
+
+    /**
+     * Checks whether the list contains the specified object.
+     *
+     * @param object  the object to search for, null to search for an unpopulated index
+     * @return true if the list contains the object
+     */
+    @Override
+    public boolean contains(final Object object) {
+        return indexOf(object) != CollectionUtils.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * Searches for the index of an object in the list.
+     * <p>
+     * This implementation only visits the stored pages.
+     *
+     * @param object  the object to search for, null to search for an unpopulated index
+     * @return the index of the object, -1 if not found
+     */
+    @Override
+    public int indexOf(final Object object) {
+        if (object == null) {
+            int index = 0;
+            for (final Map.Entry<Integer, Page> entry : pages.entrySet()) {
+                final int base = entry.getKey() << PAGE_SHIFT;
+                if (base > index) {
+                    break;
+                }
+                final Object[] slots = entry.getValue().slots;
+                int i = 0;
+                while (i < PAGE_SIZE && slots[i] != null) {
+                    i++;
+                }
+                index = base + i;
+                if (i < PAGE_SIZE) {
+                    break;
+                }
+            }
+            return index < size ? index : CollectionUtils.INDEX_NOT_FOUND;
+        }
+        for (final Map.Entry<Integer, Page> entry : pages.entrySet()) {
+            final Object[] slots = entry.getValue().slots;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (object.equals(slots[i])) {
+                    return (entry.getKey() << PAGE_SHIFT) + i;
+                }
+            }
+        }
+        return CollectionUtils.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * Searches for the last index of an object in the list.
+     * <p>
+     * This implementation only visits the stored pages.
+     *
+     * @param object  the object to search for, null to search for an unpopulated index
+     * @return the index of the object, -1 if not found
+     */
+    @Override
+    public int lastIndexOf(final Object object) {
+        if (object == null) {
+            int index = size - 1;
+            for (final Map.Entry<Integer, Page> entry : pages.descendingMap().entrySet()) {
+                final int base = entry.getKey() << PAGE_SHIFT;
+                if (base + PAGE_MASK < index) {
+                    break;
+                }
+                final Object[] slots = entry.getValue().slots;
+                int i = index - base;
+                while (i >= 0 && slots[i] != null) {
+                    i--;
+                }
+                index = base + i;
+                if (i >= 0) {
+                    break;
+                }
+            }
+            return index;
+        }
+        for (final Map.Entry<Integer, Page> entry : pages.descendingMap().entrySet()) {
+            final Object[] slots = entry.getValue().slots;
+            for (int i = PAGE_MASK; i >= 0; i--) {
+                if (object.equals(slots[i])) {
+                    return (entry.getKey() << PAGE_SHIFT) + i;
+                }
+            }
+        }
+        return CollectionUtils.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * Gets the first index holding a non-null element at or after the specified index.
+     * <p>
+     * To iterate over the populated indices, use:
+     * <pre>
+     * for (int i = list.nextPopulatedIndex(0); i &gt;= 0; i = list.nextPopulatedIndex(i + 1)) {
+     *     // operate on list.get(i)
+     * }
+     * </pre>
+     *
+     * @param fromIndex  the index to start searching from, inclusive
+     * @return the next populated index, -1 if none
+     * @throws IndexOutOfBoundsException if the index is negative
+     */
+    public int nextPopulatedIndex(final int fromIndex) {
+        checkInterval(fromIndex, 0, Integer.MAX_VALUE);
+        for (final Map.Entry<Integer, Page> entry : pages.tailMap(fromIndex >>> PAGE_SHIFT, true).entrySet()) {
+            final int base = entry.getKey() << PAGE_SHIFT;
+            final Object[] slots = entry.getValue().slots;
+            for (int i = Math.max(fromIndex - base, 0); i < PAGE_SIZE; i++) {
+                if (slots[i] != null) {
+                    return base + i;
+                }
+            }
+        }
+        return CollectionUtils.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * Gets the last index holding a non-null element at or before the specified index.
+     *
+     * @param fromIndex  the index to start searching from, inclusive, -1 to find none
+     * @return the previous populated index, -1 if none
+     * @throws IndexOutOfBoundsException if the index is less than -1
+     */
+    public int previousPopulatedIndex(final int fromIndex) {
+        checkInterval(fromIndex, -1, Integer.MAX_VALUE);
+        if (fromIndex < 0) {
+            return CollectionUtils.INDEX_NOT_FOUND;
+        }
+        for (final Map.Entry<Integer, Page> entry
+                : pages.headMap(fromIndex >>> PAGE_SHIFT, true).descendingMap().entrySet()) {
+            final int base = entry.getKey() << PAGE_SHIFT;
+            final Object[] slots = entry.getValue().slots;
+            for (int i = Math.min(fromIndex - base, PAGE_MASK); i >= 0; i--) {
+                if (slots[i] != null) {
+                    return base + i;
+                }
+            }
+        }
+        return CollectionUtils.INDEX_NOT_FOUND;
+    }
+
+    /**
+     * Performs the given action for each non-null element with its index,
+     * in index order, skipping the unpopulated indices.
+     *
+     * @param action  the action to perform with each element and its index
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the action adds or removes elements
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachPopulated(final ObjIntConsumer<? super E> action) {
+        Objects.requireNonNull(action, "action");
+        final int expectedModCount = modCount;
+        for (final Map.Entry<Integer, Page> entry : pages.entrySet()) {
+            final int base = entry.getKey() << PAGE_SHIFT;
+            final Object[] slots = entry.getValue().slots;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (slots[i] != null) {
+                    action.accept((E) slots[i], base + i);
+                }
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  the index to check
+     * @param startIndex  the first allowed index
+     * @param endIndex  the last allowed index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private void checkInterval(final int index, final int startIndex, final int endIndex) {
+        if (index < startIndex || index > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid index:" + index + ", size=" + size());
+        }
+    }
+
+    /**
+     * Gets a stored page.
+     *
+     * @param number  the page number
+     * @return the page, null if not stored
+     */
+    private Page page(final int number) {
+        if (cachedPage != null && cachedNumber == number) {
+            return cachedPage;
+        }
+        final Page page = pages.get(number);
+        if (page != null) {
+            cachedNumber = number;
+            cachedPage = page;
+        }
+        return page;
+    }
+
+    /**
+     * Stores an element at an index within the size, without changing the size.
+     *
+     * @param index  the index
+     * @param element  the element, null to free the index
+     * @return the element previously at the index
+     */
+    @SuppressWarnings("unchecked")
+    private E store(final int index, final E element) {
+        final int number = index >>> PAGE_SHIFT;
+        Page page = page(number);
+        if (page == null) {
+            if (element == null) {
+                return null;
+            }
+            page = new Page();
+            pages.put(number, page);
+            cachedNumber = number;
+            cachedPage = page;
+        }
+        final int slot = index & PAGE_MASK;
+        final E previous = (E) page.slots[slot];
+        page.slots[slot] = element;
+        if (previous == null) {
+            if (element != null) {
+                page.count++;
+                populated++;
+            }
+        } else if (element == null) {
+            populated--;
+            if (--page.count == 0) {
+                pages.remove(number);
+                cachedPage = null;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Frees the indices in a range.
+     *
+     * @param fromIndex  the first index to free
+     * @param toIndex  the index after the last index to free
+     */
+    private void clearRange(final int fromIndex, final int toIndex) {
+        final Iterator<Map.Entry<Integer, Page>> it =
+                pages.subMap(fromIndex >>> PAGE_SHIFT, true, (toIndex - 1) >>> PAGE_SHIFT, true).entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Integer, Page> entry = it.next();
+            final int base = entry.getKey() << PAGE_SHIFT;
+            final Page page = entry.getValue();
+            final int end = Math.min(toIndex - base, PAGE_SIZE);
+            for (int i = Math.max(fromIndex - base, 0); i < end; i++) {
+                if (page.slots[i] != null) {
+                    page.slots[i] = null;
+                    page.count--;
+                    populated--;
+                }
+            }
+            if (page.count == 0) {
+                it.remove();
+            }
+        }
+        cachedPage = null;
+    }
+
+    /**
+     * Moves the elements at and after an index by a distance.
+     * <p>
+     * When moving down, the indices moved onto must be free.
+     *
+     * @param fromIndex  the index of the first element to move
+     * @param distance  the distance to move by, negative to move down
+     */
+    private void moveTail(final int fromIndex, final int distance) {
+        final NavigableMap<Integer, Page> moved = new TreeMap<>();
+        final Iterator<Map.Entry<Integer, Page>> it =
+                pages.tailMap(fromIndex >>> PAGE_SHIFT, true).entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Integer, Page> entry = it.next();
+            final int base = entry.getKey() << PAGE_SHIFT;
+            final Page page = entry.getValue();
+            for (int i = Math.max(fromIndex - base, 0); i < PAGE_SIZE; i++) {
+                final Object element = page.slots[i];
+                if (element != null) {
+                    page.slots[i] = null;
+                    page.count--;
+                    final int index = base + i + distance;
+                    final Page target = moved.computeIfAbsent(index >>> PAGE_SHIFT, number -> new Page());
+                    target.slots[index & PAGE_MASK] = element;
+                    target.count++;
+                }
+            }
+            if (page.count == 0) {
+                it.remove();
+            }
+        }
+        for (final Map.Entry<Integer, Page> entry : moved.entrySet()) {
+            final Page page = pages.putIfAbsent(entry.getKey(), entry.getValue());
+            if (page != null) {
+                final Page source = entry.getValue();
+                for (int i = 0; i < PAGE_SIZE; i++) {
+                    if (source.slots[i] != null) {
+                        page.slots[i] = source.slots[i];
+                    }
+                }
+                page.count += source.count;
+            }
+        }
+        cachedPage = null;
+    }
+
+    /**
+     * Serializes the data held in this object to the stream specified.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        out.writeInt(populated);
+        for (int i = nextPopulatedIndex(0); i >= 0; i = nextPopulatedIndex(i + 1)) {
+            out.writeInt(i);
+            out.writeObject(get(i));
+        }
+    }
+
+    /**
+     * Deserializes the data held in this object to the stream specified.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        pages = new TreeMap<>();
+        size = in.readInt();
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final int index = in.readInt();
+            store(index, (E) in.readObject());
+        }
+    }
+
+    /**
+     * A page of consecutive indices, holding at least one element.
+     */
+    static final class Page {
+        /** The elements, null for a free index */
+        final Object[] slots = new Object[PAGE_SIZE];
+        /** The number of non-null elements */
+        int count;
+    }
+
+}
@@ -25,6 +25,8 @@ import java.util.Iterator;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.OrderedIterator;
@@ -150,6 +152,22 @@ public class TreeList<E> extends AbstractList<E> {
         return new TreeListIterator<>(this, fromIndex);
     }
 
+    /**
+     * Creates a spliterator over the list.
+     * <p>
+     * The spliterator splits its index range in half, each part looks up its
+     * first node in O(log n) time and then follows the links between the nodes.
+     * It reports {@link Spliterator#SIZED}, {@link Spliterator#SUBSIZED} and
+     * {@link Spliterator#ORDERED}, and binds to the list on first use.
+     *
+     * @return a spliterator over the list
+     * @since 4.5
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new TreeListSpliterator<>(this, 0, -1, 0);
+    }
+
     /**
      * Searches for the index of an object in the list.
      *
@@ -232,6 +250,67 @@ public class TreeList<E> extends AbstractList<E> {
         return true;
     }
 
+    /**
+     * Inserts all of the elements in the specified collection into this list
+     * at the specified position, in the order that they are returned by the
+     * specified collection's Iterator.
+     * <p>
+     * The tree is split at the index and joined again with a tree built from
+     * the collection, so this method runs in O(n + log m) time, where m is
+     * the size of this list and n is the size of {@code c}.
+     *
+     * @param index  the index to insert the first element at
+     * @param c  the collection to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @throws NullPointerException if the collection is null
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> c) {
+        checkInterval(index, 0, size());
+        if (index == size) {
+            return addAll(c);
+        }
+        if (c.isEmpty()) {
+            return false;
+        }
+        modCount += c.size();
+        final AVLNode<E> cTree = new AVLNode<>(c);
+        final AVLNode<E>[] parts = root.split(index, size);
+        final AVLNode<E> left = parts[0] == null ? cTree : parts[0].addAll(cTree, index);
+        root = left.addAll(parts[1], index + c.size());
+        size += c.size();
+        return true;
+    }
+
+    /**
+     * Removes the elements from {@code fromIndex}, inclusive, to {@code toIndex}, exclusive.
+     * This is used by {@code subList(fromIndex, toIndex).clear()}.
+     * <p>
+     * The tree is split at both indexes and the outer parts are joined again,
+     * so this method runs in O(log m) time, where m is the size of this list.
+     *
+     * @param fromIndex  the index of the first element to remove
+     * @param toIndex  the index after the last element to remove
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        checkInterval(fromIndex, 0, size() - 1);
+        checkInterval(toIndex, 0, size());
+        modCount++;
+        final AVLNode<E>[] outer = root.split(toIndex, size);
+        final AVLNode<E> left = outer[0].split(fromIndex, toIndex)[0];
+        if (left == null) {
+            root = outer[1];
+        } else {
+            root = outer[1] == null ? left : left.addAll(outer[1], fromIndex);
+        }
+        size -= toIndex - fromIndex;
+    }
+
     /**
      * Sets the element at the specified index.
      *
@@ -899,6 +978,158 @@ public class TreeList<E> extends AbstractList<E> {
             return s;
         }
 
+        /**
+         * Splits the tree rooted at this node into the elements before the index
+         * and the elements from the index on. This operation is destructive to the
+         * tree and runs in O(log n) time.
+         *
+         * @param index  the index of the first element of the second tree
+         * @param size  the number of elements in this tree
+         * @return the roots of the two trees, null for an empty tree
+         */
+        AVLNode<E>[] split(final int index, final int size) {
+            final AVLNode<E>[] parts = split(this, relativePosition, size, index);
+            // the elements on both sides of the index are no longer linked
+            if (parts[0] != null) {
+                parts[0].max().setRight(null, null);
+            }
+            if (parts[1] != null) {
+                parts[1].min().setLeft(null, null);
+            }
+            return parts;
+        }
+
+        /**
+         * Splits a subtree, this is the recursive helper for {@link #split(int, int)}.
+         * <p>
+         * Each node on the path to the index is joined with the subtree on its
+         * far side from the index. These joins take time proportional to the
+         * height differences, which add up to O(log n).
+         *
+         * @param node  the root of the subtree, may be null
+         * @param position  the position of the node within the subtree
+         * @param size  the number of elements in the subtree
+         * @param index  the index within the subtree to split at
+         * @return the roots of the two parts, positioned within their part
+         */
+        @SuppressWarnings("unchecked")
+        private static <E> AVLNode<E>[] split(final AVLNode<E> node, final int position, final int size,
+                                              final int index) {
+            if (node == null) {
+                return new AVLNode[2];
+            }
+            final AVLNode<E> leftSubTree = node.getLeftSubTree();
+            final AVLNode<E> rightSubTree = node.getRightSubTree();
+            if (leftSubTree != null) {
+                leftSubTree.relativePosition += position;
+            }
+            if (rightSubTree != null) {
+                rightSubTree.relativePosition--;
+            }
+            if (index <= position) {
+                final AVLNode<E>[] parts = split(leftSubTree, node.getOffset(leftSubTree), position, index);
+                parts[1] = node.join(parts[1], position - index, rightSubTree);
+                return parts;
+            }
+            final AVLNode<E>[] parts = split(rightSubTree, node.getOffset(rightSubTree), size - position - 1,
+                                             index - position - 1);
+            parts[0] = node.join(leftSubTree, position, parts[0]);
+            return parts;
+        }
+
+        /**
+         * Joins two trees with this node between them, the inverse of a split.
+         * This operation is destructive to both trees and runs in time proportional
+         * to the difference of their heights.
+         * <p>
+         * The root of each tree must hold its position within its tree. A missing
+         * child of this node keeps the link to the previous or next node it had
+         * before, the caller relinks the ends of the joined tree if needed.
+         *
+         * @param left  the tree with the elements before this node, may be null
+         * @param leftSize  the number of elements in the left tree
+         * @param right  the tree with the elements after this node, may be null
+         * @return the root of the joined tree
+         */
+        private AVLNode<E> join(final AVLNode<E> left, final int leftSize, final AVLNode<E> right) {
+            final AVLNode<E> previous = leftIsPrevious ? this.left : null;
+            final AVLNode<E> next = rightIsNext ? this.right : null;
+            final Deque<AVLNode<E>> sAncestors = new ArrayDeque<>();
+            if (getHeight(right) > getHeight(left) + 1) {
+                // descend the left edge of the right tree to a subtree no taller than the left tree
+                AVLNode<E> s = right;
+                int sAbsolutePosition = s.relativePosition + leftSize + 1;
+                int sParentAbsolutePosition = 0;
+                while (s != null && s.height > getHeight(left)) {
+                    sParentAbsolutePosition = sAbsolutePosition;
+                    sAncestors.push(s);
+                    s = s.getLeftSubTree();
+                    if (s != null) {
+                        sAbsolutePosition += s.relativePosition;
+                    }
+                }
+                setLeft(left, previous);
+                setRight(s, sAncestors.peek());
+                if (left != null) {
+                    left.relativePosition -= leftSize;
+                }
+                if (s != null) {
+                    s.relativePosition = sAbsolutePosition - leftSize;
+                }
+                relativePosition = leftSize - sParentAbsolutePosition;
+                right.relativePosition += leftSize + 1;
+
+                s = this;
+                while (!sAncestors.isEmpty()) {
+                    final AVLNode<E> sAncestor = sAncestors.pop();
+                    sAncestor.setLeft(s, null);
+                    s = sAncestor.balance();
+                }
+                return s;
+            }
+            if (getHeight(left) > getHeight(right) + 1) {
+                // descend the right edge of the left tree to a subtree no taller than the right tree
+                AVLNode<E> s = left;
+                int sAbsolutePosition = s.relativePosition;
+                int sParentAbsolutePosition = 0;
+                while (s != null && s.height > getHeight(right)) {
+                    sParentAbsolutePosition = sAbsolutePosition;
+                    sAncestors.push(s);
+                    s = s.getRightSubTree();
+                    if (s != null) {
+                        sAbsolutePosition += s.relativePosition;
+                    }
+                }
+                setRight(right, next);
+                setLeft(s, sAncestors.peek());
+                if (right != null) {
+                    right.relativePosition++;
+                }
+                if (s != null) {
+                    s.relativePosition = sAbsolutePosition - leftSize;
+                }
+                relativePosition = leftSize - sParentAbsolutePosition;
+
+                s = this;
+                while (!sAncestors.isEmpty()) {
+                    final AVLNode<E> sAncestor = sAncestors.pop();
+                    sAncestor.setRight(s, null);
+                    s = sAncestor.balance();
+                }
+                return s;
+            }
+            setLeft(left, previous);
+            setRight(right, next);
+            if (left != null) {
+                left.relativePosition -= leftSize;
+            }
+            if (right != null) {
+                right.relativePosition++;
+            }
+            relativePosition = leftSize;
+            return this;
+        }
+
 //      private void checkFaedelung() {
 //          AVLNode maxNode = left.max();
 //          if (!maxNode.rightIsFaedelung || maxNode.right != this) {
@@ -972,6 +1203,101 @@ public class TreeList<E> extends AbstractList<E> {
         }
     }
 
+    /**
+     * A spliterator over a range of the list.
+     */
+    static class TreeListSpliterator<E> implements Spliterator<E> {
+        /** The parent list */
+        private final TreeList<E> parent;
+        /** The node at the current index, null if it must be looked up */
+        private AVLNode<E> next;
+        /** The index of the next element */
+        private int index;
+        /** The index after the last element, -1 until bound to the list */
+        private int fence;
+        /** The modification count that the list is expected to have */
+        private int expectedModCount;
+
+        TreeListSpliterator(final TreeList<E> parent, final int origin, final int fence, final int expectedModCount) {
+            this.parent = parent;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        /**
+         * Binds to the current size of the list on first use.
+         *
+         * @return the fence
+         */
+        private int getFence() {
+            if (fence < 0) {
+                fence = parent.size;
+                expectedModCount = parent.modCount;
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final int hi = getFence();
+            final int lo = index;
+            final int mid = lo + hi >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            index = mid;
+            next = null;
+            return new TreeListSpliterator<>(parent, lo, mid, expectedModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            if (index >= getFence()) {
+                return false;
+            }
+            if (next == null) {
+                next = parent.root.get(index);
+            }
+            final E value = next.getValue();
+            next = next.next();
+            index++;
+            action.accept(value);
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            final int hi = getFence();
+            if (index < hi) {
+                AVLNode<E> node = next == null ? parent.root.get(index) : next;
+                for (; index < hi; index++) {
+                    action.accept(node.getValue());
+                    node = node.next();
+                }
+                next = node;
+            }
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
     /**
      * A list iterator over the linked list.
      */
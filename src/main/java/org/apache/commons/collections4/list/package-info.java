@@ -20,8 +20,12 @@
  * The following implementations are provided in the package:
  * <ul>
  *   <li>TreeList - a list that is optimised for insertions and removals at any index in the list</li>
+ *   <li>ChunkedTreeList - a TreeList alternative that stores its elements in arrays under an indexed tree</li>
+ *   <li>PersistentTreeList - an immutable tree list whose modified copies share their unchanged subtrees</li>
  *   <li>CursorableLinkedList - a list that can be modified while the listIterator (cursor) is being used</li>
  *   <li>NodeCachingLinkedList - a linked list that caches the storage nodes for a performance gain</li>
+ *   <li>IndexedSetUniqueList - a list without duplicates that finds the index of an element in O(log n) time</li>
+ *   <li>SparseList - a huge list that only stores its non-null elements, in pages</li>
  * </ul>
  * <p>
  * The following decorators are provided in the package:
@@ -16,6 +16,8 @@
  */
 package org.apache.commons.collections4.map;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -28,9 +30,17 @@ import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import org.apache.commons.collections4.BoundedMap;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ElementCodec;
 import org.apache.commons.collections4.IterableMap;
 import org.apache.commons.collections4.KeyValue;
 import org.apache.commons.collections4.MapIterator;
@@ -50,6 +60,13 @@ import org.apache.commons.collections4.iterators.EmptyMapIterator;
  * to change how entries are added to and removed from the map. Hopefully, all you
  * need for unusual subclasses is here.
  * <p>
+ * When many keys collide into the same bucket, the bucket is additionally indexed
+ * by a balanced tree ordered by hash code and, for keys of the same {@code Comparable}
+ * class, natural order. This bounds lookups in such buckets to O(log n) instead of
+ * O(n), protecting against poorly distributed or adversarial hash codes. The hash
+ * chain of the bucket is always kept complete, so subclasses that walk the chain
+ * still see every entry.
+ * <p>
  * NOTE: From Commons Collections 3.1 this class extends AbstractMap.
  * This is to provide backwards compatibility for ReferenceMap between v3.0 and v3.1.
  * This extends clause will be removed in v5.0.
@@ -77,6 +94,14 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     protected static final int MAXIMUM_CAPACITY = 1 << 30;
     /** An object for masking null */
     protected static final Object NULL = new Object();
+    /** The bucket length at which a bucket is indexed by a tree */
+    static final int TREEIFY_THRESHOLD = 8;
+    /** The bucket length below which the tree index of a bucket is discarded */
+    static final int UNTREEIFY_THRESHOLD = 6;
+    /** The smallest capacity for which buckets are indexed by trees */
+    static final int MIN_TREEIFY_CAPACITY = 64;
+    /** The most mappings {@code readFrom()} sizes the table for before reading them */
+    static final int MAXIMUM_PRESIZE = 1 << 16;
 
     /** Load factor, normally 0.75 */
     transient float loadFactor;
@@ -88,6 +113,12 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     transient int threshold;
     /** Modification count for iterators */
     transient int modCount;
+    /** Tree indexes of the long buckets, null if there are none */
+    transient TreeBin<K, V>[] treeBins;
+    /** The previous map entries during an incremental resize, null otherwise */
+    transient HashEntry<K, V>[] oldData;
+    /** The index of the next bucket of the previous map entries to migrate */
+    transient int migrateIndex;
     /** Entry set */
     transient EntrySet<K, V> entrySet;
     /** Key set */
@@ -179,7 +210,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     public V get(Object key) {
         key = convertKey(key);
         final int hashCode = hash(key);
-        HashEntry<K, V> entry = data[hashIndex(hashCode, data.length)]; // no local for hash index
+        if (oldData != null && isInOldData(hashCode)) {
+            final HashEntry<K, V> entry = getOldEntry(hashCode, key);
+            return entry == null ? null : entry.getValue();
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index);
+        if (bin != null) {
+            final HashEntry<K, V> entry = bin.find(this, hashCode, key);
+            return entry == null ? null : entry.getValue();
+        }
+        HashEntry<K, V> entry = data[index];
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(key, entry.key)) {
                 return entry.getValue();
@@ -219,7 +260,15 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     public boolean containsKey(Object key) {
         key = convertKey(key);
         final int hashCode = hash(key);
-        HashEntry<K, V> entry = data[hashIndex(hashCode, data.length)]; // no local for hash index
+        if (oldData != null && isInOldData(hashCode)) {
+            return getOldEntry(hashCode, key) != null;
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index);
+        if (bin != null) {
+            return bin.find(this, hashCode, key) != null;
+        }
+        HashEntry<K, V> entry = data[index];
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(key, entry.key)) {
                 return true;
@@ -237,6 +286,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
      */
     @Override
     public boolean containsValue(final Object value) {
+        completeResize();
         if (value == null) {
             for (final HashEntry<K, V> element : data) {
                 HashEntry<K, V> entry = element;
@@ -272,15 +322,28 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     public V put(final K key, final V value) {
         final Object convertedKey = convertKey(key);
         final int hashCode = hash(convertedKey);
+        if (oldData != null) {
+            migrate(hashCode);
+        }
         final int index = hashIndex(hashCode, data.length);
-        HashEntry<K, V> entry = data[index];
-        while (entry != null) {
-            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+        final TreeBin<K, V> bin = treeBin(index);
+        if (bin != null) {
+            final HashEntry<K, V> entry = bin.find(this, hashCode, convertedKey);
+            if (entry != null) {
                 final V oldValue = entry.getValue();
                 updateEntry(entry, value);
                 return oldValue;
             }
-            entry = entry.next;
+        } else {
+            HashEntry<K, V> entry = data[index];
+            while (entry != null) {
+                if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                    final V oldValue = entry.getValue();
+                    updateEntry(entry, value);
+                    return oldValue;
+                }
+                entry = entry.next;
+            }
         }
 
         addMapping(index, hashCode, key, value);
@@ -335,7 +398,20 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     public V remove(Object key) {
         key = convertKey(key);
         final int hashCode = hash(key);
+        if (oldData != null) {
+            migrate(hashCode);
+        }
         final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index);
+        if (bin != null) {
+            final HashEntry<K, V> entry = bin.find(this, hashCode, key);
+            if (entry == null) {
+                return null;
+            }
+            final V oldValue = entry.getValue();
+            removeMapping(entry, index, bin.previous(entry));
+            return oldValue;
+        }
         HashEntry<K, V> entry = data[index];
         HashEntry<K, V> previous = null;
         while (entry != null) {
@@ -350,6 +426,323 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         return null;
     }
 
+    /**
+     * Gets the value mapped to the key specified, or a default value if the key
+     * is not mapped.
+     * <p>
+     * This implementation looks the key up once and reports the access to an
+     * existing entry with {@link #recordAccess(HashEntry)}.
+     *
+     * @param key  the key
+     * @param defaultValue  the value to return if the key is not mapped
+     * @return the mapped value, the default value if no match
+     * @since 4.5
+     */
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final HashEntry<K, V> entry = getEntry(key);
+        if (entry == null) {
+            return defaultValue;
+        }
+        recordAccess(entry);
+        return entry.getValue();
+    }
+
+    /**
+     * Puts a key-value mapping into this map if the key is not mapped to a
+     * non-null value yet.
+     * <p>
+     * This implementation looks the key up once, then uses
+     * {@link #updateEntry(HashEntry, Object)} or
+     * {@link #addMapping(int, int, Object, Object)} to store the value.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key, null if none
+     * @since 4.5
+     */
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        if (oldData != null) {
+            migrate(hashCode);
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final HashEntry<K, V> entry = findEntry(index, hashCode, convertedKey);
+        if (entry == null) {
+            addMapping(index, hashCode, key, value);
+            return null;
+        }
+        final V oldValue = entry.getValue();
+        if (oldValue == null) {
+            updateEntry(entry, value);
+        } else {
+            recordAccess(entry);
+        }
+        return oldValue;
+    }
+
+    /**
+     * Computes a value for the key if it is not mapped to a non-null value yet.
+     * <p>
+     * This implementation looks the key up once, like
+     * {@link #putIfAbsent(Object, Object)}.
+     *
+     * @param key  the key
+     * @param mappingFunction  the function computing the value
+     * @return the current value, null if none
+     * @throws ConcurrentModificationException if the function modified the map
+     * @since 4.5
+     */
+    @Override
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction, "mappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        if (oldData != null) {
+            migrate(hashCode);
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final HashEntry<K, V> entry = findEntry(index, hashCode, convertedKey);
+        if (entry != null) {
+            final V oldValue = entry.getValue();
+            if (oldValue != null) {
+                recordAccess(entry);
+                return oldValue;
+            }
+        }
+        final int expectedModCount = structuralModCount();
+        final V value = mappingFunction.apply(key);
+        if (structuralModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value != null) {
+            if (entry == null) {
+                addMapping(index, hashCode, key, value);
+            } else {
+                updateEntry(entry, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Computes a new value for the key if it is mapped to a non-null value.
+     * <p>
+     * This implementation looks the key up once and removes the mapping if the
+     * new value is null.
+     *
+     * @param key  the key
+     * @param remappingFunction  the function computing the new value
+     * @return the new value, null if none
+     * @throws ConcurrentModificationException if the function modified the map
+     * @since 4.5
+     */
+    @Override
+    public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        if (oldData != null) {
+            migrate(hashCode);
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final HashEntry<K, V> entry = findEntry(index, hashCode, convertedKey);
+        final V oldValue = entry == null ? null : entry.getValue();
+        if (oldValue == null) {
+            return null;
+        }
+        final int expectedModCount = structuralModCount();
+        final V value = remappingFunction.apply(key, oldValue);
+        if (structuralModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return remap(entry, index, value);
+    }
+
+    /**
+     * Computes a new value for the key from its current value, or null if it is
+     * not mapped.
+     * <p>
+     * This implementation looks the key up once and removes the mapping if the
+     * new value is null.
+     *
+     * @param key  the key
+     * @param remappingFunction  the function computing the new value
+     * @return the new value, null if none
+     * @throws ConcurrentModificationException if the function modified the map
+     * @since 4.5
+     */
+    @Override
+    public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        if (oldData != null) {
+            migrate(hashCode);
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final HashEntry<K, V> entry = findEntry(index, hashCode, convertedKey);
+        final int expectedModCount = structuralModCount();
+        final V value = remappingFunction.apply(key, entry == null ? null : entry.getValue());
+        if (structuralModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (entry != null) {
+            return remap(entry, index, value);
+        }
+        if (value != null) {
+            addMapping(index, hashCode, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Stores the value for the key if it is not mapped to a non-null value yet,
+     * or else merges the current value with it.
+     * <p>
+     * This implementation looks the key up once and removes the mapping if the
+     * merged value is null.
+     *
+     * @param key  the key
+     * @param value  the value to store or merge, not null
+     * @param remappingFunction  the function merging the current value and the given value
+     * @return the new value, null if none
+     * @throws NullPointerException if the value is null
+     * @throws ConcurrentModificationException if the function modified the map
+     * @since 4.5
+     */
+    @Override
+    public V merge(final K key, final V value,
+            final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value, "value");
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        if (oldData != null) {
+            migrate(hashCode);
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final HashEntry<K, V> entry = findEntry(index, hashCode, convertedKey);
+        if (entry == null) {
+            addMapping(index, hashCode, key, value);
+            return value;
+        }
+        final V oldValue = entry.getValue();
+        if (oldValue == null) {
+            updateEntry(entry, value);
+            return value;
+        }
+        final int expectedModCount = structuralModCount();
+        final V newValue = remappingFunction.apply(oldValue, value);
+        if (structuralModCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return remap(entry, index, newValue);
+    }
+
+    /**
+     * Performs an action for each mapping, in the order of the entry set.
+     * <p>
+     * This implementation uses the entry set spliterator, without creating an iterator.
+     *
+     * @param action  the action to perform
+     * @throws ConcurrentModificationException if the action modified the map
+     * @since 4.5
+     */
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        createEntrySetSpliterator().forEachRemaining(entry -> action.accept(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Replaces the value of each mapping with the result of a function.
+     * <p>
+     * This implementation sets the values of the entries in place, without
+     * changing the order of the map.
+     *
+     * @param function  the function computing the new values
+     * @throws ConcurrentModificationException if the function modified the map
+     * @since 4.5
+     */
+    @Override
+    public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function, "function");
+        createEntrySetSpliterator().forEachRemaining(
+            entry -> entry.setValue(function.apply(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * Records an access to an existing entry that does not change its value,
+     * such as {@link #getOrDefault(Object, Object)} finding it.
+     * <p>
+     * This implementation does nothing.
+     * Subclasses could override to order the entries by access.
+     *
+     * @param entry  the entry accessed
+     * @since 4.5
+     */
+    protected void recordAccess(final HashEntry<K, V> entry) {
+        // noop
+    }
+
+    /**
+     * Gets the count of the modifications that may invalidate an entry found
+     * before calling a function, checked by the compute and merge methods.
+     * <p>
+     * This implementation returns {@code modCount}. A map reordering its
+     * entries on access does not count the reorderings, so that the function
+     * may look keys up.
+     *
+     * @return the structural modification count
+     */
+    int structuralModCount() {
+        return modCount;
+    }
+
+    /**
+     * Finds the entry for a key in the data storage, after any migration of its
+     * bucket during an incremental resize.
+     *
+     * @param hashIndex  the index of the bucket of the key
+     * @param hashCode  the hash code of the key
+     * @param convertedKey  the converted key
+     * @return the entry, null if no match
+     */
+    private HashEntry<K, V> findEntry(final int hashIndex, final int hashCode, final Object convertedKey) {
+        final TreeBin<K, V> bin = treeBin(hashIndex);
+        if (bin != null) {
+            return bin.find(this, hashCode, convertedKey);
+        }
+        HashEntry<K, V> entry = data[hashIndex];
+        while (entry != null) {
+            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                return entry;
+            }
+            entry = entry.next;
+        }
+        return null;
+    }
+
+    /**
+     * Stores the value computed for an existing entry, removing the entry if it is null.
+     *
+     * @param entry  the entry
+     * @param hashIndex  the index of the bucket holding the entry
+     * @param value  the new value, null to remove the entry
+     * @return the new value
+     */
+    private V remap(final HashEntry<K, V> entry, final int hashIndex, final V value) {
+        if (value == null) {
+            removeMapping(entry, hashIndex, previousEntry(entry, hashIndex));
+        } else {
+            updateEntry(entry, value);
+        }
+        return value;
+    }
+
     /**
      * Clears the map, resetting the size to zero and nullifying references
      * to avoid garbage collection issues.
@@ -359,6 +752,8 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         modCount++;
         final HashEntry<K, V>[] data = this.data;
         Arrays.fill(data, null);
+        treeBins = null;
+        oldData = null;
         size = 0;
     }
 
@@ -447,7 +842,15 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     protected HashEntry<K, V> getEntry(Object key) {
         key = convertKey(key);
         final int hashCode = hash(key);
-        HashEntry<K, V> entry = data[hashIndex(hashCode, data.length)]; // no local for hash index
+        if (oldData != null && isInOldData(hashCode)) {
+            return getOldEntry(hashCode, key);
+        }
+        final int index = hashIndex(hashCode, data.length);
+        final TreeBin<K, V> bin = treeBin(index);
+        if (bin != null) {
+            return bin.find(this, hashCode, key);
+        }
+        HashEntry<K, V> entry = data[index];
         while (entry != null) {
             if (entry.hashCode == hashCode && isEqualKey(key, entry.key)) {
                 return entry;
@@ -494,7 +897,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
      * Adds a new key-value mapping into this map.
      * <p>
      * This implementation calls {@code createEntry()}, {@code addEntry()}
-     * and {@code checkCapacity()}.
+     * and {@code checkCapacity()}. It also maintains the tree index of the bucket.
      * It also handles changes to {@code modCount} and {@code size}.
      * Subclasses could override to fully control adds to the map.
      *
@@ -508,6 +911,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         final HashEntry<K, V> entry = createEntry(data[hashIndex], hashCode, key, value);
         addEntry(entry, hashIndex);
         size++;
+        checkTreeBin(entry, hashIndex);
         checkCapacity();
     }
 
@@ -562,7 +966,8 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     /**
      * Removes an entry from the chain stored in a particular index.
      * <p>
-     * This implementation removes the entry from the data storage table.
+     * This implementation removes the entry from the data storage table
+     * and from the tree index of the bucket, if any.
      * The size is not updated.
      * Subclasses could override to handle changes to the map.
      *
@@ -576,6 +981,14 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         } else {
             previous.next = entry.next;
         }
+        if (treeBins != null && treeBins[hashIndex] != null) {
+            final TreeBin<K, V> bin = treeBins[hashIndex];
+            if (bin.size <= UNTREEIFY_THRESHOLD || !bin.remove(entry)) {
+                treeBins[hashIndex] = null;
+            } else {
+                bin.head = data[hashIndex];
+            }
+        }
     }
 
     /**
@@ -595,13 +1008,19 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     /**
      * Checks the capacity of the map and enlarges it if necessary.
      * <p>
-     * This implementation uses the threshold to check if the map needs enlarging
+     * This implementation uses the threshold to check if the map needs enlarging.
+     * If {@link #getIncrementalResizeStep()} is positive the entries are then
+     * migrated to the enlarged table by subsequent writes rather than all at once.
      */
     protected void checkCapacity() {
         if (size >= threshold) {
             final int newCapacity = data.length * 2;
             if (newCapacity <= MAXIMUM_CAPACITY) {
-                ensureCapacity(newCapacity);
+                if (getIncrementalResizeStep() > 0) {
+                    startResize(newCapacity);
+                } else {
+                    ensureCapacity(newCapacity);
+                }
             }
         }
     }
@@ -613,6 +1032,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
      */
     @SuppressWarnings("unchecked")
     protected void ensureCapacity(final int newCapacity) {
+        completeResize();
         final int oldCapacity = data.length;
         if (newCapacity <= oldCapacity) {
             return;
@@ -620,6 +1040,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         if (size == 0) {
             threshold = calculateThreshold(newCapacity, loadFactor);
             data = new HashEntry[newCapacity];
+            treeBins = null;
         } else {
             final HashEntry<K, V>[] oldEntries = data;
             final HashEntry<K, V>[] newEntries = new HashEntry[newCapacity];
@@ -640,9 +1061,274 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
             }
             threshold = calculateThreshold(newCapacity, loadFactor);
             data = newEntries;
+            if (treeBins != null) {
+                // only indexed buckets can be long enough to need indexing after the split
+                treeBins = null;
+                for (int i = 0; i < newCapacity; i++) {
+                    if (bucketLength(newEntries[i]) >= TREEIFY_THRESHOLD) {
+                        treeify(i);
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * Gets the number of buckets migrated by each write while the map is being
+     * resized incrementally.
+     * <p>
+     * When this is positive, the map does not rehash all its entries at once when
+     * it grows. Instead the previous table is kept alongside the enlarged one, and
+     * each subsequent {@code put()} or {@code remove()} moves the bucket it
+     * touches and this number of further buckets across, so that no single write
+     * pays for the whole rehash. Lookups consult whichever table holds the bucket
+     * of the key. Iterating the map, {@code containsValue()} and explicit calls to
+     * {@code ensureCapacity()} complete any resize in progress first.
+     * <p>
+     * This implementation returns zero, rehashing all entries at once.
+     * Subclasses may only return a positive number if they do not access the hash
+     * chains other than via the methods of this class.
+     *
+     * @return the number of buckets to migrate on each write, zero to rehash at once
+     * @since 4.5
+     */
+    protected int getIncrementalResizeStep() {
+        return 0;
+    }
+
+    /**
+     * Starts an incremental resize, making an empty table of the new capacity
+     * the data storage.
+     * <p>
+     * Indexed buckets are migrated straight away so that lookups in the previous
+     * table only ever walk short chains.
+     *
+     * @param newCapacity  the new capacity of the array (a power of two, less or equal to max)
+     */
+    @SuppressWarnings("unchecked")
+    private void startResize(final int newCapacity) {
+        completeResize();
+        oldData = data;
+        migrateIndex = 0;
+        data = new HashEntry[newCapacity];
+        threshold = calculateThreshold(newCapacity, loadFactor);
+        final TreeBin<K, V>[] bins = treeBins;
+        treeBins = null;
+        if (bins != null) {
+            for (int i = 0; i < bins.length; i++) {
+                if (bins[i] != null) {
+                    migrateBucket(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs one step of an incremental resize before a write.
+     * <p>
+     * The bucket of the hash code is migrated first, so that the write can
+     * proceed on the data storage alone, followed by the next buckets in turn.
+     *
+     * @param hashCode  the hash code of the key being written
+     */
+    private void migrate(final int hashCode) {
+        final HashEntry<K, V>[] old = oldData;
+        migrateBucket(hashIndex(hashCode, old.length));
+        int index = migrateIndex;
+        for (int step = getIncrementalResizeStep(); step > 0 && index < old.length; step--, index++) {
+            if (old[index] != null) {
+                migrateBucket(index);
+            }
+        }
+        migrateIndex = index;
+        if (index == old.length) {
+            oldData = null;
+        }
+    }
+
+    /**
+     * Completes an incremental resize in progress, if any.
+     */
+    private void completeResize() {
+        final HashEntry<K, V>[] old = oldData;
+        if (old != null) {
+            for (int i = migrateIndex; i < old.length; i++) {
+                if (old[i] != null) {
+                    migrateBucket(i);
+                }
+            }
+            oldData = null;
+        }
+    }
+
+    /**
+     * Moves the entries of a bucket of the previous table to the data storage.
+     *
+     * @param oldIndex  the index of the bucket in the previous table
+     */
+    private void migrateBucket(final int oldIndex) {
+        HashEntry<K, V> entry = oldData[oldIndex];
+        oldData[oldIndex] = null;
+        final HashEntry<K, V>[] newEntries = data;
+        while (entry != null) {
+            final HashEntry<K, V> next = entry.next;
+            final int index = hashIndex(entry.hashCode, newEntries.length);
+            entry.next = newEntries[index];
+            newEntries[index] = entry;
+            checkTreeBin(entry, index);
+            entry = next;
+        }
+    }
+
+    /**
+     * Checks whether the bucket for the hash code is still held in the previous
+     * table during an incremental resize.
+     * <p>
+     * A bucket is migrated as a whole before any key of it is written, so a key
+     * whose bucket has not been migrated can only be in the previous table.
+     *
+     * @param hashCode  the hash code of the key
+     * @return true if the previous table must be searched for the key
+     */
+    private boolean isInOldData(final int hashCode) {
+        final HashEntry<K, V>[] old = oldData;
+        return old[hashIndex(hashCode, old.length)] != null;
+    }
+
+    /**
+     * Gets the entry mapped to the key from the previous table during an
+     * incremental resize.
+     *
+     * @param hashCode  the hash code of the key
+     * @param key  the key, in internal converted form
+     * @return the entry, null if no match
+     */
+    private HashEntry<K, V> getOldEntry(final int hashCode, final Object key) {
+        final HashEntry<K, V>[] old = oldData;
+        HashEntry<K, V> entry = old[hashIndex(hashCode, old.length)];
+        while (entry != null) {
+            if (entry.hashCode == hashCode && isEqualKey(key, entry.key)) {
+                return entry;
+            }
+            entry = entry.next;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the buckets of this map may be indexed by trees when they
+     * grow long.
+     * <p>
+     * This implementation returns true. Subclasses must return false if the keys
+     * stored in the entries can change while in the map, if their hash chains are
+     * modified other than via {@code addMapping()} and {@code removeEntry()}, or if
+     * {@code isEqualKey()} considers keys equal that are ordered differently by
+     * their natural ordering.
+     *
+     * @return true if long buckets may be indexed by trees
+     * @since 4.5
+     */
+    protected boolean isTreeBinEnabled() {
+        return true;
+    }
+
+    /**
+     * Indexes the bucket of a newly added entry by a tree if it has become long.
+     *
+     * @param entry  the entry that was added at the head of the bucket
+     * @param hashIndex  the index of the bucket
+     */
+    void checkTreeBin(final HashEntry<K, V> entry, final int hashIndex) {
+        if (treeBins != null && treeBins[hashIndex] != null) {
+            final TreeBin<K, V> bin = treeBins[hashIndex];
+            if (bin.head == entry.next) {
+                bin.insert(this, entry, hashIndex);
+                return;
+            }
+            // the chain was changed without the index, so rebuild it
+            treeBins[hashIndex] = null;
+        }
+        if (data.length >= MIN_TREEIFY_CAPACITY && bucketLength(data[hashIndex]) >= TREEIFY_THRESHOLD
+                && isTreeBinEnabled()) {
+            treeify(hashIndex);
+        }
+    }
+
+    /**
+     * Gets the tree index of a bucket.
+     *
+     * @param hashIndex  the index of the bucket
+     * @return the tree index, null if the bucket is not indexed
+     */
+    private TreeBin<K, V> treeBin(final int hashIndex) {
+        final TreeBin<K, V>[] bins = treeBins;
+        if (bins == null) {
+            return null;
+        }
+        final TreeBin<K, V> bin = bins[hashIndex];
+        if (bin != null && bin.head != data[hashIndex]) {
+            // the chain was changed without the index, fall back to the chain
+            bins[hashIndex] = null;
+            return null;
+        }
+        return bin;
+    }
+
+    /**
+     * Gets the entry before the specified entry in its bucket.
+     *
+     * @param entry  the entry to find the predecessor of
+     * @param hashIndex  the index of the bucket holding the entry
+     * @return the previous entry, null if the entry is first in the bucket
+     * @throws IllegalStateException if the entry is not in the bucket
+     */
+    HashEntry<K, V> previousEntry(final HashEntry<K, V> entry, final int hashIndex) {
+        final TreeBin<K, V> bin = treeBin(hashIndex);
+        if (bin != null) {
+            return bin.previous(entry);
+        }
+        HashEntry<K, V> loop = data[hashIndex];
+        HashEntry<K, V> previous = null;
+        while (loop != entry) {
+            if (loop == null) {
+                throw new IllegalStateException("Entry not found in bucket " + hashIndex);
+            }
+            previous = loop;
+            loop = loop.next;
+        }
+        return previous;
+    }
+
+    /**
+     * Counts the entries of a bucket, stopping at the treeify threshold.
+     */
+    private static int bucketLength(HashEntry<?, ?> entry) {
+        int length = 0;
+        while (entry != null && length < TREEIFY_THRESHOLD) {
+            length++;
+            entry = entry.next;
+        }
+        return length;
+    }
+
+    /**
+     * Builds the tree index of a bucket and relinks its chain in tree order.
+     *
+     * @param hashIndex  the index of the bucket
+     */
+    @SuppressWarnings("unchecked")
+    private void treeify(final int hashIndex) {
+        if (treeBins == null) {
+            treeBins = new TreeBin[data.length];
+        }
+        final TreeBin<K, V> bin = new TreeBin<>();
+        for (HashEntry<K, V> entry = data[hashIndex]; entry != null; entry = entry.next) {
+            bin.add(entry);
+        }
+        data[hashIndex] = bin.relink();
+        treeBins[hashIndex] = bin;
+    }
+
     /**
      * Calculates the new capacity of the map.
      * This implementation normalizes the capacity to a power of two.
@@ -821,6 +1507,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         return new EntrySetIterator<>(this);
     }
 
+    /**
+     * Creates an entry set spliterator.
+     * Subclasses can override this to return spliterators with different properties.
+     *
+     * @return the entrySet spliterator
+     * @since 4.5
+     */
+    protected Spliterator<Map.Entry<K, V>> createEntrySetSpliterator() {
+        return new HashSpliterator<>(this, entry -> entry, Spliterator.DISTINCT);
+    }
+
     /**
      * EntrySet implementation.
      *
@@ -872,6 +1569,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         public Iterator<Map.Entry<K, V>> iterator() {
             return parent.createEntrySetIterator();
         }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            return parent.createEntrySetSpliterator();
+        }
+
+        @Override
+        public void forEach(final Consumer<? super Map.Entry<K, V>> action) {
+            Objects.requireNonNull(action, "action");
+            parent.createEntrySetSpliterator().forEachRemaining(action);
+        }
     }
 
     /**
@@ -920,6 +1628,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         return new KeySetIterator<>(this);
     }
 
+    /**
+     * Creates a key set spliterator.
+     * Subclasses can override this to return spliterators with different properties.
+     *
+     * @return the keySet spliterator
+     * @since 4.5
+     */
+    protected Spliterator<K> createKeySetSpliterator() {
+        return new HashSpliterator<>(this, HashEntry::getKey, Spliterator.DISTINCT);
+    }
+
     /**
      * KeySet implementation.
      *
@@ -959,6 +1678,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         public Iterator<K> iterator() {
             return parent.createKeySetIterator();
         }
+
+        @Override
+        public Spliterator<K> spliterator() {
+            return parent.createKeySetSpliterator();
+        }
+
+        @Override
+        public void forEach(final Consumer<? super K> action) {
+            Objects.requireNonNull(action, "action");
+            parent.createKeySetSpliterator().forEachRemaining(action);
+        }
     }
 
     /**
@@ -1007,6 +1737,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         return new ValuesIterator<>(this);
     }
 
+    /**
+     * Creates a values spliterator.
+     * Subclasses can override this to return spliterators with different properties.
+     *
+     * @return the values spliterator
+     * @since 4.5
+     */
+    protected Spliterator<V> createValuesSpliterator() {
+        return new HashSpliterator<>(this, HashEntry::getValue, 0);
+    }
+
     /**
      * Values implementation.
      *
@@ -1039,6 +1780,17 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         public Iterator<V> iterator() {
             return parent.createValuesIterator();
         }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return parent.createValuesSpliterator();
+        }
+
+        @Override
+        public void forEach(final Consumer<? super V> action) {
+            Objects.requireNonNull(action, "action");
+            parent.createValuesSpliterator().forEachRemaining(action);
+        }
     }
 
     /**
@@ -1136,6 +1888,356 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         }
     }
 
+    /**
+     * Balanced (AVL) tree that indexes the entries of a long bucket.
+     * <p>
+     * Entries are ordered by hash code, then by natural order for keys of the
+     * same {@code Comparable} class, then by class name and identity hash code.
+     * The hash chain of the bucket is kept in the same order, so that the entry
+     * before another in the chain can be found from the tree.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    static final class TreeBin<K, V> {
+        /** The root node of the tree */
+        private TreeNode<K, V> root;
+        /** The first entry of the chain, used to detect chain changes that bypassed the tree */
+        HashEntry<K, V> head;
+        /** The number of entries in the tree */
+        int size;
+
+        /**
+         * Finds the entry with the specified key.
+         *
+         * @param map  the map that owns the bucket, used to compare keys
+         * @param hashCode  the hash code of the key
+         * @param key  the key in converted form
+         * @return the matching entry, null if none
+         */
+        HashEntry<K, V> find(final AbstractHashedMap<K, V> map, final int hashCode, final Object key) {
+            final TreeNode<K, V> node = findNode(root, map, null, hashCode, key);
+            return node == null ? null : node.entry;
+        }
+
+        /**
+         * Gets the entry before the specified entry in the chain.
+         *
+         * @param entry  the entry in this tree
+         * @return the previous entry, null if the entry is the head of the chain
+         * @throws IllegalStateException if the entry is not in this tree
+         */
+        HashEntry<K, V> previous(final HashEntry<K, V> entry) {
+            final TreeNode<K, V> node = findNode(root, null, entry, entry.hashCode, entry.key);
+            if (node == null) {
+                throw new IllegalStateException("Entry not found in tree bin");
+            }
+            final TreeNode<K, V> previous = node.previous();
+            return previous == null ? null : previous.entry;
+        }
+
+        /**
+         * Adds an entry to the tree without changing the chain.
+         *
+         * @param entry  the entry to add
+         * @return the new node
+         */
+        TreeNode<K, V> add(final HashEntry<K, V> entry) {
+            final TreeNode<K, V> node = new TreeNode<>(entry);
+            size++;
+            if (root == null) {
+                root = node;
+                return node;
+            }
+            TreeNode<K, V> parent = root;
+            while (true) {
+                if (compare(entry, parent.entry) < 0) {
+                    if (parent.left == null) {
+                        parent.left = node;
+                        break;
+                    }
+                    parent = parent.left;
+                } else {
+                    if (parent.right == null) {
+                        parent.right = node;
+                        break;
+                    }
+                    parent = parent.right;
+                }
+            }
+            node.parent = parent;
+            rebalanceFrom(parent);
+            return node;
+        }
+
+        /**
+         * Adds an entry that was just added at the head of the chain, moving it
+         * to its position in tree order.
+         *
+         * @param map  the map that owns the bucket
+         * @param entry  the new head of the chain
+         * @param hashIndex  the index of the bucket
+         */
+        void insert(final AbstractHashedMap<K, V> map, final HashEntry<K, V> entry, final int hashIndex) {
+            final TreeNode<K, V> previous = add(entry).previous();
+            if (previous != null) {
+                map.data[hashIndex] = entry.next;
+                entry.next = previous.entry.next;
+                previous.entry.next = entry;
+            }
+            head = map.data[hashIndex];
+        }
+
+        /**
+         * Removes an entry from the tree, the chain must already have been updated.
+         *
+         * @param entry  the entry to remove
+         * @return false if the entry was not found
+         */
+        boolean remove(final HashEntry<K, V> entry) {
+            TreeNode<K, V> node = findNode(root, null, entry, entry.hashCode, entry.key);
+            if (node == null) {
+                return false;
+            }
+            if (node.left != null && node.right != null) {
+                // move the successor's entry here and remove the successor node instead
+                final TreeNode<K, V> successor = node.next();
+                node.entry = successor.entry;
+                node = successor;
+            }
+            final TreeNode<K, V> child = node.left != null ? node.left : node.right;
+            final TreeNode<K, V> parent = node.parent;
+            replace(node, child);
+            rebalanceFrom(parent);
+            size--;
+            return true;
+        }
+
+        /**
+         * Links the chain in tree order.
+         *
+         * @return the new head of the chain
+         */
+        HashEntry<K, V> relink() {
+            HashEntry<K, V> next = null;
+            for (TreeNode<K, V> node = root == null ? null : root.max(); node != null; node = node.previous()) {
+                node.entry.next = next;
+                next = node.entry;
+            }
+            head = next;
+            return next;
+        }
+
+        /**
+         * Searches a subtree for an entry, either by key or by identity.
+         *
+         * @param start  the subtree to search
+         * @param map  the map used to compare keys, null to match {@code entry} by identity
+         * @param entry  the entry to match by identity, null to match by key
+         * @param hashCode  the hash code to find
+         * @param key  the key to find, in converted form
+         * @return the matching node, null if none
+         */
+        private static <K, V> TreeNode<K, V> findNode(TreeNode<K, V> start, final AbstractHashedMap<K, V> map,
+                final HashEntry<K, V> entry, final int hashCode, final Object key) {
+            TreeNode<K, V> node = start;
+            while (node != null) {
+                final HashEntry<K, V> current = node.entry;
+                if (hashCode < current.hashCode) {
+                    node = node.left;
+                } else if (hashCode > current.hashCode) {
+                    node = node.right;
+                } else if (entry == null ? map.isEqualKey(key, current.key) : entry == current) {
+                    return node;
+                } else {
+                    final int cmp = compareKeys(key, current.key);
+                    if (cmp < 0) {
+                        node = node.left;
+                    } else if (cmp > 0) {
+                        node = node.right;
+                    } else {
+                        // no ordering between the keys, so search both subtrees
+                        final TreeNode<K, V> found = findNode(node.right, map, entry, hashCode, key);
+                        if (found != null) {
+                            return found;
+                        }
+                        node = node.left;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Compares two entries in tree order, never returning zero.
+         */
+        private static int compare(final HashEntry<?, ?> entry1, final HashEntry<?, ?> entry2) {
+            if (entry1.hashCode != entry2.hashCode) {
+                return entry1.hashCode < entry2.hashCode ? -1 : 1;
+            }
+            int cmp = compareKeys(entry1.key, entry2.key);
+            if (cmp == 0) {
+                cmp = entry1.key.getClass().getName().compareTo(entry2.key.getClass().getName());
+                if (cmp == 0) {
+                    cmp = System.identityHashCode(entry1.key) <= System.identityHashCode(entry2.key) ? -1 : 1;
+                }
+            }
+            return cmp;
+        }
+
+        /**
+         * Compares two keys by natural order if they are of the same {@code Comparable} class.
+         *
+         * @return the comparison result, or zero if the keys cannot be compared
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static int compareKeys(final Object key1, final Object key2) {
+            if (key1 instanceof Comparable && key2 != null && key1.getClass() == key2.getClass()) {
+                try {
+                    return ((Comparable) key1).compareTo(key2);
+                } catch (final ClassCastException ex) {
+                    return 0;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Replaces a node in its parent by another subtree.
+         */
+        private void replace(final TreeNode<K, V> node, final TreeNode<K, V> replacement) {
+            final TreeNode<K, V> parent = node.parent;
+            if (parent == null) {
+                root = replacement;
+            } else if (node == parent.left) {
+                parent.left = replacement;
+            } else {
+                parent.right = replacement;
+            }
+            if (replacement != null) {
+                replacement.parent = parent;
+            }
+        }
+
+        /**
+         * Recalculates heights and rebalances from the node up to the root.
+         */
+        private void rebalanceFrom(TreeNode<K, V> node) {
+            while (node != null) {
+                node.recalcHeight();
+                final int balance = TreeNode.heightOf(node.right) - TreeNode.heightOf(node.left);
+                if (balance < -1) {
+                    if (TreeNode.heightOf(node.left.right) > TreeNode.heightOf(node.left.left)) {
+                        rotateLeft(node.left);
+                    }
+                    node = rotateRight(node);
+                } else if (balance > 1) {
+                    if (TreeNode.heightOf(node.right.left) > TreeNode.heightOf(node.right.right)) {
+                        rotateRight(node.right);
+                    }
+                    node = rotateLeft(node);
+                }
+                node = node.parent;
+            }
+        }
+
+        private TreeNode<K, V> rotateLeft(final TreeNode<K, V> node) {
+            final TreeNode<K, V> newTop = node.right;
+            node.right = newTop.left;
+            if (newTop.left != null) {
+                newTop.left.parent = node;
+            }
+            replace(node, newTop);
+            newTop.left = node;
+            node.parent = newTop;
+            node.recalcHeight();
+            newTop.recalcHeight();
+            return newTop;
+        }
+
+        private TreeNode<K, V> rotateRight(final TreeNode<K, V> node) {
+            final TreeNode<K, V> newTop = node.left;
+            node.left = newTop.right;
+            if (newTop.right != null) {
+                newTop.right.parent = node;
+            }
+            replace(node, newTop);
+            newTop.right = node;
+            node.parent = newTop;
+            node.recalcHeight();
+            newTop.recalcHeight();
+            return newTop;
+        }
+    }
+
+    /**
+     * Node of a {@link TreeBin}.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    static final class TreeNode<K, V> {
+        /** The indexed entry */
+        HashEntry<K, V> entry;
+        /** The parent node */
+        TreeNode<K, V> parent;
+        /** The left child node */
+        TreeNode<K, V> left;
+        /** The right child node */
+        TreeNode<K, V> right;
+        /** How many levels of left/right are below this one */
+        int height;
+
+        TreeNode(final HashEntry<K, V> entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Returns the height of the node or -1 if the node is null.
+         */
+        static int heightOf(final TreeNode<?, ?> node) {
+            return node == null ? -1 : node.height;
+        }
+
+        void recalcHeight() {
+            height = Math.max(heightOf(left), heightOf(right)) + 1;
+        }
+
+        TreeNode<K, V> max() {
+            TreeNode<K, V> node = this;
+            while (node.right != null) {
+                node = node.right;
+            }
+            return node;
+        }
+
+        TreeNode<K, V> next() {
+            if (right != null) {
+                TreeNode<K, V> node = right;
+                while (node.left != null) {
+                    node = node.left;
+                }
+                return node;
+            }
+            TreeNode<K, V> node = this;
+            while (node.parent != null && node == node.parent.right) {
+                node = node.parent;
+            }
+            return node.parent;
+        }
+
+        TreeNode<K, V> previous() {
+            if (left != null) {
+                return left.max();
+            }
+            TreeNode<K, V> node = this;
+            while (node.parent != null && node == node.parent.left) {
+                node = node.parent;
+            }
+            return node.parent;
+        }
+    }
+
     /**
      * Base Iterator
      *
@@ -1157,6 +2259,7 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
 
         protected HashIterator(final AbstractHashedMap<K, V> parent) {
             this.parent = parent;
+            parent.completeResize();
             final HashEntry<K, V>[] data = parent.data;
             int i = data.length;
             HashEntry<K, V> next = null;
@@ -1217,6 +2320,267 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         }
     }
 
+    /**
+     * Spliterator over the buckets of the map.
+     * <p>
+     * The spliterator covers a range of buckets, which it splits in half. It visits
+     * the buckets from the highest index down, as the iterators do, and binds to
+     * the map on first use. The size is exact until the first split and an
+     * estimate after it.
+     *
+     * @param <K> the type of the keys in the map
+     * @param <V> the type of the values in the map
+     * @param <E> the type of the elements
+     * @since 4.5
+     */
+    protected static class HashSpliterator<K, V, E> implements Spliterator<E> {
+
+        /** The parent map */
+        private final AbstractHashedMap<K, V> parent;
+        /** The function mapping an entry to an element */
+        private final Function<? super HashEntry<K, V>, ? extends E> function;
+        /** The characteristics other than the size */
+        private final int characteristics;
+        /** The index after the bucket holding the next entry */
+        private int index;
+        /** The index of the lowest bucket, -1 until bound to the map */
+        private int fence;
+        /** The next entry in the current bucket */
+        private HashEntry<K, V> next;
+        /** The size estimate */
+        private int est;
+        /** The modification count expected */
+        private int expectedModCount;
+
+        /**
+         * Creates a spliterator over the whole map, bound to it on first use.
+         *
+         * @param parent  the parent map
+         * @param function  the function mapping an entry to an element
+         * @param characteristics  the characteristics other than the size
+         */
+        protected HashSpliterator(final AbstractHashedMap<K, V> parent,
+                final Function<? super HashEntry<K, V>, ? extends E> function, final int characteristics) {
+            this(parent, function, characteristics, 0, -1, 0, 0);
+        }
+
+        /**
+         * Creates a spliterator over a range of buckets split off another spliterator,
+         * with the same map, function and characteristics.
+         *
+         * @param spliterator  the spliterator split
+         * @param index  the index after the highest bucket of the range
+         * @param fence  the index of the lowest bucket of the range
+         * @param est  the size estimate
+         * @param expectedModCount  the modification count expected
+         */
+        protected HashSpliterator(final HashSpliterator<K, V, E> spliterator, final int index, final int fence,
+                final int est, final int expectedModCount) {
+            this(spliterator.parent, spliterator.function, spliterator.characteristics, index, fence, est,
+                expectedModCount);
+        }
+
+        private HashSpliterator(final AbstractHashedMap<K, V> parent,
+                final Function<? super HashEntry<K, V>, ? extends E> function, final int characteristics,
+                final int index, final int fence, final int est, final int expectedModCount) {
+            this.parent = parent;
+            this.function = function;
+            this.characteristics = characteristics;
+            this.index = index;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        /**
+         * Binds to the map on first use.
+         *
+         * @return the index of the lowest bucket
+         */
+        private int getFence() {
+            if (fence < 0) {
+                parent.completeResize();
+                est = parent.size();
+                expectedModCount = parent.modCount;
+                index = parent.data.length;
+                fence = 0;
+            }
+            return fence;
+        }
+
+        /**
+         * Passes the element of an entry to the action.
+         * <p>
+         * This implementation always passes the element. Subclasses may skip
+         * entries that are no longer valid.
+         *
+         * @param entry  the entry
+         * @param action  the action
+         * @return true if the element was passed to the action
+         */
+        protected boolean accept(final HashEntry<K, V> entry, final Consumer<? super E> action) {
+            action.accept(function.apply(entry));
+            return true;
+        }
+
+        /**
+         * Creates a spliterator over a range of buckets split off this one.
+         *
+         * @param index  the index after the highest bucket of the range
+         * @param fence  the index of the lowest bucket of the range
+         * @param est  the size estimate
+         * @param expectedModCount  the modification count expected
+         * @return the new spliterator
+         */
+        protected HashSpliterator<K, V, E> split(final int index, final int fence, final int est,
+                final int expectedModCount) {
+            return new HashSpliterator<>(this, index, fence, est, expectedModCount);
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final int lo = getFence();
+            final int hi = index;
+            final int mid = lo + hi >>> 1;
+            if (mid <= lo || next != null) {
+                return null;
+            }
+            // the upper half comes first, as the buckets are visited from the highest down
+            index = mid;
+            est >>>= 1;
+            return split(hi, mid, est, expectedModCount);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            final int lo = getFence();
+            final HashEntry<K, V>[] data = parent.data;
+            if (data.length < index) {
+                throw new ConcurrentModificationException();
+            }
+            while (next != null || index > lo) {
+                if (next == null) {
+                    next = data[--index];
+                } else {
+                    final HashEntry<K, V> entry = next;
+                    next = entry.next;
+                    if (accept(entry, action)) {
+                        if (parent.modCount != expectedModCount) {
+                            throw new ConcurrentModificationException();
+                        }
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            final int lo = getFence();
+            final HashEntry<K, V>[] data = parent.data;
+            if (data.length < index) {
+                throw new ConcurrentModificationException();
+            }
+            HashEntry<K, V> entry = next;
+            int i = index;
+            next = null;
+            index = lo;
+            while (entry != null || i > lo) {
+                if (entry == null) {
+                    entry = data[--i];
+                } else {
+                    accept(entry, action);
+                    entry = entry.next;
+                }
+            }
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            getFence();
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return (fence < 0 || est == parent.size ? SIZED : 0) | characteristics;
+        }
+    }
+
+    /**
+     * Writes the mappings to a binary output using codecs for the keys and values,
+     * a faster alternative to serialization for saving large maps.
+     * <p>
+     * The size is written first, followed by each key and value in the order of
+     * {@link #mapIterator()}. The mappings can be read back by
+     * {@link #readFrom(DataInput, ElementCodec, ElementCodec)}.
+     * </p>
+     *
+     * @param out  the output to write to
+     * @param keyCodec  the codec writing the keys
+     * @param valueCodec  the codec writing the values
+     * @throws IOException if an error occurs while writing
+     * @throws NullPointerException if any argument is null
+     * @since 4.5
+     */
+    public void writeTo(final DataOutput out, final ElementCodec<? super K> keyCodec,
+                        final ElementCodec<? super V> valueCodec) throws IOException {
+        Objects.requireNonNull(out, "out");
+        Objects.requireNonNull(keyCodec, "keyCodec");
+        Objects.requireNonNull(valueCodec, "valueCodec");
+        out.writeInt(size);
+        for (final MapIterator<K, V> it = mapIterator(); it.hasNext();) {
+            keyCodec.write(it.next(), out);
+            valueCodec.write(it.getValue(), out);
+        }
+    }
+
+    /**
+     * Reads mappings written by {@link #writeTo(DataOutput, ElementCodec, ElementCodec)}
+     * from a binary input and puts them into this map.
+     * <p>
+     * Each mapping is added using {@code put()}, in the order they were written,
+     * so a {@link LinkedMap} keeps its order. If this map is empty, the table is
+     * first sized for the mappings to read, up to a bound so that an invalid size
+     * cannot allocate a huge table, and grows as usual past it. This saves the
+     * resizes {@code put()} would otherwise make, and is the only difference.
+     * </p>
+     *
+     * @param in  the input to read from
+     * @param keyCodec  the codec reading the keys
+     * @param valueCodec  the codec reading the values
+     * @throws IOException if an error occurs while reading or the size is invalid
+     * @throws NullPointerException if any argument is null
+     * @since 4.5
+     */
+    public void readFrom(final DataInput in, final ElementCodec<? extends K> keyCodec,
+                         final ElementCodec<? extends V> valueCodec) throws IOException {
+        Objects.requireNonNull(in, "in");
+        Objects.requireNonNull(keyCodec, "keyCodec");
+        Objects.requireNonNull(valueCodec, "valueCodec");
+        final int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid size: " + count);
+        }
+        if (size == 0) {
+            // the size is not trusted, and a bounded map never holds more than its maximum size
+            int expected = Math.min(count, MAXIMUM_PRESIZE);
+            if (this instanceof BoundedMap) {
+                expected = Math.min(expected, ((BoundedMap<?, ?>) this).maxSize());
+            }
+            ensureCapacity(calculateNewCapacity((int) (expected / loadFactor + 1)));
+        }
+        for (int i = 0; i < count; i++) {
+            put(keyCodec.read(in), valueCodec.read(in));
+        }
+    }
+
     /**
      * Writes the map data to the stream. This method must be overridden if a
      * subclass must be setup before {@code put()} is used.
@@ -1275,6 +2639,8 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         init();
         threshold = calculateThreshold(capacity, loadFactor);
         data = new HashEntry[capacity];
+        treeBins = null;
+        oldData = null;
         for (int i = 0; i < size; i++) {
             final K key = (K) in.readObject();
             final V value = (V) in.readObject();
@@ -1297,6 +2663,8 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         try {
             final AbstractHashedMap<K, V> cloned = (AbstractHashedMap<K, V>) super.clone();
             cloned.data = new HashEntry[data.length];
+            cloned.treeBins = null;
+            cloned.oldData = null;
             cloned.entrySet = null;
             cloned.keySet = null;
             cloned.values = null;
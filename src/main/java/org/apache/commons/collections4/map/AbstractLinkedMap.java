@@ -20,6 +20,11 @@ import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.apache.commons.collections4.OrderedIterator;
 import org.apache.commons.collections4.OrderedMap;
@@ -503,6 +508,162 @@ public abstract class AbstractLinkedMap<K, V> extends AbstractHashedMap<K, V> im
         }
     }
 
+    /**
+     * Creates an entry set spliterator, which visits the entries in link order.
+     *
+     * @return the entrySet spliterator
+     * @since 4.5
+     */
+    @Override
+    protected Spliterator<Map.Entry<K, V>> createEntrySetSpliterator() {
+        return new LinkSpliterator<>(this, entry -> entry, Spliterator.DISTINCT);
+    }
+
+    /**
+     * Creates a key set spliterator, which visits the keys in link order.
+     *
+     * @return the keySet spliterator
+     * @since 4.5
+     */
+    @Override
+    protected Spliterator<K> createKeySetSpliterator() {
+        return new LinkSpliterator<>(this, HashEntry::getKey, Spliterator.DISTINCT);
+    }
+
+    /**
+     * Creates a values spliterator, which visits the values in link order.
+     *
+     * @return the values spliterator
+     * @since 4.5
+     */
+    @Override
+    protected Spliterator<V> createValuesSpliterator() {
+        return new LinkSpliterator<>(this, HashEntry::getValue, 0);
+    }
+
+    /**
+     * Spliterator that visits the entries in link order.
+     * <p>
+     * The links cannot be split in the middle without walking to it, so the
+     * spliterator splits off batches of elements of growing size into arrays,
+     * as {@link java.util.LinkedList} does. It binds to the map on first use.
+     *
+     * @param <K> the type of the keys in the map
+     * @param <V> the type of the values in the map
+     * @param <E> the type of the elements
+     * @since 4.5
+     */
+    protected static class LinkSpliterator<K, V, E> implements Spliterator<E> {
+
+        /** The size increase of each batch split off */
+        static final int BATCH_UNIT = 1 << 10;
+        /** The maximum size of a batch split off */
+        static final int MAX_BATCH = 1 << 25;
+
+        /** The parent map */
+        private final AbstractLinkedMap<K, V> parent;
+        /** The function mapping an entry to an element */
+        private final Function<? super LinkEntry<K, V>, ? extends E> function;
+        /** The characteristics other than the order and size */
+        private final int characteristics;
+        /** The next entry, null until bound to the map */
+        private LinkEntry<K, V> next;
+        /** The number of entries left */
+        private int remaining;
+        /** The size of the last batch split off */
+        private int batch;
+        /** The modification count expected */
+        private int expectedModCount;
+
+        /**
+         * Creates a spliterator over the map, bound to it on first use.
+         *
+         * @param parent  the parent map
+         * @param function  the function mapping an entry to an element
+         * @param characteristics  the characteristics other than the order and size
+         */
+        protected LinkSpliterator(final AbstractLinkedMap<K, V> parent,
+                final Function<? super LinkEntry<K, V>, ? extends E> function, final int characteristics) {
+            this.parent = parent;
+            this.function = function;
+            this.characteristics = characteristics;
+        }
+
+        /**
+         * Binds to the map on first use.
+         *
+         * @return the number of entries left
+         */
+        private int getRemaining() {
+            if (next == null) {
+                next = parent.header.after;
+                remaining = parent.size;
+                expectedModCount = parent.modCount;
+            }
+            return remaining;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final int n = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), getRemaining());
+            if (n <= 1) {
+                return null;
+            }
+            final Object[] array = new Object[n];
+            LinkEntry<K, V> entry = next;
+            for (int i = 0; i < n; i++) {
+                array[i] = function.apply(entry);
+                entry = entry.after;
+            }
+            next = entry;
+            remaining -= n;
+            batch = n;
+            return Spliterators.spliterator(array, 0, n, characteristics | ORDERED);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            if (getRemaining() == 0) {
+                return false;
+            }
+            final LinkEntry<K, V> entry = next;
+            next = entry.after;
+            remaining--;
+            action.accept(function.apply(entry));
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            Objects.requireNonNull(action, "action");
+            int n = getRemaining();
+            LinkEntry<K, V> entry = next;
+            for (; n > 0; n--) {
+                action.accept(function.apply(entry));
+                entry = entry.after;
+            }
+            next = entry;
+            remaining = 0;
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getRemaining();
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics | ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
     /**
      * LinkEntry that stores the data.
      * <p>
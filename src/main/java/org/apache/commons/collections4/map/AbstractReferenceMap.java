@@ -16,6 +16,7 @@
  */
 package org.apache.commons.collections4.map;
 
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -32,7 +33,12 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import org.apache.commons.collections4.ElementCodec;
 import org.apache.commons.collections4.MapIterator;
 import org.apache.commons.collections4.keyvalue.DefaultMapEntry;
 
@@ -78,6 +84,10 @@ import org.apache.commons.collections4.keyvalue.DefaultMapEntry;
  * {@code ResettableIterator} and calling {@code reset()}.
  * </p>
  * <p>
+ * Statistics of the hits, misses, puts and purged references can be recorded
+ * by calling {@link #setStatisticsEnabled(boolean)}.
+ * </p>
+ * <p>
  * This implementation is not synchronized.
  * You can use {@link java.util.Collections#synchronizedMap} to
  * provide synchronized access to a {@code ReferenceMap}.
@@ -146,6 +156,11 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
      */
     private transient ReferenceQueue<Object> queue;
 
+    /**
+     * The statistics, null unless enabled.
+     */
+    private transient MapStatistics.Counter statistics;
+
     /**
      * Constructor used during deserialization.
      */
@@ -249,10 +264,15 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
     public V get(final Object key) {
         purgeBeforeRead();
         final Entry<K, V> entry = getEntry(key);
-        if (entry == null) {
-            return null;
+        final V value = entry == null ? null : entry.getValue();
+        if (statistics != null) {
+            if (value == null) {
+                statistics.recordMiss();
+            } else {
+                statistics.recordHit();
+            }
         }
-        return entry.getValue();
+        return value;
     }
 
 
@@ -270,6 +290,9 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(value, "value");
         purgeBeforeWrite();
+        if (statistics != null) {
+            statistics.recordPut();
+        }
         return super.put(key, value);
     }
 
@@ -288,6 +311,121 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         return super.remove(key);
     }
 
+    /**
+     * Gets the value mapped to the key specified, or a default value if the key
+     * is not mapped.
+     *
+     * @param key  the key
+     * @param defaultValue  the value to return if the key is not mapped
+     * @return the mapped value, the default value if no match
+     * @since 4.5
+     */
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Puts a key-value mapping into this map if the key is not mapped yet.
+     * Neither the key nor the value may be null.
+     *
+     * @param key  the key to add, must not be null
+     * @param value  the value to add, must not be null
+     * @return the value previously mapped to this key, null if none
+     * @throws NullPointerException if either the key or value is null
+     * @since 4.5
+     */
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        purgeBeforeWrite();
+        return super.putIfAbsent(key, value);
+    }
+
+    /**
+     * Computes a value for the key if it is not mapped yet.
+     *
+     * @param key  the key, must not be null
+     * @param mappingFunction  the function computing the value
+     * @return the current value, null if none
+     * @throws NullPointerException if the key is null
+     * @since 4.5
+     */
+    @Override
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    /**
+     * Computes a new value for the key if it is mapped.
+     *
+     * @param key  the key, must not be null
+     * @param remappingFunction  the function computing the new value
+     * @return the new value, null if none
+     * @throws NullPointerException if the key is null
+     * @since 4.5
+     */
+    @Override
+    public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    /**
+     * Computes a new value for the key from its current value, or null if it is
+     * not mapped.
+     *
+     * @param key  the key, must not be null
+     * @param remappingFunction  the function computing the new value
+     * @return the new value, null if none
+     * @throws NullPointerException if the key is null
+     * @since 4.5
+     */
+    @Override
+    public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.compute(key, remappingFunction);
+    }
+
+    /**
+     * Stores the value for the key if it is not mapped yet, or else merges the
+     * current value with it.
+     *
+     * @param key  the key, must not be null
+     * @param value  the value to store or merge, must not be null
+     * @param remappingFunction  the function merging the current value and the given value
+     * @return the new value, null if none
+     * @throws NullPointerException if either the key or value is null
+     * @since 4.5
+     */
+    @Override
+    public V merge(final K key, final V value,
+            final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    /**
+     * Replaces the value of each mapping with the result of a function.
+     *
+     * @param function  the function computing the new values, which must not return null
+     * @throws NullPointerException if the function returns null
+     * @since 4.5
+     */
+    @Override
+    public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function, "function");
+        purgeBeforeWrite();
+        super.replaceAll((key, value) -> Objects.requireNonNull(function.apply(key, value), "value"));
+    }
+
     /**
      * Clears this map.
      */
@@ -299,6 +437,49 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         }
     }
 
+    /**
+     * Enables or disables the recording of statistics.
+     * <p>
+     * Statistics are not recorded by default. Enabling them when they are
+     * already enabled has no effect, disabling them discards the statistics
+     * recorded so far.
+     *
+     * @param enabled  whether statistics are recorded
+     * @since 4.5
+     */
+    public void setStatisticsEnabled(final boolean enabled) {
+        if (!enabled) {
+            statistics = null;
+        } else if (statistics == null) {
+            statistics = new MapStatistics.Counter();
+        }
+    }
+
+    /**
+     * Whether this map records statistics.
+     *
+     * @return true if statistics are recorded
+     * @since 4.5
+     */
+    public boolean isStatisticsEnabled() {
+        return statistics != null;
+    }
+
+    /**
+     * Gets a snapshot of the statistics recorded since they were enabled.
+     * <p>
+     * Hits and misses are recorded by {@code get()}, where a mapping whose value
+     * has been garbage collected is a miss, puts by {@code put()} and purges for
+     * each garbage collected reference removed from the map.
+     *
+     * @return the statistics, {@link MapStatistics#EMPTY} if not enabled
+     * @since 4.5
+     */
+    public MapStatistics getStatistics() {
+        final MapStatistics.Counter counter = statistics;
+        return counter == null ? MapStatistics.EMPTY : counter.snapshot();
+    }
+
     /**
      * Gets a MapIterator over the reference map.
      * The iterator only returns valid key/value pairs.
@@ -379,10 +560,20 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
      */
     protected void purge() {
         Reference<?> ref = queue.poll();
+        if (ref == null) {
+            return;
+        }
+        final MapStatistics.Counter counter = statistics;
+        final long start = counter != null ? System.nanoTime() : 0;
+        int purged = 0;
         while (ref != null) {
             purge(ref);
+            purged++;
             ref = queue.poll();
         }
+        if (counter != null) {
+            counter.recordPurges(purged, System.nanoTime() - start);
+        }
     }
 
     /**
@@ -416,6 +607,21 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
 
     }
 
+    /**
+     * Checks whether the buckets of this map may be indexed by trees.
+     * <p>
+     * This implementation returns false, as the keys held by the entries
+     * can be cleared by the garbage collector and stale entries are purged
+     * directly from the hash chains.
+     *
+     * @return false
+     * @since 4.5
+     */
+    @Override
+    protected boolean isTreeBinEnabled() {
+        return false;
+    }
+
     /**
      * Gets the entry mapped to the key specified.
      *
@@ -505,6 +711,39 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         return new ReferenceValuesIterator<>(this);
     }
 
+    /**
+     * Creates an entry set spliterator.
+     *
+     * @return the entrySet spliterator
+     * @since 4.5
+     */
+    @Override
+    protected Spliterator<Map.Entry<K, V>> createEntrySetSpliterator() {
+        return new ReferenceSpliterator<>(this, entry -> entry, Spliterator.DISTINCT);
+    }
+
+    /**
+     * Creates a key set spliterator.
+     *
+     * @return the keySet spliterator
+     * @since 4.5
+     */
+    @Override
+    protected Spliterator<K> createKeySetSpliterator() {
+        return new ReferenceSpliterator<>(this, HashEntry::getKey, Spliterator.DISTINCT);
+    }
+
+    /**
+     * Creates a values spliterator.
+     *
+     * @return the values spliterator
+     * @since 4.5
+     */
+    @Override
+    protected Spliterator<V> createValuesSpliterator() {
+        return new ReferenceSpliterator<>(this, HashEntry::getValue, 0);
+    }
+
     /**
      * EntrySet implementation.
      */
@@ -858,6 +1097,45 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         }
     }
 
+    /**
+     * The spliterator, which skips the entries whose key or value has been collected.
+     */
+    static class ReferenceSpliterator<K, V, E> extends HashSpliterator<K, V, E> {
+        // These fields provide hard references to the key and value of the
+        // entry being passed on, so that they cannot be collected meanwhile.
+        private K currentKey;
+        private V currentValue;
+
+        ReferenceSpliterator(final AbstractHashedMap<K, V> parent,
+                final Function<? super HashEntry<K, V>, ? extends E> function, final int characteristics) {
+            super(parent, function, characteristics);
+        }
+
+        private ReferenceSpliterator(final ReferenceSpliterator<K, V, E> spliterator, final int index,
+                final int fence, final int est, final int expectedModCount) {
+            super(spliterator, index, fence, est, expectedModCount);
+        }
+
+        @Override
+        protected boolean accept(final HashEntry<K, V> entry, final Consumer<? super E> action) {
+            currentKey = entry.getKey();
+            currentValue = entry.getValue();
+            if (currentKey == null || currentValue == null) {
+                return false;
+            }
+            super.accept(entry, action);
+            currentKey = null;
+            currentValue = null;
+            return true;
+        }
+
+        @Override
+        protected HashSpliterator<K, V, E> split(final int index, final int fence, final int est,
+                final int expectedModCount) {
+            return new ReferenceSpliterator<>(this, index, fence, est, expectedModCount);
+        }
+    }
+
     /**
      * The EntrySet iterator.
      */
@@ -1019,6 +1297,41 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         }
     }
 
+    /**
+     * Writes the mappings to a binary output using codecs for the keys and values.
+     * <p>
+     * The mappings are collected before anything is written, so that none of them
+     * can be garbage collected between writing the size and writing the mappings.
+     * </p>
+     *
+     * @param out  the output to write to
+     * @param keyCodec  the codec writing the keys
+     * @param valueCodec  the codec writing the values
+     * @throws IOException if an error occurs while writing
+     * @throws NullPointerException if any argument is null
+     * @since 4.5
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeTo(final DataOutput out, final ElementCodec<? super K> keyCodec,
+                        final ElementCodec<? super V> valueCodec) throws IOException {
+        Objects.requireNonNull(out, "out");
+        Objects.requireNonNull(keyCodec, "keyCodec");
+        Objects.requireNonNull(valueCodec, "valueCodec");
+        // holding the keys and values strongly keeps them from being cleared meanwhile
+        final Object[] mappings = new Object[size() * 2];
+        int count = 0;
+        for (final MapIterator<K, V> it = mapIterator(); it.hasNext() && count < mappings.length;) {
+            mappings[count++] = it.next();
+            mappings[count++] = it.getValue();
+        }
+        out.writeInt(count / 2);
+        for (int i = 0; i < count; i += 2) {
+            keyCodec.write((K) mappings[i], out);
+            valueCodec.write((V) mappings[i + 1], out);
+        }
+    }
+
     /**
      * Replaces the superclass method to store the state of this class.
      * <p>
@@ -0,0 +1,716 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.iterators.EmptyIterator;
+import org.apache.commons.collections4.iterators.EmptyMapIterator;
+
+/**
+ * A {@code Map} implementation that stores data in flat arrays until
+ * the size is greater than a small fixed capacity.
+ * <p>
+ * This map extends the design of {@link Flat3Map} to maps holding a few more
+ * mappings, 8 by default and up to 32. While the size is within the flat
+ * capacity, the keys and values are stored next to each other in one array
+ * and their hash codes in another. A lookup scans the hash codes, which are
+ * adjacent in memory, and only calls {@code equals()} when a hash code matches.
+ * No entry objects are created, so puts are cheap and the map is easy for the
+ * garbage collector to dispatch.
+ * </p>
+ * <p>
+ * The design uses two distinct modes of operation - flat and delegate.
+ * Once a put would exceed the flat capacity, the map switches to delegate mode
+ * and only switches back when cleared. In delegate mode, all operations are
+ * forwarded straight to a {@link HashedMap}.
+ * </p>
+ * <p>
+ * While in flat mode, removing a mapping shifts the later mappings down, so the
+ * iteration order is the insertion order until the map switches to delegate mode.
+ * </p>
+ * <p>
+ * <strong>Note that FlatArrayMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class FlatArrayMap<K, V> extends AbstractMap<K, V> implements IterableMap<K, V>, Serializable, Cloneable {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 20230604L;
+
+    /** The default flat capacity */
+    protected static final int DEFAULT_FLAT_CAPACITY = 8;
+
+    /** The maximum flat capacity, beyond which a linear scan is slower than hashing */
+    protected static final int MAXIMUM_FLAT_CAPACITY = 32;
+
+    /** The maximum number of mappings held in flat mode */
+    private final int flatCapacity;
+    /** The size of the map, used while in flat mode */
+    private transient int size;
+    /** The hash codes of the keys, used while in flat mode, null until the first put */
+    private transient int[] hashes;
+    /** The keys at even indices followed by their values, used while in flat mode, null until the first put */
+    private transient Object[] table;
+    /** Modification count for iterators, used while in flat mode */
+    private transient int modCount;
+    /** Map, used while in delegate mode */
+    private transient AbstractHashedMap<K, V> delegateMap;
+
+    /**
+     * Constructs a new empty map with the default flat capacity of 8.
+     */
+    public FlatArrayMap() {
+        this(DEFAULT_FLAT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new empty map with the specified flat capacity.
+     *
+     * @param flatCapacity  the maximum number of mappings held in flat mode, from 1 to 32
+     * @throws IllegalArgumentException if the flat capacity is less than 1 or greater than 32
+     */
+    public FlatArrayMap(final int flatCapacity) {
+        if (flatCapacity < 1 || flatCapacity > MAXIMUM_FLAT_CAPACITY) {
+            throw new IllegalArgumentException("Flat capacity must be between 1 and " + MAXIMUM_FLAT_CAPACITY);
+        }
+        this.flatCapacity = flatCapacity;
+    }
+
+    /**
+     * Constructor copying elements from another map, with the default flat capacity.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public FlatArrayMap(final Map<? extends K, ? extends V> map) {
+        this(DEFAULT_FLAT_CAPACITY);
+        putAll(map);
+    }
+
+    /**
+     * Gets the hash code of a key, zero for null.
+     *
+     * @param key  the key
+     * @return the hash code
+     */
+    private static int hash(final Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    /**
+     * Gets the index of a key while in flat mode.
+     *
+     * @param key  the key to find
+     * @return the index, -1 if not found
+     */
+    private int indexOf(final Object key) {
+        return indexOf(key, hash(key));
+    }
+
+    /**
+     * Gets the index of a key with the specified hash code while in flat mode.
+     *
+     * @param key  the key to find
+     * @param hashCode  the hash code of the key
+     * @return the index, -1 if not found
+     */
+    private int indexOf(final Object key, final int hashCode) {
+        final int[] flatHashes = hashes;
+        final int flatSize = size;
+        for (int i = 0; i < flatSize; i++) {
+            if (flatHashes[i] == hashCode) {
+                final Object other = table[i * 2];
+                if (other == key || key != null && key.equals(other)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.get(key);
+        }
+        final int index = indexOf(key);
+        return index < 0 ? null : (V) table[index * 2 + 1];
+    }
+
+    /**
+     * Gets the size of the map.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        if (delegateMap != null) {
+            return delegateMap.size();
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether the map is currently empty.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.containsKey(key);
+        }
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the value
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        if (delegateMap != null) {
+            return delegateMap.containsValue(value);
+        }
+        for (int i = 0; i < size; i++) {
+            final Object other = table[i * 2 + 1];
+            if (other == value || value != null && value.equals(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a key-value mapping into this map.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key, null if none
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        if (delegateMap != null) {
+            return delegateMap.put(key, value);
+        }
+        final int hashCode = hash(key);
+        final int index = indexOf(key, hashCode);
+        if (index >= 0) {
+            final V old = (V) table[index * 2 + 1];
+            table[index * 2 + 1] = value;
+            return old;
+        }
+        if (size == flatCapacity) {
+            convertToMap();
+            delegateMap.put(key, value);
+            return null;
+        }
+        if (hashes == null) {
+            hashes = new int[flatCapacity];
+            table = new Object[flatCapacity * 2];
+        }
+        hashes[size] = hashCode;
+        table[size * 2] = key;
+        table[size * 2 + 1] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * Puts all the values from the specified map into this map.
+     *
+     * @param map  the map to add
+     * @throws NullPointerException if the map is null
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        final int mapSize = map.size();
+        if (mapSize == 0) {
+            return;
+        }
+        if (delegateMap != null) {
+            delegateMap.putAll(map);
+            return;
+        }
+        if (mapSize > flatCapacity) {
+            convertToMap();
+            delegateMap.putAll(map);
+        } else {
+            for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Converts the flat map data to a map.
+     */
+    @SuppressWarnings("unchecked")
+    private void convertToMap() {
+        delegateMap = createDelegateMap();
+        for (int i = 0; i < size; i++) {
+            delegateMap.put((K) table[i * 2], (V) table[i * 2 + 1]);
+        }
+        size = 0;
+        hashes = null;
+        table = null;
+        modCount++;
+    }
+
+    /**
+     * Create an instance of the map used for storage when in delegation mode.
+     * <p>
+     * This can be overridden by subclasses to provide a different map implementation.
+     * Not every AbstractHashedMap is suitable, identity and reference based maps
+     * would be poor choices.
+     * </p>
+     *
+     * @return a new AbstractHashedMap or subclass
+     */
+    protected AbstractHashedMap<K, V> createDelegateMap() {
+        return new HashedMap<>();
+    }
+
+    /**
+     * Removes the specified mapping from this map.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.remove(key);
+        }
+        final int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        final V old = (V) table[index * 2 + 1];
+        removeIndex(index);
+        return old;
+    }
+
+    /**
+     * Removes the mapping at an index while in flat mode, shifting the later mappings down.
+     *
+     * @param index  the index to remove
+     */
+    private void removeIndex(final int index) {
+        final int moved = size - index - 1;
+        System.arraycopy(hashes, index + 1, hashes, index, moved);
+        System.arraycopy(table, index * 2 + 2, table, index * 2, moved * 2);
+        size--;
+        hashes[size] = 0;
+        table[size * 2] = null;
+        table[size * 2 + 1] = null;
+        modCount++;
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        if (delegateMap != null) {
+            delegateMap.clear();  // should aid gc
+            delegateMap = null;  // switch back to flat mode
+        } else if (size > 0) {
+            Arrays.fill(hashes, 0, size, 0);
+            Arrays.fill(table, 0, size * 2, null);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * Gets the maximum number of mappings held in flat mode.
+     *
+     * @return the flat capacity
+     */
+    public int flatCapacity() {
+        return flatCapacity;
+    }
+
+    /**
+     * Gets an iterator over the map.
+     * Changes made to the iterator affect this map.
+     * <p>
+     * A MapIterator returns the keys in the map. It also provides convenient
+     * methods to get the key and value, and set the value.
+     * It avoids the need to create an entrySet/keySet/values object.
+     * It also avoids creating the Map Entry object.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        if (delegateMap != null) {
+            return delegateMap.mapIterator();
+        }
+        if (size == 0) {
+            return EmptyMapIterator.<K, V>emptyMapIterator();
+        }
+        return new FlatArrayMapIterator<>(this);
+    }
+
+    /**
+     * Gets the entrySet view of the map.
+     * Changes made to the view affect this map.
+     * <p>
+     * The returned Map Entry is an independent object that does not change as the
+     * iterator progresses. To avoid this additional object creation and simply
+     * iterate through the entries, use {@link #mapIterator()}.
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (delegateMap != null) {
+            return delegateMap.entrySet();
+        }
+        return new EntrySet<>(this);
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (final MapIterator<?, ?> it = mapIterator(); it.hasNext();) {
+            out.writeObject(it.next());  // key
+            out.writeObject(it.getValue());  // value
+        }
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        if (count > flatCapacity) {
+            delegateMap = createDelegateMap();
+        }
+        for (int i = count; i > 0; i--) {
+            put((K) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public FlatArrayMap<K, V> clone() {
+        try {
+            final FlatArrayMap<K, V> cloned = (FlatArrayMap<K, V>) super.clone();
+            if (cloned.delegateMap != null) {
+                cloned.delegateMap = cloned.delegateMap.clone();
+            }
+            if (cloned.hashes != null) {
+                cloned.hashes = cloned.hashes.clone();
+                cloned.table = cloned.table.clone();
+            }
+            return cloned;
+        } catch (final CloneNotSupportedException ex) {
+            throw new InternalError();
+        }
+    }
+
+    /**
+     * Compares this map with another.
+     *
+     * @param obj  the object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (delegateMap != null) {
+            return obj == this || delegateMap.equals(obj);
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * Gets the standard Map hashCode.
+     *
+     * @return the hash code defined in the Map interface
+     */
+    @Override
+    public int hashCode() {
+        if (delegateMap != null) {
+            return delegateMap.hashCode();
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += hashes[i] ^ Objects.hashCode(table[i * 2 + 1]);
+        }
+        return total;
+    }
+
+    /**
+     * Base class of the iterators while in flat mode.
+     */
+    abstract static class FlatArrayIterator<K, V> {
+        final FlatArrayMap<K, V> parent;
+        int nextIndex;
+        boolean canRemove;
+        int expectedModCount;
+
+        FlatArrayIterator(final FlatArrayMap<K, V> parent) {
+            this.parent = parent;
+            this.expectedModCount = parent.modCount;
+        }
+
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        int nextIndex() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            canRemove = true;
+            return nextIndex++;
+        }
+
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            parent.removeIndex(--nextIndex);
+            expectedModCount = parent.modCount;
+            canRemove = false;
+        }
+    }
+
+    /**
+     * FlatArrayMapIterator
+     */
+    static class FlatArrayMapIterator<K, V> extends FlatArrayIterator<K, V>
+            implements MapIterator<K, V>, ResettableIterator<K> {
+
+        FlatArrayMapIterator(final FlatArrayMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public K next() {
+            nextIndex();
+            return getKey();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return (K) parent.table[(nextIndex - 1) * 2];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return (V) parent.table[(nextIndex - 1) * 2 + 1];
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            final V old = getValue();
+            parent.table[(nextIndex - 1) * 2 + 1] = value;
+            return old;
+        }
+
+        @Override
+        public void reset() {
+            nextIndex = 0;
+            canRemove = false;
+            expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public String toString() {
+            if (canRemove) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /**
+     * EntrySet
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final FlatArrayMap<K, V> parent;
+
+        EntrySet(final FlatArrayMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Object key = entry.getKey();
+            return parent.containsKey(key) && Objects.equals(parent.get(key), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!contains(obj)) {
+                return false;
+            }
+            parent.remove(((Map.Entry<?, ?>) obj).getKey());
+            return true;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.entrySet().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<Map.Entry<K, V>>emptyIterator();
+            }
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * EntrySetIterator
+     */
+    static class EntrySetIterator<K, V> extends FlatArrayIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        EntrySetIterator(final FlatArrayMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            final int index = nextIndex();
+            return new FlatArrayMapEntry<>(parent, (K) parent.table[index * 2], (V) parent.table[index * 2 + 1]);
+        }
+    }
+
+    /**
+     * FlatArrayMapEntry, setting the value writes through to the map.
+     */
+    static class FlatArrayMapEntry<K, V> extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final transient FlatArrayMap<K, V> parent;
+
+        FlatArrayMapEntry(final FlatArrayMap<K, V> parent, final K key, final V value) {
+            super(key, value);
+            this.parent = parent;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (parent.containsKey(getKey())) {
+                parent.put(getKey(), value);
+            }
+            return super.setValue(value);
+        }
+    }
+
+}
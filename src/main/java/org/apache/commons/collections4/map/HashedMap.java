@@ -48,11 +48,15 @@ public class HashedMap<K, V>
     /** Serialisation version */
     private static final long serialVersionUID = -1788199231038721040L;
 
+    /** The number of buckets migrated on each write during a resize, zero to rehash at once */
+    private final int incrementalResizeStep;
+
     /**
      * Constructs a new empty map with default size and load factor.
      */
     public HashedMap() {
         super(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_THRESHOLD);
+        this.incrementalResizeStep = 0;
     }
 
     /**
@@ -63,6 +67,7 @@ public class HashedMap<K, V>
      */
     public HashedMap(final int initialCapacity) {
         super(initialCapacity);
+        this.incrementalResizeStep = 0;
     }
 
     /**
@@ -76,6 +81,35 @@ public class HashedMap<K, V>
      */
     public HashedMap(final int initialCapacity, final float loadFactor) {
         super(initialCapacity, loadFactor);
+        this.incrementalResizeStep = 0;
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity and
+     * load factor that is resized incrementally as it grows.
+     * <p>
+     * Instead of rehashing all entries on the write that exceeds the threshold,
+     * the previous table is kept and each following write migrates the specified
+     * number of buckets to the enlarged table. This bounds the latency of every
+     * write at the cost of lookups consulting two tables for a while.
+     * A step of two or more normally completes each resize before the next one
+     * is due.
+     *
+     * @param initialCapacity  the initial capacity
+     * @param loadFactor  the load factor
+     * @param incrementalResizeStep  the number of buckets to migrate on each write,
+     *  zero to rehash all entries at once
+     * @throws IllegalArgumentException if the initial capacity is negative
+     * @throws IllegalArgumentException if the load factor is less than zero
+     * @throws IllegalArgumentException if the incremental resize step is negative
+     * @since 4.5
+     */
+    public HashedMap(final int initialCapacity, final float loadFactor, final int incrementalResizeStep) {
+        super(initialCapacity, loadFactor);
+        if (incrementalResizeStep < 0) {
+            throw new IllegalArgumentException("Incremental resize step must be a non negative number");
+        }
+        this.incrementalResizeStep = incrementalResizeStep;
     }
 
     /**
@@ -86,6 +120,19 @@ public class HashedMap<K, V>
      */
     public HashedMap(final Map<? extends K, ? extends V> map) {
         super(map);
+        this.incrementalResizeStep = 0;
+    }
+
+    /**
+     * Gets the number of buckets migrated by each write while the map is being
+     * resized incrementally.
+     *
+     * @return the step given on construction, zero to rehash at once
+     * @since 4.5
+     */
+    @Override
+    protected int getIncrementalResizeStep() {
+        return incrementalResizeStep;
     }
 
     /**
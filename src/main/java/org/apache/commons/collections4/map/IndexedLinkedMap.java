@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.Map;
+
+import org.apache.commons.collections4.CollectionUtils;
+
+/**
+ * A {@code Map} implementation that maintains the order of the entries
+ * and provides logarithmic access to the entries by index.
+ * In this implementation order is maintained by original insertion.
+ * <p>
+ * This map behaves exactly as {@link LinkedMap}, but in addition to the linked
+ * list each entry is also a node in a balanced (AVL) order-statistic tree that
+ * is keyed by insertion position. As a result the index based methods
+ * {@link #get(int)}, {@link #getValue(int)}, {@link #indexOf(Object)} and
+ * {@link #remove(int)} run in O(log n) time rather than the O(n) of
+ * {@code LinkedMap} and {@link ListOrderedMap}, while lookups by key remain
+ * hash based. Adding and removing by key also becomes O(log n) as the tree
+ * must be kept balanced.
+ * </p>
+ * <p>
+ * Each entry carries five additional fields, so this class uses more memory
+ * than {@code LinkedMap}. Use it when entries are frequently accessed or removed
+ * by position.
+ * </p>
+ * <p>
+ * <strong>Note that IndexedLinkedMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class IndexedLinkedMap<K, V> extends LinkedMap<K, V> {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 20230507L;
+
+    /** The root of the order-statistic tree, null when the map is empty */
+    transient IndexedEntry<K, V> root;
+
+    /**
+     * Constructs a new empty map with default size and load factor.
+     */
+    public IndexedLinkedMap() {
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IndexedLinkedMap(final int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity and
+     * load factor.
+     *
+     * @param initialCapacity  the initial capacity
+     * @param loadFactor  the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     * @throws IllegalArgumentException if the load factor is less than zero
+     */
+    public IndexedLinkedMap(final int initialCapacity, final float loadFactor) {
+        super(initialCapacity, loadFactor);
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public IndexedLinkedMap(final Map<? extends K, ? extends V> map) {
+        super(map);
+    }
+
+    /**
+     * Initialize this subclass during construction, cloning or deserialization.
+     */
+    @Override
+    protected void init() {
+        super.init();
+        root = null;
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        root = null;
+    }
+
+    /**
+     * Gets the index of the specified key.
+     * <p>
+     * This implementation runs in O(log n) time.
+     *
+     * @param key  the key to find the index of
+     * @return the index, or -1 if not found
+     */
+    @Override
+    public int indexOf(final Object key) {
+        final IndexedEntry<K, V> entry = (IndexedEntry<K, V>) getEntry(key);
+        if (entry == null) {
+            return CollectionUtils.INDEX_NOT_FOUND;
+        }
+        int index = sizeOf(entry.left);
+        for (IndexedEntry<K, V> node = entry; node.parent != null; node = node.parent) {
+            if (node == node.parent.right) {
+                index += sizeOf(node.parent.left) + 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the entry at the specified index.
+     * <p>
+     * This implementation runs in O(log n) time.
+     *
+     * @param index  the index to retrieve
+     * @return the entry at the specified index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    protected LinkEntry<K, V> getEntry(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index " + index + " is less than zero");
+        }
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is invalid for size " + size);
+        }
+        IndexedEntry<K, V> node = root;
+        while (true) {
+            final int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Creates an entry to store the data.
+     * <p>
+     * This implementation creates a new IndexedEntry instance.
+     *
+     * @param next  the next entry in sequence
+     * @param hashCode  the hash code to use
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the newly created entry
+     */
+    @Override
+    protected IndexedEntry<K, V> createEntry(final HashEntry<K, V> next, final int hashCode, final K key, final V value) {
+        return new IndexedEntry<>(next, hashCode, convertKey(key), value);
+    }
+
+    /**
+     * Adds an entry into this map, maintaining insertion order.
+     * <p>
+     * This implementation appends the entry to the linked list and as the
+     * rightmost node of the order-statistic tree.
+     *
+     * @param entry  the entry to add
+     * @param hashIndex  the index into the data array to store at
+     */
+    @Override
+    protected void addEntry(final HashEntry<K, V> entry, final int hashIndex) {
+        final IndexedEntry<K, V> node = (IndexedEntry<K, V>) entry;
+        if (root == null) {
+            root = node;
+        } else {
+            // the last entry in the linked list is the rightmost node in the tree
+            final IndexedEntry<K, V> last = (IndexedEntry<K, V>) header.before;
+            last.right = node;
+            node.parent = last;
+            rebalanceFrom(last);
+        }
+        super.addEntry(entry, hashIndex);
+    }
+
+    /**
+     * Removes an entry from the map, the linked list and the tree.
+     *
+     * @param entry  the entry to remove
+     * @param hashIndex  the index into the data structure
+     * @param previous  the previous entry in the chain
+     */
+    @Override
+    protected void removeEntry(final HashEntry<K, V> entry, final int hashIndex, final HashEntry<K, V> previous) {
+        final IndexedEntry<K, V> node = (IndexedEntry<K, V>) entry;
+        final IndexedEntry<K, V> rebalanceFrom;
+        if (node.left == null) {
+            rebalanceFrom = node.parent;
+            transplant(node, node.right);
+        } else if (node.right == null) {
+            rebalanceFrom = node.parent;
+            transplant(node, node.left);
+        } else {
+            // the successor in the tree is the next entry in the linked list
+            final IndexedEntry<K, V> successor = (IndexedEntry<K, V>) node.after;
+            if (successor.parent == node) {
+                rebalanceFrom = successor;
+            } else {
+                rebalanceFrom = successor.parent;
+                transplant(successor, successor.right);
+                successor.right = node.right;
+                successor.right.parent = successor;
+            }
+            transplant(node, successor);
+            successor.left = node.left;
+            successor.left.parent = successor;
+        }
+        node.parent = node.left = node.right = null;
+        rebalanceFrom(rebalanceFrom);
+        super.removeEntry(entry, hashIndex, previous);
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public IndexedLinkedMap<K, V> clone() {
+        return (IndexedLinkedMap<K, V>) super.clone();
+    }
+
+    /**
+     * Replaces the subtree rooted at one node with the subtree rooted at another.
+     *
+     * @param node  the node to replace
+     * @param replacement  the replacement subtree, may be null
+     */
+    private void transplant(final IndexedEntry<K, V> node, final IndexedEntry<K, V> replacement) {
+        final IndexedEntry<K, V> parent = node.parent;
+        if (parent == null) {
+            root = replacement;
+        } else if (node == parent.left) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        if (replacement != null) {
+            replacement.parent = parent;
+        }
+    }
+
+    /**
+     * Recalculates heights and sizes, and rebalances, from the node up to the root.
+     *
+     * @param node  the deepest node that changed, may be null
+     */
+    private void rebalanceFrom(IndexedEntry<K, V> node) {
+        while (node != null) {
+            node.recalc();
+            node = balance(node).parent;
+        }
+    }
+
+    /**
+     * Balances according to the AVL algorithm.
+     *
+     * @param node  the node to balance, children must be balanced
+     * @return the node now at the position of the input node
+     */
+    private IndexedEntry<K, V> balance(final IndexedEntry<K, V> node) {
+        final int balance = heightOf(node.right) - heightOf(node.left);
+        if (balance < -1) {
+            if (heightOf(node.left.right) > heightOf(node.left.left)) {
+                rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance > 1) {
+            if (heightOf(node.right.left) > heightOf(node.right.right)) {
+                rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private IndexedEntry<K, V> rotateLeft(final IndexedEntry<K, V> node) {
+        final IndexedEntry<K, V> newTop = node.right;
+        node.right = newTop.left;
+        if (newTop.left != null) {
+            newTop.left.parent = node;
+        }
+        transplant(node, newTop);
+        newTop.left = node;
+        node.parent = newTop;
+        node.recalc();
+        newTop.recalc();
+        return newTop;
+    }
+
+    private IndexedEntry<K, V> rotateRight(final IndexedEntry<K, V> node) {
+        final IndexedEntry<K, V> newTop = node.left;
+        node.left = newTop.right;
+        if (newTop.right != null) {
+            newTop.right.parent = node;
+        }
+        transplant(node, newTop);
+        newTop.right = node;
+        node.parent = newTop;
+        node.recalc();
+        newTop.recalc();
+        return newTop;
+    }
+
+    /**
+     * Returns the height of the node or -1 if the node is null.
+     */
+    private static int heightOf(final IndexedEntry<?, ?> node) {
+        return node == null ? -1 : node.height;
+    }
+
+    /**
+     * Returns the size of the subtree rooted at the node or 0 if the node is null.
+     */
+    private static int sizeOf(final IndexedEntry<?, ?> node) {
+        return node == null ? 0 : node.treeSize;
+    }
+
+    /**
+     * IndexedEntry that stores the data and acts as a node in the order-statistic tree.
+     */
+    protected static class IndexedEntry<K, V> extends LinkEntry<K, V> {
+        /** The parent node in the tree */
+        IndexedEntry<K, V> parent;
+        /** The left child node in the tree */
+        IndexedEntry<K, V> left;
+        /** The right child node in the tree */
+        IndexedEntry<K, V> right;
+        /** How many levels of left/right are below this one */
+        int height;
+        /** The number of nodes in the subtree rooted at this node */
+        int treeSize = 1;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param next  the next entry in the hash bucket sequence
+         * @param hashCode  the hash code
+         * @param key  the key
+         * @param value  the value
+         */
+        protected IndexedEntry(final HashEntry<K, V> next, final int hashCode, final Object key, final V value) {
+            super(next, hashCode, key, value);
+        }
+
+        /**
+         * Sets the height and size by calculation.
+         */
+        void recalc() {
+            height = Math.max(heightOf(left), heightOf(right)) + 1;
+            treeSize = sizeOf(left) + sizeOf(right) + 1;
+        }
+    }
+
+}
@@ -0,0 +1,905 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.collections4.keyvalue.MultiKey;
+
+/**
+ * A {@code Map} implementation that uses two to five keys to map the value,
+ * storing the keys inline in its entries.
+ * <p>
+ * This map offers the same multi-key methods as {@link MultiKeyMap}, such as
+ * {@code get(key1, key2)} and {@code put(key1, key2, value)}, but no
+ * {@link MultiKey} is created by {@code put()} either: each entry holds its
+ * component keys in fields, using a specialized entry class for each number of keys.
+ * This saves the {@code MultiKey} and its array for every mapping, so the
+ * multi-key methods do not allocate anything except the entry of a new mapping.
+ * </p>
+ * <p>
+ * The hash code of a combined key is computed by mixing the hash codes of the
+ * components in order, so keys such as {@code (a, b)} and {@code (b, a)} or
+ * {@code (a, a, c)} and {@code (b, b, c)} do not collide, unlike the hash code of
+ * {@code MultiKey} which combines the components with exclusive or.
+ * </p>
+ * <p>
+ * The normal map methods take in and return a {@link MultiKey} with two to five keys.
+ * The keys returned by iteration are created on demand and are equal to those
+ * that were put. {@code put()} with a key of another size throws
+ * {@code IllegalArgumentException} and with a null key throws {@code NullPointerException}.
+ * The components of the key may be null.
+ * </p>
+ * <p>
+ * <strong>Note that InlineMultiKeyMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. This class may throw exceptions when accessed
+ * by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class InlineMultiKeyMap<K, V> extends AbstractHashedMap<MultiKey<? extends K>, V>
+        implements Serializable, Cloneable {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 20230618L;
+
+    /** The smallest number of keys supported */
+    private static final int MIN_KEYS = 2;
+    /** The largest number of keys supported */
+    private static final int MAX_KEYS = 5;
+
+    /**
+     * Constructs a new, empty map with default capacity.
+     */
+    public InlineMultiKeyMap() {
+        super(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public InlineMultiKeyMap(final int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map or any key within is null
+     * @throws IllegalArgumentException if any key does not have two to five keys
+     */
+    public InlineMultiKeyMap(final Map<? extends MultiKey<? extends K>, ? extends V> map) {
+        super(map);
+    }
+
+    /**
+     * Mixes the hash code of a component key into the combined hash code,
+     * using the rounds of MurmurHash3.
+     */
+    private static int mix(final int hashCode, final Object key) {
+        int k = key == null ? 0 : key.hashCode();
+        k *= 0xcc9e2d51;
+        k = Integer.rotateLeft(k, 15);
+        k *= 0x1b873593;
+        final int h = Integer.rotateLeft(hashCode ^ k, 13);
+        return h * 5 + 0xe6546b64;
+    }
+
+    /**
+     * Gets the hash code for the specified multi-key.
+     * The hash code depends on the order of the keys.
+     *
+     * @param length  the number of keys, from two to five
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key, ignored if there are less keys
+     * @param key4  the fourth key, ignored if there are less keys
+     * @param key5  the fifth key, ignored if there are less keys
+     * @return the hash code
+     */
+    static int hash(final int length, final Object key1, final Object key2, final Object key3,
+                    final Object key4, final Object key5) {
+        int h = mix(mix(0, key1), key2);
+        if (length > 2) {
+            h = mix(h, key3);
+            if (length > 3) {
+                h = mix(h, key4);
+                if (length > 4) {
+                    h = mix(h, key5);
+                }
+            }
+        }
+        h ^= length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Checks that a key can be stored in this map.
+     *
+     * @param key  the key to check
+     * @return the number of keys
+     * @throws NullPointerException if the key is null
+     * @throws IllegalArgumentException if the key does not have two to five keys
+     */
+    private static int checkKey(final MultiKey<?> key) {
+        Objects.requireNonNull(key, "key");
+        final int length = key.size();
+        if (length < MIN_KEYS || length > MAX_KEYS) {
+            throw new IllegalArgumentException("InlineMultiKeyMap keys must have two to five keys: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Gets the entry mapped to the multi-key.
+     *
+     * @return the entry, null if no match
+     */
+    private MultiKeyEntry<K, V> getEntry(final int length, final Object key1, final Object key2,
+                                         final Object key3, final Object key4, final Object key5) {
+        final int hashCode = hash(length, key1, key2, key3, key4, key5);
+        HashEntry<MultiKey<? extends K>, V> entry = data[hashIndex(hashCode, data.length)];
+        while (entry != null) {
+            if (entry.hashCode == hashCode &&
+                ((MultiKeyEntry<K, V>) entry).matches(length, key1, key2, key3, key4, key5)) {
+                return (MultiKeyEntry<K, V>) entry;
+            }
+            entry = entry.next;
+        }
+        return null;
+    }
+
+    /**
+     * Stores the value against the multi-key.
+     * <p>
+     * A new entry is added as {@link #addMapping(int, int, Object, Object)} does,
+     * but created from the keys rather than from a {@code MultiKey}.
+     *
+     * @return the value previously mapped to the key, null if none
+     */
+    private V put(final int length, final K key1, final K key2, final K key3, final K key4, final K key5,
+                  final V value) {
+        final int hashCode = hash(length, key1, key2, key3, key4, key5);
+        final int index = hashIndex(hashCode, data.length);
+        HashEntry<MultiKey<? extends K>, V> entry = data[index];
+        while (entry != null) {
+            if (entry.hashCode == hashCode &&
+                ((MultiKeyEntry<K, V>) entry).matches(length, key1, key2, key3, key4, key5)) {
+                final V oldValue = entry.getValue();
+                updateEntry(entry, value);
+                return oldValue;
+            }
+            entry = entry.next;
+        }
+        modCount++;
+        entry = createEntry(data[index], hashCode, length, key1, key2, key3, key4, key5, value);
+        addEntry(entry, index);
+        size++;
+        checkTreeBin(entry, index);
+        checkCapacity();
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the multi-key.
+     *
+     * @return the value mapped to the removed key, null if no match
+     */
+    private V removeMultiKey(final int length, final Object key1, final Object key2,
+                             final Object key3, final Object key4, final Object key5) {
+        final int hashCode = hash(length, key1, key2, key3, key4, key5);
+        final int index = hashIndex(hashCode, data.length);
+        HashEntry<MultiKey<? extends K>, V> entry = data[index];
+        HashEntry<MultiKey<? extends K>, V> previous = null;
+        while (entry != null) {
+            if (entry.hashCode == hashCode &&
+                ((MultiKeyEntry<K, V>) entry).matches(length, key1, key2, key3, key4, key5)) {
+                final V oldValue = entry.getValue();
+                removeMapping(entry, index, previous);
+                return oldValue;
+            }
+            previous = entry;
+            entry = entry.next;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value mapped to the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @return the mapped value, null if no match
+     */
+    public V get(final Object key1, final Object key2) {
+        final MultiKeyEntry<K, V> entry = getEntry(2, key1, key2, null, null, null);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Checks whether the map contains the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(final Object key1, final Object key2) {
+        return getEntry(2, key1, key2, null, null, null) != null;
+    }
+
+    /**
+     * Stores the value against the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param value  the value to store
+     * @return the value previously mapped to this combined key, null if none
+     */
+    public V put(final K key1, final K key2, final V value) {
+        return put(2, key1, key2, null, null, null, value);
+    }
+
+    /**
+     * Removes the specified multi-key from this map.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    public V removeMultiKey(final Object key1, final Object key2) {
+        return removeMultiKey(2, key1, key2, null, null, null);
+    }
+
+    /**
+     * Gets the value mapped to the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @return the mapped value, null if no match
+     */
+    public V get(final Object key1, final Object key2, final Object key3) {
+        final MultiKeyEntry<K, V> entry = getEntry(3, key1, key2, key3, null, null);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Checks whether the map contains the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(final Object key1, final Object key2, final Object key3) {
+        return getEntry(3, key1, key2, key3, null, null) != null;
+    }
+
+    /**
+     * Stores the value against the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param value  the value to store
+     * @return the value previously mapped to this combined key, null if none
+     */
+    public V put(final K key1, final K key2, final K key3, final V value) {
+        return put(3, key1, key2, key3, null, null, value);
+    }
+
+    /**
+     * Removes the specified multi-key from this map.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    public V removeMultiKey(final Object key1, final Object key2, final Object key3) {
+        return removeMultiKey(3, key1, key2, key3, null, null);
+    }
+
+    /**
+     * Gets the value mapped to the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @return the mapped value, null if no match
+     */
+    public V get(final Object key1, final Object key2, final Object key3, final Object key4) {
+        final MultiKeyEntry<K, V> entry = getEntry(4, key1, key2, key3, key4, null);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Checks whether the map contains the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(final Object key1, final Object key2, final Object key3, final Object key4) {
+        return getEntry(4, key1, key2, key3, key4, null) != null;
+    }
+
+    /**
+     * Stores the value against the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @param value  the value to store
+     * @return the value previously mapped to this combined key, null if none
+     */
+    public V put(final K key1, final K key2, final K key3, final K key4, final V value) {
+        return put(4, key1, key2, key3, key4, null, value);
+    }
+
+    /**
+     * Removes the specified multi-key from this map.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    public V removeMultiKey(final Object key1, final Object key2, final Object key3, final Object key4) {
+        return removeMultiKey(4, key1, key2, key3, key4, null);
+    }
+
+    /**
+     * Gets the value mapped to the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @param key5  the fifth key
+     * @return the mapped value, null if no match
+     */
+    public V get(final Object key1, final Object key2, final Object key3, final Object key4, final Object key5) {
+        final MultiKeyEntry<K, V> entry = getEntry(5, key1, key2, key3, key4, key5);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Checks whether the map contains the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @param key5  the fifth key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(final Object key1, final Object key2, final Object key3,
+                               final Object key4, final Object key5) {
+        return getEntry(5, key1, key2, key3, key4, key5) != null;
+    }
+
+    /**
+     * Stores the value against the specified multi-key.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @param key5  the fifth key
+     * @param value  the value to store
+     * @return the value previously mapped to this combined key, null if none
+     */
+    public V put(final K key1, final K key2, final K key3, final K key4, final K key5, final V value) {
+        return put(5, key1, key2, key3, key4, key5, value);
+    }
+
+    /**
+     * Removes the specified multi-key from this map.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @param key5  the fifth key
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    public V removeMultiKey(final Object key1, final Object key2, final Object key3,
+                            final Object key4, final Object key5) {
+        return removeMultiKey(5, key1, key2, key3, key4, key5);
+    }
+
+    /**
+     * Removes all mappings where the first key is that specified.
+     *
+     * @param key1  the first key
+     * @return true if any elements were removed
+     */
+    public boolean removeAll(final Object key1) {
+        return removeAll(1, key1, null, null, null);
+    }
+
+    /**
+     * Removes all mappings where the first two keys are those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @return true if any elements were removed
+     */
+    public boolean removeAll(final Object key1, final Object key2) {
+        return removeAll(2, key1, key2, null, null);
+    }
+
+    /**
+     * Removes all mappings where the first three keys are those specified.
+     * <p>
+     * This method removes all the mappings with three or more keys,
+     * where the first three match those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @return true if any elements were removed
+     */
+    public boolean removeAll(final Object key1, final Object key2, final Object key3) {
+        return removeAll(3, key1, key2, key3, null);
+    }
+
+    /**
+     * Removes all mappings where the first four keys are those specified.
+     * <p>
+     * This method removes all the mappings with four or more keys,
+     * where the first four match those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @return true if any elements were removed
+     */
+    public boolean removeAll(final Object key1, final Object key2, final Object key3, final Object key4) {
+        return removeAll(4, key1, key2, key3, key4);
+    }
+
+    /**
+     * Removes all mappings with at least as many keys as the prefix
+     * which start with the keys of the prefix.
+     */
+    private boolean removeAll(final int length, final Object key1, final Object key2,
+                              final Object key3, final Object key4) {
+        boolean modified = false;
+        for (final Iterator<Map.Entry<MultiKey<? extends K>, V>> it = createEntrySetIterator(); it.hasNext();) {
+            final MultiKeyEntry<K, V> entry = (MultiKeyEntry<K, V>) it.next();
+            if (entry.size() >= length &&
+                Objects.equals(key1, entry.key1) &&
+                (length < 2 || Objects.equals(key2, entry.key2)) &&
+                (length < 3 || Objects.equals(key3, entry.getKey(2))) &&
+                (length < 4 || Objects.equals(key4, entry.getKey(3)))) {
+                it.remove();
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Puts the key and value into the map, where the key must be a non-null
+     * MultiKey object with two to five keys.
+     *
+     * @param key  the non-null MultiKey object
+     * @param value  the value to store
+     * @return the previous value for the key
+     * @throws NullPointerException if the key is null
+     * @throws IllegalArgumentException if the key does not have two to five keys
+     */
+    @Override
+    public V put(final MultiKey<? extends K> key, final V value) {
+        checkKey(key);
+        return super.put(key, value);
+    }
+
+    /**
+     * Gets the hash code for the key specified, mixing the hash codes of the
+     * keys of a {@code MultiKey} in order.
+     *
+     * @param key  the key to get a hash code for
+     * @return the hash code
+     */
+    @Override
+    protected int hash(final Object key) {
+        if (key instanceof MultiKey) {
+            final MultiKey<?> multi = (MultiKey<?>) key;
+            final int length = multi.size();
+            if (length >= MIN_KEYS && length <= MAX_KEYS) {
+                return hash(length, multi.getKey(0), multi.getKey(1),
+                        length > 2 ? multi.getKey(2) : null,
+                        length > 3 ? multi.getKey(3) : null,
+                        length > 4 ? multi.getKey(4) : null);
+            }
+        }
+        return key.hashCode();
+    }
+
+    /**
+     * Compares a key passed in from outside with the key of an entry.
+     * <p>
+     * The {@code key} field of the entries of this map refers to the entry
+     * itself, which holds the keys, so they are compared to the keys of the
+     * {@code MultiKey} without creating one for the entry.
+     *
+     * @param key1  the first key to compare passed in from outside
+     * @param key2  the second key extracted from the entry via {@code entry.key}
+     * @return true if equal
+     */
+    @Override
+    protected boolean isEqualKey(final Object key1, final Object key2) {
+        return key1 instanceof MultiKey && ((MultiKeyEntry<?, ?>) key2).matches((MultiKey<?>) key1);
+    }
+
+    /**
+     * Creates an entry holding the keys of the {@code MultiKey} inline.
+     *
+     * @param next  the next entry in sequence
+     * @param hashCode  the hash code to use
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the newly created entry
+     * @throws NullPointerException if the key is null
+     * @throws IllegalArgumentException if the key does not have two to five keys
+     */
+    @Override
+    protected MultiKeyEntry<K, V> createEntry(final HashEntry<MultiKey<? extends K>, V> next, final int hashCode,
+                                              final MultiKey<? extends K> key, final V value) {
+        final int length = checkKey(key);
+        return createEntry(next, hashCode, length, key.getKey(0), key.getKey(1),
+                length > 2 ? key.getKey(2) : null,
+                length > 3 ? key.getKey(3) : null,
+                length > 4 ? key.getKey(4) : null, value);
+    }
+
+    /**
+     * Creates the entry class for the number of keys.
+     *
+     * @return the newly created entry
+     */
+    private static <K, V> MultiKeyEntry<K, V> createEntry(final HashEntry<MultiKey<? extends K>, V> next,
+            final int hashCode, final int length, final K key1, final K key2, final K key3, final K key4,
+            final K key5, final V value) {
+        switch (length) {
+        case 2:
+            return new MultiKeyEntry<>(next, hashCode, key1, key2, value);
+        case 3:
+            return new MultiKeyEntry3<>(next, hashCode, key1, key2, key3, value);
+        case 4:
+            return new MultiKeyEntry4<>(next, hashCode, key1, key2, key3, key4, value);
+        default:
+            return new MultiKeyEntry5<>(next, hashCode, key1, key2, key3, key4, key5, value);
+        }
+    }
+
+    /**
+     * Gets the number of buckets migrated by each write while the map is being
+     * resized incrementally.
+     * <p>
+     * The multi-key methods walk the hash chains directly, so this map always
+     * rehashes all entries at once.
+     *
+     * @return zero
+     */
+    @Override
+    protected final int getIncrementalResizeStep() {
+        return 0;
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public InlineMultiKeyMap<K, V> clone() {
+        return (InlineMultiKeyMap<K, V>) super.clone();
+    }
+
+    /**
+     * Writes the map data to the stream.
+     * The keys are written as their components, without {@code MultiKey} objects.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    @Override
+    protected void doWriteObject(final ObjectOutputStream out) throws IOException {
+        out.writeInt(data.length);
+        out.writeInt(size);
+        for (final Iterator<Map.Entry<MultiKey<? extends K>, V>> it = createEntrySetIterator(); it.hasNext();) {
+            final MultiKeyEntry<K, V> entry = (MultiKeyEntry<K, V>) it.next();
+            final int length = entry.size();
+            out.writeByte(length);
+            for (int i = 0; i < length; i++) {
+                out.writeObject(entry.getKey(i));
+            }
+            out.writeObject(entry.getValue());
+        }
+    }
+
+    /**
+     * Reads the map data from the stream, written by {@link #doWriteObject(ObjectOutputStream)}.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doReadObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        loadFactor = DEFAULT_LOAD_FACTOR;
+        final int capacity = in.readInt();
+        final int count = in.readInt();
+        init();
+        threshold = calculateThreshold(capacity, loadFactor);
+        data = (HashEntry<MultiKey<? extends K>, V>[]) new HashEntry<?, ?>[capacity];
+        for (int i = 0; i < count; i++) {
+            final int length = in.readByte();
+            if (length < MIN_KEYS || length > MAX_KEYS) {
+                throw new IOException("Invalid key size: " + length);
+            }
+            final K key1 = (K) in.readObject();
+            final K key2 = (K) in.readObject();
+            final K key3 = length > 2 ? (K) in.readObject() : null;
+            final K key4 = length > 3 ? (K) in.readObject() : null;
+            final K key5 = length > 4 ? (K) in.readObject() : null;
+            put(length, key1, key2, key3, key4, key5, (V) in.readObject());
+        }
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        doWriteObject(out);
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        doReadObject(in);
+    }
+
+    /**
+     * Entry holding two keys inline, the base class of the entries with more keys.
+     * <p>
+     * The {@code key} field refers to the entry itself, and the key returned by
+     * {@link #getKey()} is a new {@code MultiKey} on each call.
+     */
+    static class MultiKeyEntry<K, V> extends HashEntry<MultiKey<? extends K>, V> {
+        /** The first key */
+        final K key1;
+        /** The second key */
+        final K key2;
+
+        MultiKeyEntry(final HashEntry<MultiKey<? extends K>, V> next, final int hashCode, final K key1,
+                      final K key2, final V value) {
+            super(next, hashCode, null, value);
+            this.key = this;
+            this.key1 = key1;
+            this.key2 = key2;
+        }
+
+        /**
+         * Gets the number of keys.
+         */
+        int size() {
+            return 2;
+        }
+
+        /**
+         * Gets the key at the index, null if the index is past the last key.
+         */
+        Object getKey(final int index) {
+            return index == 0 ? key1 : index == 1 ? key2 : null;
+        }
+
+        /**
+         * Checks whether the entry has the keys specified.
+         */
+        boolean matches(final int length, final Object key1, final Object key2, final Object key3,
+                        final Object key4, final Object key5) {
+            return length == 2 && Objects.equals(key1, this.key1) && Objects.equals(key2, this.key2);
+        }
+
+        /**
+         * Checks whether the entry has the keys of the {@code MultiKey}.
+         */
+        final boolean matches(final MultiKey<?> key) {
+            final int length = key.size();
+            if (length != size()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!Objects.equals(key.getKey(i), getKey(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public MultiKey<? extends K> getKey() {
+            return new MultiKey<>(key1, key2);
+        }
+
+        /**
+         * Gets the hash code as defined by {@code Map.Entry}, using the hash code
+         * of the equivalent {@code MultiKey}.
+         *
+         * @return the hash code
+         */
+        @Override
+        public int hashCode() {
+            int keyHashCode = 0;
+            for (int i = size() - 1; i >= 0; i--) {
+                keyHashCode ^= Objects.hashCode(getKey(i));
+            }
+            return keyHashCode ^ Objects.hashCode(value);
+        }
+    }
+
+    /**
+     * Entry holding three keys inline.
+     */
+    static class MultiKeyEntry3<K, V> extends MultiKeyEntry<K, V> {
+        /** The third key */
+        final K key3;
+
+        MultiKeyEntry3(final HashEntry<MultiKey<? extends K>, V> next, final int hashCode,
+                       final K key1, final K key2, final K key3, final V value) {
+            super(next, hashCode, key1, key2, value);
+            this.key3 = key3;
+        }
+
+        @Override
+        int size() {
+            return 3;
+        }
+
+        @Override
+        Object getKey(final int index) {
+            return index == 2 ? key3 : super.getKey(index);
+        }
+
+        @Override
+        boolean matches(final int length, final Object key1, final Object key2, final Object key3,
+                        final Object key4, final Object key5) {
+            return length == 3 && Objects.equals(key1, this.key1) && Objects.equals(key2, this.key2) &&
+                   Objects.equals(key3, this.key3);
+        }
+
+        @Override
+        public MultiKey<? extends K> getKey() {
+            return new MultiKey<>(key1, key2, key3);
+        }
+    }
+
+    /**
+     * Entry holding four keys inline.
+     */
+    static class MultiKeyEntry4<K, V> extends MultiKeyEntry3<K, V> {
+        /** The fourth key */
+        final K key4;
+
+        MultiKeyEntry4(final HashEntry<MultiKey<? extends K>, V> next, final int hashCode,
+                       final K key1, final K key2, final K key3, final K key4, final V value) {
+            super(next, hashCode, key1, key2, key3, value);
+            this.key4 = key4;
+        }
+
+        @Override
+        int size() {
+            return 4;
+        }
+
+        @Override
+        Object getKey(final int index) {
+            return index == 3 ? key4 : super.getKey(index);
+        }
+
+        @Override
+        boolean matches(final int length, final Object key1, final Object key2, final Object key3,
+                        final Object key4, final Object key5) {
+            return length == 4 && Objects.equals(key1, this.key1) && Objects.equals(key2, this.key2) &&
+                   Objects.equals(key3, this.key3) && Objects.equals(key4, this.key4);
+        }
+
+        @Override
+        public MultiKey<? extends K> getKey() {
+            return new MultiKey<>(key1, key2, key3, key4);
+        }
+    }
+
+    /**
+     * Entry holding five keys inline.
+     */
+    static class MultiKeyEntry5<K, V> extends MultiKeyEntry4<K, V> {
+        /** The fifth key */
+        final K key5;
+
+        MultiKeyEntry5(final HashEntry<MultiKey<? extends K>, V> next, final int hashCode,
+                       final K key1, final K key2, final K key3, final K key4, final K key5, final V value) {
+            super(next, hashCode, key1, key2, key3, key4, value);
+            this.key5 = key5;
+        }
+
+        @Override
+        int size() {
+            return 5;
+        }
+
+        @Override
+        Object getKey(final int index) {
+            return index == 4 ? key5 : super.getKey(index);
+        }
+
+        @Override
+        boolean matches(final int length, final Object key1, final Object key2, final Object key3,
+                        final Object key4, final Object key5) {
+            return length == 5 && Objects.equals(key1, this.key1) && Objects.equals(key2, this.key2) &&
+                   Objects.equals(key3, this.key3) && Objects.equals(key4, this.key4) &&
+                   Objects.equals(key5, this.key5);
+        }
+
+        @Override
+        public MultiKey<? extends K> getKey() {
+            return new MultiKey<>(key1, key2, key3, key4, key5);
+        }
+    }
+
+}
@@ -28,7 +28,11 @@ import org.apache.commons.collections4.BoundedMap;
  * A {@code Map} implementation with a fixed maximum size which removes
  * the least recently used entry if an entry is added when full.
  * <p>
- * The least recently used algorithm works on the get and put operations only.
+ * The least recently used algorithm works on the get and put operations only,
+ * including getOrDefault, putIfAbsent and the compute and merge methods.
+ * The functions given to the compute and merge methods may get other keys
+ * from the map, as moving a key to the most recently used position is not a
+ * modification these methods fail on.
  * Iteration of any kind, including setting the value by iteration, does not
  * change the order. Queries such as containsKey and containsValue or access
  * via views also do not change the order.
@@ -52,6 +56,10 @@ import org.apache.commons.collections4.BoundedMap;
  * {@code ResettableIterator} and calling {@code reset()}.
  * </p>
  * <p>
+ * Statistics of the hits, misses, puts and evictions can be recorded by
+ * calling {@link #setStatisticsEnabled(boolean)}.
+ * </p>
+ * <p>
  * <strong>Note that LRUMap is not synchronized and is not thread-safe.</strong>
  * If you wish to use this map from multiple threads concurrently, you must use
  * appropriate synchronization. The simplest approach is to wrap this map
@@ -75,6 +83,10 @@ public class LRUMap<K, V>
     private transient int maxSize;
     /** Scan behavior */
     private final boolean scanUntilRemovable;
+    /** The statistics, null unless enabled */
+    transient MapStatistics.Counter statistics;
+    /** The number of moves to the MRU position, counted in modCount */
+    private transient int reorderCount;
 
     /**
      * Constructs a new empty map with a maximum size of 100.
@@ -248,14 +260,76 @@ public class LRUMap<K, V>
     public V get(final Object key, final boolean updateToMRU) {
         final LinkEntry<K, V> entry = getEntry(key);
         if (entry == null) {
+            if (statistics != null) {
+                statistics.recordMiss();
+            }
             return null;
         }
+        if (statistics != null) {
+            statistics.recordHit();
+        }
         if (updateToMRU) {
             moveToMRU(entry);
         }
         return entry.getValue();
     }
 
+    /**
+     * Gets the value mapped to the key specified, or a default value if the key
+     * is not mapped.
+     * <p>
+     * This operation changes the position of the key in the map to the
+     * most recently used position (last), as {@link #get(Object)} does.
+     *
+     * @param key  the key
+     * @param defaultValue  the value to return if the key is not mapped
+     * @return the mapped value, the default value if no match
+     * @since 4.5
+     */
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final LinkEntry<K, V> entry = getEntry(key);
+        if (entry == null) {
+            if (statistics != null) {
+                statistics.recordMiss();
+            }
+            return defaultValue;
+        }
+        if (statistics != null) {
+            statistics.recordHit();
+        }
+        moveToMRU(entry);
+        return entry.getValue();
+    }
+
+    /**
+     * Records an access to an existing entry that does not change its value.
+     * <p>
+     * This implementation records a hit if statistics are enabled, and moves
+     * the entry to the end of the list using {@link #moveToMRU(AbstractLinkedMap.LinkEntry)}.
+     *
+     * @param entry  the entry accessed
+     * @since 4.5
+     */
+    @Override
+    protected void recordAccess(final HashEntry<K, V> entry) {
+        if (statistics != null) {
+            statistics.recordHit();
+        }
+        moveToMRU((LinkEntry<K, V>) entry);
+    }
+
+    /**
+     * Gets the count of the modifications that may invalidate an entry found
+     * before calling a function, leaving out the moves to the MRU position.
+     *
+     * @return the structural modification count
+     */
+    @Override
+    int structuralModCount() {
+        return modCount - reorderCount;
+    }
+
     /**
      * Moves an entry to the MRU position at the end of the list.
      * <p>
@@ -266,6 +340,7 @@ public class LRUMap<K, V>
     protected void moveToMRU(final LinkEntry<K, V> entry) {
         if (entry.after != header) {
             modCount++;
+            reorderCount++;
             // remove
             if (entry.before == null) {
                 throw new IllegalStateException("Entry.before is null." +
@@ -295,6 +370,9 @@ public class LRUMap<K, V>
      */
     @Override
     protected void updateEntry(final HashEntry<K, V> entry, final V newValue) {
+        if (statistics != null) {
+            statistics.recordPut();
+        }
         moveToMRU((LinkEntry<K, V>) entry);  // handles modCount
         entry.setValue(newValue);
     }
@@ -316,7 +394,11 @@ public class LRUMap<K, V>
      */
     @Override
     protected void addMapping(final int hashIndex, final int hashCode, final K key, final V value) {
-        if (isFull()) {
+        if (statistics != null) {
+            statistics.recordPut();
+        }
+        if (isFullBeforeAdd()) {
+            final long start = statistics != null ? System.nanoTime() : 0;
             LinkEntry<K, V> reuse = header.after;
             boolean removeLRUEntry = false;
             if (scanUntilRemovable) {
@@ -345,6 +427,9 @@ public class LRUMap<K, V>
                         " This should not occur if your keys are immutable and you used synchronization properly.");
                 }
                 reuseMapping(reuse, hashIndex, hashCode, key, value);
+                if (statistics != null) {
+                    statistics.recordEviction(System.nanoTime() - start);
+                }
             } else {
                 super.addMapping(hashIndex, hashCode, key, value);
             }
@@ -357,6 +442,7 @@ public class LRUMap<K, V>
      * Reuses an entry by removing it and moving it to a new place in the map.
      * <p>
      * This method uses {@link #removeEntry}, {@link #reuseEntry} and {@link #addEntry}.
+     * It also maintains the tree index of the bucket, if any.
      *
      * @param entry  the entry to reuse
      * @param hashIndex  the index into the data array to store at
@@ -371,16 +457,12 @@ public class LRUMap<K, V>
         // not the old one
         try {
             final int removeIndex = hashIndex(entry.hashCode, data.length);
-            final HashEntry<K, V>[] tmp = data;  // may protect against some sync issues
-            HashEntry<K, V> loop = tmp[removeIndex];
-            HashEntry<K, V> previous = null;
-            while (loop != entry && loop != null) {
-                previous = loop;
-                loop = loop.next;
-            }
-            if (loop == null) {
+            final HashEntry<K, V> previous;
+            try {
+                previous = previousEntry(entry, removeIndex);
+            } catch (final IllegalStateException ex) {
                 throw new IllegalStateException(
-                    "Entry.next=null, data[removeIndex]=" + data[removeIndex] + " previous=" + previous +
+                    "Entry.next=null, data[removeIndex]=" + data[removeIndex] +
                     " key=" + key + " value=" + value + " size=" + size + " maxSize=" + maxSize +
                     " This should not occur if your keys are immutable, and you have used synchronization properly.");
             }
@@ -390,6 +472,7 @@ public class LRUMap<K, V>
             removeEntry(entry, removeIndex, previous);
             reuseEntry(entry, hashIndex, hashCode, key, value);
             addEntry(entry, hashIndex);
+            checkTreeBin(entry, hashIndex);
         } catch (final NullPointerException ex) {
             throw new IllegalStateException(
                     "NPE, entry=" + entry + " entryIsHeader=" + (entry==header) +
@@ -446,6 +529,16 @@ public class LRUMap<K, V>
         return size >= maxSize;
     }
 
+    /**
+     * Returns true if {@link #addMapping(int, int, Object, Object)} must discard
+     * an entry to make room for the new one, by default {@link #isFull()}.
+     *
+     * @return {@code true} if an entry must be discarded before adding
+     */
+    boolean isFullBeforeAdd() {
+        return isFull();
+    }
+
     /**
      * Gets the maximum size of the map (the bound).
      *
@@ -467,6 +560,64 @@ public class LRUMap<K, V>
         return scanUntilRemovable;
     }
 
+    /**
+     * Enables or disables the recording of statistics.
+     * <p>
+     * Statistics are not recorded by default. Enabling them when they are
+     * already enabled has no effect, disabling them discards the statistics
+     * recorded so far.
+     *
+     * @param enabled  whether statistics are recorded
+     * @since 4.5
+     */
+    public void setStatisticsEnabled(final boolean enabled) {
+        if (!enabled) {
+            statistics = null;
+        } else if (statistics == null) {
+            statistics = new MapStatistics.Counter();
+        }
+    }
+
+    /**
+     * Whether this map records statistics.
+     *
+     * @return true if statistics are recorded
+     * @since 4.5
+     */
+    public boolean isStatisticsEnabled() {
+        return statistics != null;
+    }
+
+    /**
+     * Gets a snapshot of the statistics recorded since they were enabled.
+     * <p>
+     * Hits and misses are recorded by {@code get()} and {@code getOrDefault()}.
+     * {@code putIfAbsent()} and {@code computeIfAbsent()} record a hit when the key
+     * is already mapped to a value. Every operation storing a value records a put,
+     * including {@code putIfAbsent()}, {@code compute()} and {@code merge()}, and
+     * evictions are recorded when an entry is removed to keep the map within its bound.
+     *
+     * @return the statistics, {@link MapStatistics#EMPTY} if not enabled
+     * @since 4.5
+     */
+    public MapStatistics getStatistics() {
+        final MapStatistics.Counter counter = statistics;
+        return counter == null ? MapStatistics.EMPTY : counter.snapshot();
+    }
+
+    /**
+     * Initialize this subclass during construction, cloning or deserialization.
+     * <p>
+     * A clone records its own statistics if the original does.
+     */
+    @Override
+    protected void init() {
+        super.init();
+        if (statistics != null) {
+            statistics = new MapStatistics.Counter();
+        }
+    }
+
     /**
      * Clones the map without cloning the keys or values.
      *
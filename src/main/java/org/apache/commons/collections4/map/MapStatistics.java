@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An immutable snapshot of the statistics recorded by a caching map,
+ * such as {@link LRUMap} or {@link ReferenceMap}.
+ * <p>
+ * The statistics count the lookups by {@code get()} that found a value (hits)
+ * or did not (misses), the mappings added or replaced by {@code put()}, the
+ * entries removed to keep a bounded map within its bound (evictions) and the
+ * garbage collected references removed from a reference map (purges),
+ * together with the time spent on evictions and purges.
+ * </p>
+ * <p>
+ * Snapshots taken at different times may be subtracted using
+ * {@link #minus(MapStatistics)} to obtain the statistics of an interval.
+ * </p>
+ *
+ * @since 4.5
+ */
+public final class MapStatistics {
+
+    /** Statistics with all counts zero */
+    public static final MapStatistics EMPTY = new MapStatistics(0, 0, 0, 0, 0, 0, 0);
+
+    /** The number of lookups that found a value */
+    private final long hitCount;
+    /** The number of lookups that found no value */
+    private final long missCount;
+    /** The number of mappings added or replaced */
+    private final long putCount;
+    /** The number of entries evicted */
+    private final long evictionCount;
+    /** The time spent evicting, in nanoseconds */
+    private final long evictionTime;
+    /** The number of references purged */
+    private final long purgeCount;
+    /** The time spent purging, in nanoseconds */
+    private final long purgeTime;
+
+    /**
+     * Constructs an instance holding the specified statistics.
+     *
+     * @param hitCount  the number of lookups that found a value
+     * @param missCount  the number of lookups that found no value
+     * @param putCount  the number of mappings added or replaced
+     * @param evictionCount  the number of entries evicted
+     * @param evictionTime  the time spent evicting, in nanoseconds
+     * @param purgeCount  the number of references purged
+     * @param purgeTime  the time spent purging, in nanoseconds
+     */
+    public MapStatistics(final long hitCount, final long missCount, final long putCount,
+                         final long evictionCount, final long evictionTime,
+                         final long purgeCount, final long purgeTime) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.evictionTime = evictionTime;
+        this.purgeCount = purgeCount;
+        this.purgeTime = purgeTime;
+    }
+
+    /**
+     * Gets the number of lookups that found a value.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that found no value.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of lookups, that is hits plus misses.
+     *
+     * @return the request count
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Gets the ratio of lookups that found a value, 1.0 if there were no lookups.
+     *
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Gets the number of mappings added or replaced.
+     *
+     * @return the put count
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * Gets the number of entries evicted.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the total time spent evicting entries.
+     *
+     * @return the eviction time in nanoseconds
+     */
+    public long getEvictionTime() {
+        return evictionTime;
+    }
+
+    /**
+     * Gets the number of garbage collected references purged.
+     *
+     * @return the purge count
+     */
+    public long getPurgeCount() {
+        return purgeCount;
+    }
+
+    /**
+     * Gets the total time spent purging references.
+     *
+     * @return the purge time in nanoseconds
+     */
+    public long getPurgeTime() {
+        return purgeTime;
+    }
+
+    /**
+     * Gets the statistics recorded since the other snapshot was taken.
+     * Counts that would be negative are returned as zero.
+     *
+     * @param other  the earlier snapshot
+     * @return the difference
+     * @throws NullPointerException if the other snapshot is null
+     */
+    public MapStatistics minus(final MapStatistics other) {
+        return new MapStatistics(
+                Math.max(0, hitCount - other.hitCount),
+                Math.max(0, missCount - other.missCount),
+                Math.max(0, putCount - other.putCount),
+                Math.max(0, evictionCount - other.evictionCount),
+                Math.max(0, evictionTime - other.evictionTime),
+                Math.max(0, purgeCount - other.purgeCount),
+                Math.max(0, purgeTime - other.purgeTime));
+    }
+
+    /**
+     * Compares this snapshot to another.
+     *
+     * @param obj  the object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof MapStatistics)) {
+            return false;
+        }
+        final MapStatistics other = (MapStatistics) obj;
+        return hitCount == other.hitCount &&
+               missCount == other.missCount &&
+               putCount == other.putCount &&
+               evictionCount == other.evictionCount &&
+               evictionTime == other.evictionTime &&
+               purgeCount == other.purgeCount &&
+               purgeTime == other.purgeTime;
+    }
+
+    /**
+     * Gets a hashCode compatible with the equals method.
+     *
+     * @return a suitable hash code
+     */
+    @Override
+    public int hashCode() {
+        long hash = hitCount;
+        hash = hash * 31 + missCount;
+        hash = hash * 31 + putCount;
+        hash = hash * 31 + evictionCount;
+        hash = hash * 31 + evictionTime;
+        hash = hash * 31 + purgeCount;
+        hash = hash * 31 + purgeTime;
+        return Long.hashCode(hash);
+    }
+
+    /**
+     * Gets a debugging string version of the statistics.
+     *
+     * @return a debugging string
+     */
+    @Override
+    public String toString() {
+        return "MapStatistics[hitCount=" + hitCount + ", missCount=" + missCount + ", putCount=" + putCount +
+               ", evictionCount=" + evictionCount + ", evictionTime=" + evictionTime +
+               ", purgeCount=" + purgeCount + ", purgeTime=" + purgeTime + "]";
+    }
+
+    /**
+     * Records statistics for a map using striped counters, so that snapshots may
+     * be taken while the map is in use.
+     */
+    static final class Counter {
+        private final LongAdder hitCount = new LongAdder();
+        private final LongAdder missCount = new LongAdder();
+        private final LongAdder putCount = new LongAdder();
+        private final LongAdder evictionCount = new LongAdder();
+        private final LongAdder evictionTime = new LongAdder();
+        private final LongAdder purgeCount = new LongAdder();
+        private final LongAdder purgeTime = new LongAdder();
+
+        void recordHit() {
+            hitCount.increment();
+        }
+
+        void recordMiss() {
+            missCount.increment();
+        }
+
+        void recordPut() {
+            putCount.increment();
+        }
+
+        void recordEviction(final long time) {
+            evictionCount.increment();
+            evictionTime.add(time);
+        }
+
+        void recordPurges(final int count, final long time) {
+            purgeCount.add(count);
+            purgeTime.add(time);
+        }
+
+        MapStatistics snapshot() {
+            return new MapStatistics(hitCount.sum(), missCount.sum(), putCount.sum(),
+                    evictionCount.sum(), evictionTime.sum(), purgeCount.sum(), purgeTime.sum());
+        }
+    }
+
+}
@@ -93,6 +93,8 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
     /**
      * Decorates the specified map to add the MultiKeyMap API and fast query.
      * The map must not be null and must be empty.
+     * It must not be resized incrementally, as the multi key lookups walk its
+     * hash chains directly.
      *
      * @param <K>  the key type
      * @param <V>  the value type
@@ -100,14 +102,18 @@ public class MultiKeyMap<K, V> extends AbstractMapDecorator<MultiKey<? extends K
      * @return a new multi key map
      * @throws NullPointerException if map is null
      * @throws IllegalArgumentException if the map is not empty
+     * @throws IllegalArgumentException if the map is resized incrementally
      * @since 4.0
      */
     public static <K, V> MultiKeyMap<K, V> multiKeyMap(final AbstractHashedMap<MultiKey<? extends K>, V> map) {
         Objects.requireNonNull(map, "map");
-        if (map.isEmpty()) {
-            return new MultiKeyMap<>(map);
+        if (!map.isEmpty()) {
+            throw new IllegalArgumentException("Map must be empty");
         }
-        throw new IllegalArgumentException("Map must be empty");
+        if (map.getIncrementalResizeStep() > 0) {
+            throw new IllegalArgumentException("Map must not be resized incrementally");
+        }
+        return new MultiKeyMap<>(map);
     }
 
     /**
@@ -0,0 +1,667 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.collection.UnmodifiableCollection;
+import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
+import org.apache.commons.collections4.set.UnmodifiableSet;
+
+/**
+ * An immutable {@code Map} implementation that locates every key with a
+ * minimal perfect hash function.
+ * <p>
+ * The map is built once from another map and cannot be changed afterwards.
+ * On construction a hash function is computed that maps the hash code of each
+ * key to a distinct slot of an array holding the keys next to their values,
+ * using the compress, hash and displace (CHD) algorithm. The keys are split
+ * into small buckets by their hash code and each bucket is assigned a
+ * displacement that places all its keys into free slots of the array.
+ * </p>
+ * <p>
+ * A lookup therefore reads the displacement of the bucket and compares the key
+ * in a single slot, whether the key is present or not. There are no entry
+ * objects and no empty slots, so the map needs about two references per
+ * mapping plus one {@code int} for every three mappings, far less than
+ * {@link HashedMap} or {@link java.util.HashMap}.
+ * This suits maps that are built once and read often, such as configuration
+ * or lookup tables. Building the map is slower than filling a {@code HashedMap}.
+ * </p>
+ * <p>
+ * Keys that have the same hash code as another key cannot be told apart by the
+ * hash function. The first of such keys is placed normally and the rest are
+ * kept after the perfectly hashed keys and searched linearly when a lookup hits
+ * their hash code, so keys should have well distributed hash codes.
+ * </p>
+ * <p>
+ * Null keys and values are supported. The keys must not change their hash
+ * code while in the map. The iteration order is unspecified.
+ * All methods that would change the map throw {@code UnsupportedOperationException}.
+ * Being immutable, this map is thread-safe once constructed.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public final class PerfectHashMap<K, V> extends AbstractMap<K, V>
+        implements IterableMap<K, V>, Unmodifiable, Serializable {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 20230528L;
+
+    /** The average number of keys in a bucket */
+    private static final int BUCKET_SIZE = 3;
+
+    /** Golden ratio constant used to derive the slot hash from a displacement */
+    private static final int GOLDEN = 0x9E3779B9;
+
+    /** The displacement of each bucket, or minus one minus the slot of a bucket holding a single hash code */
+    private transient int[] displacements;
+    /** The keys at even indices followed by their values, perfectly hashed keys first */
+    private transient Object[] table;
+    /** The number of perfectly hashed keys, the rest share a hash code with one of them */
+    private transient int slots;
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public PerfectHashMap(final Map<? extends K, ? extends V> map) {
+        final int size = map.size();
+        final Object[] mapKeys = new Object[size];
+        final Object[] mapValues = new Object[size];
+        int i = 0;
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            mapKeys[i] = entry.getKey();
+            mapValues[i] = entry.getValue();
+            i++;
+        }
+        build(mapKeys, mapValues);
+    }
+
+    /**
+     * Builds the hash function and arrays for the specified mappings.
+     *
+     * @param mapKeys  the distinct keys
+     * @param mapValues  the values, at the same index as their keys
+     */
+    private void build(final Object[] mapKeys, final Object[] mapValues) {
+        final int size = mapKeys.length;
+        // sort by hash code, so that keys sharing a hash code are adjacent
+        final long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (long) hash(mapKeys[i]) << 32 | i;
+        }
+        Arrays.sort(sorted);
+        final int[] hashes = new int[size];
+        final int[] order = new int[size];
+        int distinct = 0;
+        int shared = size;
+        for (int i = 0; i < size; i++) {
+            final int hash = (int) (sorted[i] >>> 32);
+            if (i > 0 && hash == (int) (sorted[i - 1] >>> 32)) {
+                order[--shared] = (int) sorted[i];
+            } else {
+                hashes[distinct] = mix(hash);
+                order[distinct++] = (int) sorted[i];
+            }
+        }
+
+        table = new Object[size * 2];
+        slots = distinct;
+        final int[] slotOf = new int[distinct];
+        int bucketSize = BUCKET_SIZE;
+        long maxDisplacement = Math.max(1L << 16, 16L * distinct);
+        while (!displace(hashes, slotOf, distinct, bucketSize, maxDisplacement)) {
+            bucketSize = Math.max(1, bucketSize / 2);
+            maxDisplacement = Math.min(maxDisplacement * 2, Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < distinct; i++) {
+            table[slotOf[i] * 2] = mapKeys[order[i]];
+            table[slotOf[i] * 2 + 1] = mapValues[order[i]];
+        }
+        for (int i = distinct; i < size; i++) {
+            table[i * 2] = mapKeys[order[i]];
+            table[i * 2 + 1] = mapValues[order[i]];
+        }
+    }
+
+    /**
+     * Computes the displacements placing each distinct hash code into its own slot.
+     *
+     * @param hashes  the distinct mixed hash codes
+     * @param slotOf  the array to store the slot of each hash code into
+     * @param distinct  the number of distinct hash codes
+     * @param bucketSize  the average number of hash codes in a bucket
+     * @param maxDisplacement  the number of displacements to try for each bucket
+     * @return false if a bucket could not be placed and smaller buckets should be tried
+     */
+    private boolean displace(final int[] hashes, final int[] slotOf, final int distinct, final int bucketSize,
+                             final long maxDisplacement) {
+        final int bucketCount = distinct == 0 ? 0 : (distinct + bucketSize - 1) / bucketSize;
+        displacements = new int[bucketCount];
+        if (distinct == 0) {
+            return true;
+        }
+        // group the hash codes by bucket using a counting sort
+        final int[] bucketOf = new int[distinct];
+        final int[] start = new int[bucketCount + 1];
+        int largest = 0;
+        for (int i = 0; i < distinct; i++) {
+            bucketOf[i] = bucketIndex(hashes[i], bucketCount);
+            start[bucketOf[i] + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            largest = Math.max(largest, start[b + 1]);
+            start[b + 1] += start[b];
+        }
+        final int[] members = new int[distinct];
+        final int[] fill = Arrays.copyOf(start, bucketCount);
+        for (int i = 0; i < distinct; i++) {
+            members[fill[bucketOf[i]]++] = i;
+        }
+        // place the largest buckets first, while most slots are still free
+        final int[] bySize = new int[largest + 2];
+        for (int b = 0; b < bucketCount; b++) {
+            bySize[largest - (start[b + 1] - start[b]) + 1]++;
+        }
+        for (int s = 0; s <= largest; s++) {
+            bySize[s + 1] += bySize[s];
+        }
+        final int[] buckets = new int[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            buckets[bySize[largest - (start[b + 1] - start[b])]++] = b;
+        }
+
+        final boolean[] taken = new boolean[distinct];
+        final int[] candidate = new int[largest];
+        int free = 0;
+        for (final int b : buckets) {
+            final int count = start[b + 1] - start[b];
+            if (count == 0) {
+                break;
+            }
+            if (count == 1) {
+                // a bucket holding a single hash code is given its slot directly
+                while (taken[free]) {
+                    free++;
+                }
+                taken[free] = true;
+                displacements[b] = -free - 1;
+                slotOf[members[start[b]]] = free;
+                continue;
+            }
+            int displacement = 0;
+            while (!tryPlace(hashes, members, start[b], count, displacement, taken, candidate)) {
+                if (++displacement >= maxDisplacement) {
+                    return false;
+                }
+            }
+            displacements[b] = displacement;
+            for (int j = 0; j < count; j++) {
+                slotOf[members[start[b] + j]] = candidate[j];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tries to place the hash codes of a bucket using the specified displacement,
+     * marking the slots as taken if successful.
+     *
+     * @param hashes  the distinct mixed hash codes
+     * @param members  the indices of the hash codes grouped by bucket
+     * @param from  the index of the first member of the bucket
+     * @param count  the number of members of the bucket
+     * @param displacement  the displacement to try
+     * @param taken  the slots already taken
+     * @param candidate  the array to store the slots of the members into
+     * @return true if all members were placed into free slots
+     */
+    private static boolean tryPlace(final int[] hashes, final int[] members, final int from, final int count,
+                                    final int displacement, final boolean[] taken, final int[] candidate) {
+        final int slotCount = taken.length;
+        for (int j = 0; j < count; j++) {
+            final int slot = slotIndex(hashes[members[from + j]], displacement, slotCount);
+            if (taken[slot]) {
+                for (int k = 0; k < j; k++) {
+                    taken[candidate[k]] = false;
+                }
+                return false;
+            }
+            taken[slot] = true;
+            candidate[j] = slot;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the hash code of a key, zero for null.
+     *
+     * @param key  the key
+     * @return the hash code
+     */
+    private static int hash(final Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    /**
+     * Mixes the bits of a hash code, using the finalizer of MurmurHash3.
+     *
+     * @param hash  the hash code
+     * @return the mixed hash code
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ hash >>> 16;
+    }
+
+    /**
+     * Maps a mixed hash code onto the range zero to length, exclusive.
+     *
+     * @param mixed  the mixed hash code
+     * @param length  the length of the range
+     * @return the index
+     */
+    private static int reduce(final int mixed, final int length) {
+        return (int) ((mixed & 0xffffffffL) * length >>> 32);
+    }
+
+    /**
+     * Gets the bucket of a mixed hash code, using its high bits.
+     *
+     * @param mixed  the mixed hash code
+     * @param bucketCount  the number of buckets
+     * @return the bucket index
+     */
+    private static int bucketIndex(final int mixed, final int bucketCount) {
+        return reduce(mixed, bucketCount);
+    }
+
+    /**
+     * Gets the slot of a mixed hash code for a displacement.
+     * The multiplication spreads the low bits, which differ between the hash codes
+     * of a bucket, into the high bits used as the slot.
+     *
+     * @param mixed  the mixed hash code
+     * @param displacement  the displacement of its bucket
+     * @param slotCount  the number of slots
+     * @return the slot index
+     */
+    private static int slotIndex(final int mixed, final int displacement, final int slotCount) {
+        return reduce((mixed ^ (displacement + 1) * GOLDEN) * 0x85ebca6b, slotCount);
+    }
+
+    /**
+     * Gets the index of the slot of a key.
+     *
+     * @param key  the key to find
+     * @return the slot, -1 if not found
+     */
+    private int indexOf(final Object key) {
+        if (slots == 0) {
+            return -1;
+        }
+        final int hash = hash(key);
+        final int mixed = mix(hash);
+        final int displacement = displacements[bucketIndex(mixed, displacements.length)];
+        final int index = displacement < 0 ? -displacement - 1 : slotIndex(mixed, displacement, slots);
+        final Object candidate = table[index * 2];
+        if (candidate == key || key != null && key.equals(candidate)) {
+            return index;
+        }
+        // keys sharing the hash code of the slot follow the perfectly hashed keys
+        if (slots < size() && hash(candidate) == hash) {
+            for (int i = slots; i < size(); i++) {
+                final Object other = table[i * 2];
+                if (other == key || key != null && key.equals(other)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : (V) table[index * 2 + 1];
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the value
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        for (int i = 1; i < table.length; i += 2) {
+            final Object candidate = table[i];
+            if (candidate == value || value != null && value.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the size of the map.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        return table.length / 2;
+    }
+
+    /**
+     * Checks whether the map is currently empty.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        return table.length == 0;
+    }
+
+    /**
+     * Unsupported, the map is immutable.
+     *
+     * @param key  ignored
+     * @param value  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public V put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported, the map is immutable.
+     *
+     * @param map  ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported, the map is immutable.
+     *
+     * @param key  ignored
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public V remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Unsupported, the map is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets an iterator over the map.
+     * <p>
+     * The iterator does not support {@code remove()} or {@code setValue()}.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new PerfectHashMapIterator<>(this);
+    }
+
+    /**
+     * Gets the entrySet view of the map.
+     * <p>
+     * The view and the entries returned by its iterator are unmodifiable.
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return UnmodifiableSet.unmodifiableSet(new EntrySet<>(this));
+    }
+
+    /**
+     * Gets the keySet view of the map.
+     * <p>
+     * The view is unmodifiable.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        return UnmodifiableSet.unmodifiableSet(super.keySet());
+    }
+
+    /**
+     * Gets the values view of the map.
+     * <p>
+     * The view is unmodifiable.
+     *
+     * @return the values view
+     */
+    @Override
+    public Collection<V> values() {
+        return UnmodifiableCollection.unmodifiableCollection(super.values());
+    }
+
+    /**
+     * Writes the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (final Object object : table) {
+            out.writeObject(object);
+        }
+    }
+
+    /**
+     * Reads the map in using a custom routine, building the hash function again
+     * as the hash codes of the keys may differ between virtual machines.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int size = in.readInt();
+        final Object[] mapKeys = new Object[size];
+        final Object[] mapValues = new Object[size];
+        for (int i = 0; i < size; i++) {
+            mapKeys[i] = in.readObject();
+            mapValues[i] = in.readObject();
+        }
+        build(mapKeys, mapValues);
+    }
+
+    /**
+     * MapIterator implementation over the key and value arrays.
+     */
+    static class PerfectHashMapIterator<K, V> implements MapIterator<K, V>, ResettableIterator<K> {
+        private final PerfectHashMap<K, V> parent;
+        private int nextIndex;
+        private boolean canGet;
+
+        PerfectHashMapIterator(final PerfectHashMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.table.length;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            canGet = true;
+            nextIndex += 2;
+            return getKey();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            if (!canGet) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return (K) parent.table[nextIndex - 2];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            if (!canGet) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return (V) parent.table[nextIndex - 1];
+        }
+
+        @Override
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reset() {
+            nextIndex = 0;
+            canGet = false;
+        }
+
+        @Override
+        public String toString() {
+            if (canGet) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /**
+     * EntrySet implementation.
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final PerfectHashMap<K, V> parent;
+
+        EntrySet(final PerfectHashMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final int index = parent.indexOf(entry.getKey());
+            if (index < 0) {
+                return false;
+            }
+            final Object value = parent.table[index * 2 + 1];
+            return value == entry.getValue() || value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            final PerfectHashMapIterator<K, V> it = new PerfectHashMapIterator<>(parent);
+            return new Iterator<Map.Entry<K, V>>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    final K key = it.next();
+                    return new UnmodifiableMapEntry<>(key, it.getValue());
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,590 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.iterators.EmptyMapIterator;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+
+/**
+ * A {@code MultiKeyMap} that maintains an index of the key prefixes, so that
+ * operations on all the mappings starting with the same keys run in time
+ * proportional to the number of matching mappings rather than the size of the map.
+ * <p>
+ * The index is a tree with a node for each distinct prefix of up to four keys.
+ * Each mapping is linked into the node of its full key, or of its first four keys
+ * if the key is longer, and each node counts the mappings below it.
+ * This makes {@link #removeAll(Object)} and its variants, {@link #prefixSize(Object)}
+ * and {@link #prefixMapIterator(Object)} with their variants proportional to
+ * the number of matching mappings. For example, all the entries of a tenant in
+ * a cache keyed by tenant, session and object can be removed with
+ * {@code removeAll(tenant)} without scanning the other tenants.
+ * </p>
+ * <p>
+ * The index is kept up to date however the map is modified, including removal
+ * through the views and their iterators. It costs a small object per distinct
+ * prefix plus two references per mapping, and a few extra hash lookups on
+ * {@code put()} and {@code remove()} of a new or existing key.
+ * </p>
+ * <p>
+ * Unlike {@code MultiKeyMap}, this map always decorates its own hashed map,
+ * so it cannot be combined with a {@code LRUMap} or a {@code ReferenceMap}.
+ * </p>
+ * <p>
+ * <strong>Note that PrefixIndexedMultiKeyMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. This class may throw exceptions when accessed
+ * by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class PrefixIndexedMultiKeyMap<K, V> extends MultiKeyMap<K, V> {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 20230611L;
+
+    /** The longest prefix that is indexed */
+    private static final int MAX_PREFIX_LENGTH = 4;
+
+    /**
+     * Constructs a new, empty map.
+     */
+    public PrefixIndexedMultiKeyMap() {
+        this(new IndexedHashedMap<>());
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public PrefixIndexedMultiKeyMap(final int initialCapacity) {
+        this(new IndexedHashedMap<>(initialCapacity));
+    }
+
+    /**
+     * Constructor that decorates the specified indexed map.
+     *
+     * @param map  the map to decorate, not null
+     */
+    private PrefixIndexedMultiKeyMap(final IndexedHashedMap<K, V> map) {
+        super(map);
+    }
+
+    /**
+     * Removes all mappings where the first key is that specified.
+     * <p>
+     * This method removes all the mappings where the {@code MultiKey}
+     * has one or more keys, and the first matches that specified.
+     *
+     * @param key1  the first key
+     * @return true if any elements were removed
+     */
+    @Override
+    public boolean removeAll(final Object key1) {
+        return indexed().removePrefix(1, key1, null, null, null);
+    }
+
+    /**
+     * Removes all mappings where the first two keys are those specified.
+     * <p>
+     * This method removes all the mappings where the {@code MultiKey}
+     * has two or more keys, and the first two match those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @return true if any elements were removed
+     */
+    @Override
+    public boolean removeAll(final Object key1, final Object key2) {
+        return indexed().removePrefix(2, key1, key2, null, null);
+    }
+
+    /**
+     * Removes all mappings where the first three keys are those specified.
+     * <p>
+     * This method removes all the mappings where the {@code MultiKey}
+     * has three or more keys, and the first three match those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @return true if any elements were removed
+     */
+    @Override
+    public boolean removeAll(final Object key1, final Object key2, final Object key3) {
+        return indexed().removePrefix(3, key1, key2, key3, null);
+    }
+
+    /**
+     * Removes all mappings where the first four keys are those specified.
+     * <p>
+     * This method removes all the mappings where the {@code MultiKey}
+     * has four or more keys, and the first four match those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @return true if any elements were removed
+     */
+    @Override
+    public boolean removeAll(final Object key1, final Object key2, final Object key3, final Object key4) {
+        return indexed().removePrefix(4, key1, key2, key3, key4);
+    }
+
+    /**
+     * Gets the number of mappings where the first key is that specified.
+     *
+     * @param key1  the first key
+     * @return the number of matching mappings
+     */
+    public int prefixSize(final Object key1) {
+        return indexed().prefixSize(1, key1, null, null, null);
+    }
+
+    /**
+     * Gets the number of mappings where the first two keys are those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @return the number of matching mappings
+     */
+    public int prefixSize(final Object key1, final Object key2) {
+        return indexed().prefixSize(2, key1, key2, null, null);
+    }
+
+    /**
+     * Gets the number of mappings where the first three keys are those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @return the number of matching mappings
+     */
+    public int prefixSize(final Object key1, final Object key2, final Object key3) {
+        return indexed().prefixSize(3, key1, key2, key3, null);
+    }
+
+    /**
+     * Gets the number of mappings where the first four keys are those specified.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @return the number of matching mappings
+     */
+    public int prefixSize(final Object key1, final Object key2, final Object key3, final Object key4) {
+        return indexed().prefixSize(4, key1, key2, key3, key4);
+    }
+
+    /**
+     * Gets an iterator over the mappings where the first key is that specified.
+     * <p>
+     * The matching mappings are gathered when the iterator is created.
+     * The iterator supports {@code remove()} and {@code setValue()} and is fail-fast.
+     *
+     * @param key1  the first key
+     * @return an iterator over the matching mappings, in no particular order
+     */
+    public MapIterator<MultiKey<? extends K>, V> prefixMapIterator(final Object key1) {
+        return indexed().prefixMapIterator(1, key1, null, null, null);
+    }
+
+    /**
+     * Gets an iterator over the mappings where the first two keys are those specified.
+     * <p>
+     * The matching mappings are gathered when the iterator is created.
+     * The iterator supports {@code remove()} and {@code setValue()} and is fail-fast.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @return an iterator over the matching mappings, in no particular order
+     */
+    public MapIterator<MultiKey<? extends K>, V> prefixMapIterator(final Object key1, final Object key2) {
+        return indexed().prefixMapIterator(2, key1, key2, null, null);
+    }
+
+    /**
+     * Gets an iterator over the mappings where the first three keys are those specified.
+     * <p>
+     * The matching mappings are gathered when the iterator is created.
+     * The iterator supports {@code remove()} and {@code setValue()} and is fail-fast.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @return an iterator over the matching mappings, in no particular order
+     */
+    public MapIterator<MultiKey<? extends K>, V> prefixMapIterator(final Object key1, final Object key2,
+                                                                   final Object key3) {
+        return indexed().prefixMapIterator(3, key1, key2, key3, null);
+    }
+
+    /**
+     * Gets an iterator over the mappings where the first four keys are those specified.
+     * <p>
+     * The matching mappings are gathered when the iterator is created.
+     * The iterator supports {@code remove()} and {@code setValue()} and is fail-fast.
+     *
+     * @param key1  the first key
+     * @param key2  the second key
+     * @param key3  the third key
+     * @param key4  the fourth key
+     * @return an iterator over the matching mappings, in no particular order
+     */
+    public MapIterator<MultiKey<? extends K>, V> prefixMapIterator(final Object key1, final Object key2,
+                                                                   final Object key3, final Object key4) {
+        return indexed().prefixMapIterator(4, key1, key2, key3, key4);
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     * <p>
+     * Unlike {@code MultiKeyMap}, the clone has its own copy of the mappings
+     * and of the index.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public PrefixIndexedMultiKeyMap<K, V> clone() {
+        return new PrefixIndexedMultiKeyMap<>(indexed().clone());
+    }
+
+    /**
+     * Gets the decorated map, which maintains the prefix index.
+     *
+     * @return the decorated map
+     */
+    private IndexedHashedMap<K, V> indexed() {
+        return (IndexedHashedMap<K, V>) decorated();
+    }
+
+    /**
+     * A node of the prefix index, holding the mappings whose key ends with the prefix.
+     */
+    private static final class PrefixNode<K, V> {
+        /** The node of the prefix one key shorter, null for the root */
+        final PrefixNode<K, V> parent;
+        /** The last key of the prefix */
+        final Object key;
+        /** The nodes of the prefixes one key longer, null if none */
+        HashedMap<Object, PrefixNode<K, V>> children;
+        /** The first mapping linked to this node */
+        IndexedEntry<K, V> head;
+        /** The number of mappings linked to this node and its descendants */
+        int size;
+
+        PrefixNode(final PrefixNode<K, V> parent, final Object key) {
+            this.parent = parent;
+            this.key = key;
+        }
+
+        PrefixNode<K, V> child(final Object childKey) {
+            return children == null ? null : children.get(childKey);
+        }
+
+        /**
+         * Adds the mappings of this node and its descendants to the list.
+         */
+        void collect(final List<IndexedEntry<K, V>> entries) {
+            for (IndexedEntry<K, V> entry = head; entry != null; entry = entry.indexAfter) {
+                entries.add(entry);
+            }
+            if (children != null) {
+                for (final PrefixNode<K, V> child : children.values()) {
+                    child.collect(entries);
+                }
+            }
+        }
+    }
+
+    /**
+     * HashEntry that is also linked into a node of the prefix index.
+     */
+    private static final class IndexedEntry<K, V> extends AbstractHashedMap.HashEntry<MultiKey<? extends K>, V> {
+        /** The index node holding the entry */
+        PrefixNode<K, V> node;
+        /** The previous entry of the node */
+        IndexedEntry<K, V> indexBefore;
+        /** The next entry of the node */
+        IndexedEntry<K, V> indexAfter;
+
+        IndexedEntry(final AbstractHashedMap.HashEntry<MultiKey<? extends K>, V> next, final int hashCode,
+                     final Object key, final V value) {
+            super(next, hashCode, key, value);
+        }
+    }
+
+    /**
+     * The hashed map decorated by {@code PrefixIndexedMultiKeyMap}, which links
+     * every entry into the prefix index as it is added and removed.
+     */
+    static final class IndexedHashedMap<K, V> extends HashedMap<MultiKey<? extends K>, V> {
+
+        /** Serialisation version */
+        private static final long serialVersionUID = 20230611L;
+
+        /** The root of the prefix index, the empty prefix */
+        private transient PrefixNode<K, V> root;
+
+        IndexedHashedMap() {
+        }
+
+        IndexedHashedMap(final int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        @Override
+        protected void init() {
+            super.init();
+            root = new PrefixNode<>(null, null);
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            root = new PrefixNode<>(null, null);
+        }
+
+        @Override
+        protected IndexedEntry<K, V> createEntry(final HashEntry<MultiKey<? extends K>, V> next, final int hashCode,
+                                                 final MultiKey<? extends K> key, final V value) {
+            return new IndexedEntry<>(next, hashCode, convertKey(key), value);
+        }
+
+        /**
+         * Adds the entry to the hash table and links it into the node of its key,
+         * creating the nodes of the prefixes as necessary.
+         */
+        @Override
+        protected void addEntry(final HashEntry<MultiKey<? extends K>, V> entry, final int hashIndex) {
+            super.addEntry(entry, hashIndex);
+            final IndexedEntry<K, V> indexed = (IndexedEntry<K, V>) entry;
+            final MultiKey<? extends K> multi = indexed.getKey();
+            final int length = Math.min(multi.size(), MAX_PREFIX_LENGTH);
+            PrefixNode<K, V> node = root;
+            node.size++;
+            for (int i = 0; i < length; i++) {
+                final Object key = multi.getKey(i);
+                PrefixNode<K, V> child = node.child(key);
+                if (child == null) {
+                    child = new PrefixNode<>(node, key);
+                    if (node.children == null) {
+                        node.children = new HashedMap<>();
+                    }
+                    node.children.put(key, child);
+                }
+                node = child;
+                node.size++;
+            }
+            indexed.node = node;
+            indexed.indexAfter = node.head;
+            if (node.head != null) {
+                node.head.indexBefore = indexed;
+            }
+            node.head = indexed;
+        }
+
+        /**
+         * Removes the entry from the hash table and unlinks it from its node,
+         * discarding the nodes of the prefixes that no longer have mappings.
+         */
+        @Override
+        protected void removeEntry(final HashEntry<MultiKey<? extends K>, V> entry, final int hashIndex,
+                                   final HashEntry<MultiKey<? extends K>, V> previous) {
+            super.removeEntry(entry, hashIndex, previous);
+            final IndexedEntry<K, V> indexed = (IndexedEntry<K, V>) entry;
+            PrefixNode<K, V> node = indexed.node;
+            if (indexed.indexBefore == null) {
+                node.head = indexed.indexAfter;
+            } else {
+                indexed.indexBefore.indexAfter = indexed.indexAfter;
+            }
+            if (indexed.indexAfter != null) {
+                indexed.indexAfter.indexBefore = indexed.indexBefore;
+            }
+            indexed.node = null;
+            indexed.indexBefore = null;
+            indexed.indexAfter = null;
+            while (node != null) {
+                node.size--;
+                if (node.size == 0 && node.parent != null) {
+                    node.parent.children.remove(node.key);
+                    if (node.parent.children.isEmpty()) {
+                        node.parent.children = null;
+                    }
+                }
+                node = node.parent;
+            }
+        }
+
+        /**
+         * Finds the node of the prefix.
+         *
+         * @return the node, null if no mapping starts with the prefix
+         */
+        private PrefixNode<K, V> findNode(final int length, final Object key1, final Object key2,
+                                          final Object key3, final Object key4) {
+            PrefixNode<K, V> node = root.child(key1);
+            if (node != null && length > 1) {
+                node = node.child(key2);
+                if (node != null && length > 2) {
+                    node = node.child(key3);
+                    if (node != null && length > 3) {
+                        node = node.child(key4);
+                    }
+                }
+            }
+            return node;
+        }
+
+        int prefixSize(final int length, final Object key1, final Object key2,
+                       final Object key3, final Object key4) {
+            final PrefixNode<K, V> node = findNode(length, key1, key2, key3, key4);
+            return node == null ? 0 : node.size;
+        }
+
+        boolean removePrefix(final int length, final Object key1, final Object key2,
+                             final Object key3, final Object key4) {
+            final PrefixNode<K, V> node = findNode(length, key1, key2, key3, key4);
+            if (node == null) {
+                return false;
+            }
+            final List<IndexedEntry<K, V>> entries = new ArrayList<>(node.size);
+            node.collect(entries);
+            for (final IndexedEntry<K, V> entry : entries) {
+                final int index = hashIndex(entry.hashCode, data.length);
+                removeMapping(entry, index, previousEntry(entry, index));
+            }
+            return true;
+        }
+
+        MapIterator<MultiKey<? extends K>, V> prefixMapIterator(final int length, final Object key1,
+                                                               final Object key2, final Object key3,
+                                                               final Object key4) {
+            final PrefixNode<K, V> node = findNode(length, key1, key2, key3, key4);
+            if (node == null) {
+                return EmptyMapIterator.emptyMapIterator();
+            }
+            final List<IndexedEntry<K, V>> entries = new ArrayList<>(node.size);
+            node.collect(entries);
+            return new PrefixMapIterator<>(this, entries);
+        }
+
+        @Override
+        public IndexedHashedMap<K, V> clone() {
+            return (IndexedHashedMap<K, V>) super.clone();
+        }
+    }
+
+    /**
+     * MapIterator over the mappings gathered from a node of the prefix index.
+     */
+    private static final class PrefixMapIterator<K, V> implements MapIterator<MultiKey<? extends K>, V> {
+        /** The map being iterated */
+        private final IndexedHashedMap<K, V> parent;
+        /** The matching entries */
+        private final List<IndexedEntry<K, V>> entries;
+        /** The index of the next entry */
+        private int nextIndex;
+        /** The entry last returned */
+        private IndexedEntry<K, V> current;
+        /** The modification count expected */
+        private int expectedModCount;
+
+        PrefixMapIterator(final IndexedHashedMap<K, V> parent, final List<IndexedEntry<K, V>> entries) {
+            this.parent = parent;
+            this.entries = entries;
+            this.expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < entries.size();
+        }
+
+        @Override
+        public MultiKey<? extends K> next() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (nextIndex >= entries.size()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            current = entries.get(nextIndex++);
+            return current.getKey();
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            final int index = parent.hashIndex(current.hashCode, parent.data.length);
+            parent.removeMapping(current, index, parent.previousEntry(current, index));
+            current = null;
+            expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public MultiKey<? extends K> getKey() {
+            if (current == null) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return current.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            if (current == null) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return current.getValue();
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (current == null) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            return current.setValue(value);
+        }
+
+        @Override
+        public String toString() {
+            if (current != null) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+}
@@ -0,0 +1,610 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Map;
+
+import org.apache.commons.collections4.BoundedMap;
+
+/**
+ * A {@code Map} implementation with a fixed maximum size which decides which
+ * entry to remove when full by how frequently the keys have been used, as well
+ * as how recently.
+ * <p>
+ * The map follows the W-TinyLFU policy. New entries are added to a small
+ * admission window, ordered by recency, which holds about one percent of the
+ * maximum size. The rest of the map is a segmented main region: entries leaving
+ * the window are placed on probation, and are promoted to the protected segment
+ * when accessed again. When the map is full, the entry leaving the window
+ * competes with the least recently used entry on probation and the one whose
+ * key was used less often is removed. Usage is estimated by a compact
+ * count-min sketch over the hash codes of the keys, which also counts keys
+ * that are not in the map and is periodically halved so that old usage fades.
+ * </p>
+ * <p>
+ * Compared to {@link LRUMap}, a single scan of many keys used only once can
+ * therefore not displace the frequently used entries, which gives
+ * substantially higher hit rates for skewed access patterns.
+ * </p>
+ * <p>
+ * The policy works on the get and put operations only. Iteration of any kind,
+ * including setting the value by iteration, does not affect it, and neither do
+ * queries such as containsKey and containsValue or access via views. The
+ * iteration order is that of {@link HashedMap} and is not changed by the get
+ * operation.
+ * </p>
+ * <p>
+ * <strong>Note that TinyLFUMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class TinyLFUMap<K, V>
+        extends AbstractHashedMap<K, V> implements BoundedMap<K, V>, Serializable, Cloneable {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 20230514L;
+    /** Default maximum size */
+    protected static final int DEFAULT_MAX_SIZE = 100;
+
+    /** The segment of entries recently added to the map */
+    static final int WINDOW = 0;
+    /** The segment of entries in the main region that have not been accessed since */
+    static final int PROBATION = 1;
+    /** The segment of entries in the main region that have been accessed since */
+    static final int PROTECTED = 2;
+
+    /** Maximum size */
+    private transient int maxSize;
+    /** The frequency sketch of the keys */
+    transient FrequencySketch sketch;
+    /** Header in the list of window entries, least recently used first */
+    transient SegmentEntry<K, V> windowHeader;
+    /** Header in the list of probation entries, least recently used first */
+    transient SegmentEntry<K, V> probationHeader;
+    /** Header in the list of protected entries, least recently used first */
+    transient SegmentEntry<K, V> protectedHeader;
+    /** The number of entries in the window */
+    transient int windowSize;
+    /** The number of entries in the protected segment */
+    transient int protectedSize;
+
+    /**
+     * Constructs a new empty map with a maximum size of 100.
+     */
+    public TinyLFUMap() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum size.
+     *
+     * @param maxSize  the maximum size of the map
+     * @throws IllegalArgumentException if the maximum size is less than one
+     */
+    public TinyLFUMap(final int maxSize) {
+        this(maxSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified max capacity and
+     * load factor.
+     *
+     * @param maxSize  the maximum size of the map
+     * @param loadFactor  the load factor
+     * @throws IllegalArgumentException if the maximum size is less than one
+     * @throws IllegalArgumentException if the load factor is less than zero
+     */
+    public TinyLFUMap(final int maxSize, final float loadFactor) {
+        super(maxSize, loadFactor);
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("TinyLFUMap max size must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     * <p>
+     * The maximum size is set from the map's size.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     * @throws IllegalArgumentException if the map is empty
+     */
+    public TinyLFUMap(final Map<? extends K, ? extends V> map) {
+        this(map.size(), DEFAULT_LOAD_FACTOR);
+        putAll(map);
+    }
+
+    /**
+     * Initialize this subclass during construction, cloning or deserialization.
+     */
+    @Override
+    protected void init() {
+        windowHeader = createHeader();
+        probationHeader = createHeader();
+        protectedHeader = createHeader();
+        windowSize = 0;
+        protectedSize = 0;
+        if (maxSize > 0) {
+            sketch = new FrequencySketch(maxSize);
+        }
+    }
+
+    private SegmentEntry<K, V> createHeader() {
+        final SegmentEntry<K, V> header = new SegmentEntry<>(null, -1, null, null);
+        header.before = header.after = header;
+        return header;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     * <p>
+     * This operation records the use of the key, whether it is mapped or not,
+     * and moves a mapped entry to the most recently used position of its segment,
+     * promoting it to the protected segment if it was on probation.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Gets the value mapped to the key specified, or a default value if the key
+     * is not mapped.
+     * <p>
+     * This operation records the use of the key as {@link #get(Object)} does.
+     *
+     * @param key  the key
+     * @param defaultValue  the value to return if the key is not mapped
+     * @return the mapped value, the default value if no match
+     * @since 4.5
+     */
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final HashEntry<K, V> entry = getEntry(key);
+        if (entry == null) {
+            sketch.increment(hash(convertKey(key)));
+            return defaultValue;
+        }
+        recordAccess(entry);
+        return entry.getValue();
+    }
+
+    /**
+     * Records an access to an existing entry that does not change its value.
+     * <p>
+     * This implementation records the use of the key and moves the entry
+     * as {@link #get(Object)} does.
+     *
+     * @param entry  the entry accessed
+     * @since 4.5
+     */
+    @Override
+    protected void recordAccess(final HashEntry<K, V> entry) {
+        sketch.increment(entry.hashCode);
+        onAccess((SegmentEntry<K, V>) entry);
+    }
+
+    /**
+     * Updates an existing key-value mapping.
+     * <p>
+     * This implementation records the use of the key and moves the entry
+     * as {@link #get(Object)} does.
+     *
+     * @param entry  the entry to update
+     * @param newValue  the new value to store
+     */
+    @Override
+    protected void updateEntry(final HashEntry<K, V> entry, final V newValue) {
+        recordAccess(entry);
+        entry.setValue(newValue);
+    }
+
+    /**
+     * Adds a new key-value mapping into this map.
+     * <p>
+     * This implementation records the use of the key, adds the entry to the
+     * window and then removes entries until the map is within its maximum
+     * size again.
+     *
+     * @param hashIndex  the index into the data array to store at
+     * @param hashCode  the hash code of the key to add
+     * @param key  the key to add
+     * @param value  the value to add
+     */
+    @Override
+    protected void addMapping(final int hashIndex, final int hashCode, final K key, final V value) {
+        sketch.increment(hashCode);
+        super.addMapping(hashIndex, hashCode, key, value);
+        evict();
+    }
+
+    /**
+     * Creates an entry to store the data.
+     * <p>
+     * This implementation creates a new SegmentEntry instance.
+     *
+     * @param next  the next entry in sequence
+     * @param hashCode  the hash code to use
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the newly created entry
+     */
+    @Override
+    protected SegmentEntry<K, V> createEntry(final HashEntry<K, V> next, final int hashCode, final K key, final V value) {
+        return new SegmentEntry<>(next, hashCode, convertKey(key), value);
+    }
+
+    /**
+     * Adds an entry into this map, at the most recently used position of the window.
+     *
+     * @param entry  the entry to add
+     * @param hashIndex  the index into the data array to store at
+     */
+    @Override
+    protected void addEntry(final HashEntry<K, V> entry, final int hashIndex) {
+        final SegmentEntry<K, V> segmentEntry = (SegmentEntry<K, V>) entry;
+        segmentEntry.segment = WINDOW;
+        linkLast(windowHeader, segmentEntry);
+        windowSize++;
+        super.addEntry(entry, hashIndex);
+    }
+
+    /**
+     * Removes an entry from the map and from its segment.
+     *
+     * @param entry  the entry to remove
+     * @param hashIndex  the index into the data structure
+     * @param previous  the previous entry in the chain
+     */
+    @Override
+    protected void removeEntry(final HashEntry<K, V> entry, final int hashIndex, final HashEntry<K, V> previous) {
+        final SegmentEntry<K, V> segmentEntry = (SegmentEntry<K, V>) entry;
+        unlink(segmentEntry);
+        if (segmentEntry.segment == WINDOW) {
+            windowSize--;
+        } else if (segmentEntry.segment == PROTECTED) {
+            protectedSize--;
+        }
+        super.removeEntry(entry, hashIndex, previous);
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     * <p>
+     * The recorded usage of the keys is retained.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        windowHeader.before = windowHeader.after = windowHeader;
+        probationHeader.before = probationHeader.after = probationHeader;
+        protectedHeader.before = protectedHeader.after = protectedHeader;
+        windowSize = 0;
+        protectedSize = 0;
+    }
+
+    /**
+     * Moves an accessed entry within the segments.
+     *
+     * @param entry  the entry accessed
+     */
+    private void onAccess(final SegmentEntry<K, V> entry) {
+        unlink(entry);
+        switch (entry.segment) {
+        case WINDOW:
+            linkLast(windowHeader, entry);
+            break;
+        case PROBATION:
+            entry.segment = PROTECTED;
+            linkLast(protectedHeader, entry);
+            protectedSize++;
+            if (protectedSize > protectedMaxSize()) {
+                // demote the least recently used protected entry
+                final SegmentEntry<K, V> demoted = protectedHeader.after;
+                unlink(demoted);
+                protectedSize--;
+                demoted.segment = PROBATION;
+                linkLast(probationHeader, demoted);
+            }
+            break;
+        default:
+            linkLast(protectedHeader, entry);
+            break;
+        }
+    }
+
+    /**
+     * Moves the overflow of the window to probation and removes entries until
+     * the map is within its maximum size again.
+     * <p>
+     * The entry that left the window last is the candidate for admission to the
+     * main region. It is admitted, and the least recently used entry on probation
+     * removed instead, only if its key is estimated to be used more often.
+     */
+    private void evict() {
+        while (windowSize > windowMaxSize()) {
+            final SegmentEntry<K, V> first = windowHeader.after;
+            unlink(first);
+            windowSize--;
+            first.segment = PROBATION;
+            linkLast(probationHeader, first);
+        }
+        while (size > maxSize) {
+            final SegmentEntry<K, V> candidate = probationHeader.before;
+            SegmentEntry<K, V> victim = probationHeader.after;
+            if (victim == probationHeader) {
+                // only possible for the smallest maps, fall back to recency
+                victim = protectedHeader.after != protectedHeader ? protectedHeader.after : windowHeader.after;
+            } else if (victim != candidate
+                    && sketch.frequency(candidate.hashCode) <= sketch.frequency(victim.hashCode)) {
+                victim = candidate;
+            }
+            final int removeIndex = hashIndex(victim.hashCode, data.length);
+            removeMapping(victim, removeIndex, previousEntry(victim, removeIndex));
+        }
+    }
+
+    /**
+     * Gets the maximum number of entries held in the window.
+     */
+    private int windowMaxSize() {
+        return Math.max(1, maxSize / 100);
+    }
+
+    /**
+     * Gets the maximum number of entries held in the protected segment.
+     */
+    private int protectedMaxSize() {
+        return (int) ((maxSize - windowMaxSize()) * 8L / 10);
+    }
+
+    private static <K, V> void linkLast(final SegmentEntry<K, V> header, final SegmentEntry<K, V> entry) {
+        entry.after = header;
+        entry.before = header.before;
+        header.before.after = entry;
+        header.before = entry;
+    }
+
+    private static <K, V> void unlink(final SegmentEntry<K, V> entry) {
+        entry.before.after = entry.after;
+        entry.after.before = entry.before;
+    }
+
+    /**
+     * Returns true if this map is full and no new mappings can be added
+     * without removing another.
+     *
+     * @return {@code true} if the map is full
+     */
+    @Override
+    public boolean isFull() {
+        return size >= maxSize;
+    }
+
+    /**
+     * Gets the maximum size of the map (the bound).
+     *
+     * @return the maximum number of elements the map can hold
+     */
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     * <p>
+     * The clone starts with a fresh record of the usage of the keys.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public TinyLFUMap<K, V> clone() {
+        return (TinyLFUMap<K, V>) super.clone();
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        doWriteObject(out);
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        doReadObject(in);
+    }
+
+    /**
+     * Writes the data necessary for {@code put()} to work in deserialization.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    @Override
+    protected void doWriteObject(final ObjectOutputStream out) throws IOException {
+        out.writeInt(maxSize);
+        super.doWriteObject(out);
+    }
+
+    /**
+     * Reads the data necessary for {@code put()} to work in the superclass.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @Override
+    protected void doReadObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        maxSize = in.readInt();
+        super.doReadObject(in);
+    }
+
+    /**
+     * SegmentEntry that stores the data and its position within the segments.
+     */
+    protected static class SegmentEntry<K, V> extends HashEntry<K, V> {
+        /** The entry before this one in its segment */
+        protected SegmentEntry<K, V> before;
+        /** The entry after this one in its segment */
+        protected SegmentEntry<K, V> after;
+        /** The segment holding this entry */
+        protected int segment;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param next  the next entry in the hash bucket sequence
+         * @param hashCode  the hash code
+         * @param key  the key
+         * @param value  the value
+         */
+        protected SegmentEntry(final HashEntry<K, V> next, final int hashCode, final Object key, final V value) {
+            super(next, hashCode, key, value);
+        }
+    }
+
+    /**
+     * A count-min sketch estimating how often hash codes have been recorded,
+     * using four 4-bit counters per hash code.
+     * <p>
+     * Once ten times the maximum size of the map has been recorded, all counters
+     * are halved so that the estimates follow changes in the usage of the keys.
+     */
+    static final class FrequencySketch {
+
+        /** The seeds selecting a counter in each of the four rows */
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        /** Masks each counter after shifting the table right by one */
+        private static final long RESET_MASK = 0x7777777777777777L;
+        /** Masks the lowest bit of each counter */
+        private static final long ONE_MASK = 0x1111111111111111L;
+
+        /** The counters, sixteen per element */
+        private final long[] table;
+        /** The number of recorded hash codes after which the counters are halved */
+        private final int sampleSize;
+        /** The number of increments since the counters were last halved */
+        private int additions;
+
+        FrequencySketch(final int maxSize) {
+            int length = 1;
+            while (length < maxSize && length < 1 << 30) {
+                length <<= 1;
+            }
+            table = new long[length];
+            sampleSize = maxSize > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : 10 * maxSize;
+        }
+
+        /**
+         * Gets the estimated number of times the hash code was recorded, at most 15.
+         *
+         * @param hashCode  the hash code
+         * @return the estimated frequency
+         */
+        int frequency(final int hashCode) {
+            final int hash = spread(hashCode);
+            final int start = (hash & 3) << 2;
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                final int count = (int) (table[indexOf(hash, i)] >>> (start + i << 2) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        /**
+         * Records the hash code, halving all counters when the sample is complete.
+         *
+         * @param hashCode  the hash code
+         */
+        void increment(final int hashCode) {
+            final int hash = spread(hashCode);
+            final int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                added |= incrementAt(indexOf(hash, i), start + i);
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private boolean incrementAt(final int index, final int counter) {
+            final int offset = counter << 2;
+            final long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        private void reset() {
+            int odd = 0;
+            for (int i = 0; i < table.length; i++) {
+                odd += Long.bitCount(table[i] & ONE_MASK);
+                table[i] = table[i] >>> 1 & RESET_MASK;
+            }
+            additions = (additions >>> 1) - (odd >>> 2);
+        }
+
+        private int indexOf(final int hash, final int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & table.length - 1;
+        }
+
+        private static int spread(int hash) {
+            hash = (hash >>> 16 ^ hash) * 0x45d9f3b;
+            hash = (hash >>> 16 ^ hash) * 0x45d9f3b;
+            return hash >>> 16 ^ hash;
+        }
+    }
+
+}
@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.collections4.Transformer;
+
+/**
+ * A {@code Map} implementation with a maximum total weight which removes
+ * the least recently used entries when the weight of the entries exceeds it.
+ * <p>
+ * The weight of each value is computed by a {@code Transformer} supplied on
+ * construction, for example the approximate size in bytes of the value.
+ * Values are weighed when they are added and again whenever they are replaced,
+ * whether by {@code put()} or by setting the value through an iterator or entry.
+ * After each {@code put()}, least recently used entries are removed until the
+ * total weight is within the maximum again. An entry that alone exceeds the
+ * maximum weight is therefore removed straight after it was added.
+ * Setting a value by iteration never removes entries, so the total weight may
+ * exceed the maximum until the next {@code put()}.
+ * </p>
+ * <p>
+ * Apart from the bound, the map behaves as {@link LRUMap}: the order is least
+ * recently used to most recently used and subclasses may veto the removal of
+ * an entry using {@link #removeLRU(AbstractLinkedMap.LinkEntry)}.
+ * The number of entries is not bounded, so {@link #maxSize()} returns
+ * {@code Integer.MAX_VALUE}.
+ * </p>
+ * <p>
+ * <strong>Note that WeightedLRUMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * {@code NullPointerException}'s when accessed by concurrent threads.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class WeightedLRUMap<K, V> extends LRUMap<K, V> {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = 20230521L;
+
+    /** Maximum total weight */
+    private transient long maxWeight;
+    /** The transformer computing the weight of a value */
+    private transient Transformer<? super V, Integer> weigher;
+    /** The total weight of the entries */
+    private transient long totalWeight;
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight.
+     *
+     * @param maxWeight  the maximum total weight of the values
+     * @param weigher  the transformer computing the weight of a value, must not return null or a negative number
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     * @throws NullPointerException if the weigher is null
+     */
+    public WeightedLRUMap(final long maxWeight, final Transformer<? super V, Integer> weigher) {
+        this(maxWeight, weigher, false);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified maximum weight.
+     *
+     * @param maxWeight  the maximum total weight of the values
+     * @param weigher  the transformer computing the weight of a value, must not return null or a negative number
+     * @param scanUntilRemovable  scan until a removable entry is found, default false
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     * @throws NullPointerException if the weigher is null
+     */
+    public WeightedLRUMap(final long maxWeight, final Transformer<? super V, Integer> weigher,
+                          final boolean scanUntilRemovable) {
+        super(Integer.MAX_VALUE, DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, scanUntilRemovable);
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("WeightedLRUMap max weight must be greater than 0");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = Objects.requireNonNull(weigher, "weigher");
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @param maxWeight  the maximum total weight of the values
+     * @param weigher  the transformer computing the weight of a value, must not return null or a negative number
+     * @throws NullPointerException if the map or the weigher is null
+     * @throws IllegalArgumentException if the maximum weight is less than one
+     */
+    public WeightedLRUMap(final Map<? extends K, ? extends V> map, final long maxWeight,
+                          final Transformer<? super V, Integer> weigher) {
+        this(maxWeight, weigher, false);
+        putAll(map);
+    }
+
+    /**
+     * Initialize this subclass during construction, cloning or deserialization.
+     */
+    @Override
+    protected void init() {
+        super.init();
+        totalWeight = 0;
+    }
+
+    /**
+     * Clears the map, resetting the size and the total weight to zero and
+     * nullifying references to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Updates an existing key-value mapping.
+     * <p>
+     * This implementation weighs the new value first, so that the map is left
+     * unchanged if the weigher fails, then moves the updated entry to the end of
+     * the list as {@code LRUMap} does and removes least recently used entries
+     * until the total weight is within the maximum.
+     *
+     * @param entry  the entry to update
+     * @param newValue  the new value to store
+     * @throws IllegalArgumentException if the weigher returns null or a negative number
+     */
+    @Override
+    protected void updateEntry(final HashEntry<K, V> entry, final V newValue) {
+        final WeightedEntry<K, V> weighted = (WeightedEntry<K, V>) entry;
+        final int weight = weigh(newValue);
+        if (statistics != null) {
+            statistics.recordPut();
+        }
+        moveToMRU(weighted);  // handles modCount
+        weighted.setValue(newValue, weight);
+        trimToMaxWeight();
+    }
+
+    /**
+     * Adds a new key-value mapping into this map.
+     * <p>
+     * This implementation weighs the value before adding it as {@code LRUMap}
+     * does, then removes least recently used entries until the total weight is
+     * within the maximum.
+     *
+     * @param hashIndex  the index into the data array to store at
+     * @param hashCode  the hash code of the key to add
+     * @param key  the key to add
+     * @param value  the value to add
+     * @throws IllegalArgumentException if the weigher returns null or a negative number
+     */
+    @Override
+    protected void addMapping(final int hashIndex, final int hashCode, final K key, final V value) {
+        final int weight = weigh(value);
+        super.addMapping(hashIndex, hashCode, key, value);
+        // the added entry is always the most recently used
+        final WeightedEntry<K, V> added = (WeightedEntry<K, V>) header.before;
+        added.weight = weight;
+        totalWeight += weight;
+        trimToMaxWeight();
+    }
+
+    /**
+     * Creates an entry to store the data.
+     * <p>
+     * This implementation creates a new WeightedEntry instance.
+     *
+     * @param next  the next entry in sequence
+     * @param hashCode  the hash code to use
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the newly created entry
+     */
+    @Override
+    protected WeightedEntry<K, V> createEntry(final HashEntry<K, V> next, final int hashCode, final K key, final V value) {
+        return new WeightedEntry<>(this, next, hashCode, convertKey(key), value);
+    }
+
+    /**
+     * Removes an entry from the map and deducts its weight.
+     *
+     * @param entry  the entry to remove
+     * @param hashIndex  the index into the data structure
+     * @param previous  the previous entry in the chain
+     */
+    @Override
+    protected void removeEntry(final HashEntry<K, V> entry, final int hashIndex, final HashEntry<K, V> previous) {
+        final WeightedEntry<K, V> weighted = (WeightedEntry<K, V>) entry;
+        totalWeight -= weighted.weight;
+        weighted.weight = 0;
+        super.removeEntry(entry, hashIndex, previous);
+    }
+
+    /**
+     * Removes least recently used entries until the total weight is within the maximum,
+     * respecting {@link #removeLRU(AbstractLinkedMap.LinkEntry)}.
+     */
+    private void trimToMaxWeight() {
+        LinkEntry<K, V> entry = header.after;
+        while (totalWeight > maxWeight && entry != header) {
+            final LinkEntry<K, V> next = entry.after;
+            final long start = statistics != null ? System.nanoTime() : 0;
+            if (removeLRU(entry)) {
+                final int removeIndex = hashIndex(entry.hashCode, data.length);
+                removeMapping(entry, removeIndex, previousEntry(entry, removeIndex));
+                if (statistics != null) {
+                    statistics.recordEviction(System.nanoTime() - start);
+                }
+            } else if (!isScanUntilRemovable()) {
+                break;
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Weighs a value using the weigher.
+     *
+     * @param value  the value to weigh
+     * @return the weight
+     * @throws IllegalArgumentException if the weigher returns null or a negative number
+     */
+    private int weigh(final V value) {
+        final Integer weight = weigher.transform(value);
+        if (weight == null || weight < 0) {
+            throw new IllegalArgumentException("Weight must be a non negative number: " + weight);
+        }
+        return weight;
+    }
+
+    /**
+     * Returns true if this map is full, that is the total weight has
+     * reached the maximum weight.
+     *
+     * @return {@code true} if the map is full
+     */
+    @Override
+    public boolean isFull() {
+        return totalWeight >= maxWeight;
+    }
+
+    /**
+     * Adding a mapping never reuses the least recently used entry because of the
+     * weight, as the new value may fit: the entries are removed by weight after
+     * adding instead.
+     *
+     * @return {@code true} if the number of entries has reached its maximum
+     */
+    @Override
+    boolean isFullBeforeAdd() {
+        return super.isFull();
+    }
+
+    /**
+     * Gets the maximum total weight of the map (the bound).
+     *
+     * @return the maximum total weight of the values
+     */
+    public long maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Gets the total weight of the values currently in the map.
+     *
+     * @return the total weight
+     */
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Gets the transformer computing the weight of a value.
+     *
+     * @return the weigher
+     */
+    public Transformer<? super V, Integer> getWeigher() {
+        return weigher;
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public WeightedLRUMap<K, V> clone() {
+        return (WeightedLRUMap<K, V>) super.clone();
+    }
+
+    /**
+     * Writes the data necessary for {@code put()} to work in deserialization.
+     * <p>
+     * The weigher must be serializable for the map to be serialized.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    @Override
+    protected void doWriteObject(final ObjectOutputStream out) throws IOException {
+        out.writeLong(maxWeight);
+        out.writeObject(weigher);
+        super.doWriteObject(out);
+    }
+
+    /**
+     * Reads the data necessary for {@code put()} to work in the superclass.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doReadObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        maxWeight = in.readLong();
+        weigher = (Transformer<? super V, Integer>) in.readObject();
+        super.doReadObject(in);
+    }
+
+    /**
+     * WeightedEntry that stores the data and the weight of the value.
+     * <p>
+     * Setting the value through the entry weighs the new value.
+     */
+    protected static class WeightedEntry<K, V> extends LinkEntry<K, V> {
+        /** The map holding the entry */
+        private final WeightedLRUMap<K, V> parent;
+        /** The weight of the value */
+        protected int weight;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param parent  the map holding the entry
+         * @param next  the next entry in the hash bucket sequence
+         * @param hashCode  the hash code
+         * @param key  the key
+         * @param value  the value
+         */
+        protected WeightedEntry(final WeightedLRUMap<K, V> parent, final HashEntry<K, V> next, final int hashCode,
+                                final Object key, final V value) {
+            super(next, hashCode, key, value);
+            this.parent = parent;
+        }
+
+        /**
+         * Sets the value of the entry, weighing the new value.
+         *
+         * @param value  the value to set
+         * @return the previous value
+         * @throws IllegalArgumentException if the weigher returns null or a negative number
+         */
+        @Override
+        public V setValue(final V value) {
+            return setValue(value, parent.weigh(value));
+        }
+
+        /**
+         * Sets the value of the entry with its weight.
+         *
+         * @param value  the value to set
+         * @param newWeight  the weight of the value
+         * @return the previous value
+         */
+        private V setValue(final V value, final int newWeight) {
+            parent.totalWeight += newWeight - weight;
+            weight = newWeight;
+            return super.setValue(value);
+        }
+    }
+
+}
@@ -29,12 +29,19 @@
  *   <li>CompositeMap - map that combines multiple maps into a single view
  *   <li>HashedMap - general purpose HashMap replacement supporting MapIterator
  *   <li>Flat3Map - designed for good performance at size 3 or less
+ *   <li>FlatArrayMap - designed for good performance at size 8 or less, or up to 32 if configured
  *   <li>LinkedMap - a hash map that maintains insertion order, supporting OrderedMapIterator
+ *   <li>IndexedLinkedMap - a linked map that also provides O(log n) access and removal by index
  *   <li>LRUMap - a hash map that maintains a maximum size by removing the least recently used entries
+ *   <li>TinyLFUMap - a hash map that maintains a maximum size by removing the less frequently used entries
+ *   <li>WeightedLRUMap - a hash map that maintains a maximum total weight of its values by removing the least recently used entries
  *   <li>MultiKeyMap - map that provides special methods for using more than one key to access the value
+ *   <li>PrefixIndexedMultiKeyMap - multi key map with an index of the key prefixes for fast removeAll
+ *   <li>InlineMultiKeyMap - multi key map for two to five keys that stores the keys inline in its entries
  *   <li>ReferenceMap - allows the garbage collector to collect keys and values using equals() for comparison
  *   <li>ReferenceIdentityMap - allows the garbage collector to collect keys and values using == for comparison
  *   <li>SingletonMap - a fully featured map to hold one key-value pair
+ *   <li>PerfectHashMap - an immutable map that finds each key with a single probe using a minimal perfect hash
  *   <li>StaticBucketMap - internally synchronized and designed for thread-contentious environments
  * </ul>
  * <p>
@@ -0,0 +1,439 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+/**
+ * CircularFifoDoubleBuffer is a first-in first-out buffer of {@code double} values
+ * with a fixed size that replaces its oldest value if full.
+ * <p>
+ * This buffer has the behavior of a {@link CircularFifoQueue} of {@code Double},
+ * but stores the values in a {@code double} array, so that keeping a rolling
+ * window of samples does not box nor allocate anything per value.
+ * The values are removed and iterated in the order in which they were added.
+ * </p>
+ * <p>
+ * The buffer maintains the sum, minimum and maximum of the values it holds
+ * as they are added and discarded. {@link #add(double)}, {@link #remove()},
+ * {@link #get(int)}, {@link #sum()}, {@link #min()} and {@link #max()} all
+ * perform in constant time, amortized for the adding and removing.
+ * </p>
+ * <p>
+ * The sum is compensated to limit the rounding errors accumulated by adding
+ * and subtracting the values of the window, and recomputed from the values
+ * when a value much larger than those left has been discarded, so that its
+ * rounding errors do not outlive it. A NaN or infinite value affects the
+ * aggregates only as long as it stays in the buffer.
+ * </p>
+ *
+ * @see CircularFifoLongBuffer
+ * @see CircularFifoIntBuffer
+ * @since 4.5
+ */
+public class CircularFifoDoubleBuffer {
+
+    /**
+     * How much larger than the values in the buffer a value added to the sum
+     * may be before the sum is recomputed, so that the rounding errors left by
+     * a large value stay well below the precision of the sum of the others.
+     */
+    private static final double RECOMPUTE_RATIO = 0x1p20;
+
+    /** Underlying storage array. */
+    private final double[] elements;
+
+    /** Array index of the first (oldest) value. */
+    private int start;
+
+    /** The number of values in the buffer. */
+    private int size;
+
+    /** The sum of the finite values. */
+    private double sum;
+
+    /** The compensation of the rounding errors of {@link #sum}. */
+    private double compensation;
+
+    /** The largest magnitude of the finite values added to the sum since it was computed from the values. */
+    private double scale;
+
+    /** The number of NaN values. */
+    private int nanCount;
+
+    /** The number of positive infinite values. */
+    private int positiveInfinityCount;
+
+    /** The number of negative infinite values. */
+    private int negativeInfinityCount;
+
+    /** The slots of the non-NaN values that may become the minimum, with increasing values. */
+    private final SlotDeque minima;
+
+    /** The slots of the non-NaN values that may become the maximum, with decreasing values. */
+    private final SlotDeque maxima;
+
+    /**
+     * Constructor that creates a buffer with the default size of 32.
+     */
+    public CircularFifoDoubleBuffer() {
+        this(32);
+    }
+
+    /**
+     * Constructor that creates a buffer with the specified size.
+     *
+     * @param size  the size of the buffer (cannot be changed)
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public CircularFifoDoubleBuffer(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        elements = new double[size];
+        minima = new SlotDeque(size);
+        maxima = new SlotDeque(size);
+    }
+
+    /**
+     * Returns the number of values stored in the buffer.
+     *
+     * @return this buffer's size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this buffer is empty; false otherwise.
+     *
+     * @return true if this buffer is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if the capacity limit of this buffer has been reached,
+     * i.e. the number of values stored in the buffer equals its maximum size.
+     *
+     * @return {@code true} if the capacity limit has been reached, {@code false} otherwise
+     */
+    public boolean isAtFullCapacity() {
+        return size == elements.length;
+    }
+
+    /**
+     * Gets the maximum size of the buffer (the bound).
+     *
+     * @return the maximum number of values the buffer can hold
+     */
+    public int maxSize() {
+        return elements.length;
+    }
+
+    /**
+     * Clears this buffer.
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+        sum = 0;
+        compensation = 0;
+        scale = 0;
+        nanCount = 0;
+        positiveInfinityCount = 0;
+        negativeInfinityCount = 0;
+        minima.clear();
+        maxima.clear();
+    }
+
+    /**
+     * Adds the given value to this buffer. If the buffer is full, the least recently added
+     * value is discarded so that the new value can be inserted.
+     *
+     * @param value  the value to add
+     */
+    public void add(final double value) {
+        if (size == elements.length) {
+            remove();
+        }
+        final int slot = slot(size++);
+        elements[slot] = value;
+        if (Double.isNaN(value)) {
+            nanCount++;
+            return;
+        }
+        accumulate(value, 1);
+        // Double.compare orders -0.0 before 0.0, as Math.min and Math.max do
+        while (!minima.isEmpty() && Double.compare(elements[minima.last()], value) >= 0) {
+            minima.removeLast();
+        }
+        minima.addLast(slot);
+        while (!maxima.isEmpty() && Double.compare(elements[maxima.last()], value) <= 0) {
+            maxima.removeLast();
+        }
+        maxima.addLast(slot);
+    }
+
+    /**
+     * Returns the value at the specified position in this buffer.
+     *
+     * @param index the position of the value in the buffer, 0 for the oldest
+     * @return the value at position {@code index}
+     * @throws NoSuchElementException if the requested position is outside the range [0, size)
+     */
+    public double get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new NoSuchElementException(
+                    String.format("The specified index %1$d is outside the available range [0, %2$d)",
+                                  Integer.valueOf(index), Integer.valueOf(size)));
+        }
+        return elements[slot(index)];
+    }
+
+    /**
+     * Returns the oldest value of this buffer without removing it.
+     *
+     * @return the oldest value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public double element() {
+        checkNotEmpty();
+        return elements[start];
+    }
+
+    /**
+     * Removes the oldest value of this buffer.
+     *
+     * @return the oldest value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public double remove() {
+        checkNotEmpty();
+        final double value = elements[start];
+        if (Double.isNaN(value)) {
+            nanCount--;
+        } else {
+            accumulate(value, -1);
+            if (minima.first() == start) {
+                minima.removeFirst();
+            }
+            if (maxima.first() == start) {
+                maxima.removeFirst();
+            }
+        }
+        if (++start == elements.length) {
+            start = 0;
+        }
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns the sum of the values in this buffer, 0 if it is empty.
+     * <p>
+     * As for {@link java.util.DoubleSummaryStatistics}, the sum is NaN if any
+     * value is NaN, or if there are both positive and negative infinite values.
+     * <p>
+     * The sum is recomputed from the values, in linear time, if the running sum
+     * overflowed or if a value much larger than the values left was discarded.
+     *
+     * @return the sum of the values
+     */
+    public double sum() {
+        if (nanCount > 0 || positiveInfinityCount > 0 && negativeInfinityCount > 0) {
+            return Double.NaN;
+        }
+        if (positiveInfinityCount > 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (negativeInfinityCount > 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (!Double.isFinite(sum) || !Double.isFinite(compensation) || scale > magnitude() * RECOMPUTE_RATIO) {
+            // the running sum overflowed at some point, or holds the rounding errors
+            // of a large value that was discarded, start over from the current values
+            sum = 0;
+            compensation = 0;
+            scale = 0;
+            for (int i = 0; i < size; i++) {
+                accumulate(elements[slot(i)], 1);
+            }
+            if (!Double.isFinite(sum)) {
+                // the sum of the current values overflows
+                return sum;
+            }
+        }
+        return sum + compensation;
+    }
+
+    /**
+     * Returns the smallest value in this buffer, following {@link Math#min(double, double)}:
+     * NaN if any value is NaN, and -0.0 is smaller than 0.0.
+     *
+     * @return the minimum value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public double min() {
+        checkNotEmpty();
+        return nanCount > 0 ? Double.NaN : elements[minima.first()];
+    }
+
+    /**
+     * Returns the largest value in this buffer, following {@link Math#max(double, double)}:
+     * NaN if any value is NaN, and 0.0 is larger than -0.0.
+     *
+     * @return the maximum value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public double max() {
+        checkNotEmpty();
+        return nanCount > 0 ? Double.NaN : elements[maxima.first()];
+    }
+
+    /**
+     * Copies the values of this buffer, from the oldest to the newest, into the
+     * given array.
+     *
+     * @param array  the array to copy the values into
+     * @param offset  the position in the array of the oldest value
+     * @return the number of values copied
+     * @throws NullPointerException if the array is null
+     * @throws IndexOutOfBoundsException if the values do not fit in the array from the offset
+     */
+    public int copyTo(final double[] array, final int offset) {
+        Objects.requireNonNull(array, "array");
+        if (offset < 0 || offset > array.length - size) {
+            throw new IndexOutOfBoundsException("Cannot copy " + size + " values at offset " + offset
+                    + " into an array of length " + array.length);
+        }
+        final int head = Math.min(size, elements.length - start);
+        System.arraycopy(elements, start, array, offset, head);
+        System.arraycopy(elements, 0, array, offset + head, size - head);
+        return size;
+    }
+
+    /**
+     * Returns the values of this buffer, from the oldest to the newest, in a new array.
+     *
+     * @return an array of the values
+     */
+    public double[] toArray() {
+        final double[] array = new double[size];
+        copyTo(array, 0);
+        return array;
+    }
+
+    /**
+     * Performs the given action for each value of this buffer, from the oldest
+     * to the newest.
+     *
+     * @param action  the action to perform
+     * @throws NullPointerException if the action is null
+     */
+    public void forEach(final DoubleConsumer action) {
+        Objects.requireNonNull(action, "action");
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[slot(i)]);
+        }
+    }
+
+    /**
+     * Returns a string representation of this buffer, listing its values from
+     * the oldest to the newest.
+     *
+     * @return a string representation
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(elements[slot(i)]);
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Gets the largest magnitude of the values in this buffer, which must be
+     * neither NaN nor infinite.
+     *
+     * @return the largest absolute value, 0 if the buffer is empty
+     */
+    private double magnitude() {
+        if (size == 0) {
+            return 0;
+        }
+        return Math.max(Math.abs(elements[minima.first()]), Math.abs(elements[maxima.first()]));
+    }
+
+    /**
+     * Adds a value to, or subtracts it from, the sum, counting the infinite
+     * values apart. The sum is compensated as in Neumaier's variant of the
+     * Kahan summation.
+     *
+     * @param value  the value, not NaN
+     * @param sign  1 to add the value, -1 to subtract it
+     */
+    private void accumulate(final double value, final int sign) {
+        if (value == Double.POSITIVE_INFINITY) {
+            positiveInfinityCount += sign;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            negativeInfinityCount += sign;
+        } else {
+            final double term = sign * value;
+            if (sign > 0) {
+                scale = Math.max(scale, Math.abs(value));
+            }
+            final double total = sum + term;
+            if (Math.abs(sum) >= Math.abs(term)) {
+                compensation += sum - total + term;
+            } else {
+                compensation += term - total + sum;
+            }
+            sum = total;
+        }
+    }
+
+    /**
+     * Computes the array index of a position in the buffer.
+     *
+     * @param position  the position, from 0 to the capacity
+     * @return the array index
+     */
+    private int slot(final int position) {
+        final int slot = start + position;
+        return slot < elements.length ? slot : slot - elements.length;
+    }
+
+    /**
+     * Throws if the buffer is empty.
+     *
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("buffer is empty");
+        }
+    }
+
+}
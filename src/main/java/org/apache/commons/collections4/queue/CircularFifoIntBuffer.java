@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * CircularFifoIntBuffer is a first-in first-out buffer of {@code int} values
+ * with a fixed size that replaces its oldest value if full.
+ * <p>
+ * This buffer has the behavior of a {@link CircularFifoQueue} of {@code Integer},
+ * but stores the values in a {@code int} array, so that keeping a rolling
+ * window of samples does not box nor allocate anything per value.
+ * The values are removed and iterated in the order in which they were added.
+ * </p>
+ * <p>
+ * The buffer maintains the sum, minimum and maximum of the values it holds
+ * as they are added and discarded. {@link #add(int)}, {@link #remove()},
+ * {@link #get(int)}, {@link #sum()}, {@link #min()} and {@link #max()} all
+ * perform in constant time, amortized for the adding and removing.
+ * </p>
+ *
+ * @see CircularFifoLongBuffer
+ * @see CircularFifoDoubleBuffer
+ * @since 4.5
+ */
+public class CircularFifoIntBuffer {
+
+    /** Underlying storage array. */
+    private final int[] elements;
+
+    /** Array index of the first (oldest) value. */
+    private int start;
+
+    /** The number of values in the buffer. */
+    private int size;
+
+    /** The sum of the values. */
+    private long sum;
+
+    /** The slots of the values that may become the minimum, with increasing values. */
+    private final SlotDeque minima;
+
+    /** The slots of the values that may become the maximum, with decreasing values. */
+    private final SlotDeque maxima;
+
+    /**
+     * Constructor that creates a buffer with the default size of 32.
+     */
+    public CircularFifoIntBuffer() {
+        this(32);
+    }
+
+    /**
+     * Constructor that creates a buffer with the specified size.
+     *
+     * @param size  the size of the buffer (cannot be changed)
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public CircularFifoIntBuffer(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        elements = new int[size];
+        minima = new SlotDeque(size);
+        maxima = new SlotDeque(size);
+    }
+
+    /**
+     * Returns the number of values stored in the buffer.
+     *
+     * @return this buffer's size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this buffer is empty; false otherwise.
+     *
+     * @return true if this buffer is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if the capacity limit of this buffer has been reached,
+     * i.e. the number of values stored in the buffer equals its maximum size.
+     *
+     * @return {@code true} if the capacity limit has been reached, {@code false} otherwise
+     */
+    public boolean isAtFullCapacity() {
+        return size == elements.length;
+    }
+
+    /**
+     * Gets the maximum size of the buffer (the bound).
+     *
+     * @return the maximum number of values the buffer can hold
+     */
+    public int maxSize() {
+        return elements.length;
+    }
+
+    /**
+     * Clears this buffer.
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+        sum = 0;
+        minima.clear();
+        maxima.clear();
+    }
+
+    /**
+     * Adds the given value to this buffer. If the buffer is full, the least recently added
+     * value is discarded so that the new value can be inserted.
+     *
+     * @param value  the value to add
+     */
+    public void add(final int value) {
+        if (size == elements.length) {
+            remove();
+        }
+        final int slot = slot(size++);
+        elements[slot] = value;
+        sum += value;
+        while (!minima.isEmpty() && elements[minima.last()] >= value) {
+            minima.removeLast();
+        }
+        minima.addLast(slot);
+        while (!maxima.isEmpty() && elements[maxima.last()] <= value) {
+            maxima.removeLast();
+        }
+        maxima.addLast(slot);
+    }
+
+    /**
+     * Returns the value at the specified position in this buffer.
+     *
+     * @param index the position of the value in the buffer, 0 for the oldest
+     * @return the value at position {@code index}
+     * @throws NoSuchElementException if the requested position is outside the range [0, size)
+     */
+    public int get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new NoSuchElementException(
+                    String.format("The specified index %1$d is outside the available range [0, %2$d)",
+                                  Integer.valueOf(index), Integer.valueOf(size)));
+        }
+        return elements[slot(index)];
+    }
+
+    /**
+     * Returns the oldest value of this buffer without removing it.
+     *
+     * @return the oldest value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public int element() {
+        checkNotEmpty();
+        return elements[start];
+    }
+
+    /**
+     * Removes the oldest value of this buffer.
+     *
+     * @return the oldest value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public int remove() {
+        checkNotEmpty();
+        final int value = elements[start];
+        sum -= value;
+        if (minima.first() == start) {
+            minima.removeFirst();
+        }
+        if (maxima.first() == start) {
+            maxima.removeFirst();
+        }
+        if (++start == elements.length) {
+            start = 0;
+        }
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns the sum of the values in this buffer, 0 if it is empty.
+     * <p>
+     * As for {@link java.util.IntSummaryStatistics}, the sum is a {@code long},
+     * so it cannot overflow.
+     *
+     * @return the sum of the values
+     */
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * Returns the smallest value in this buffer.
+     *
+     * @return the minimum value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public int min() {
+        checkNotEmpty();
+        return elements[minima.first()];
+    }
+
+    /**
+     * Returns the largest value in this buffer.
+     *
+     * @return the maximum value
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public int max() {
+        checkNotEmpty();
+        return elements[maxima.first()];
+    }
+
+    /**
+     * Copies the values of this buffer, from the oldest to the newest, into the
+     * given array.
+     *
+     * @param array  the array to copy the values into
+     * @param offset  the position in the array of the oldest value
+     * @return the number of values copied
+     * @throws NullPointerException if the array is null
+     * @throws IndexOutOfBoundsException if the values do not fit in the array from the offset
+     */
+    public int copyTo(final int[] array, final int offset) {
+        Objects.requireNonNull(array, "array");
+        if (offset < 0 || offset > array.length - size) {
+            throw new IndexOutOfBoundsException("Cannot copy " + size + " values at offset " + offset
+                    + " into an array of length " + array.length);
+        }
+        final int head = Math.min(size, elements.length - start);
+        System.arraycopy(elements, start, array, offset, head);
+        System.arraycopy(elements, 0, array, offset + head, size - head);
+        return size;
+    }
+
+    /**
+     * Returns the values of this buffer, from the oldest to the newest, in a new array.
+     *
+     * @return an array of the values
+     */
+    public int[] toArray() {
+        final int[] array = new int[size];
+        copyTo(array, 0);
+        return array;
+    }
+
+    /**
+     * Performs the given action for each value of this buffer, from the oldest
+     * to the newest.
+     *
+     * @param action  the action to perform
+     * @throws NullPointerException if the action is null
+     */
+    public void forEach(final IntConsumer action) {
+        Objects.requireNonNull(action, "action");
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[slot(i)]);
+        }
+    }
+
+    /**
+     * Returns a string representation of this buffer, listing its values from
+     * the oldest to the newest.
+     *
+     * @return a string representation
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(elements[slot(i)]);
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Computes the array index of a position in the buffer.
+     *
+     * @param position  the position, from 0 to the capacity
+     * @return the array index
+     */
+    private int slot(final int position) {
+        final int slot = start + position;
+        return slot < elements.length ? slot : slot - elements.length;
+    }
+
+    /**
+     * Throws if the buffer is empty.
+     *
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("buffer is empty");
+        }
+    }
+
+}
@@ -0,0 +1,532 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.collections4.BoundedCollection;
+
+/**
+ * A thread-safe first-in first-out queue with a fixed size that replaces its
+ * oldest element if full.
+ * <p>
+ * This queue behaves as {@link CircularFifoQueue}, but can be used by many
+ * producer and consumer threads at once without locking. Each element is
+ * added under a ticket taken from a counter, and stored in the slot of the
+ * ring buffer for that ticket. A sequence number per slot tells whether the
+ * slot holds the element of a ticket or is free for the ticket one lap later,
+ * following the bounded queue design of Dmitry Vyukov. Consumers take the
+ * tickets in order by advancing a head counter. A producer whose ticket is a
+ * full lap ahead of the head advances the head itself, discarding the oldest
+ * element.
+ * </p>
+ * <p>
+ * {@link #offer(Object)}, {@link #add(Object)}, {@link #poll()}, {@link #remove()}
+ * and {@link #peek()} perform in constant time, and never wait for the consumers.
+ * A thread may spin briefly while another thread finishes writing or
+ * reading the same slot. {@link #drainTo(Collection, int)} takes a run of
+ * elements with a single update of the head counter, for a consumer that
+ * processes elements in batches.
+ * </p>
+ * <p>
+ * As with the concurrent queues of the JDK, {@link #size()} is an estimate
+ * while other threads modify the queue, and the iterators are weakly
+ * consistent: they never throw {@link java.util.ConcurrentModificationException},
+ * and return the elements still in the queue as they reach them.
+ * An element added by a thread that has not returned from {@code offer} yet
+ * may not be visible, and elements added after it wait until it is.
+ * Removing an element other than the head leaves its slot empty until the
+ * consumers reach it, so until then the queue discards its oldest element one
+ * addition earlier than {@code CircularFifoQueue} would.
+ * </p>
+ * <p>
+ * This queue prevents null objects from being added.
+ * </p>
+ *
+ * @param <E> the type of elements in this collection
+ * @since 4.5
+ */
+public class ConcurrentCircularFifoQueue<E> extends AbstractQueue<E>
+    implements BoundedCollection<E>, Serializable {
+
+    /** Serialization version. */
+    private static final long serialVersionUID = 20231120L;
+
+    /**
+     * The number of times to spin before yielding while waiting for a slot,
+     * none on a single processor where the other thread cannot progress meanwhile.
+     */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 64 : 0;
+
+    /** Capacity of the queue. */
+    private final int maxElements;
+
+    /**
+     * The elements, null in free slots and for removed elements. There are
+     * at least two slots, so that the sequence number of a stored element
+     * differs from the one of its slot freed for the next lap.
+     */
+    private transient AtomicReferenceArray<E> elements;
+
+    /**
+     * The sequence number of each slot: the ticket for which the slot is free,
+     * or the ticket plus one once the element of that ticket is stored.
+     */
+    private transient AtomicLongArray sequences;
+
+    /** The ticket of the next element to add. */
+    private transient AtomicLong tail;
+
+    /** The ticket of the next element to remove. */
+    private transient AtomicLong head;
+
+    /** The number of removed elements whose slots have not been reached yet. */
+    private transient AtomicInteger removed;
+
+    /**
+     * Constructor that creates a queue with the default size of 32.
+     */
+    public ConcurrentCircularFifoQueue() {
+        this(32);
+    }
+
+    /**
+     * Constructor that creates a queue with the specified size.
+     *
+     * @param size  the size of the queue (cannot be changed)
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public ConcurrentCircularFifoQueue(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        maxElements = size;
+        init();
+    }
+
+    /**
+     * Constructor that creates a queue from the specified collection.
+     * The collection size also sets the queue size.
+     *
+     * @param coll  the collection to copy into the queue, may not be null
+     * @throws NullPointerException if the collection is null
+     */
+    public ConcurrentCircularFifoQueue(final Collection<? extends E> coll) {
+        this(coll.size());
+        addAll(coll);
+    }
+
+    /**
+     * Initializes the storage of an empty queue.
+     */
+    private void init() {
+        final int slots = Math.max(maxElements, 2);
+        elements = new AtomicReferenceArray<>(slots);
+        sequences = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            sequences.set(i, i);
+        }
+        tail = new AtomicLong();
+        head = new AtomicLong();
+        removed = new AtomicInteger();
+    }
+
+    /**
+     * Write the queue out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an I/O error occurs while writing to the output stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final Object[] snapshot = toArray();
+        out.writeInt(snapshot.length);
+        for (final Object e : snapshot) {
+            out.writeObject(e);
+        }
+    }
+
+    /**
+     * Read the queue in using a custom routine.
+     *
+     * @param in  the input stream
+     * @throws IOException if an I/O error occurs while writing to the output stream
+     * @throws ClassNotFoundException if the class of a serialized object can not be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            offer((E) in.readObject());
+        }
+    }
+
+    /**
+     * Returns the number of elements stored in the queue.
+     * <p>
+     * While other threads modify the queue, this is an estimate.
+     *
+     * @return this queue's size
+     */
+    @Override
+    public int size() {
+        long first;
+        long end;
+        do {
+            first = head.get();
+            end = tail.get();
+        } while (first != head.get());
+        final long size = Math.min(end - first, maxElements) - removed.get();
+        return (int) Math.max(size, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A {@code ConcurrentCircularFifoQueue} can never be full, thus this returns always
+     * {@code false}.
+     *
+     * @return always returns {@code false}
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the capacity limit of this queue has been reached,
+     * i.e. the number of elements stored in the queue equals its maximum size.
+     *
+     * @return {@code true} if the capacity limit has been reached, {@code false} otherwise
+     */
+    public boolean isAtFullCapacity() {
+        return size() == maxElements;
+    }
+
+    /**
+     * Gets the maximum size of the collection (the bound).
+     *
+     * @return the maximum number of elements the collection can hold
+     */
+    @Override
+    public int maxSize() {
+        return maxElements;
+    }
+
+    /**
+     * Adds the given element to this queue. If the queue is full, the least recently added
+     * element is discarded so that a new element can be inserted.
+     *
+     * @param element  the element to add
+     * @return true, always
+     * @throws NullPointerException  if the given element is null
+     */
+    @Override
+    public boolean offer(final E element) {
+        Objects.requireNonNull(element, "element");
+        final long ticket = tail.getAndIncrement();
+        // discard the oldest elements until there is room for ours
+        long first;
+        while ((first = head.get()) <= ticket - maxElements) {
+            if (head.compareAndSet(first, first + 1)) {
+                awaitSequence(first, first + 1);
+                release(first);
+            }
+        }
+        final int index = index(ticket);
+        awaitSequence(ticket, ticket);
+        elements.set(index, element);
+        sequences.set(index, ticket + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element of this queue.
+     *
+     * @return the oldest element, null if the queue is empty
+     */
+    @Override
+    public E poll() {
+        while (true) {
+            final long first = head.get();
+            if (sequences.get(index(first)) != first + 1) {
+                if (head.get() == first) {
+                    // the element at the head is not stored yet
+                    return null;
+                }
+            } else if (head.compareAndSet(first, first + 1)) {
+                final E element = release(first);
+                if (element != null) {
+                    return element;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the oldest element of this queue without removing it.
+     *
+     * @return the oldest element, null if the queue is empty
+     */
+    @Override
+    public E peek() {
+        long ticket = head.get();
+        while (true) {
+            final int index = index(ticket);
+            final boolean stored = sequences.get(index) == ticket + 1;
+            final E element = elements.get(index);
+            final long first = head.get();
+            if (first > ticket) {
+                // the ticket was taken meanwhile, and the slot may be reused
+                ticket = first;
+            } else if (!stored) {
+                return null;
+            } else if (element != null) {
+                return element;
+            } else {
+                // skip a removed element
+                ticket++;
+            }
+        }
+    }
+
+    /**
+     * Removes a single instance of the specified element from this queue.
+     * <p>
+     * The slot of the element stays empty until the consumers reach it.
+     *
+     * @param object  the element to remove
+     * @return true if this queue contained the element
+     */
+    @Override
+    public boolean remove(final Object object) {
+        if (object == null) {
+            return false;
+        }
+        for (long ticket = head.get(); ticket < tail.get(); ticket++) {
+            final int index = index(ticket);
+            final E element = elements.get(index);
+            if (object.equals(element) && removeStored(ticket, element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all available elements from this queue and adds them to the given collection.
+     *
+     * @param coll  the collection to transfer the elements into
+     * @return the number of elements transferred
+     * @throws NullPointerException if the collection is null
+     * @throws IllegalArgumentException if the collection is this queue
+     */
+    public int drainTo(final Collection<? super E> coll) {
+        return drainTo(coll, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the given number of available elements from this queue
+     * and adds them to the given collection.
+     * <p>
+     * The run of stored elements at the head of the queue is taken with a
+     * single update of the head counter. If adding an element to the collection
+     * fails, the rest of the run is discarded, and the elements may be in the
+     * collection, the queue, both or neither when the exception is thrown.
+     *
+     * @param coll  the collection to transfer the elements into
+     * @param maxElements  the maximum number of elements to transfer
+     * @return the number of elements transferred
+     * @throws NullPointerException if the collection is null
+     * @throws IllegalArgumentException if the collection is this queue
+     */
+    public int drainTo(final Collection<? super E> coll, final int maxElements) {
+        Objects.requireNonNull(coll, "coll");
+        if (coll == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        int drained = 0;
+        while (drained < maxElements) {
+            final long first = head.get();
+            final long limit = first + Math.min(maxElements - drained, this.maxElements);
+            long end = first;
+            while (end < limit && sequences.get(index(end)) == end + 1) {
+                end++;
+            }
+            if (end == first) {
+                if (head.get() == first) {
+                    break;
+                }
+            } else if (head.compareAndSet(first, end)) {
+                long ticket = first;
+                try {
+                    for (; ticket < end; ticket++) {
+                        final E element = release(ticket);
+                        if (element != null) {
+                            coll.add(element);
+                            drained++;
+                        }
+                    }
+                } finally {
+                    // free the slots taken, so the producers do not wait forever
+                    for (ticket++; ticket < end; ticket++) {
+                        release(ticket);
+                    }
+                }
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over this queue, from the oldest
+     * to the newest element.
+     *
+     * @return an iterator over this queue's elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            /** The ticket to look at next. */
+            private long ticket = head.get();
+
+            /** The ticket of the next element. */
+            private long nextTicket;
+
+            /** The next element, null if not found yet. */
+            private E next;
+
+            /** The ticket of the last returned element. */
+            private long lastTicket;
+
+            /** The last returned element, null if none or removed. */
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    ticket = Math.max(ticket, head.get());
+                    if (ticket >= tail.get()) {
+                        return false;
+                    }
+                    final int index = index(ticket);
+                    final E element = elements.get(index);
+                    if (element != null && sequences.get(index) == ticket + 1) {
+                        next = element;
+                        nextTicket = ticket;
+                    }
+                    ticket++;
+                }
+                return true;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                lastTicket = nextTicket;
+                next = null;
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                removeStored(lastTicket, last);
+                last = null;
+            }
+        };
+    }
+
+    /**
+     * Computes the slot of a ticket.
+     *
+     * @param ticket  the ticket
+     * @return the index of its slot
+     */
+    private int index(final long ticket) {
+        return (int) (ticket % elements.length());
+    }
+
+    /**
+     * Waits until the slot of a ticket has the given sequence number.
+     *
+     * @param ticket  the ticket
+     * @param sequence  the sequence number to wait for
+     */
+    private void awaitSequence(final long ticket, final long sequence) {
+        final int index = index(ticket);
+        int spins = 0;
+        while (sequences.get(index) != sequence) {
+            if (++spins > SPINS) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Empties the slot of a stored ticket taken from the head, freeing it for the next lap.
+     *
+     * @param ticket  the ticket taken
+     * @return the element of the ticket, null if it was removed
+     */
+    private E release(final long ticket) {
+        final int index = index(ticket);
+        final E element = elements.getAndSet(index, null);
+        sequences.set(index, ticket + elements.length());
+        if (element == null) {
+            removed.decrementAndGet();
+        }
+        return element;
+    }
+
+    /**
+     * Removes the element of a ticket if it is still stored, leaving its slot empty.
+     *
+     * @param ticket  the ticket
+     * @param element  the element of the ticket
+     * @return true if the element was removed
+     */
+    private boolean removeStored(final long ticket, final E element) {
+        final int index = index(ticket);
+        if (sequences.get(index) == ticket + 1 && elements.compareAndSet(index, element, null)) {
+            removed.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+}
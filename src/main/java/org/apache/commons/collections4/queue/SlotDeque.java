@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+/**
+ * A double-ended queue of the slots of a primitive circular buffer, backed by
+ * an {@code int} array of fixed capacity.
+ * <p>
+ * The primitive buffers keep the slots of their window minimum and maximum
+ * candidates in such a deque, in insertion order: a new element drops the
+ * candidates it beats from the back, and an evicted element leaves from the
+ * front. Both ends are updated in constant time without allocation.
+ * </p>
+ *
+ * @since 4.5
+ */
+final class SlotDeque {
+
+    /** The slots, starting at {@code start} and wrapping around. */
+    private final int[] slots;
+
+    /** Array index of the first slot. */
+    private int start;
+
+    /** The number of slots in the deque. */
+    private int size;
+
+    /**
+     * Constructs an empty deque.
+     *
+     * @param capacity  the maximum number of slots
+     */
+    SlotDeque(final int capacity) {
+        slots = new int[capacity];
+    }
+
+    /**
+     * Returns true if the deque is empty.
+     *
+     * @return true if there are no slots
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the first slot, the one added least recently.
+     *
+     * @return the first slot
+     */
+    int first() {
+        return slots[start];
+    }
+
+    /**
+     * Gets the last slot, the one added most recently.
+     *
+     * @return the last slot
+     */
+    int last() {
+        return slots[index(size - 1)];
+    }
+
+    /**
+     * Adds a slot at the end of the deque, which must not be full.
+     *
+     * @param slot  the slot to add
+     */
+    void addLast(final int slot) {
+        slots[index(size++)] = slot;
+    }
+
+    /**
+     * Removes the first slot of the deque, which must not be empty.
+     */
+    void removeFirst() {
+        if (++start == slots.length) {
+            start = 0;
+        }
+        size--;
+    }
+
+    /**
+     * Removes the last slot of the deque, which must not be empty.
+     */
+    void removeLast() {
+        size--;
+    }
+
+    /**
+     * Removes all slots.
+     */
+    void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * Computes the array index of a position in the deque.
+     *
+     * @param position  the position, from 0 to the capacity
+     * @return the array index
+     */
+    private int index(final int position) {
+        final int index = start + position;
+        return index < slots.length ? index : index - slots.length;
+    }
+
+}
@@ -20,6 +20,9 @@
  * The following implementations are provided in the package:
  * <ul>
  *   <li>CircularFifoQueue - implements a queue with a fixed size that discards oldest when full
+ *   <li>ConcurrentCircularFifoQueue - a lock-free thread-safe CircularFifoQueue
+ *   <li>CircularFifoLongBuffer, CircularFifoIntBuffer, CircularFifoDoubleBuffer - primitive
+ *       circular buffers keeping the sum, minimum and maximum of their values
  * </ul>
  * <p>
  * The following decorators are provided in the package:
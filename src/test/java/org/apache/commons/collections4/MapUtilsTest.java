@@ -852,6 +852,21 @@ public class MapUtilsTest {
         assertSame(hMap, MapUtils.iterableMap(hMap));
     }
 
+    @Test
+    public void testFrozenMap() {
+        assertThrows(NullPointerException.class, () -> MapUtils.frozenMap(null));
+
+        final HashMap<String, String> map = new HashMap<>();
+        map.put("foo", "foov");
+        map.put("bar", "barv");
+        final IterableMap<String, String> frozen = MapUtils.frozenMap(map);
+        assertEquals(map, frozen);
+        map.put("baz", "bazv");
+        assertFalse(frozen.containsKey("baz"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.put("baz", "bazv"));
+        assertSame(frozen, MapUtils.frozenMap(frozen));
+    }
+
     @Test
     public void testIterableSortedMap() {
         assertThrows(NullPointerException.class, () -> MapUtils.iterableSortedMap(null),
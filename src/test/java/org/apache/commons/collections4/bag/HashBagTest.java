@@ -16,7 +16,17 @@
  */
 package org.apache.commons.collections4.bag;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import org.apache.commons.collections4.Bag;
+import org.apache.commons.collections4.ElementCodec;
+import org.junit.jupiter.api.Test;
 
 /**
  * Extension of {@link AbstractBagTest} for exercising the {@link HashBag}
@@ -44,6 +54,37 @@ public class HashBagTest<T> extends AbstractBagTest<T> {
         return UNORDERED;
     }
 
+    @Test
+    public void testCodecRoundTrip() throws IOException {
+        final ElementCodec<Integer> codec = new ElementCodec<Integer>() {
+            @Override
+            public void write(final Integer element, final DataOutput out) throws IOException {
+                out.writeInt(element);
+            }
+
+            @Override
+            public Integer read(final DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+        final HashBag<Integer> bag = new HashBag<>();
+        for (int i = 0; i < 100; i++) {
+            bag.add(i, i % 7 + 1);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bag.writeTo(new DataOutputStream(bytes), codec);
+
+        final HashBag<Integer> read = new HashBag<>();
+        read.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), codec);
+        assertEquals(bag, read);
+        assertEquals(bag.size(), read.size());
+
+        // reading into a bag that is not empty adds the counts
+        read.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), codec);
+        assertEquals(bag.size() * 2, read.size());
+        assertEquals(2 * bag.getCount(6), read.getCount(6));
+    }
+
 //    public void testCreate() throws Exception {
 //        Bag<T> bag = makeObject();
 //        writeExternalFormToDisk((java.io.Serializable) bag, "src/test/resources/data/test/HashBag.emptyCollection.version4.obj");
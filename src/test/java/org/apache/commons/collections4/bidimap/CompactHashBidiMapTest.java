@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.collection.AbstractCollectionTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class CompactHashBidiMapTest<K, V> extends AbstractBidiMapTest<K, V> {
+
+    public CompactHashBidiMapTest() {
+        super(CompactHashBidiMapTest.class.getSimpleName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompactHashBidiMap<K, V> makeObject() {
+        return new CompactHashBidiMap<>();
+    }
+
+    /**
+     * Override to prevent infinite recursion of tests.
+     */
+    @Override
+    public String[] ignoredTests() {
+        return new String[] { "CompactHashBidiMapTest.bulkTestInverseMap.bulkTestInverseMap" };
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return AbstractCollectionTest.UNORDERED;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testInverseIsView() {
+        final CompactHashBidiMap<String, Integer> map = new CompactHashBidiMap<>();
+        final BidiMap<Integer, String> inverse = map.inverseBidiMap();
+        map.put("a", 1);
+        inverse.put(2, "b");
+        inverse.put(1, "c");
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(1), map.get("c"));
+        assertNull(map.get("a"));
+        assertEquals("b", inverse.get(2));
+        inverse.put(2, "c");
+        assertEquals(1, map.size());
+        assertEquals(Integer.valueOf(2), map.get("c"));
+        assertEquals("c", map.getKey(2));
+    }
+
+    @Test
+    public void testNulls() {
+        final CompactHashBidiMap<String, Integer> map = new CompactHashBidiMap<>();
+        map.put(null, 1);
+        map.put("a", null);
+        assertEquals(Integer.valueOf(1), map.get(null));
+        assertNull(map.getKey(1));
+        assertEquals("a", map.getKey(null));
+        assertTrue(map.containsValue(null));
+        assertEquals("a", map.removeValue(null));
+        assertFalse(map.containsKey("a"));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final CompactHashBidiMap<Integer, Integer> map = new CompactHashBidiMap<>(0);
+        final Map<Integer, Integer> forward = new HashMap<>();
+        final Map<Integer, Integer> reverse = new HashMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            final Integer key = random.nextInt(500);
+            final Integer value = random.nextInt(500);
+            switch (random.nextInt(4)) {
+            case 0:
+            case 1:
+                if (forward.containsKey(key)) {
+                    reverse.remove(forward.get(key));
+                }
+                if (reverse.containsKey(value)) {
+                    forward.remove(reverse.get(value));
+                }
+                assertEquals(forward.put(key, value), map.put(key, value));
+                reverse.put(value, key);
+                break;
+            case 2:
+                final Integer removed = forward.remove(key);
+                if (removed != null) {
+                    reverse.remove(removed);
+                }
+                assertEquals(removed, map.remove(key));
+                break;
+            default:
+                final Integer removedKey = reverse.remove(value);
+                if (removedKey != null) {
+                    forward.remove(removedKey);
+                }
+                assertEquals(removedKey, map.removeValue(value));
+                break;
+            }
+        }
+        assertEquals(forward, map);
+        assertEquals(reverse, map.inverseBidiMap());
+        for (final Map.Entry<Integer, Integer> entry : forward.entrySet()) {
+            assertEquals(entry.getKey(), map.getKey(entry.getValue()));
+        }
+    }
+
+    @Test
+    public void testEntrySetValueWhileIterating() {
+        final CompactHashBidiMap<Integer, String> map = new CompactHashBidiMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "v" + i);
+        }
+        int visited = 0;
+        for (final Map.Entry<Integer, String> entry : map.entrySet()) {
+            assertEquals("v" + entry.getKey(), entry.setValue("w" + entry.getKey()));
+            visited++;
+        }
+        assertEquals(100, visited);
+        visited = 0;
+        for (final Map.Entry<String, Integer> entry : map.inverseBidiMap().entrySet()) {
+            entry.setValue(entry.getValue() + 100);
+            visited++;
+        }
+        assertEquals(100, visited);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("w" + i, map.get(i + 100));
+            assertEquals(Integer.valueOf(i + 100), map.getKey("w" + i));
+        }
+        assertEquals(100, map.size());
+    }
+
+    @Test
+    public void testIteratorRemoveVisitsMovedPair() {
+        final CompactHashBidiMap<Integer, String> map = new CompactHashBidiMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "v" + i);
+        }
+        int visited = 0;
+        for (final MapIterator<Integer, String> it = map.mapIterator(); it.hasNext();) {
+            final Integer key = it.next();
+            visited++;
+            if (key % 3 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(100, visited);
+        assertEquals(66, map.size());
+        final Iterator<String> values = map.values().iterator();
+        while (values.hasNext()) {
+            if (values.next().endsWith("1")) {
+                values.remove();
+            }
+        }
+        for (final Map.Entry<Integer, String> entry : map.entrySet()) {
+            assertTrue(entry.getKey() % 3 != 0);
+            assertFalse(entry.getValue().endsWith("1"));
+            assertEquals(entry.getKey(), map.getKey(entry.getValue()));
+        }
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.collection.AbstractCollectionTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class ConcurrentHashBidiMapTest<K, V> extends AbstractBidiMapTest<K, V> {
+
+    public ConcurrentHashBidiMapTest() {
+        super(ConcurrentHashBidiMapTest.class.getSimpleName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConcurrentHashBidiMap<K, V> makeObject() {
+        return new ConcurrentHashBidiMap<>();
+    }
+
+    /**
+     * Override to prevent infinite recursion of tests.
+     */
+    @Override
+    public String[] ignoredTests() {
+        return new String[] { "ConcurrentHashBidiMapTest.bulkTestInverseMap.bulkTestInverseMap" };
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return AbstractCollectionTest.UNORDERED;
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public boolean isAllowNullValue() {
+        return false;
+    }
+
+    @Override
+    public boolean isFailFastExpected() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testInverseIsView() {
+        final ConcurrentHashBidiMap<String, Integer> map = new ConcurrentHashBidiMap<>();
+        final BidiMap<Integer, String> inverse = map.inverseBidiMap();
+        map.put("a", 1);
+        inverse.put(2, "b");
+        inverse.put(1, "c");
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(1), map.get("c"));
+        assertNull(map.get("a"));
+        assertSame(map, inverse.inverseBidiMap());
+        inverse.put(2, "c");
+        assertEquals(1, map.size());
+        assertEquals("c", map.getKey(2));
+        assertNull(inverse.get(1));
+    }
+
+    @Test
+    public void testConcurrentMapMethods() {
+        final ConcurrentHashBidiMap<String, Integer> map = new ConcurrentHashBidiMap<>();
+        assertNull(map.putIfAbsent("a", 1));
+        assertEquals(Integer.valueOf(1), map.putIfAbsent("a", 2));
+        assertNull(map.putIfAbsent("b", 1));
+        assertNull(map.get("a"));
+        assertEquals("b", map.getKey(1));
+
+        assertFalse(map.replace("b", 2, 3));
+        assertTrue(map.replace("b", 1, 3));
+        assertEquals("b", map.getKey(3));
+        assertNull(map.getKey(1));
+        assertNull(map.replace("a", 4));
+        assertFalse(map.containsKey("a"));
+
+        assertFalse(map.remove("b", 4));
+        assertTrue(map.remove("b", 3));
+        assertTrue(map.isEmpty());
+        assertTrue(map.inverseBidiMap().isEmpty());
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+        assertThrows(NullPointerException.class, () -> map.put("a", null));
+    }
+
+    @Test
+    public void testViewsKeepBothDirections() {
+        final ConcurrentHashBidiMap<String, Integer> map = new ConcurrentHashBidiMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put("k" + i, i);
+        }
+        map.values().remove(3);
+        assertFalse(map.containsKey("k3"));
+        map.entrySet().remove(new AbstractMap.SimpleEntry<>("k4", 4));
+        assertNull(map.getKey(4));
+        for (final Iterator<String> it = map.keySet().iterator(); it.hasNext();) {
+            if (it.next().equals("k5")) {
+                it.remove();
+            }
+        }
+        assertNull(map.getKey(5));
+        final MapIterator<String, Integer> it = map.mapIterator();
+        while (it.hasNext()) {
+            if (it.next().equals("k6")) {
+                assertThrows(IllegalArgumentException.class, () -> it.setValue(7));
+                assertEquals(Integer.valueOf(6), it.setValue(60));
+            }
+        }
+        assertEquals("k6", map.getKey(60));
+        assertNull(map.getKey(6));
+        for (final Map.Entry<String, Integer> entry : map.entrySet()) {
+            if (entry.getKey().equals("k7")) {
+                entry.setValue(70);
+            }
+        }
+        assertEquals("k7", map.getKey(70));
+        assertEquals(7, map.size());
+        assertEquals(7, map.inverseBidiMap().size());
+    }
+
+    @Test
+    public void testConcurrentPutsKeepOneToOne() throws Exception {
+        final ConcurrentHashBidiMap<Integer, Integer> map = new ConcurrentHashBidiMap<>();
+        final int threads = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            writers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 20000; i++) {
+                        final int key = random.nextInt(64);
+                        final int value = random.nextInt(64);
+                        switch (random.nextInt(4)) {
+                        case 0:
+                            map.remove(key);
+                            break;
+                        case 1:
+                            map.inverseBidiMap().put(value, key);
+                            break;
+                        default:
+                            map.put(key, value);
+                            break;
+                        }
+                    }
+                } catch (final Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        final Thread reader = new Thread(() -> {
+            final Random random = new Random();
+            while (writing.get()) {
+                final Integer value = map.get(random.nextInt(64));
+                if (value != null) {
+                    map.getKey(value);
+                }
+            }
+        });
+        reader.start();
+        writers.forEach(Thread::start);
+        start.countDown();
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        reader.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(map.size(), map.inverseBidiMap().size());
+        for (final Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            assertEquals(entry.getKey(), map.getKey(entry.getValue()));
+        }
+    }
+
+    @Test
+    public void testLookupsDoNotWaitForWriters() throws Exception {
+        final ConcurrentHashBidiMap<String, Object> map = new ConcurrentHashBidiMap<>();
+        map.put("a", "1");
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // hashing this value holds up the put that stores it while it owns the lock
+        final Object slow = new Object() {
+            @Override
+            public int hashCode() {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0;
+            }
+        };
+        final Thread writer = new Thread(() -> map.put("b", slow));
+        writer.start();
+        try {
+            writing.await();
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertEquals("1", map.get("a"));
+                assertEquals("a", map.getKey("1"));
+                assertTrue(map.containsValue("1"));
+                assertNull(map.get("b"));
+            });
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+        assertSame(slow, map.get("b"));
+        assertEquals("b", map.getKey(slow));
+    }
+
+}
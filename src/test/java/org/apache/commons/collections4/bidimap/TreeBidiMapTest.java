@@ -16,9 +16,20 @@
  */
 package org.apache.commons.collections4.bidimap;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
 import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.BidiMap;
+import org.junit.jupiter.api.Test;
 
 /**
  * JUnit tests.
@@ -75,4 +86,113 @@ public class TreeBidiMapTest<K extends Comparable<K>, V extends Comparable<V>> e
 //        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/TreeBidiMap.fullCollection.version4.obj");
 //    }
 
+    private static void assertSameMappings(final Map<Integer, String> expected, final TreeBidiMap<Integer, String> map) {
+        assertEquals(expected, map);
+        assertEquals(new ArrayList<>(new TreeMap<>(expected).keySet()), new ArrayList<>(map.keySet()));
+        final TreeMap<String, Integer> inverse = new TreeMap<>();
+        expected.forEach((k, v) -> inverse.put(v, k));
+        assertEquals(new ArrayList<>(inverse.keySet()), new ArrayList<>(map.inverseBidiMap().keySet()));
+        assertEquals(inverse, map.inverseBidiMap());
+    }
+
+    @Test
+    public void testBulkLoad() {
+        final Random random = new Random(7);
+        for (final int size : new int[] {0, 1, 2, 3, 7, 8, 100, 1000}) {
+            final List<Integer> keys = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                keys.add(i * 3);
+            }
+            Collections.shuffle(keys, random);
+            final Map<Integer, String> source = new LinkedHashMap<>();
+            for (final Integer key : keys) {
+                source.put(key, String.format("%08d", random.nextInt(1000000) * 1000 + key));
+            }
+            final TreeBidiMap<Integer, String> sequential = new TreeBidiMap<>(source, false);
+            final TreeBidiMap<Integer, String> parallel = new TreeBidiMap<>(new TreeMap<>(source), true);
+            final TreeBidiMap<Integer, String> putAll = new TreeBidiMap<>();
+            putAll.putAll(source);
+            assertSameMappings(source, sequential);
+            assertSameMappings(source, parallel);
+            assertSameMappings(source, putAll);
+
+            // the built trees must stay valid under later modifications
+            for (int i = 0; i < size * 2; i++) {
+                final Integer key = random.nextInt(size * 3 + 1);
+                if (random.nextBoolean()) {
+                    sequential.remove(key);
+                    source.remove(key);
+                } else {
+                    final String value = "v" + key;
+                    sequential.put(key, value);
+                    source.values().remove(value);
+                    source.put(key, value);
+                }
+            }
+            assertSameMappings(source, sequential);
+        }
+    }
+
+    @Test
+    public void testBulkLoadWithDuplicateValues() {
+        final Map<Integer, String> source = new LinkedHashMap<>();
+        source.put(3, "a");
+        source.put(1, "b");
+        source.put(2, "a");
+        final TreeBidiMap<Integer, String> map = new TreeBidiMap<>(source);
+        final Map<Integer, String> expected = new HashMap<>();
+        expected.put(1, "b");
+        expected.put(2, "a");
+        assertSameMappings(expected, map);
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testViewSpliterators() {
+        final TreeBidiMap<Integer, String> map = new TreeBidiMap<>();
+        final Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            map.put(random.nextInt(5000), String.format("%08d", random.nextInt(100000000)));
+        }
+        final BidiMap<String, Integer> inverse = map.inverseBidiMap();
+        assertSplitsInOrder(map.keySet(), true);
+        assertSplitsInOrder(map.values(), false);
+        assertSplitsInOrder(map.entrySet(), false);
+        assertSplitsInOrder(inverse.keySet(), true);
+        assertSplitsInOrder(inverse.values(), false);
+        assertSplitsInOrder(inverse.entrySet(), false);
+        assertEquals(new ArrayList<>(map.keySet()), map.keySet().parallelStream().collect(Collectors.toList()));
+        assertEquals(map, map.entrySet().parallelStream().collect(
+                Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        assertEquals(inverse, inverse.entrySet().parallelStream().collect(
+                Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+
+    private static <E> void assertSplitsInOrder(final Collection<E> view, final boolean sorted) {
+        final Spliterator<E> spliterator = view.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.DISTINCT | Spliterator.ORDERED));
+        assertEquals(sorted, spliterator.hasCharacteristics(Spliterator.SORTED));
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        assertEquals(view.size(), spliterator.estimateSize());
+        final List<E> actual = new ArrayList<>();
+        final int splits = splitAndCollect(spliterator, actual);
+        assertEquals(new ArrayList<>(view), actual);
+        assertTrue(splits > 5);
+    }
+
+    private static <E> int splitAndCollect(final Spliterator<E> spliterator, final List<E> result) {
+        final long estimate = spliterator.estimateSize();
+        final Spliterator<E> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            spliterator.forEachRemaining(result::add);
+            return 0;
+        }
+        // the parts of a split are not sized, and estimate half of the size before it
+        assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(estimate >>> 1, prefix.estimateSize());
+        assertEquals(estimate >>> 1, spliterator.estimateSize());
+        return 1 + splitAndCollect(prefix, result) + splitAndCollect(spliterator, result);
+    }
+
 }
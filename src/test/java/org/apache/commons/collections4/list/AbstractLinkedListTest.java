@@ -18,7 +18,12 @@ package org.apache.commons.collections4.list;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
@@ -162,6 +167,40 @@ public abstract class AbstractLinkedListTest<E> extends AbstractListTest<E> {
                 "Expecting IndexOutOfBoundsException.");
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSpliterator() {
+        resetEmpty();
+        final AbstractLinkedList<E> list = getCollection();
+        final List<E> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            expected.add((E) ("value" + i));
+        }
+        list.addAll(expected);
+
+        final Spliterator<E> spliterator = list.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(5000, spliterator.estimateSize());
+        final List<E> actual = new ArrayList<>();
+        final Spliterator<E> first = spliterator.trySplit();
+        final Spliterator<E> second = spliterator.trySplit();
+        assertEquals(1024, first.estimateSize());
+        assertEquals(2048, second.estimateSize());
+        assertEquals(5000 - 1024 - 2048, spliterator.estimateSize());
+        first.forEachRemaining(actual::add);
+        while (second.tryAdvance(actual::add)) {
+            // continue
+        }
+        spliterator.forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+        assertEquals(expected, list.parallelStream().collect(Collectors.toList()));
+
+        final Spliterator<E> failFast = list.spliterator();
+        assertEquals(5000, failFast.estimateSize());
+        list.add((E) "value");
+        assertThrows(ConcurrentModificationException.class, () -> failFast.tryAdvance(e -> { }));
+    }
+
     protected void checkNodes() {
         final AbstractLinkedList<E> list = getCollection();
         for (int i = 0; i < list.size; i++) {
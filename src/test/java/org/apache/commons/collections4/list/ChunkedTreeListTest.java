@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class ChunkedTreeListTest<E> extends AbstractListTest<E> {
+
+    public ChunkedTreeListTest() {
+        super(ChunkedTreeListTest.class.getSimpleName());
+    }
+
+    @Override
+    public ChunkedTreeList<E> makeObject() {
+        return new ChunkedTreeList<>();
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testRandomOperations() {
+        final Random random = new Random(17);
+        final List<Integer> expected = new ArrayList<>();
+        final ChunkedTreeList<Integer> list = new ChunkedTreeList<>();
+        for (int round = 0; round < 4; round++) {
+            // grow to several levels, then shrink back
+            final int target = round % 2 == 0 ? 80000 : 500;
+            while (Math.abs(expected.size() - target) > 100) {
+                final boolean grow = expected.size() < target ? random.nextInt(4) != 0 : random.nextInt(4) == 0;
+                if (grow) {
+                    final int index = random.nextInt(5) == 0 ? expected.size() : random.nextInt(expected.size() + 1);
+                    expected.add(index, index);
+                    list.add(index, index);
+                } else {
+                    final int index = random.nextInt(expected.size());
+                    assertEquals(expected.remove(index), list.remove(index));
+                }
+            }
+            assertEquals(expected.size(), list.size());
+            for (int i = 0; i < 1000; i++) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+            }
+            assertEquals(expected, list);
+            assertTrue(Arrays.equals(expected.toArray(), list.toArray()));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testListIteratorAcrossLeaves() {
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            expected.add(i);
+        }
+        final ChunkedTreeList<Integer> list = new ChunkedTreeList<>(expected);
+        assertEquals(expected, list);
+
+        ListIterator<Integer> it = list.listIterator(list.size());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), it.previous());
+        }
+        assertFalse(it.hasPrevious());
+
+        // remove every other element and add a marker after every tenth
+        it = list.listIterator();
+        final ListIterator<Integer> expectedIt = expected.listIterator();
+        while (it.hasNext()) {
+            final Integer value = it.next();
+            assertEquals(expectedIt.next(), value);
+            if (value % 2 == 0) {
+                it.remove();
+                expectedIt.remove();
+            } else if (value % 10 == 1) {
+                it.set(-value);
+                expectedIt.set(-value);
+                it.add(value);
+                expectedIt.add(value);
+            }
+        }
+        assertEquals(expected, list);
+        while (it.hasPrevious()) {
+            assertEquals(expectedIt.previous(), it.previous());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testAddAllBuildsLeaves() {
+        final ChunkedTreeList<Object> list = new ChunkedTreeList<>();
+        final List<String> strings = Arrays.asList(new String[] {"a", "b", "c"});
+        assertTrue(list.addAll(strings));
+        // the leaf array must accept any element, not only the type of the copied array
+        list.add(1, 1);
+        list.set(0, 2);
+        assertEquals(Arrays.asList(2, 1, "b", "c"), list);
+        final List<Integer> more = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            more.add(i);
+        }
+        assertTrue(list.addAll(more));
+        assertEquals(1004, list.size());
+        assertEquals(999, list.get(1003));
+        list.clear();
+        assertFalse(list.addAll(new ArrayList<>()));
+        assertTrue(list.isEmpty());
+    }
+
+}
@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,6 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -1413,6 +1415,101 @@ public class CursorableLinkedListTest<E> extends AbstractLinkedListTest<E> {
         assertEquals(5, elts4b.length);
     }
 
+    @Test
+    public void testClosedCursorKeepsItsState() {
+        final CursorableLinkedList<String> letters = new CursorableLinkedList<>(Arrays.asList("a", "b", "c", "d"));
+        final CursorableLinkedList.Cursor<String> cursor = letters.cursor(1);
+        cursor.close();
+        letters.remove(1);
+        assertEquals(1, cursor.nextIndex());
+
+        final CursorableLinkedList.Cursor<String> subCursor =
+                (CursorableLinkedList.Cursor<String>) letters.subList(0, 2).listIterator(1);
+        subCursor.close();
+        letters.remove(1);
+        assertEquals(1, subCursor.nextIndex());
+        assertTrue(subCursor.hasPrevious());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testManyCursorsFollowModifications() {
+        final Random random = new Random(45);
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            list.add((E) Integer.valueOf(i));
+            expected.add(i);
+        }
+        final List<CursorableLinkedList.Cursor<E>> cursors = new ArrayList<>();
+        final List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final int index = random.nextInt(expected.size() + 1);
+            cursors.add(list.cursor(index));
+            positions.add(index);
+        }
+        for (int step = 0, value = 1000; step < 5000; step++) {
+            final int c = random.nextInt(cursors.size());
+            final CursorableLinkedList.Cursor<E> cursor = cursors.get(c);
+            final int position = positions.get(c);
+            switch (random.nextInt(6)) {
+            case 0:
+                final int insert = random.nextInt(expected.size() + 1);
+                list.add(insert, (E) Integer.valueOf(value));
+                expected.add(insert, value++);
+                for (int j = 0; j < positions.size(); j++) {
+                    if (positions.get(j) > insert) {
+                        positions.set(j, positions.get(j) + 1);
+                    }
+                }
+                break;
+            case 1:
+                if (!expected.isEmpty()) {
+                    final int remove = random.nextInt(expected.size());
+                    assertEquals(expected.remove(remove), list.remove(remove));
+                    for (int j = 0; j < positions.size(); j++) {
+                        if (positions.get(j) > remove) {
+                            positions.set(j, positions.get(j) - 1);
+                        }
+                    }
+                }
+                break;
+            case 2:
+                cursor.add((E) Integer.valueOf(value));
+                expected.add(position, value++);
+                for (int j = 0; j < positions.size(); j++) {
+                    if (j == c || positions.get(j) > position) {
+                        positions.set(j, positions.get(j) + 1);
+                    }
+                }
+                break;
+            case 3:
+                // replaced without closing, left to the garbage collector
+                final int index = random.nextInt(expected.size() + 1);
+                if (random.nextBoolean()) {
+                    cursor.close();
+                }
+                cursors.set(c, list.cursor(index));
+                positions.set(c, index);
+                break;
+            default:
+                if (position < expected.size()) {
+                    assertEquals(expected.get(position), cursor.next());
+                    positions.set(c, position + 1);
+                }
+                break;
+            }
+            assertEquals(positions.get(c).intValue(), cursors.get(c).nextIndex());
+        }
+        assertEquals(expected, list);
+        for (int c = 0; c < cursors.size(); c++) {
+            final CursorableLinkedList.Cursor<E> cursor = cursors.get(c);
+            assertEquals(positions.get(c).intValue(), cursor.nextIndex());
+            if (positions.get(c) < expected.size()) {
+                assertEquals(expected.get(positions.get(c)), cursor.next());
+            }
+        }
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testSerialization() throws Exception {
@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class IndexedSetUniqueListTest<E> extends AbstractListTest<E> {
+
+    public IndexedSetUniqueListTest() {
+        super(IndexedSetUniqueListTest.class.getSimpleName());
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E[] getFullNonNullElements() {
+        // override to avoid duplicate "One"
+        return (E[]) new Object[] {
+            "",
+            "One",
+            Integer.valueOf(2),
+            "Three",
+            Integer.valueOf(4),
+            Double.valueOf(5),
+            Float.valueOf(6),
+            "Seven",
+            "Eight",
+            "Nine",
+            Integer.valueOf(10),
+            Short.valueOf((short) 11),
+            Long.valueOf(12),
+            "Thirteen",
+            "14",
+            "15",
+            Byte.valueOf((byte) 16)
+        };
+    }
+
+    @Override
+    public IndexedSetUniqueList<E> makeObject() {
+        return new IndexedSetUniqueList<>();
+    }
+
+    @Test
+    @Override
+    public void testCollectionAddAll() {
+        // override for set behavior
+        resetEmpty();
+        E[] elements = getFullElements();
+        boolean r = getCollection().addAll(Arrays.asList(elements));
+        getConfirmed().addAll(Arrays.asList(elements));
+        verify();
+        assertTrue("Empty collection should change after addAll", r);
+
+        resetFull();
+        final int size = getCollection().size();
+        elements = getOtherElements();
+        r = getCollection().addAll(Arrays.asList(elements));
+        getConfirmed().addAll(Arrays.asList(elements));
+        verify();
+        assertTrue("Full collection should change after addAll", r);
+        assertEquals("Size should increase after addAll",
+                size + elements.length, getCollection().size());
+    }
+
+    @Test
+    @Override
+    public void testListIteratorAdd() {
+        // override to cope with Set behavior
+        resetEmpty();
+        final E[] elements = getOtherElements();
+        ListIterator<E> iter1 = getCollection().listIterator();
+        ListIterator<E> iter2 = getConfirmed().listIterator();
+        for (final E element : elements) {
+            iter1.add(element);
+            iter2.add(element);
+            super.verify();
+        }
+
+        resetFull();
+        iter1 = getCollection().listIterator();
+        iter2 = getConfirmed().listIterator();
+        for (final E element : elements) {
+            iter1.next();
+            iter2.next();
+            iter1.add(element);
+            iter2.add(element);
+            super.verify();
+        }
+    }
+
+    @Test
+    @Override
+    public void testListIteratorSet() {
+        // override to block
+        resetFull();
+        final ListIterator<E> it = getCollection().listIterator();
+        it.next();
+        assertThrows(UnsupportedOperationException.class, () -> it.set(null));
+    }
+
+    @Test
+    @Override
+    @SuppressWarnings("unchecked")
+    public void testListSetByIndex() {
+        // override for set behavior
+        resetFull();
+        final int size = getCollection().size();
+        getCollection().set(0, (E) Long.valueOf(1000));
+        assertEquals(size, getCollection().size());
+
+        getCollection().set(2, (E) Long.valueOf(1000));
+        assertEquals(size - 1, getCollection().size());
+        assertEquals(Long.valueOf(1000), getCollection().get(1));  // set into 2, but shifted down to 1
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDuplicatesRejected() {
+        final IndexedSetUniqueList<E> list = makeObject();
+        final E one = (E) Integer.valueOf(1);
+        final E two = (E) Integer.valueOf(2);
+        assertTrue(list.add(one));
+        assertFalse(list.add(one));
+        list.add(0, one);
+        assertFalse(list.addAll(Arrays.asList(one, one)));
+        assertTrue(list.addAll(0, Arrays.asList(two, one, two)));
+        assertEquals(Arrays.asList(two, one), list);
+        assertEquals(2, list.asSet().size());
+        assertThrows(UnsupportedOperationException.class, () -> list.asSet().remove(one));
+        assertThrows(UnsupportedOperationException.class, () -> list.subList(0, 1).remove(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSetRemovesDuplicate() {
+        final IndexedSetUniqueList<E> list = makeObject();
+        final E a = (E) "A";
+        final E b = (E) "B";
+        final E c = (E) "C";
+        list.addAll(Arrays.asList(a, b, c));
+        assertEquals(b, list.set(1, a));
+        assertEquals(Arrays.asList(a, c), list);
+        assertEquals(0, list.indexOf(a));
+        assertEquals(1, list.indexOf(c));
+        assertEquals(-1, list.indexOf(b));
+        assertFalse(list.contains(b));
+
+        assertEquals(a, list.set(0, a));
+        assertEquals(Arrays.asList(a, c), list);
+        assertEquals(a, list.set(0, c));
+        assertEquals(Arrays.asList(c), list);
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testRandomOperationsMatchSetUniqueList() {
+        final Random random = new Random(46);
+        final List<Integer> expected = SetUniqueList.setUniqueList(new ArrayList<>());
+        final IndexedSetUniqueList<Integer> list = new IndexedSetUniqueList<>();
+        for (int i = 0; i < 20000; i++) {
+            final Integer value = random.nextInt(2000);
+            switch (random.nextInt(6)) {
+            case 0:
+                assertEquals(expected.add(value), list.add(value));
+                break;
+            case 1:
+                final int insert = random.nextInt(expected.size() + 1);
+                expected.add(insert, value);
+                list.add(insert, value);
+                break;
+            case 2:
+                assertEquals(expected.remove(value), list.remove(value));
+                break;
+            case 3:
+                if (!expected.isEmpty()) {
+                    final int remove = random.nextInt(expected.size());
+                    assertEquals(expected.remove(remove), list.remove(remove));
+                }
+                break;
+            case 4:
+                if (!expected.isEmpty()) {
+                    final int set = random.nextInt(expected.size());
+                    assertEquals(expected.set(set, value), list.set(set, value));
+                }
+                break;
+            default:
+                assertEquals(expected.indexOf(value), list.indexOf(value));
+                assertEquals(expected.contains(value), list.contains(value));
+                break;
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, list.indexOf(expected.get(i)));
+            assertEquals(expected.get(i), list.get(i));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testListIteratorRemoveBothDirections() {
+        final IndexedSetUniqueList<Integer> list = new IndexedSetUniqueList<>();
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+            expected.add(i);
+        }
+        final ListIterator<Integer> it = list.listIterator(50);
+        final ListIterator<Integer> confirmed = expected.listIterator(50);
+        while (it.hasPrevious()) {
+            assertEquals(confirmed.previous(), it.previous());
+            if (it.previousIndex() % 3 == 0) {
+                it.remove();
+                confirmed.remove();
+            }
+        }
+        while (it.hasNext()) {
+            assertEquals(confirmed.next(), it.next());
+            if (it.nextIndex() % 2 == 0) {
+                it.remove();
+                confirmed.remove();
+            }
+            assertEquals(confirmed.nextIndex(), it.nextIndex());
+        }
+        assertEquals(expected, list);
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/data/test/IndexedSetUniqueList.emptyCollection.version4.5.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/data/test/IndexedSetUniqueList.fullCollection.version4.5.obj");
+//    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class PersistentTreeListTest<E> extends AbstractListTest<E> {
+
+    public PersistentTreeListTest() {
+        super(PersistentTreeListTest.class.getSimpleName());
+    }
+
+    @Override
+    public PersistentTreeList<E> makeObject() {
+        return PersistentTreeList.empty();
+    }
+
+    @Override
+    public PersistentTreeList<E> makeFullCollection() {
+        return PersistentTreeList.of(Arrays.asList(getFullElements()));
+    }
+
+    @Override
+    public boolean isSetSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Test
+    public void testListMethodsUnsupported() {
+        final PersistentTreeList<Integer> list = PersistentTreeList.of(Arrays.asList(1, 2, 3));
+        final List<Integer> none = Collections.emptyList();
+        assertAll(
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.add(4)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.add(0, 4)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.addAll(none)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.addAll(0, none)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.set(0, 4)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.remove(0)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.remove(Integer.valueOf(9))),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.removeAll(none)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.retainAll(none)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.removeIf(e -> false)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.replaceAll(e -> e)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.sort(null)),
+                () -> assertThrows(UnsupportedOperationException.class, () -> PersistentTreeList.empty().clear()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> list.iterator().remove())
+        );
+        assertEquals(Arrays.asList(1, 2, 3), list);
+    }
+
+    @Test
+    public void testVersionsAreIndependent() {
+        final PersistentTreeList<String> empty = PersistentTreeList.empty();
+        final PersistentTreeList<String> ab = empty.plus("a").plus("b");
+        final PersistentTreeList<String> acb = ab.plus(1, "c");
+        final PersistentTreeList<String> axb = acb.with(1, "x");
+        final PersistentTreeList<String> xb = axb.minus(0);
+        assertTrue(empty.isEmpty());
+        assertEquals(Arrays.asList("a", "b"), ab);
+        assertEquals(Arrays.asList("a", "c", "b"), acb);
+        assertEquals(Arrays.asList("a", "x", "b"), axb);
+        assertEquals(Arrays.asList("x", "b"), xb);
+        assertSame(PersistentTreeList.empty(), xb.minus(0).minus(0));
+        assertSame(xb, PersistentTreeList.of(xb));
+        assertThrows(IndexOutOfBoundsException.class, () -> ab.with(2, "y"));
+        assertThrows(IndexOutOfBoundsException.class, () -> ab.plus(3, "y"));
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.minus(0));
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testRandomVersionsMatchArrayList() {
+        final Random random = new Random(48);
+        final List<List<Integer>> expected = new ArrayList<>();
+        final List<PersistentTreeList<Integer>> versions = new ArrayList<>();
+        expected.add(new ArrayList<>());
+        versions.add(PersistentTreeList.empty());
+        for (int step = 0; step < 5000; step++) {
+            // derive from a recent version, keeping the older ones
+            final int from = versions.size() - 1 - random.nextInt(Math.min(versions.size(), 5));
+            final List<Integer> copy = new ArrayList<>(expected.get(from));
+            final PersistentTreeList<Integer> version = versions.get(from);
+            final PersistentTreeList<Integer> derived;
+            final int operation = copy.isEmpty() ? 0 : random.nextInt(4);
+            if (operation == 0) {
+                final int index = random.nextInt(copy.size() + 1);
+                copy.add(index, step);
+                derived = version.plus(index, step);
+            } else if (operation == 1) {
+                copy.add(step);
+                derived = version.plus(step);
+            } else if (operation == 2) {
+                final int index = random.nextInt(copy.size());
+                copy.set(index, step);
+                derived = version.with(index, step);
+            } else {
+                final int index = random.nextInt(copy.size());
+                copy.remove(index);
+                derived = version.minus(index);
+            }
+            expected.add(copy);
+            versions.add(derived);
+        }
+        for (int i = 0; i < versions.size(); i += 97) {
+            assertEquals(expected.get(i), versions.get(i));
+            final List<Integer> list = expected.get(i);
+            for (int j = 0; j < list.size(); j += 7) {
+                assertEquals(list.get(j), versions.get(i).get(j));
+            }
+        }
+        final List<Integer> last = expected.get(expected.size() - 1);
+        assertEquals(last, PersistentTreeList.of(last));
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class SparseListTest<E> extends AbstractListTest<E> {
+
+    public SparseListTest() {
+        super(SparseListTest.class.getSimpleName());
+    }
+
+    @Override
+    public SparseList<E> makeObject() {
+        return new SparseList<>();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    /**
+     * Override, as the list grows when adding beyond its end.
+     */
+    @Test
+    @Override
+    public void testListAddByIndexBoundsChecking() {
+        final List<E> list = makeObject();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(-1, getOtherElements()[0]));
+    }
+
+    /**
+     * Override, as the list grows when adding beyond its end.
+     */
+    @Test
+    @Override
+    public void testListAddByIndexBoundsChecking2() {
+        final List<E> list = makeFullCollection();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(-1, getOtherElements()[0]));
+    }
+
+    /**
+     * Override, as the list grows when setting beyond its end.
+     */
+    @Test
+    @Override
+    public void testListSetByIndexBoundsChecking() {
+        final List<E> list = makeObject();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, getOtherElements()[0]));
+    }
+
+    /**
+     * Override, as the list grows when setting beyond its end.
+     */
+    @Test
+    @Override
+    public void testListSetByIndexBoundsChecking2() {
+        final List<E> list = makeFullCollection();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, getOtherElements()[0]));
+    }
+
+    @Test
+    public void testGrowth() {
+        final SparseList<String> list = new SparseList<>();
+        assertNull(list.set(10_000_000, "x"));
+        assertEquals(10_000_001, list.size());
+        assertEquals(1, list.populatedSize());
+        assertNull(list.get(0));
+        assertEquals("x", list.get(10_000_000));
+        list.add(20_000_000, "y");
+        assertEquals(20_000_001, list.size());
+        assertTrue(list.addAll(30_000_000, Arrays.asList("z", null)));
+        assertEquals(30_000_002, list.size());
+        assertEquals(3, list.populatedSize());
+        assertEquals(30_000_000, list.indexOf("z"));
+        assertEquals(0, list.indexOf(null));
+        assertEquals(30_000_001, list.lastIndexOf(null));
+
+        assertEquals("x", list.set(10_000_000, null));
+        assertEquals(2, list.populatedSize());
+        assertEquals(-1, list.indexOf("x"));
+        list.remove(0);
+        assertEquals(19_999_999, list.indexOf("y"));
+        list.subList(0, 19_999_999).clear();
+        assertEquals(Arrays.asList("y"), list.subList(0, 1));
+        assertEquals(10_000_002, list.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(10_000_002));
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testPopulatedIndices() {
+        final SparseList<Integer> list = new SparseList<>();
+        final int[] indices = {3, 63, 64, 200, 5000, 5001, 1_000_000};
+        for (final int index : indices) {
+            list.set(index, index);
+        }
+        final List<Integer> visited = new ArrayList<>();
+        for (int i = list.nextPopulatedIndex(0); i >= 0; i = list.nextPopulatedIndex(i + 1)) {
+            visited.add(i);
+        }
+        final List<Integer> reversed = new ArrayList<>();
+        for (int i = list.previousPopulatedIndex(list.size()); i >= 0; i = list.previousPopulatedIndex(i - 1)) {
+            reversed.add(i);
+        }
+        final List<Integer> forEach = new ArrayList<>();
+        list.forEachPopulated((element, index) -> {
+            assertEquals(element.intValue(), index);
+            forEach.add(index);
+        });
+        final List<Integer> expected = new ArrayList<>();
+        for (final int index : indices) {
+            expected.add(index);
+        }
+        assertEquals(expected, visited);
+        assertEquals(expected, forEach);
+        Collections.reverse(expected);
+        assertEquals(expected, reversed);
+        assertEquals(-1, list.nextPopulatedIndex(1_000_001));
+        assertEquals(-1, list.previousPopulatedIndex(2));
+        assertEquals(-1, list.previousPopulatedIndex(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.nextPopulatedIndex(-1));
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testRandomOperationsMatchArrayList() {
+        final Random random = new Random(47);
+        final List<Integer> expected = new ArrayList<>();
+        final SparseList<Integer> list = new SparseList<>();
+        for (int step = 0; step < 20000; step++) {
+            final Integer value = random.nextInt(4) == 0 ? null : random.nextInt(100);
+            final int index = random.nextInt(expected.size() + 10);
+            switch (random.nextInt(6)) {
+            case 0:
+                while (expected.size() <= index) {
+                    expected.add(null);
+                }
+                assertEquals(expected.set(index, value), list.set(index, value));
+                break;
+            case 1:
+                while (expected.size() < index) {
+                    expected.add(null);
+                }
+                expected.add(index, value);
+                list.add(index, value);
+                break;
+            case 2:
+                if (index < expected.size()) {
+                    assertEquals(expected.remove(index), list.remove(index));
+                }
+                break;
+            case 3:
+                if (index < expected.size()) {
+                    final int to = Math.min(expected.size(), index + random.nextInt(200));
+                    expected.subList(index, to).clear();
+                    list.subList(index, to).clear();
+                }
+                break;
+            case 4:
+                final List<Integer> values = Arrays.asList(value, 7, null);
+                while (expected.size() < index) {
+                    expected.add(null);
+                }
+                expected.addAll(index, values);
+                list.addAll(index, values);
+                break;
+            default:
+                assertEquals(expected.indexOf(value), list.indexOf(value));
+                assertEquals(expected.lastIndexOf(value), list.lastIndexOf(value));
+                break;
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, list);
+        assertEquals(expected.size() - Collections.frequency(expected, null), list.populatedSize());
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/data/test/SparseList.emptyCollection.version4.5.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/data/test/SparseList.fullCollection.version4.5.obj");
+//    }
+
+}
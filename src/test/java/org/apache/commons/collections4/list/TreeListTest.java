@@ -19,6 +19,9 @@ package org.apache.commons.collections4.list;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
@@ -328,4 +331,80 @@ public class TreeListTest<E> extends AbstractListTest<E> {
         }
     }
 
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testAddAllAtIndexAndRemoveRange() {
+        final Random random = new Random(11);
+        int next = 0;
+        for (int round = 0; round < 300; round++) {
+            final List<Integer> expected = new ArrayList<>();
+            final TreeList<Integer> l = new TreeList<>();
+            for (int op = 0; op < 20; op++) {
+                if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+                    final int from = random.nextInt(expected.size() + 1);
+                    final int to = from + random.nextInt(expected.size() - from + 1);
+                    l.subList(from, to).clear();
+                    expected.subList(from, to).clear();
+                } else {
+                    final List<Integer> block = new ArrayList<>();
+                    for (int i = random.nextInt(round + 1); i > 0; i--) {
+                        block.add(next++);
+                    }
+                    final int index = random.nextInt(expected.size() + 1);
+                    assertEquals(expected.addAll(index, block), l.addAll(index, block));
+                }
+                assertEquals(expected.size(), l.size());
+                assertEquals(expected, l);
+            }
+            final ListIterator<Integer> it = l.listIterator(l.size());
+            for (int i = expected.size() - 1; i >= 0; i--) {
+                assertEquals(expected.get(i), it.previous());
+            }
+            // the joined tree must stay valid under later single modifications
+            for (int i = 0; i < 50 && !expected.isEmpty(); i++) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), l.remove(index));
+                l.add(index / 2, next);
+                expected.add(index / 2, next++);
+            }
+            assertEquals(expected, l);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("boxing") // OK in test code
+    public void testSpliterator() {
+        final TreeList<Integer> l = new TreeList<>();
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            l.add(i);
+            expected.add(i);
+        }
+        final List<Integer> actual = new ArrayList<>();
+        splitAndCollect(l.spliterator(), actual);
+        assertEquals(expected, actual);
+        assertEquals(expected, l.parallelStream().collect(Collectors.toList()));
+        assertEquals(499500L, l.parallelStream().mapToLong(Integer::longValue).sum());
+
+        final Spliterator<Integer> spliterator = l.spliterator();
+        final Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(500, prefix.estimateSize());
+        assertEquals(500, spliterator.estimateSize());
+        assertTrue(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertTrue(spliterator.tryAdvance(i -> assertEquals(500, i.intValue())));
+        assertEquals(499, spliterator.estimateSize());
+    }
+
+    private static <E> void splitAndCollect(final Spliterator<E> spliterator, final List<E> result) {
+        final long size = spliterator.getExactSizeIfKnown();
+        final Spliterator<E> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            assertEquals(size, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+            splitAndCollect(prefix, result);
+            splitAndCollect(spliterator, result);
+        } else {
+            spliterator.forEachRemaining(result::add);
+        }
+    }
+
 }
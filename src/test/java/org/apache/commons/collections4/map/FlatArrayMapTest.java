@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.collections4.MapIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class FlatArrayMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public FlatArrayMapTest() {
+        super(FlatArrayMapTest.class.getSimpleName());
+    }
+
+    /**
+     * Uses the maximum flat capacity so that the full map stays in flat mode.
+     */
+    @Override
+    public FlatArrayMap<K, V> makeObject() {
+        return new FlatArrayMap<>(FlatArrayMap.MAXIMUM_FLAT_CAPACITY);
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testCtors() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new FlatArrayMap<K, V>(0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new FlatArrayMap<K, V>(33)),
+                () -> assertThrows(NullPointerException.class, () -> new FlatArrayMap<K, V>(null))
+        );
+        assertEquals(8, new FlatArrayMap<K, V>().flatCapacity());
+    }
+
+    @Test
+    public void testFlatAndDelegateModes() {
+        final FlatArrayMap<Integer, String> map = new FlatArrayMap<>(4);
+        final Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            map.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3), new ArrayList<>(map.keySet()));
+        assertEquals("v3", map.put(3, "w3"));
+        expected.put(3, "w3");
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+
+        // removal keeps the insertion order of the remaining mappings
+        assertEquals("v1", map.remove(1));
+        assertEquals(Arrays.asList(0, 2, 3), new ArrayList<>(map.keySet()));
+        map.put(1, "v1");
+
+        // the fifth mapping switches to delegate mode
+        map.put(4, "v4");
+        expected.put(4, "v4");
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertTrue(map.containsValue("w3"));
+        assertEquals("w3", map.remove(3));
+        assertEquals(4, map.size());
+
+        // clearing switches back to flat mode
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.put(null, null);
+        assertTrue(map.containsKey(null));
+        assertTrue(map.containsValue(null));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        final FlatArrayMap<Integer, Integer> map = new FlatArrayMap<>();
+        for (int i = 0; i < 6; i++) {
+            map.put(i, i);
+        }
+        final MapIterator<Integer, Integer> it = map.mapIterator();
+        while (it.hasNext()) {
+            final int key = it.next();
+            if (key % 2 == 0) {
+                it.remove();
+            } else {
+                it.setValue(key * 10);
+            }
+        }
+        assertEquals(Arrays.asList(1, 3, 5), new ArrayList<>(map.keySet()));
+        final Iterator<Map.Entry<Integer, Integer>> entries = map.entrySet().iterator();
+        final Map.Entry<Integer, Integer> entry = entries.next();
+        assertEquals(Integer.valueOf(10), entry.setValue(100));
+        assertEquals(Integer.valueOf(100), map.get(1));
+        entries.remove();
+        assertEquals(Arrays.asList(30, 50), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void testCloneAndSerialization() throws Exception {
+        for (final int size : new int[] {0, 3, 8, 12}) {
+            final FlatArrayMap<Integer, Integer> map = new FlatArrayMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put(i, i);
+            }
+            final FlatArrayMap<Integer, Integer> cloned = map.clone();
+            assertEquals(map, cloned);
+            cloned.put(100, 100);
+            assertFalse(map.containsKey(100));
+
+            final Object deserialized = readExternalFormFromBytes(writeExternalFormToBytes(map));
+            assertEquals(map, deserialized);
+            assertEquals(8, ((FlatArrayMap<?, ?>) deserialized).flatCapacity());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FlatArrayMap<K, V> getMap() {
+        return (FlatArrayMap<K, V>) super.getMap();
+    }
+
+}
@@ -16,6 +16,26 @@
  */
 package org.apache.commons.collections4.map;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.IntFunction;
+
+import org.apache.commons.collections4.ElementCodec;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -84,4 +104,388 @@ public class HashedMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         final HashedMap<String, String> map = new HashedMap<>(0);
         assertEquals(1, map.data.length);
     }
+    /**
+     * Key with a constant hash code, optionally comparable.
+     */
+    static class CollidingKey implements Comparable<CollidingKey> {
+        final int id;
+
+        CollidingKey(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(final CollidingKey other) {
+            return Integer.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    /**
+     * Key with a constant hash code that is not comparable.
+     */
+    static final class IncomparableCollidingKey {
+        final int id;
+
+        IncomparableCollidingKey(final int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof IncomparableCollidingKey && ((IncomparableCollidingKey) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    private static <K> void assertCollidingKeys(final Map<K, Integer> map, final IntFunction<K> keys) {
+        final int count = 2000;
+        for (int i = 0; i < count; i++) {
+            assertNull(map.put(keys.apply(i), i));
+        }
+        assertEquals(count, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(Integer.valueOf(i), map.get(keys.apply(i)));
+            assertEquals(Integer.valueOf(i), map.put(keys.apply(i), i));
+        }
+        assertNull(map.get(keys.apply(count)));
+        assertEquals(new HashMap<>(map), map);
+        for (int i = 0; i < count; i += 2) {
+            assertEquals(Integer.valueOf(i), map.remove(keys.apply(i)));
+        }
+        assertEquals(count / 2, map.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 != 0, map.containsKey(keys.apply(i)));
+        }
+        int iterated = 0;
+        for (final Map.Entry<K, Integer> entry : map.entrySet()) {
+            assertEquals(entry.getKey(), keys.apply(entry.getValue()));
+            iterated++;
+        }
+        assertEquals(count / 2, iterated);
+        for (int i = 1; i < count; i += 2) {
+            assertEquals(Integer.valueOf(i), map.remove(keys.apply(i)));
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testCollidingComparableKeys() {
+        assertCollidingKeys(new HashedMap<>(), CollidingKey::new);
+    }
+
+    @Test
+    public void testCollidingIncomparableKeys() {
+        assertCollidingKeys(new HashedMap<>(), IncomparableCollidingKey::new);
+    }
+
+    @Test
+    public void testCollidingKeysInLinkedMap() {
+        assertCollidingKeys(new LinkedMap<>(), CollidingKey::new);
+    }
+
+    @Test
+    public void testCollidingKeysTreeified() {
+        final HashedMap<CollidingKey, Integer> map = new HashedMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new CollidingKey(i), i);
+        }
+        final int index = map.hashIndex(map.hash(new CollidingKey(0)), map.data.length);
+        assertNotNull(map.treeBins);
+        assertEquals(100, map.treeBins[index].size);
+        final HashedMap<CollidingKey, Integer> cloned = map.clone();
+        assertEquals(map, cloned);
+        map.clear();
+        assertNull(map.treeBins);
+        assertEquals(100, cloned.size());
+    }
+
+    @Test
+    public void testIncrementalResizeInternalState() {
+        final HashedMap<Integer, Integer> map = new HashedMap<>(16, 0.75f, 1);
+        for (int i = 0; i < 12; i++) {
+            map.put(i, i);
+        }
+        assertEquals(32, map.data.length);
+        assertNotNull(map.oldData);
+        assertEquals(16, map.oldData.length);
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+            assertTrue(map.containsKey(i));
+        }
+        assertNull(map.get(12));
+        map.remove(100);
+        map.remove(101);
+        assertNotNull(map.oldData);
+        for (int i = 0; i < 16; i++) {
+            map.remove(100);
+        }
+        assertNull(map.oldData);
+        assertEquals(12, map.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Integer.valueOf(i), map.get(i));
+        }
+    }
+
+    @Test
+    public void testIncrementalResizeCompletedByIteration() {
+        final HashedMap<Integer, Integer> map = new HashedMap<>(16, 0.75f, 1);
+        for (int i = 0; i < 12; i++) {
+            map.put(i, i);
+        }
+        assertNotNull(map.oldData);
+        assertEquals(12, map.keySet().size());
+        assertEquals(12, new HashMap<>(map).size());
+        assertNull(map.oldData);
+    }
+
+    @Test
+    public void testIncrementalResizeRandomOperations() {
+        final HashedMap<Integer, Integer> map = new HashedMap<>(0, 0.75f, 1);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            final Integer key = random.nextInt(5000);
+            final int op = random.nextInt(5);
+            if (op < 3) {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else if (op == 3) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.get(key), map.get(key));
+                assertEquals(expected.containsKey(key), map.containsKey(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(map, map.clone());
+    }
+
+    @Test
+    public void testIncrementalResizeCollidingKeys() {
+        assertCollidingKeys(new HashedMap<>(16, 0.75f, 1), CollidingKey::new);
+        assertCollidingKeys(new HashedMap<>(16, 0.75f, 4), IncomparableCollidingKey::new);
+    }
+
+    @Test
+    public void testIncrementalResizeStepMustNotBeNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new HashedMap<>(16, 0.75f, -1));
+    }
+
+    private static void assertDefaultMethodsMatchHashMap(final Map<Integer, Integer> map) {
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(17);
+        for (int i = 0; i < 20000; i++) {
+            final Integer key = random.nextInt(300) == 0 ? null : Integer.valueOf(random.nextInt(2000));
+            final Integer value = random.nextInt(20) == 0 ? null : Integer.valueOf(random.nextInt(10));
+            switch (random.nextInt(7)) {
+            case 0:
+                assertEquals(expected.merge(key, 1, Integer::sum), map.merge(key, 1, Integer::sum));
+                break;
+            case 1:
+                assertEquals(expected.merge(key, 1, (a, b) -> a > 5 ? null : a + b),
+                        map.merge(key, 1, (a, b) -> a > 5 ? null : a + b));
+                break;
+            case 2:
+                assertEquals(expected.putIfAbsent(key, value), map.putIfAbsent(key, value));
+                break;
+            case 3:
+                assertEquals(expected.computeIfAbsent(key, k -> value), map.computeIfAbsent(key, k -> value));
+                break;
+            case 4:
+                assertEquals(expected.computeIfPresent(key, (k, v) -> value), map.computeIfPresent(key, (k, v) -> value));
+                break;
+            case 5:
+                assertEquals(expected.compute(key, (k, v) -> v == null ? value : null),
+                        map.compute(key, (k, v) -> v == null ? value : null));
+                break;
+            default:
+                assertEquals(expected.getOrDefault(key, -1), map.getOrDefault(key, -1));
+                break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        expected.replaceAll((k, v) -> v == null ? 0 : v + 1);
+        map.replaceAll((k, v) -> v == null ? 0 : v + 1);
+        assertEquals(expected, map);
+        final Map<Integer, Integer> copy = new HashMap<>();
+        map.forEach(copy::put);
+        assertEquals(expected, copy);
+    }
+
+    @Test
+    public void testDefaultMethodsMatchHashMap() {
+        assertDefaultMethodsMatchHashMap(new HashedMap<>());
+        assertDefaultMethodsMatchHashMap(new HashedMap<>(0, 0.75f, 1));
+        assertDefaultMethodsMatchHashMap(new LinkedMap<>());
+    }
+
+    @Test
+    public void testDefaultMethodsCollidingKeys() {
+        final HashedMap<CollidingKey, Integer> map = new HashedMap<>();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i < 50 ? 1 : 2), map.merge(new CollidingKey(i % 50), 1, Integer::sum));
+        }
+        assertNotNull(map.treeBins);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(2), map.getOrDefault(new CollidingKey(i), 0));
+            final boolean drop = i % 2 == 0;
+            assertEquals(drop ? null : Integer.valueOf(2), map.computeIfPresent(new CollidingKey(i), (k, v) -> drop ? null : v));
+        }
+        assertEquals(25, map.size());
+    }
+
+    @Test
+    public void testComputeFailsIfFunctionModifiesMap() {
+        final HashedMap<Integer, Integer> map = new HashedMap<>();
+        map.put(1, 1);
+        assertThrows(ConcurrentModificationException.class, () -> map.computeIfAbsent(2, k -> map.put(3, 3)));
+        assertThrows(ConcurrentModificationException.class, () -> map.merge(1, 1, (a, b) -> map.remove(3)));
+        assertThrows(NullPointerException.class, () -> map.merge(1, null, Integer::sum));
+    }
+
+    @Test
+    public void testCodecRoundTrip() throws IOException {
+        final HashedMap<String, String> map = new HashedMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i, i % 10 == 0 ? null : "value" + i);
+        }
+        map.put(null, "null key");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        map.writeTo(new DataOutputStream(bytes), STRING_CODEC, STRING_CODEC);
+
+        final HashedMap<String, String> read = new HashedMap<>();
+        read.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), STRING_CODEC, STRING_CODEC);
+        assertEquals(map, read);
+        assertEquals("null key", read.get(null));
+        assertTrue(read.data.length >= 1024);
+
+        // reading into a map that is not empty puts the mappings, replacing existing values
+        final HashedMap<String, String> merged = new HashedMap<>();
+        merged.put("key1", "old");
+        merged.put("other", "other");
+        merged.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), STRING_CODEC, STRING_CODEC);
+        assertEquals(map.size() + 1, merged.size());
+        assertEquals("value1", merged.get("key1"));
+    }
+
+    @Test
+    public void testCodecRepeatedKey() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(3);
+        for (final String s : new String[] {"a", "1", "b", "2", "a", "3"}) {
+            STRING_CODEC.write(s, out);
+        }
+        final LinkedMap<String, String> read = new LinkedMap<>();
+        read.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), STRING_CODEC, STRING_CODEC);
+        assertEquals(2, read.size());
+        assertEquals("3", read.get("a"));
+        assertEquals("a", read.firstKey());
+        assertEquals(2, read.entrySet().stream().count());
+    }
+
+    @Test
+    public void testCodecInvalidSize() {
+        final byte[] bytes = {-1, -1, -1, -1};
+        assertThrows(IOException.class, () -> new HashedMap<String, String>().readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes)), STRING_CODEC, STRING_CODEC));
+    }
+
+    @Test
+    public void testCodecHugeSize() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(Integer.MAX_VALUE);
+        for (final String s : new String[] {"a", "1", "b", "2"}) {
+            STRING_CODEC.write(s, out);
+        }
+        final HashedMap<String, String> read = new HashedMap<>();
+        assertThrows(EOFException.class, () -> read.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), STRING_CODEC, STRING_CODEC));
+        assertEquals(2, read.size());
+        assertTrue(read.data.length <= 2 * AbstractHashedMap.MAXIMUM_PRESIZE);
+
+        // past the presized table the map grows as usual
+        final HashedMap<String, String> large = new HashedMap<>();
+        for (int i = 0; i < AbstractHashedMap.MAXIMUM_PRESIZE * 2; i++) {
+            large.put("key" + i, "value" + i);
+        }
+        bytes.reset();
+        large.writeTo(new DataOutputStream(bytes), STRING_CODEC, STRING_CODEC);
+        read.clear();
+        read.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), STRING_CODEC, STRING_CODEC);
+        assertEquals(large, read);
+    }
+
+    static final ElementCodec<String> STRING_CODEC = new ElementCodec<String>() {
+        @Override
+        public void write(final String element, final DataOutput out) throws IOException {
+            out.writeBoolean(element != null);
+            if (element != null) {
+                out.writeUTF(element);
+            }
+        }
+
+        @Override
+        public String read(final DataInput in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    };
+
+    @Test
+    public void testSpliterators() {
+        final HashedMap<Integer, String> map = new HashedMap<>();
+        for (int i = 0; i < 10000; i++) {
+            map.put(i * 7, "v" + i);
+        }
+        final Spliterator<Integer> spliterator = map.keySet().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.DISTINCT));
+        assertEquals(10000, spliterator.getExactSizeIfKnown());
+        final List<Integer> keys = new ArrayList<>();
+        assertTrue(splitAndCollect(spliterator, keys) > 5);
+        assertEquals(new ArrayList<>(map.keySet()), keys);
+
+        long sum = 0;
+        for (int i = 0; i < 10000; i++) {
+            sum += i * 7;
+        }
+        assertEquals(sum, map.keySet().parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(10000, map.values().parallelStream().filter(v -> v.startsWith("v")).count());
+        final List<String> values = new ArrayList<>();
+        map.values().forEach(values::add);
+        assertEquals(new ArrayList<>(map.values()), values);
+        final List<Map.Entry<Integer, String>> entries = new ArrayList<>();
+        map.entrySet().forEach(entries::add);
+        assertEquals(new ArrayList<>(map.entrySet()), entries);
+
+        final Spliterator<Integer> failFast = map.keySet().spliterator();
+        assertTrue(failFast.tryAdvance(key -> { }));
+        map.put(-1, "new");
+        assertThrows(ConcurrentModificationException.class, () -> failFast.forEachRemaining(key -> { }));
+    }
+
+    private static <E> int splitAndCollect(final Spliterator<E> spliterator, final List<E> result) {
+        final Spliterator<E> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            spliterator.forEachRemaining(result::add);
+            return 0;
+        }
+        return 1 + splitAndCollect(prefix, result) + splitAndCollect(spliterator, result);
+    }
+
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class IndexedLinkedMapTest<K, V> extends LinkedMapTest<K, V> {
+
+    @Override
+    public IndexedLinkedMap<K, V> makeObject() {
+        return new IndexedLinkedMap<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexedLinkedMap<K, V> makeFullMap() {
+        return (IndexedLinkedMap<K, V>) super.makeFullMap();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testRandomOperationsMatchList() {
+        final IndexedLinkedMap<Integer, String> map = new IndexedLinkedMap<>();
+        final List<Integer> list = new ArrayList<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            final int op = random.nextInt(4);
+            if (op < 2 || list.isEmpty()) {
+                final Integer key = random.nextInt(2000);
+                if (map.put(key, key.toString()) == null) {
+                    list.add(key);
+                }
+            } else if (op == 2) {
+                final int index = random.nextInt(list.size());
+                assertEquals(list.get(index), map.get(index));
+                assertEquals(list.get(index).toString(), map.remove(index));
+                list.remove(index);
+            } else {
+                final Integer key = list.get(random.nextInt(list.size()));
+                assertEquals(key.toString(), map.remove(key));
+                list.remove(key);
+            }
+            assertEquals(list.size(), map.size());
+        }
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.get(i), map.get(i));
+            assertEquals(i, map.indexOf(list.get(i)));
+        }
+        assertEquals(list, new ArrayList<>(map.keySet()));
+        assertEquals(-1, map.indexOf(-1));
+    }
+
+    @Test
+    public void testCloneAndClear() {
+        final IndexedLinkedMap<Integer, Integer> map = new IndexedLinkedMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final IndexedLinkedMap<Integer, Integer> cloned = map.clone();
+        map.clear();
+        assertEquals(0, map.size());
+        map.put(7, 7);
+        assertEquals(0, map.indexOf(7));
+        assertEquals(100, cloned.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, cloned.indexOf(i));
+            assertEquals(Integer.valueOf(i), cloned.get(i));
+        }
+        final Map<Integer, Integer> copy = new IndexedLinkedMap<>(cloned);
+        assertEquals(cloned, copy);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexedLinkedMap<K, V> getMap() {
+        return (IndexedLinkedMap<K, V>) super.getMap();
+    }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class InlineMultiKeyMapTest<K, V> extends AbstractIterableMapTest<MultiKey<? extends K>, V> {
+
+    static final Integer I1 = Integer.valueOf(1);
+    static final Integer I2 = Integer.valueOf(2);
+    static final Integer I3 = Integer.valueOf(3);
+    static final Integer I4 = Integer.valueOf(4);
+    static final Integer I5 = Integer.valueOf(5);
+    static final Integer I6 = Integer.valueOf(6);
+    static final Integer I7 = Integer.valueOf(7);
+    static final Integer I8 = Integer.valueOf(8);
+
+    public InlineMultiKeyMapTest() {
+        super(InlineMultiKeyMapTest.class.getSimpleName());
+    }
+
+    @Override
+    public InlineMultiKeyMap<K, V> makeObject() {
+        return new InlineMultiKeyMap<>();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MultiKey<K>[] getSampleKeys() {
+        return new MultiKey[] {
+            new MultiKey<>(I1, I2),
+            new MultiKey<>(I2, I3),
+            new MultiKey<>(I3, I4),
+            new MultiKey<>(I1, I1, I2),
+            new MultiKey<>(I2, I3, I4),
+            new MultiKey<>(I3, I7, I6),
+            new MultiKey<>(I1, I1, I2, I3),
+            new MultiKey<>(I2, I4, I5, I6),
+            new MultiKey<>(I3, I6, I7, I8),
+            new MultiKey<>(I1, I1, I2, I3, I4),
+            new MultiKey<>(I2, I3, I4, I5, I6),
+            new MultiKey<>(I3, I5, I6, I7, I8),
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V[] getSampleValues() {
+        return (V[]) new Object[] {
+            "2A", "2B", "2C",
+            "3D", "3E", "3F",
+            "4G", "4H", "4I",
+            "5J", "5K", "5L",
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V[] getNewSampleValues() {
+        return (V[]) new Object[] {
+            "1a", "1b", "1c",
+            "2d", "2e", "2f",
+            "3g", "3h", "3i",
+            "4j", "4k", "4l",
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MultiKey<K>[] getOtherKeys() {
+        return new MultiKey[] {
+            new MultiKey<>(I1, I7),
+            new MultiKey<>(I1, I8),
+            new MultiKey<>(I2, I4),
+            new MultiKey<>(I2, I5),
+        };
+    }
+
+    @Override
+    public boolean isAllowNullKey() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testMultiKeyMethods() {
+        final InlineMultiKeyMap<Integer, String> map = new InlineMultiKeyMap<>();
+        assertNull(map.put(I1, I2, "2"));
+        assertNull(map.put(I1, I2, I3, "3"));
+        assertNull(map.put(I1, I2, I3, I4, "4"));
+        assertNull(map.put(I1, I2, I3, I4, I5, "5"));
+        assertEquals("2", map.put(I1, I2, "2x"));
+        assertEquals(4, map.size());
+
+        assertEquals("2x", map.get(I1, I2));
+        assertEquals("3", map.get(I1, I2, I3));
+        assertEquals("4", map.get(I1, I2, I3, I4));
+        assertEquals("5", map.get(I1, I2, I3, I4, I5));
+        assertNull(map.get(I2, I1));
+        assertTrue(map.containsKey(I1, I2, I3, I4));
+        assertFalse(map.containsKey(I1, I2, I3, I5));
+        assertEquals("3", map.get(new MultiKey<>(I1, I2, I3)));
+        assertNull(map.get(new MultiKey<>(new Integer[] {I1})));
+        assertNull(map.get("not a multi key"));
+
+        assertEquals("5", map.removeMultiKey(I1, I2, I3, I4, I5));
+        assertNull(map.removeMultiKey(I1, I2, I3, I4, I5));
+        assertEquals("4", map.remove(new MultiKey<>(I1, I2, I3, I4)));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testNullComponentKeys() {
+        final InlineMultiKeyMap<Integer, String> map = new InlineMultiKeyMap<>();
+        map.put(null, null, "null-null");
+        map.put(I1, null, I2, "1-null-2");
+        assertEquals("null-null", map.get(null, null));
+        assertEquals("1-null-2", map.get(new MultiKey<>(I1, null, I2)));
+        assertTrue(map.containsKey(new MultiKey<Integer>(null, null)));
+        assertEquals(new HashMap<>(map), map);
+    }
+
+    @Test
+    public void testInvalidKeys() {
+        final InlineMultiKeyMap<Integer, String> map = new InlineMultiKeyMap<>();
+        assertAll(
+                () -> assertThrows(NullPointerException.class, () -> map.put(null, "null")),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> map.put(new MultiKey<>(new Integer[] {I1}), "1")),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> map.put(new MultiKey<>(new Integer[] {I1, I2, I3, I4, I5, I6}), "6"))
+        );
+    }
+
+    @Test
+    public void testHashIsOrderSensitive() {
+        assertTrue(InlineMultiKeyMap.hash(2, I1, I2, null, null, null) !=
+                   InlineMultiKeyMap.hash(2, I2, I1, null, null, null));
+        assertTrue(InlineMultiKeyMap.hash(3, I1, I1, I3, null, null) !=
+                   InlineMultiKeyMap.hash(3, I2, I2, I3, null, null));
+        assertTrue(InlineMultiKeyMap.hash(2, I1, I2, null, null, null) !=
+                   InlineMultiKeyMap.hash(3, I1, I2, null, null, null));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        final InlineMultiKeyMap<Integer, String> map = new InlineMultiKeyMap<>();
+        map.put(I1, I2, "1-2");
+        map.put(I1, I2, I3, "1-2-3");
+        map.put(I1, I3, I4, I5, "1-3-4-5");
+        map.put(I2, I2, "2-2");
+        assertTrue(map.removeAll(I1, I2));
+        assertEquals(2, map.size());
+        assertFalse(map.removeAll(I1, I3, I4, I6));
+        assertTrue(map.removeAll(I1, I3, I4, I5));
+        assertTrue(map.removeAll(I2));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testResizeAndIteratorRemove() {
+        final InlineMultiKeyMap<Integer, Integer> map = new InlineMultiKeyMap<>(2);
+        final Map<MultiKey<? extends Integer>, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i % 10, i / 10, i);
+            expected.put(new MultiKey<>(i % 10, i / 10), i);
+        }
+        assertEquals(expected, map);
+        for (final MapIterator<MultiKey<? extends Integer>, Integer> it = map.mapIterator(); it.hasNext();) {
+            final MultiKey<? extends Integer> key = it.next();
+            if (it.getValue() % 2 == 0) {
+                it.remove();
+                expected.remove(key);
+            }
+        }
+        assertEquals(500, map.size());
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void testLongBucket() {
+        final InlineMultiKeyMap<Integer, Integer> map = new InlineMultiKeyMap<>(64);
+        final Map<MultiKey<? extends Integer>, Integer> expected = new HashMap<>();
+        final List<MultiKey<Integer>> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < 30; i++) {
+            if ((InlineMultiKeyMap.hash(2, i, -i, null, null, null) & 63) == 0) {
+                keys.add(new MultiKey<>(i, -i));
+            }
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            final MultiKey<Integer> key = keys.get(i);
+            if (i % 2 == 0) {
+                map.put(key.getKey(0), key.getKey(1), i);
+            } else {
+                map.put(key, i);
+            }
+            expected.put(key, i);
+        }
+        assertNotNull(map.treeBins);
+        assertEquals(30, map.treeBins[0].size);
+        assertEquals(expected, map);
+        for (int i = 0; i < keys.size(); i++) {
+            final MultiKey<Integer> key = keys.get(i);
+            assertEquals(Integer.valueOf(i), map.get(key.getKey(0), key.getKey(1)));
+            assertEquals(Integer.valueOf(i), map.get(key));
+        }
+        for (int i = 0; i < keys.size(); i += 3) {
+            final MultiKey<Integer> key = keys.get(i);
+            assertEquals(Integer.valueOf(i), i % 2 == 0 ? map.removeMultiKey(key.getKey(0), key.getKey(1)) : map.remove(key));
+            expected.remove(key);
+        }
+        assertEquals(expected, map);
+        for (final Iterator<Integer> it = map.values().iterator(); it.hasNext();) {
+            if (it.next() % 5 == 0) {
+                it.remove();
+            }
+        }
+        expected.values().removeIf(value -> value % 5 == 0);
+        assertEquals(expected, map);
+        for (final MultiKey<? extends Integer> key : expected.keySet()) {
+            assertTrue(map.containsKey(key.getKey(0), key.getKey(1)));
+        }
+    }
+
+    @Test
+    public void testClone() {
+        final InlineMultiKeyMap<Integer, String> map = new InlineMultiKeyMap<>();
+        map.put(I1, I2, "1-2");
+        map.put(I1, I2, I3, I4, I5, "1-2-3-4-5");
+        final InlineMultiKeyMap<Integer, String> cloned = map.clone();
+        assertEquals(map, cloned);
+        cloned.removeMultiKey(I1, I2);
+        assertEquals("1-2", map.get(I1, I2));
+        assertEquals("1-2-3-4-5", cloned.get(I1, I2, I3, I4, I5));
+    }
+
+}
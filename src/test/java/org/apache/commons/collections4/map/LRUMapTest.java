@@ -20,6 +20,8 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -908,4 +910,123 @@ public class LRUMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
 //        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/LRUMap.fullCollection.version4.obj");
 //    }
 
+    @Test
+    public void testCollidingKeys() {
+        final LRUMap<HashedMapTest.CollidingKey, Integer> map = new LRUMap<>(100);
+        for (int i = 0; i < 1000; i++) {
+            map.put(new HashedMapTest.CollidingKey(i), i);
+            if (i % 3 == 0) {
+                // touch an older entry so that it survives eviction
+                map.get(new HashedMapTest.CollidingKey(i / 2));
+            }
+        }
+        assertEquals(100, map.size());
+        int found = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (map.get(new HashedMapTest.CollidingKey(i), false) != null) {
+                found++;
+            }
+        }
+        assertEquals(100, found);
+        for (final HashedMapTest.CollidingKey key : new ArrayList<>(map.keySet())) {
+            assertEquals(Integer.valueOf(key.id), map.remove(key));
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testDefaultMethodsUpdateRecency() {
+        final LRUMap<Integer, Integer> map = new LRUMap<>(3);
+        map.put(1, 1);
+        map.put(2, 2);
+        map.put(3, 3);
+        assertEquals(Integer.valueOf(1), map.getOrDefault(1, 0));
+        assertEquals(Arrays.asList(2, 3, 1), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(2), map.putIfAbsent(2, 20));
+        assertEquals(Arrays.asList(3, 1, 2), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(4), map.merge(3, 1, Integer::sum));
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(4), map.computeIfAbsent(4, k -> k));
+        assertEquals(Arrays.asList(2, 3, 4), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(5), map.merge(5, 5, Integer::sum));
+        assertEquals(Arrays.asList(3, 4, 5), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(9), map.getOrDefault(9, 9));
+        map.replaceAll((k, v) -> v * 10);
+        assertEquals(Arrays.asList(3, 4, 5), new ArrayList<>(map.keySet()));
+        assertEquals(Arrays.asList(40, 40, 50), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void testFunctionsMayGetKeys() {
+        final LRUMap<Integer, Integer> map = new LRUMap<>(4);
+        for (int i = 1; i <= 4; i++) {
+            map.put(i, i);
+        }
+        assertEquals(Integer.valueOf(3), map.compute(1, (k, v) -> v + map.get(2)));
+        assertEquals(Arrays.asList(3, 4, 2, 1), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(9), map.merge(3, 3, (v1, v2) -> v1 + v2 + map.get(1)));
+        assertEquals(Arrays.asList(4, 2, 1, 3), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(6), map.computeIfPresent(4, (k, v) -> v + map.get(2)));
+        assertEquals(Arrays.asList(1, 3, 2, 4), new ArrayList<>(map.keySet()));
+        assertEquals(Integer.valueOf(5), map.computeIfAbsent(5, k -> k + map.getOrDefault(9, 0)));
+        assertEquals(Arrays.asList(3, 2, 4, 5), new ArrayList<>(map.keySet()));
+
+        assertThrows(ConcurrentModificationException.class, () -> map.compute(2, (k, v) -> map.remove(3)));
+        assertThrows(ConcurrentModificationException.class, () -> map.computeIfAbsent(6, k -> map.put(7, 7)));
+    }
+
+    @Test
+    public void testStatistics() {
+        final LRUMap<Integer, Integer> map = new LRUMap<>(3);
+        assertFalse(map.isStatisticsEnabled());
+        map.put(0, 0);
+        map.get(0);
+        assertEquals(MapStatistics.EMPTY, map.getStatistics());
+
+        map.setStatisticsEnabled(true);
+        assertTrue(map.isStatisticsEnabled());
+        for (int i = 1; i <= 5; i++) {
+            map.put(i, i);
+        }
+        map.put(5, 50);
+        map.get(5);
+        map.get(4, false);
+        map.get(1);
+        MapStatistics stats = map.getStatistics();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(3, stats.getRequestCount());
+        assertEquals(2.0 / 3, stats.getHitRate(), 0.0);
+        assertEquals(6, stats.getPutCount());
+        assertEquals(3, stats.getEvictionCount());
+        assertTrue(stats.getEvictionTime() >= 0);
+        assertEquals(0, stats.getPurgeCount());
+
+        final LRUMap<Integer, Integer> cloned = map.clone();
+        assertTrue(cloned.isStatisticsEnabled());
+        assertEquals(0, cloned.getStatistics().getRequestCount());
+        cloned.get(5);
+        assertEquals(1, cloned.getStatistics().getHitCount());
+        assertEquals(stats, map.getStatistics());
+
+        map.get(5);
+        final MapStatistics interval = map.getStatistics().minus(stats);
+        assertEquals(1, interval.getHitCount());
+        assertEquals(0, interval.getPutCount());
+
+        stats = map.getStatistics();
+        map.putIfAbsent(5, 0);
+        map.computeIfAbsent(4, k -> 0);
+        map.putIfAbsent(6, 6);
+        map.compute(6, (k, v) -> v + 1);
+        final MapStatistics defaults = map.getStatistics().minus(stats);
+        assertEquals(2, defaults.getHitCount());
+        assertEquals(0, defaults.getMissCount());
+        assertEquals(2, defaults.getPutCount());
+        assertEquals(1, defaults.getEvictionCount());
+
+        map.setStatisticsEnabled(false);
+        assertEquals(MapStatistics.EMPTY, map.getStatistics());
+        assertEquals(1.0, MapStatistics.EMPTY.getHitRate(), 0.0);
+    }
 }
@@ -16,10 +16,18 @@
  */
 package org.apache.commons.collections4.map;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.BulkTest;
 import org.apache.commons.collections4.MapIterator;
@@ -303,4 +311,43 @@ public class LinkedMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
         final LinkedMap<String, String> map = new LinkedMap<>(0);
         assertEquals(1, map.data.length);
     }
+
+    @Test
+    public void testCodecKeepsOrder() throws IOException {
+        final LinkedMap<String, String> map = new LinkedMap<>();
+        for (final String key : Arrays.asList("c", "a", "d", "b")) {
+            map.put(key, key.toUpperCase());
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        map.writeTo(new DataOutputStream(bytes), HashedMapTest.STRING_CODEC, HashedMapTest.STRING_CODEC);
+
+        final LinkedMap<String, String> read = new LinkedMap<>();
+        read.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                HashedMapTest.STRING_CODEC, HashedMapTest.STRING_CODEC);
+        assertEquals(map.asList(), read.asList());
+        assertEquals(map, read);
+
+        // a bounded map keeps the most recently added mappings
+        final LRUMap<String, String> lru = new LRUMap<>(2);
+        lru.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                HashedMapTest.STRING_CODEC, HashedMapTest.STRING_CODEC);
+        assertEquals(Arrays.asList("d", "b"), new ArrayList<>(lru.keySet()));
+    }
+
+    @Test
+    public void testSpliteratorsKeepLinkOrder() {
+        final LinkedMap<Integer, Integer> map = new LinkedMap<>();
+        for (int i = 5000; i > 0; i--) {
+            map.put(i * 31 % 5003, i);
+        }
+        final Spliterator<Integer> spliterator = map.keySet().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SIZED | Spliterator.DISTINCT));
+        assertEquals(5000, spliterator.getExactSizeIfKnown());
+        assertEquals(new ArrayList<>(map.keySet()), map.keySet().parallelStream().collect(Collectors.toList()));
+        assertEquals(new ArrayList<>(map.values()), map.values().parallelStream().collect(Collectors.toList()));
+        final List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+        map.entrySet().forEach(entries::add);
+        assertEquals(new ArrayList<>(map.entrySet()), entries);
+    }
+
 }
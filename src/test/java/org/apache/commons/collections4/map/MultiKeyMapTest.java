@@ -428,6 +428,12 @@ public class MultiKeyMapTest<K, V> extends AbstractIterableMapTest<MultiKey<? ex
         assertSame(map.get(new MultiKey<>((K) I1, (K) I2)), cloned.get(new MultiKey<>((K) I1, (K) I2)));
     }
 
+    @Test
+    public void testIncrementallyResizedMapRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MultiKeyMap.multiKeyMap(new HashedMap<MultiKey<? extends K>, V>(16, 0.75f, 1)));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testLRUMultiKeyMap() {
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.Unmodifiable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class PerfectHashMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public PerfectHashMapTest() {
+        super(PerfectHashMapTest.class.getSimpleName());
+    }
+
+    @Override
+    public PerfectHashMap<K, V> makeObject() {
+        return new PerfectHashMap<>(new HashMap<K, V>());
+    }
+
+    @Override
+    public PerfectHashMap<K, V> makeFullMap() {
+        final Map<K, V> map = new HashMap<>();
+        addSampleMappings(map);
+        return new PerfectHashMap<>(map);
+    }
+
+    @Override
+    public boolean isPutChangeSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isPutAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testUnmodifiable() {
+        final PerfectHashMap<K, V> map = makeFullMap();
+        assertTrue(map instanceof Unmodifiable);
+        final MapIterator<K, V> it = map.mapIterator();
+        it.next();
+        assertThrows(UnsupportedOperationException.class, () -> it.setValue(null));
+        assertThrows(UnsupportedOperationException.class, () -> it.remove());
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue(null));
+        // the views refuse every change, even one that would not change the map
+        final Object missing = new Object();
+        assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove(missing));
+        assertThrows(UnsupportedOperationException.class, () -> map.keySet().retainAll(map.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> map.keySet().iterator().remove());
+        assertThrows(UnsupportedOperationException.class, () -> map.values().remove(missing));
+        assertThrows(UnsupportedOperationException.class, () -> map.values().removeAll(Collections.emptySet()));
+        assertThrows(UnsupportedOperationException.class, () -> map.values().removeIf(value -> false));
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().remove(missing));
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().clear());
+    }
+
+    @Test
+    public void testLargeMap() {
+        final Random random = new Random(7);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        while (expected.size() < 100000) {
+            final int key = random.nextInt();
+            expected.put(key, ~key);
+        }
+        final PerfectHashMap<Integer, Integer> map = new PerfectHashMap<>(expected);
+        assertEquals(expected.size(), map.size());
+        for (final Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        for (int i = 0; i < 100000; i++) {
+            final int key = random.nextInt();
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void testSharedHashCodes() {
+        final Map<Object, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            expected.put(new HashedMapTest.CollidingKey(i), i);
+            expected.put(i, i);
+        }
+        // "Aa" and "BB" have the same hash code
+        expected.put("Aa", 100);
+        expected.put("BB", 101);
+        expected.put(null, 102);
+        final PerfectHashMap<Object, Integer> map = new PerfectHashMap<>(expected);
+        assertEquals(expected, map);
+        for (final Map.Entry<Object, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertNull(map.get(new HashedMapTest.CollidingKey(20)));
+        assertNull(map.get("C#"));
+        assertFalse(map.containsKey(20));
+        assertTrue(map.containsKey(null));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PerfectHashMap<K, V> getMap() {
+        return (PerfectHashMap<K, V>) super.getMap();
+    }
+
+}
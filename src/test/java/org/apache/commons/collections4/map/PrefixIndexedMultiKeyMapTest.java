@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class PrefixIndexedMultiKeyMapTest<K, V> extends MultiKeyMapTest<K, V> {
+
+    @Override
+    public PrefixIndexedMultiKeyMap<K, V> makeObject() {
+        return new PrefixIndexedMultiKeyMap<>();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    private static Set<MultiKey<? extends Integer>> keys(final MapIterator<MultiKey<? extends Integer>, String> it) {
+        final Set<MultiKey<? extends Integer>> keys = new HashSet<>();
+        while (it.hasNext()) {
+            keys.add(it.next());
+        }
+        return keys;
+    }
+
+    private static Set<MultiKey<? extends Integer>> expected(final Map<MultiKey<? extends Integer>, String> map,
+                                                          final Integer... prefix) {
+        final Set<MultiKey<? extends Integer>> keys = new HashSet<>();
+        for (final MultiKey<? extends Integer> key : map.keySet()) {
+            boolean match = key.size() >= prefix.length;
+            for (int i = 0; match && i < prefix.length; i++) {
+                match = prefix[i] == null ? key.getKey(i) == null : prefix[i].equals(key.getKey(i));
+            }
+            if (match) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static void assertIndex(final PrefixIndexedMultiKeyMap<Integer, String> map) {
+        for (int a = 0; a < 3; a++) {
+            assertEquals(expected(map, a), keys(map.prefixMapIterator(a)));
+            assertEquals(expected(map, a).size(), map.prefixSize(a));
+            for (int b = 0; b < 3; b++) {
+                assertEquals(expected(map, a, b), keys(map.prefixMapIterator(a, b)));
+                assertEquals(expected(map, a, b).size(), map.prefixSize(a, b));
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(expected(map, a, b, c), keys(map.prefixMapIterator(a, b, c)));
+                    assertEquals(expected(map, a, b, c).size(), map.prefixSize(a, b, c));
+                    assertEquals(expected(map, a, b, c, 0), keys(map.prefixMapIterator(a, b, c, 0)));
+                    assertEquals(expected(map, a, b, c, 0).size(), map.prefixSize(a, b, c, 0));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPrefixOperations() {
+        final PrefixIndexedMultiKeyMap<Integer, String> map = new PrefixIndexedMultiKeyMap<>();
+        map.put(1, 2, "1-2");
+        map.put(1, 2, 3, "1-2-3");
+        map.put(1, 3, 4, "1-3-4");
+        map.put(1, 2, 3, 4, 5, "1-2-3-4-5");
+        map.put(2, 2, "2-2");
+        map.put(new MultiKey<>(new Integer[] {1}), "1");
+
+        assertEquals(5, map.prefixSize(1));
+        assertEquals(3, map.prefixSize(1, 2));
+        assertEquals(2, map.prefixSize(1, 2, 3));
+        assertEquals(1, map.prefixSize(1, 2, 3, 4));
+        assertEquals(0, map.prefixSize(3));
+        assertEquals(0, map.prefixSize(1, 2, 3, 5));
+        assertFalse(map.prefixMapIterator(3).hasNext());
+
+        final MapIterator<MultiKey<? extends Integer>, String> it = map.prefixMapIterator(1, 3);
+        assertTrue(it.hasNext());
+        assertEquals(new MultiKey<>(1, 3, 4), it.next());
+        assertEquals("1-3-4", it.setValue("x"));
+        assertEquals("x", map.get(1, 3, 4));
+        it.remove();
+        assertFalse(it.hasNext());
+        assertThrows(IllegalStateException.class, () -> it.remove());
+        assertFalse(map.containsKey(1, 3, 4));
+        assertEquals(4, map.prefixSize(1));
+
+        assertFalse(map.removeAll(1, 2, 3, 5));
+        assertTrue(map.removeAll(1, 2));
+        assertEquals(2, map.size());
+        assertEquals(1, map.prefixSize(1));
+        assertTrue(map.containsKey(new MultiKey<>(new Integer[] {1})));
+        assertTrue(map.removeAll(1));
+        assertEquals(0, map.prefixSize(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testPrefixMapIteratorFailFast() {
+        final PrefixIndexedMultiKeyMap<Integer, String> map = new PrefixIndexedMultiKeyMap<>();
+        map.put(1, 2, "1-2");
+        map.put(1, 3, "1-3");
+        final MapIterator<MultiKey<? extends Integer>, String> it = map.prefixMapIterator(1);
+        it.next();
+        map.put(2, 2, "2-2");
+        assertThrows(ConcurrentModificationException.class, () -> it.next());
+    }
+
+    @Test
+    public void testNullKeys() {
+        final PrefixIndexedMultiKeyMap<Integer, String> map = new PrefixIndexedMultiKeyMap<>();
+        map.put(null, 1, "null-1");
+        map.put(null, null, "null-null");
+        map.put(1, null, "1-null");
+        assertEquals(2, map.prefixSize(null));
+        assertEquals(1, map.prefixSize(null, null));
+        assertTrue(map.removeAll(null));
+        assertEquals(1, map.size());
+        assertEquals(1, map.prefixSize(1, null));
+    }
+
+    @Test
+    public void testIndexFollowsAllModifications() {
+        final PrefixIndexedMultiKeyMap<Integer, String> map = new PrefixIndexedMultiKeyMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            final int a = random.nextInt(3);
+            final int b = random.nextInt(3);
+            final int c = random.nextInt(3);
+            switch (random.nextInt(8)) {
+            case 0:
+            case 1:
+                map.put(a, b, "v");
+                break;
+            case 2:
+            case 3:
+                map.put(a, b, c, "v");
+                break;
+            case 4:
+                map.put(a, b, c, 0, "v");
+                break;
+            case 5:
+                map.removeMultiKey(a, b, c);
+                map.remove(new MultiKey<>(a, b));
+                break;
+            case 6:
+                final Iterator<MultiKey<? extends Integer>> it = map.keySet().iterator();
+                while (it.hasNext()) {
+                    if (it.next().getKey(0).equals(a)) {
+                        it.remove();
+                    }
+                }
+                break;
+            default:
+                if (random.nextInt(50) == 0) {
+                    map.clear();
+                } else {
+                    map.removeAll(a, b);
+                }
+                break;
+            }
+            if (i % 100 == 0) {
+                assertIndex(map);
+            }
+        }
+        assertIndex(map);
+    }
+
+    @Test
+    public void testCloneHasOwnIndex() {
+        final PrefixIndexedMultiKeyMap<Integer, String> map = new PrefixIndexedMultiKeyMap<>();
+        map.put(1, 2, "1-2");
+        map.put(1, 3, "1-3");
+        final PrefixIndexedMultiKeyMap<Integer, String> cloned = map.clone();
+        assertTrue(cloned.removeAll(1));
+        assertEquals(0, cloned.size());
+        assertEquals(2, map.size());
+        assertEquals(2, map.prefixSize(1));
+        assertIndex(map);
+        assertIndex(cloned);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerializationKeepsIndex() throws Exception {
+        final PrefixIndexedMultiKeyMap<Integer, String> map = new PrefixIndexedMultiKeyMap<>();
+        map.put(1, 2, "1-2");
+        map.put(1, 2, 3, "1-2-3");
+        map.put(2, 3, "2-3");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(map);
+        }
+        final PrefixIndexedMultiKeyMap<Integer, String> read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (PrefixIndexedMultiKeyMap<Integer, String>) in.readObject();
+        }
+        assertEquals(map, read);
+        assertEquals(2, read.prefixSize(1, 2));
+        assertIndex(read);
+    }
+
+}
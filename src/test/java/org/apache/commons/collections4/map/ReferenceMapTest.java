@@ -20,16 +20,21 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.map.AbstractHashedMap.HashEntry;
 import org.apache.commons.collections4.map.AbstractReferenceMap.ReferenceEntry;
@@ -121,6 +126,46 @@ public class ReferenceMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         assertTrue("map should be empty after purge of weak keys and values", map.isEmpty());
     }
 
+    @Test
+    public void testCodecRoundTrip() throws IOException {
+        final ReferenceMap<String, String> map = new ReferenceMap<>(ReferenceStrength.WEAK, ReferenceStrength.HARD);
+        final List<String> hard = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final String key = "key" + i;
+            if (i % 2 == 0) {
+                hard.add(key);
+            }
+            map.put(key, "value" + i);
+        }
+        gc();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        map.writeTo(new DataOutputStream(bytes), HashedMapTest.STRING_CODEC, HashedMapTest.STRING_CODEC);
+
+        // the size written matches the mappings written, whichever keys were cleared
+        final ByteArrayInputStream input = new ByteArrayInputStream(bytes.toByteArray());
+        final ReferenceMap<String, String> read = new ReferenceMap<>(ReferenceStrength.HARD, ReferenceStrength.HARD);
+        read.readFrom(new DataInputStream(input), HashedMapTest.STRING_CODEC, HashedMapTest.STRING_CODEC);
+        assertEquals(0, input.available());
+        assertTrue(read.size() >= hard.size());
+        for (final String key : hard) {
+            assertEquals(map.get(key), read.get(key));
+        }
+    }
+
+    @Test
+    public void testCodecRejectsNull() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1);
+        HashedMapTest.STRING_CODEC.write("key", out);
+        HashedMapTest.STRING_CODEC.write(null, out);
+        final ReferenceMap<String, String> read = new ReferenceMap<>();
+        assertThrows(NullPointerException.class, () -> read.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                HashedMapTest.STRING_CODEC, HashedMapTest.STRING_CODEC));
+        assertTrue(read.isEmpty());
+    }
+
     @Test
     public void testGetAfterGC() {
         ReferenceMap map = new ReferenceMap(ReferenceMap.WEAK, ReferenceMap.WEAK);
@@ -329,6 +374,26 @@ public class ReferenceMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         assertTrue("Expect empty but have entry: " + map, map.isEmpty());
     }
 
+    @Test
+    public void testStatistics() {
+        final ReferenceMap<String, String> map = new ReferenceMap<>(ReferenceStrength.HARD, ReferenceStrength.HARD);
+        map.put("A", "a");
+        assertEquals(MapStatistics.EMPTY, map.getStatistics());
+        map.setStatisticsEnabled(true);
+        map.put("B", "b");
+        map.put("A", "aa");
+        assertEquals("aa", map.get("A"));
+        assertNull(map.get("C"));
+        final MapStatistics stats = map.getStatistics();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2, stats.getPutCount());
+        assertEquals(0, stats.getPurgeCount());
+        map.setStatisticsEnabled(false);
+        assertFalse(map.isStatisticsEnabled());
+        assertEquals(MapStatistics.EMPTY, map.getStatistics());
+    }
+
     @SuppressWarnings("unused")
     private static void gc() {
         try {
@@ -358,4 +423,39 @@ public class ReferenceMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         }
     }
 
+    @Test
+    public void testDefaultMethods() {
+        final ReferenceMap<String, Integer> map = new ReferenceMap<>();
+        assertEquals(Integer.valueOf(1), map.merge("a", 1, Integer::sum));
+        assertEquals(Integer.valueOf(2), map.merge("a", 1, Integer::sum));
+        assertEquals(Integer.valueOf(2), map.putIfAbsent("a", 5));
+        assertEquals(Integer.valueOf(1), map.computeIfAbsent("b", String::length));
+        assertEquals(Integer.valueOf(0), map.getOrDefault("c", 0));
+        assertNull(map.computeIfPresent("b", (k, v) -> null));
+        assertEquals(1, map.size());
+        assertThrows(NullPointerException.class, () -> map.putIfAbsent(null, 1));
+        assertThrows(NullPointerException.class, () -> map.putIfAbsent("d", null));
+        assertThrows(NullPointerException.class, () -> map.compute(null, (k, v) -> 1));
+        assertThrows(NullPointerException.class, () -> map.replaceAll((k, v) -> null));
+        map.replaceAll((k, v) -> v + 1);
+        assertEquals(Integer.valueOf(3), map.get("a"));
+    }
+
+    @Test
+    public void testSpliterators() {
+        final ReferenceMap<Integer, String> map = new ReferenceMap<>(ReferenceStrength.WEAK, ReferenceStrength.HARD);
+        final List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            keys.add(Integer.valueOf(i + 1000));
+            map.put(keys.get(i), "v" + (i + 1000));
+        }
+        assertEquals(new HashSet<>(keys), map.keySet().parallelStream().collect(Collectors.toSet()));
+        assertEquals(2000, map.values().parallelStream().distinct().count());
+        assertEquals(2000, map.entrySet().stream().filter(e -> e.getValue().equals("v" + e.getKey())).count());
+        final Spliterator<Integer> spliterator = map.keySet().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.DISTINCT));
+        // the halves split off skip the collected entries too
+        assertTrue(spliterator.trySplit() instanceof AbstractReferenceMap.ReferenceSpliterator);
+    }
+
 }
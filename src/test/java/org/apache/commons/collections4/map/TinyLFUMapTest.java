@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class TinyLFUMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public TinyLFUMapTest() {
+        super(TinyLFUMapTest.class.getSimpleName());
+    }
+
+    @Override
+    public TinyLFUMap<K, V> makeObject() {
+        return new TinyLFUMap<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TinyLFUMap<K, V> makeFullMap() {
+        return (TinyLFUMap<K, V>) super.makeFullMap();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testCtors() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new TinyLFUMap<K, V>(0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new TinyLFUMap<K, V>(-1, 0.75f)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new TinyLFUMap<K, V>(10, -1f)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new TinyLFUMap<K, V>(Collections.emptyMap()))
+        );
+    }
+
+    @Test
+    public void testMaxSize() {
+        final TinyLFUMap<Integer, Integer> map = new TinyLFUMap<>(10);
+        assertEquals(10, map.maxSize());
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            assertTrue(map.size() <= 10);
+            assertEquals(Integer.valueOf(i), map.get(i));
+        }
+        assertTrue(map.isFull());
+        assertEquals(10, map.size());
+        assertEquals(10, map.keySet().size());
+    }
+
+    @Test
+    public void testMaxSizeOne() {
+        final TinyLFUMap<String, String> map = new TinyLFUMap<>(1);
+        map.put("A", "a");
+        map.put("B", "b");
+        assertEquals(1, map.size());
+        assertEquals("b", map.get("B"));
+        map.put("A", "a");
+        assertEquals(1, map.size());
+        assertEquals("a", map.get("A"));
+    }
+
+    @Test
+    public void testFrequentKeysSurviveScan() {
+        final TinyLFUMap<Integer, Integer> map = new TinyLFUMap<>(100);
+        final LRUMap<Integer, Integer> lru = new LRUMap<>(100);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                map.put(i, i);
+                map.get(i);
+                lru.put(i, i);
+            }
+        }
+        for (int i = 1000; i < 1500; i++) {
+            map.put(i, i);
+            lru.put(i, i);
+        }
+        int survivors = 0;
+        int lruSurvivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (map.containsKey(i)) {
+                survivors++;
+            }
+            if (lru.containsKey(i)) {
+                lruSurvivors++;
+            }
+        }
+        // the frequency estimates may collide, so allow for the odd loss
+        assertTrue("Only " + survivors + " frequent keys survived", survivors >= 45);
+        assertEquals(0, lruSurvivors);
+        assertEquals(100, map.size());
+    }
+
+    @Test
+    public void testHitRateOfSkewedAccess() {
+        final int maxSize = 100;
+        final TinyLFUMap<Integer, Integer> map = new TinyLFUMap<>(maxSize);
+        final LRUMap<Integer, Integer> lru = new LRUMap<>(maxSize);
+        final Random random = new Random(42);
+        int hits = 0;
+        int lruHits = 0;
+        for (int i = 0; i < 100000; i++) {
+            // half of the accesses go to a small hot set, the rest are spread thinly
+            final Integer key = random.nextBoolean() ? random.nextInt(80) : 1000 + random.nextInt(100000);
+            if (map.get(key) != null) {
+                hits++;
+            } else {
+                map.put(key, key);
+            }
+            if (lru.get(key) != null) {
+                lruHits++;
+            } else {
+                lru.put(key, key);
+            }
+        }
+        assertTrue("TinyLFU " + hits + " should beat LRU " + lruHits, hits > lruHits);
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        final TinyLFUMap<Integer, Integer> map = new TinyLFUMap<>(20);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 40; i++) {
+                map.put(i, i);
+                map.get(i / 2);
+            }
+        }
+        for (int i = 0; i < 40; i++) {
+            map.remove(i);
+        }
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.windowSize);
+        assertEquals(0, map.protectedSize);
+        for (int i = 0; i < 30; i++) {
+            map.put(i, i);
+        }
+        assertEquals(20, map.size());
+        map.clear();
+        assertEquals(0, map.size());
+        map.put(1, 1);
+        assertEquals(Integer.valueOf(1), map.get(1));
+        final TinyLFUMap<Integer, Integer> cloned = map.clone();
+        assertEquals(map, cloned);
+        assertEquals(20, cloned.maxSize());
+    }
+
+    @Test
+    public void testFrequencySketch() {
+        final TinyLFUMap.FrequencySketch sketch = new TinyLFUMap.FrequencySketch(64);
+        assertEquals(0, sketch.frequency(7));
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(7);
+        }
+        assertEquals(5, sketch.frequency(7));
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(7);
+        }
+        assertEquals(15, sketch.frequency(7));
+        // the counters are halved once ten times the size has been recorded
+        for (int i = 0; i < 640; i++) {
+            sketch.increment(1000 + i);
+        }
+        assertTrue(sketch.frequency(7) < 15);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TinyLFUMap<K, V> getMap() {
+        return (TinyLFUMap<K, V>) super.getMap();
+    }
+
+}
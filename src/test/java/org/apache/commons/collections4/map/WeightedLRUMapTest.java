@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.Transformer;
+import org.apache.commons.collections4.functors.ConstantTransformer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class WeightedLRUMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
+
+    private static final Transformer<String, Integer> LENGTH = String::length;
+
+    public WeightedLRUMapTest() {
+        super(WeightedLRUMapTest.class.getSimpleName());
+    }
+
+    @Override
+    public WeightedLRUMap<K, V> makeObject() {
+        return new WeightedLRUMap<>(100, ConstantTransformer.constantTransformer(1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WeightedLRUMap<K, V> makeFullMap() {
+        return (WeightedLRUMap<K, V>) super.makeFullMap();
+    }
+
+    @Override
+    public boolean isGetStructuralModify() {
+        return true;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testCtors() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new WeightedLRUMap<String, String>(0, LENGTH)),
+                () -> assertThrows(NullPointerException.class, () -> new WeightedLRUMap<String, String>(10, null))
+        );
+    }
+
+    @Test
+    public void testEvictsByWeight() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<>(10, LENGTH);
+        map.put(1, "aaaa");
+        map.put(2, "bbb");
+        map.put(3, "cc");
+        assertEquals(9, map.totalWeight());
+        assertFalse(map.isFull());
+        map.put(4, "d");
+        assertEquals(10, map.totalWeight());
+        assertTrue(map.isFull());
+        assertEquals(Integer.MAX_VALUE, map.maxSize());
+        assertEquals(10, map.maxWeight());
+
+        // needs the two least recently used entries to go
+        map.put(5, "eeeeee");
+        assertEquals(Arrays.asList(3, 4, 5), new ArrayList<>(map.keySet()));
+        assertEquals(9, map.totalWeight());
+
+        // access changes which entries go first
+        map.get(3);
+        map.put(6, "ff");
+        assertEquals(Arrays.asList(5, 3, 6), new ArrayList<>(map.keySet()));
+        assertEquals(10, map.totalWeight());
+    }
+
+    @Test
+    public void testZeroWeightFitsAtLimit() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<>(5, LENGTH);
+        map.put(1, "aa");
+        map.put(2, "bbb");
+        assertTrue(map.isFull());
+        map.put(3, "");
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(map.keySet()));
+        assertEquals(5, map.totalWeight());
+        map.put(4, "d");
+        assertEquals(Arrays.asList(2, 3, 4), new ArrayList<>(map.keySet()));
+        assertEquals(4, map.totalWeight());
+    }
+
+    @Test
+    public void testReplacementIsReweighed() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<>(10, LENGTH);
+        map.put(1, "aaa");
+        map.put(2, "bbb");
+        map.put(3, "ccc");
+        assertEquals(9, map.totalWeight());
+        map.put(3, "c");
+        assertEquals(7, map.totalWeight());
+        // growing the most recently used value removes the least recently used entries
+        map.put(3, "cccccccc");
+        assertEquals(Arrays.asList(3), new ArrayList<>(map.keySet()));
+        assertEquals(8, map.totalWeight());
+
+        final MapIterator<Integer, String> it = map.mapIterator();
+        it.next();
+        it.setValue("cc");
+        assertEquals(2, map.totalWeight());
+        map.entrySet().iterator().next().setValue("c");
+        assertEquals(1, map.totalWeight());
+
+        map.remove(3);
+        assertEquals(0, map.totalWeight());
+    }
+
+    @Test
+    public void testOverweightValue() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<>(5, LENGTH);
+        map.put(1, "a");
+        map.put(2, "bbbbbbb");
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.totalWeight());
+    }
+
+    @Test
+    public void testInvalidWeight() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<>(5, value -> value == null ? null : -1);
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, "a"));
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testInvalidWeightLeavesOrder() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<>(10,
+                value -> value.equals("invalid") ? -1 : value.length());
+        map.put(1, "a");
+        map.put(2, "bb");
+        map.put(3, "ccc");
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, "invalid"));
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(map.keySet()));
+        assertEquals("a", map.get(1));
+        assertEquals(6, map.totalWeight());
+    }
+
+    @Test
+    public void testRemoveLRUVeto() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<Integer, String>(6, LENGTH, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeLRU(final LinkEntry<Integer, String> entry) {
+                return entry.getKey() != 1;
+            }
+        };
+        map.put(1, "aa");
+        map.put(2, "bb");
+        map.put(3, "cc");
+        map.put(4, "dd");
+        assertEquals(Arrays.asList(1, 3, 4), new ArrayList<>(map.keySet()));
+        assertEquals(6, map.totalWeight());
+    }
+
+    @Test
+    public void testCloneAndClear() {
+        final WeightedLRUMap<Integer, String> map = new WeightedLRUMap<>(10, LENGTH);
+        map.put(1, "aaa");
+        map.put(2, "bbb");
+        final WeightedLRUMap<Integer, String> cloned = map.clone();
+        assertEquals(6, cloned.totalWeight());
+        assertEquals((Map<Integer, String>) map, cloned);
+        map.clear();
+        assertEquals(0, map.totalWeight());
+        assertEquals(6, cloned.totalWeight());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public WeightedLRUMap<K, V> getMap() {
+        return (WeightedLRUMap<K, V>) super.getMap();
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CircularFifoDoubleBuffer.
+ */
+public class CircularFifoDoubleBufferTest {
+
+    @Test
+    public void testOverwritesOldest() {
+        final CircularFifoDoubleBuffer buffer = new CircularFifoDoubleBuffer(3);
+        assertEquals(0.0, buffer.sum());
+        assertThrows(NoSuchElementException.class, () -> buffer.min());
+        assertThrows(NoSuchElementException.class, () -> buffer.remove());
+
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i * 0.5);
+        }
+        assertEquals("[1.5, 2.0, 2.5]", buffer.toString());
+        assertEquals(6.0, buffer.sum());
+        assertEquals(1.5, buffer.min());
+        assertEquals(2.5, buffer.max());
+        assertEquals(2.0, buffer.get(1));
+        assertThrows(NoSuchElementException.class, () -> buffer.get(3));
+
+        final double[] array = new double[3];
+        assertEquals(3, buffer.copyTo(array, 0));
+        assertArrayEquals(new double[] {1.5, 2.0, 2.5}, array);
+        assertEquals(1.5, buffer.remove());
+        assertArrayEquals(new double[] {2.0, 2.5}, buffer.toArray());
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertEquals(0.0, buffer.sum());
+    }
+
+    @Test
+    public void testSpecialValuesLeaveWithTheWindow() {
+        final CircularFifoDoubleBuffer buffer = new CircularFifoDoubleBuffer(2);
+        buffer.add(Double.NaN);
+        buffer.add(1.0);
+        assertTrue(Double.isNaN(buffer.sum()));
+        assertTrue(Double.isNaN(buffer.min()));
+        assertTrue(Double.isNaN(buffer.max()));
+        buffer.add(Double.POSITIVE_INFINITY);
+        assertEquals(Double.POSITIVE_INFINITY, buffer.sum());
+        assertEquals(1.0, buffer.min());
+        assertEquals(Double.POSITIVE_INFINITY, buffer.max());
+        buffer.add(Double.NEGATIVE_INFINITY);
+        assertTrue(Double.isNaN(buffer.sum()));
+        buffer.add(2.0);
+        assertEquals(Double.NEGATIVE_INFINITY, buffer.sum());
+        buffer.add(3.0);
+        assertEquals(5.0, buffer.sum());
+
+        buffer.add(-0.0);
+        buffer.add(0.0);
+        assertEquals(-0.0, buffer.min());
+        assertEquals(0.0, buffer.max());
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(buffer.min()));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(buffer.max()));
+
+        buffer.add(Double.MAX_VALUE);
+        buffer.add(Double.MAX_VALUE);
+        assertEquals(Double.POSITIVE_INFINITY, buffer.sum());
+        buffer.add(1.0);
+        assertEquals(Double.MAX_VALUE + 1.0, buffer.sum());
+        buffer.add(2.0);
+        assertEquals(3.0, buffer.sum());
+    }
+
+    @Test
+    public void testSumIsCompensated() {
+        final CircularFifoDoubleBuffer buffer = new CircularFifoDoubleBuffer(10);
+        buffer.add(1e16);
+        for (int i = 0; i < 9; i++) {
+            buffer.add(1.0);
+        }
+        assertEquals(1e16 + 9, buffer.sum());
+        buffer.add(1.0);
+        assertEquals(10.0, buffer.sum());
+        for (int i = 0; i < 100000; i++) {
+            buffer.add(0.1);
+        }
+        assertEquals(1.0, buffer.sum(), 1e-12);
+    }
+
+    @Test
+    public void testSumRecoversFromDiscardedOutliers() {
+        final CircularFifoDoubleBuffer buffer = new CircularFifoDoubleBuffer(16);
+        final Random random = new Random(50);
+        for (int exponent = 10; exponent <= 40; exponent += 2) {
+            buffer.add(Math.pow(10, exponent) * (random.nextBoolean() ? 1 : -1));
+            buffer.add(random.nextInt(69));
+            buffer.add(random.nextInt(69) + 0.1);
+        }
+        double expected = 0;
+        for (int i = 0; i < 16; i++) {
+            final double value = random.nextInt(69) + 0.25;
+            buffer.add(value);
+            expected += value;
+        }
+        assertEquals(expected, buffer.sum());
+        buffer.add(1e300);
+        buffer.add(-1e300);
+        while (buffer.size() > 1) {
+            buffer.remove();
+        }
+        assertEquals(-1e300, buffer.sum());
+        buffer.remove();
+        assertEquals(0.0, buffer.sum());
+    }
+
+    @Test
+    public void testRandomOperationsMatchCircularFifoQueue() {
+        final Random random = new Random(50);
+        for (final int size : new int[] {1, 2, 7, 64}) {
+            final CircularFifoDoubleBuffer buffer = new CircularFifoDoubleBuffer(size);
+            final CircularFifoQueue<Double> expected = new CircularFifoQueue<>(size);
+            for (int step = 0; step < 5000; step++) {
+                if (random.nextInt(4) == 0 && !expected.isEmpty()) {
+                    assertEquals(expected.remove().doubleValue(), buffer.remove());
+                } else {
+                    // few distinct values, so that equal values meet in the window
+                    final double value = (random.nextInt(20) - 10) * 0.1;
+                    expected.add(value);
+                    buffer.add(value);
+                }
+                assertEquals(expected.size(), buffer.size());
+                if (!expected.isEmpty()) {
+                    double sum = 0;
+                    double min = Double.POSITIVE_INFINITY;
+                    double max = Double.NEGATIVE_INFINITY;
+                    for (final Double value : expected) {
+                        sum += value;
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                    assertEquals(sum, buffer.sum(), 1e-9);
+                    assertEquals(min, buffer.min());
+                    assertEquals(max, buffer.max());
+                    final int index = random.nextInt(expected.size());
+                    assertEquals(expected.get(index).doubleValue(), buffer.get(index));
+                }
+            }
+            assertEquals(expected.toString(), buffer.toString());
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CircularFifoIntBuffer.
+ */
+public class CircularFifoIntBufferTest {
+
+    @Test
+    public void testOverwritesOldest() {
+        final CircularFifoIntBuffer buffer = new CircularFifoIntBuffer(3);
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.sum());
+        assertThrows(NoSuchElementException.class, () -> buffer.min());
+        assertThrows(NoSuchElementException.class, () -> buffer.max());
+        assertThrows(NoSuchElementException.class, () -> buffer.remove());
+        assertThrows(NoSuchElementException.class, () -> buffer.element());
+
+        for (int value = 1; value <= 5; value++) {
+            buffer.add(value * 10);
+        }
+        assertEquals("[30, 40, 50]", buffer.toString());
+        assertTrue(buffer.isAtFullCapacity());
+        assertEquals(3, buffer.maxSize());
+        assertEquals(120, buffer.sum());
+        assertEquals(30, buffer.min());
+        assertEquals(50, buffer.max());
+        assertEquals(30, buffer.element());
+        assertEquals(40, buffer.get(1));
+        assertThrows(NoSuchElementException.class, () -> buffer.get(3));
+        assertThrows(NoSuchElementException.class, () -> buffer.get(-1));
+
+        assertEquals(30, buffer.remove());
+        assertEquals(2, buffer.size());
+        assertFalse(buffer.isAtFullCapacity());
+        assertEquals(40, buffer.min());
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.sum());
+        buffer.add(-7);
+        assertEquals(-7, buffer.min());
+        assertEquals(-7, buffer.max());
+        assertThrows(IllegalArgumentException.class, () -> new CircularFifoIntBuffer(0));
+    }
+
+    @Test
+    public void testCopyTo() {
+        final CircularFifoIntBuffer buffer = new CircularFifoIntBuffer(4);
+        for (int value = 0; value < 6; value++) {
+            buffer.add(value);
+        }
+        final int[] array = new int[6];
+        assertEquals(4, buffer.copyTo(array, 1));
+        assertArrayEquals(new int[] {0, 2, 3, 4, 5, 0}, array);
+        assertArrayEquals(new int[] {2, 3, 4, 5}, buffer.toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.copyTo(array, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.copyTo(array, -1));
+        assertThrows(NullPointerException.class, () -> buffer.copyTo(null, 0));
+
+        final List<Integer> values = new ArrayList<>();
+        buffer.forEach(values::add);
+        assertEquals(4, values.size());
+        assertEquals(Integer.valueOf(2), values.get(0));
+        assertEquals(Integer.valueOf(5), values.get(3));
+    }
+
+    @Test
+    public void testSumDoesNotOverflow() {
+        final CircularFifoIntBuffer buffer = new CircularFifoIntBuffer(3);
+        buffer.add(Integer.MAX_VALUE);
+        buffer.add(Integer.MAX_VALUE);
+        buffer.add(Integer.MAX_VALUE);
+        assertEquals(3L * Integer.MAX_VALUE, buffer.sum());
+        buffer.add(Integer.MIN_VALUE);
+        assertEquals(2L * Integer.MAX_VALUE + Integer.MIN_VALUE, buffer.sum());
+        assertEquals(Integer.MIN_VALUE, buffer.min());
+        assertEquals(Integer.MAX_VALUE, buffer.max());
+    }
+
+    @Test
+    public void testRandomOperationsMatchCircularFifoQueue() {
+        final Random random = new Random(50);
+        for (final int size : new int[] {1, 2, 7, 64}) {
+            final CircularFifoIntBuffer buffer = new CircularFifoIntBuffer(size);
+            final CircularFifoQueue<Integer> expected = new CircularFifoQueue<>(size);
+            for (int step = 0; step < 5000; step++) {
+                if (random.nextInt(4) == 0 && !expected.isEmpty()) {
+                    assertEquals(expected.remove().intValue(), buffer.remove());
+                } else {
+                    // few distinct values, so that equal values meet in the window
+                    final int value = random.nextInt(20) - 10;
+                    expected.add(value);
+                    buffer.add(value);
+                }
+                assertEquals(expected.size(), buffer.size());
+                if (!expected.isEmpty()) {
+                    long sum = 0;
+                    int min = Integer.MAX_VALUE;
+                    int max = Integer.MIN_VALUE;
+                    for (final Integer value : expected) {
+                        sum += value;
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                    assertEquals(sum, buffer.sum());
+                    assertEquals(min, buffer.min());
+                    assertEquals(max, buffer.max());
+                    final int index = random.nextInt(expected.size());
+                    assertEquals(expected.get(index).intValue(), buffer.get(index));
+                }
+            }
+            assertEquals(expected.toString(), buffer.toString());
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for CircularFifoLongBuffer.
+ */
+public class CircularFifoLongBufferTest {
+
+    @Test
+    public void testOverwritesOldest() {
+        final CircularFifoLongBuffer buffer = new CircularFifoLongBuffer(3);
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.sum());
+        assertThrows(NoSuchElementException.class, () -> buffer.min());
+        assertThrows(NoSuchElementException.class, () -> buffer.max());
+        assertThrows(NoSuchElementException.class, () -> buffer.remove());
+        assertThrows(NoSuchElementException.class, () -> buffer.element());
+
+        for (long value = 1; value <= 5; value++) {
+            buffer.add(value * 10);
+        }
+        assertEquals("[30, 40, 50]", buffer.toString());
+        assertTrue(buffer.isAtFullCapacity());
+        assertEquals(3, buffer.maxSize());
+        assertEquals(120, buffer.sum());
+        assertEquals(30, buffer.min());
+        assertEquals(50, buffer.max());
+        assertEquals(30, buffer.element());
+        assertEquals(40, buffer.get(1));
+        assertThrows(NoSuchElementException.class, () -> buffer.get(3));
+        assertThrows(NoSuchElementException.class, () -> buffer.get(-1));
+
+        assertEquals(30, buffer.remove());
+        assertEquals(2, buffer.size());
+        assertFalse(buffer.isAtFullCapacity());
+        assertEquals(40, buffer.min());
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.sum());
+        buffer.add(-7);
+        assertEquals(-7, buffer.min());
+        assertEquals(-7, buffer.max());
+        assertThrows(IllegalArgumentException.class, () -> new CircularFifoLongBuffer(0));
+    }
+
+    @Test
+    public void testCopyTo() {
+        final CircularFifoLongBuffer buffer = new CircularFifoLongBuffer(4);
+        for (long value = 0; value < 6; value++) {
+            buffer.add(value);
+        }
+        final long[] array = new long[6];
+        assertEquals(4, buffer.copyTo(array, 1));
+        assertArrayEquals(new long[] {0, 2, 3, 4, 5, 0}, array);
+        assertArrayEquals(new long[] {2, 3, 4, 5}, buffer.toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.copyTo(array, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.copyTo(array, -1));
+        assertThrows(NullPointerException.class, () -> buffer.copyTo(null, 0));
+
+        final List<Long> values = new ArrayList<>();
+        buffer.forEach(values::add);
+        assertEquals(4, values.size());
+        assertEquals(Long.valueOf(2), values.get(0));
+        assertEquals(Long.valueOf(5), values.get(3));
+    }
+
+    @Test
+    public void testSumWrapsAround() {
+        final CircularFifoLongBuffer buffer = new CircularFifoLongBuffer(2);
+        buffer.add(Long.MAX_VALUE);
+        buffer.add(1);
+        assertEquals(Long.MIN_VALUE, buffer.sum());
+        buffer.add(2);
+        assertEquals(3, buffer.sum());
+    }
+
+    @Test
+    public void testRandomOperationsMatchCircularFifoQueue() {
+        final Random random = new Random(50);
+        for (final int size : new int[] {1, 2, 7, 64}) {
+            final CircularFifoLongBuffer buffer = new CircularFifoLongBuffer(size);
+            final CircularFifoQueue<Long> expected = new CircularFifoQueue<>(size);
+            for (int step = 0; step < 5000; step++) {
+                if (random.nextInt(4) == 0 && !expected.isEmpty()) {
+                    assertEquals(expected.remove().longValue(), buffer.remove());
+                } else {
+                    // few distinct values, so that equal values meet in the window
+                    final long value = random.nextInt(20) - 10;
+                    expected.add(value);
+                    buffer.add(value);
+                }
+                assertEquals(expected.size(), buffer.size());
+                if (!expected.isEmpty()) {
+                    long sum = 0;
+                    long min = Long.MAX_VALUE;
+                    long max = Long.MIN_VALUE;
+                    for (final Long value : expected) {
+                        sum += value;
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                    assertEquals(sum, buffer.sum());
+                    assertEquals(min, buffer.min());
+                    assertEquals(max, buffer.max());
+                    final int index = random.nextInt(expected.size());
+                    assertEquals(expected.get(index).longValue(), buffer.get(index));
+                }
+            }
+            assertEquals(expected.toString(), buffer.toString());
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for ConcurrentCircularFifoQueue.
+ */
+public class ConcurrentCircularFifoQueueTest<E> extends AbstractQueueTest<E> {
+
+    public ConcurrentCircularFifoQueueTest() {
+        super(ConcurrentCircularFifoQueueTest.class.getSimpleName());
+    }
+
+    /**
+     *  Runs through the regular verifications, but also verifies that
+     *  the buffer contains the same elements in the same sequence as the
+     *  list.
+     */
+    @Override
+    public void verify() {
+        super.verify();
+        final Iterator<E> iterator1 = getCollection().iterator();
+        for (final E e : getConfirmed()) {
+            assertTrue(iterator1.hasNext());
+            assertEquals(iterator1.next(), e);
+        }
+    }
+
+    @Override
+    public boolean isNullSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isFailFastSupported() {
+        return false;
+    }
+
+    @Override
+    public Collection<E> makeConfirmedCollection() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public Collection<E> makeConfirmedFullCollection() {
+        final Collection<E> c = makeConfirmedCollection();
+        c.addAll(Arrays.asList(getFullElements()));
+        return c;
+    }
+
+    /**
+     * Returns an empty queue that won't overflow.
+     */
+    @Override
+    public Queue<E> makeObject() {
+        return new ConcurrentCircularFifoQueue<>(100);
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOverwritesOldest() {
+        final ConcurrentCircularFifoQueue<E> queue = new ConcurrentCircularFifoQueue<>(3);
+        for (final String s : Arrays.asList("A", "B", "C", "D", "E")) {
+            queue.add((E) s);
+        }
+        assertEquals("[C, D, E]", queue.toString());
+        assertTrue(queue.isAtFullCapacity());
+        assertFalse(queue.isFull());
+        assertEquals(3, queue.maxSize());
+
+        assertTrue(queue.remove("D"));
+        assertEquals("[C, E]", queue.toString());
+        assertEquals(2, queue.size());
+        // the slot of the removed element is still taken
+        queue.add((E) "F");
+        assertEquals("[E, F]", queue.toString());
+        queue.add((E) "G");
+        assertEquals("[E, F, G]", queue.toString());
+        assertEquals("E", queue.peek());
+        assertEquals("E", queue.poll());
+        assertEquals("F", queue.poll());
+        assertEquals("G", queue.poll());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+        assertThrows(NullPointerException.class, () -> queue.add(null));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentCircularFifoQueue<E>(0));
+    }
+
+    @Test
+    public void testDrainTo() {
+        final ConcurrentCircularFifoQueue<Integer> queue = new ConcurrentCircularFifoQueue<>(10);
+        for (int i = 0; i < 25; i++) {
+            queue.add(i);
+        }
+        queue.remove(Integer.valueOf(17));
+        final List<Integer> drained = new ArrayList<>();
+        assertEquals(4, queue.drainTo(drained, 4));
+        assertEquals(Arrays.asList(15, 16, 18, 19), drained);
+        assertEquals(5, queue.drainTo(drained));
+        assertEquals(Arrays.asList(15, 16, 18, 19, 20, 21, 22, 23, 24), drained);
+        assertEquals(0, queue.drainTo(drained));
+        assertTrue(queue.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> queue.drainTo(queue));
+
+        queue.add(30);
+        queue.add(31);
+        assertEquals(Integer.valueOf(30), queue.poll());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testConcurrentProducersKeepOrder() throws Exception {
+        runConcurrentProducers(64, 50000);
+    }
+
+    @Test
+    public void testConcurrentProducersWithSizeOne() throws Exception {
+        runConcurrentProducers(1, 10000);
+    }
+
+    private void runConcurrentProducers(final int size, final int perProducer) throws Exception {
+        final ConcurrentCircularFifoQueue<Integer> queue = new ConcurrentCircularFifoQueue<>(size);
+        final int producers = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean producing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.offer(producer * perProducer + i);
+                    }
+                } catch (final Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        final List<Integer> drained = new ArrayList<>();
+        final Thread consumer = new Thread(() -> {
+            final List<Integer> batch = new ArrayList<>();
+            while (producing.get() || !queue.isEmpty()) {
+                if (queue.drainTo(batch, 16) == 0) {
+                    final Integer e = queue.poll();
+                    if (e != null) {
+                        batch.add(e);
+                    }
+                }
+                drained.addAll(batch);
+                batch.clear();
+            }
+        });
+        consumer.start();
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        producing.set(false);
+        consumer.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        // no element is seen twice, and each producer's elements come in order
+        final Set<Integer> seen = new HashSet<>();
+        final int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        for (final Integer e : drained) {
+            assertTrue(seen.add(e));
+            final int producer = e / perProducer;
+            assertTrue(e % perProducer > lastSeen[producer]);
+            lastSeen[producer] = e % perProducer;
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/data/test/ConcurrentCircularFifoQueue.emptyCollection.version4.5.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/data/test/ConcurrentCircularFifoQueue.fullCollection.version4.5.obj");
+//    }
+
+    @Override
+    public ConcurrentCircularFifoQueue<E> getCollection() {
+        return (ConcurrentCircularFifoQueue<E>) super.getCollection();
+    }
+
+}